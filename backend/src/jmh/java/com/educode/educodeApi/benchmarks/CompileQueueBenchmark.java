@@ -0,0 +1,48 @@
+package com.educode.educodeApi.benchmarks;
+
+import com.educode.educodeApi.services.CompileQueueService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бенчмарк очереди компиляции под конкуренцией: каждый поток ставит заявку, проверяет, получила ли она слот,
+ * узнаёт позицию и убирает заявку. Слотов меньше, чем потоков, поэтому часть заявок ждёт в очереди.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CompileQueueBenchmark {
+
+    @Param({"2", "16"})
+    public int slots;
+
+    private CompileQueueService queue;
+    private final AtomicLong ids = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        queue = new CompileQueueService(slots);
+    }
+
+    @Benchmark
+    public boolean addCheckRemove() {
+        Long id = ids.incrementAndGet();
+        queue.addToQueue(id);
+        boolean running = queue.isInTop(id);
+        queue.getPosition(id);
+        queue.removeFromQueue(id);
+        return running;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean addCheckRemoveUncontended() {
+        return addCheckRemove();
+    }
+}
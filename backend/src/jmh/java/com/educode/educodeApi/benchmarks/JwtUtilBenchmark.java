@@ -0,0 +1,59 @@
+package com.educode.educodeApi.benchmarks;
+
+import com.educode.educodeApi.enums.PermissionType;
+import com.educode.educodeApi.services.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк JwtUtil: подпись токена и разбор с проверкой подписи, как при каждом запросе в AuthRequestFilter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private List<String> permissions;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        // HS256 требует ключ не короче 256 бит; ключ передаётся в Base64, как jwt.secret
+        byte[] secret = new byte[64];
+        Arrays.fill(secret, (byte) 7);
+        ReflectionTestUtils.setField(jwtUtil, "secret", Base64.getEncoder().encodeToString(secret));
+
+        permissions = Arrays.stream(PermissionType.values()).map(PermissionType::asString).toList();
+        token = jwtUtil.generateToken("benchmark-user", 42L, "access-token-value", permissions);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken("benchmark-user", 42L, "access-token-value", permissions);
+    }
+
+    @Benchmark
+    public String parseUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public List<String> parsePermissions() {
+        return jwtUtil.extractPermissions(token);
+    }
+
+    @Benchmark
+    public String parseAccessTokenIgnoringExpiration() {
+        return jwtUtil.extractAccessToken(token, true);
+    }
+}
@@ -0,0 +1,94 @@
+package com.educode.educodeApi.benchmarks;
+
+import com.educode.educodeApi.DTO.puzzle.PuzzleDTO;
+import com.educode.educodeApi.DTO.user.UserDTO;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.mappers.PuzzleDataMapper;
+import com.educode.educodeApi.mappers.PuzzleMapper;
+import com.educode.educodeApi.mappers.SessionMapper;
+import com.educode.educodeApi.mappers.UserMapper;
+import com.educode.educodeApi.models.Checker;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.services.TestDataService;
+import com.educode.educodeApi.utils.StdOptional;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк маппинга сущностей в DTO: PuzzleMapper с тестами задачи и UserMapper со списком задач пользователя.
+ * Тесты хранятся в БД, а не в хранилище файлов, поэтому TestDataService не обращается к диску.
+ * Решения не маппятся: для них нужен DecisionMapper, который зависит от обоих мапперов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    // Количество тестов задачи и задач пользователя
+    @Param({"10", "100"})
+    public int count;
+
+    private PuzzleMapper puzzleMapper;
+    private UserMapper userMapper;
+    private Puzzle puzzle;
+    private Checker checker;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        puzzleMapper = new PuzzleMapper(new PuzzleDataMapper(new TestDataService()), null);
+        userMapper = new UserMapper(puzzleMapper, new SessionMapper(), null);
+
+        user = new User("Benchmark", "benchmark", "benchmark@example.com", "password");
+        user.setId(1L);
+        checker = new Checker(1L, user, "checker.py", 1024L, "python:3.12", "checker");
+        puzzle = puzzle(1L);
+
+        Set<Puzzle> puzzles = new HashSet<>();
+        for (long id = 1; id <= count; id++)
+            puzzles.add(puzzle(id));
+        user.setPuzzles(puzzles);
+    }
+
+    private Puzzle puzzle(long id) {
+        Set<PuzzleData> tests = new HashSet<>();
+        Puzzle result = new Puzzle(id, "Puzzle " + id, "Description", "Content", user, 1.0f, tests, 100.0f,
+                new HashSet<>(), checker, TaskType.NON_INTERACTIVE, true, true);
+        for (long t = 1; t <= count; t++)
+            tests.add(new PuzzleData(t, result, "input " + t, "output " + t, t % 5 == 0 ? 0.0f : 10.0f));
+        return result;
+    }
+
+    @Benchmark
+    public PuzzleDTO puzzleFull() {
+        return puzzleMapper.toDTO(puzzle, checker, false);
+    }
+
+    @Benchmark
+    public PuzzleDTO puzzleFiltered() {
+        return puzzleMapper.toDTO(puzzle);
+    }
+
+    @Benchmark
+    public PuzzleDTO puzzleMin() {
+        return puzzleMapper.toMinDTO(puzzle);
+    }
+
+    @Benchmark
+    public UserDTO userMin() {
+        return userMapper.toMinViewDTO(user);
+    }
+
+    @Benchmark
+    public UserDTO userWithPuzzles() {
+        return userMapper.toMaxViewDTO(user, StdOptional.ofEmptyList(), StdOptional.ofEmptyList(), StdOptional.empty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.educode.educodeApi.benchmarks;
+
+import com.educode.educodeApi.utils.DeflateCodec;
+import com.educode.educodeApi.utils.StreamingOutputComparator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк сравнения вывода: точное и потокенное сравнение с ожидаемым выводом в буфере (как у несжатых файлов хранилища),
+ * сравнение с распаковываемым на лету потоком (сжатые файлы) и ранняя остановка на первом расхождении.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputCompareBenchmark {
+
+    private static final int MAX_EXTRA_BYTES = 4096;
+
+    // Размер ожидаемого вывода в байтах
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private ByteBuffer expected;
+    private byte[] deflated;
+    private byte[] actual;
+    private byte[] actualWithSpaces;
+    private byte[] actualMismatchAtStart;
+
+    @Setup
+    public void setUp() {
+        StringBuilder output = new StringBuilder(size);
+        for (int i = 0; output.length() < size; i++)
+            output.append(i).append(i % 10 == 9 ? '\n' : ' ');
+        String text = output.substring(0, size);
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        expected = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        deflated = new DeflateCodec(1).compress(bytes);
+        actual = bytes.clone();
+        actualWithSpaces = text.replace("\n", " \n").getBytes(StandardCharsets.UTF_8);
+        actualMismatchAtStart = bytes.clone();
+        actualMismatchAtStart[0] = (byte) 'x';
+    }
+
+    @Benchmark
+    public boolean exactMatch() throws IOException {
+        return compare(new StreamingOutputComparator(expected, false, MAX_EXTRA_BYTES), actual);
+    }
+
+    @Benchmark
+    public boolean tokenMatch() throws IOException {
+        return compare(new StreamingOutputComparator(expected, true, MAX_EXTRA_BYTES), actualWithSpaces);
+    }
+
+    @Benchmark
+    public boolean exactMismatchAtStart() throws IOException {
+        return compare(new StreamingOutputComparator(expected, false, MAX_EXTRA_BYTES), actualMismatchAtStart);
+    }
+
+    @Benchmark
+    public boolean exactMatchCompressed() throws IOException {
+        return compare(new StreamingOutputComparator(DeflateCodec.decompressing(new ByteArrayInputStream(deflated)), size, false, MAX_EXTRA_BYTES), actual);
+    }
+
+    @Benchmark
+    public boolean stringEquals() {
+        // Базовая линия: сравнение строк целиком, как до потокового сравнения
+        return new String(actual, StandardCharsets.UTF_8).equals(StandardCharsets.UTF_8.decode(expected.duplicate()).toString());
+    }
+
+    private static boolean compare(StreamingOutputComparator comparator, byte[] output) throws IOException {
+        try (comparator) {
+            comparator.handle(new ByteArrayInputStream(output));
+            return comparator.matches();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.educode.educodeApi.benchmarks;
+
+import com.educode.educodeApi.enums.CodeEnum;
+import com.educode.educodeApi.enums.PermissionType;
+import com.educode.educodeApi.enums.RoleScope;
+import com.educode.educodeApi.models.Role;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.security.MyUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк разрешения прав: PermissionType.fromCode (чтение кодов из БД), обобщённый CodeEnum.fromCode
+ * и проверки прав пользователя с несколькими ролями, включая сборку authorities для Spring Security.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionBenchmark {
+
+    private Integer[] codes;
+    private User user;
+    private Set<PermissionType> required;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        codes = Arrays.stream(PermissionType.values()).map(PermissionType::getCode).toArray(Integer[]::new);
+
+        PermissionType[] all = PermissionType.values();
+        Set<Role> roles = new HashSet<>();
+        roles.add(new Role("student", null, Set.of(PermissionType.SUBMIT_DECISIONS, PermissionType.VIEW_NODE_PUZZLES), 1L, RoleScope.GROUP));
+        roles.add(new Role("teacher", null, Set.copyOf(Arrays.asList(all).subList(0, all.length / 2)), 2L, RoleScope.NODE));
+        roles.add(new Role("admin", null, Set.of(all), 3L, RoleScope.GLOBAL));
+        user = new User("Benchmark", "benchmark", "benchmark@example.com", "password");
+        user.setRoles(roles);
+
+        required = Set.of(PermissionType.CREATE_PUZZLES, PermissionType.PUBLISH_PUZZLE, PermissionType.VIEW_HOMEWORK_DECISIONS_CODE);
+    }
+
+    private Integer nextCode() {
+        next = (next + 1) % codes.length;
+        return codes[next];
+    }
+
+    @Benchmark
+    public PermissionType fromCode() {
+        return PermissionType.fromCode(nextCode());
+    }
+
+    @Benchmark
+    public PermissionType genericFromCode() {
+        return CodeEnum.fromCode(PermissionType.class, nextCode());
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return user.hasPermission(PermissionType.VIEW_HOMEWORK_DECISIONS_CODE);
+    }
+
+    @Benchmark
+    public boolean hasPermissions() {
+        return user.hasPermissions(required);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> authorities() {
+        return new MyUserDetails(user).getAuthorities();
+    }
+}
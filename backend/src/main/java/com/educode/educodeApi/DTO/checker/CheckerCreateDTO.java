@@ -8,6 +8,8 @@ public record CheckerCreateDTO(
         @Size(min = 1, max = 100, message = "Довжина назви має бути не менше 1 та не більше 100 символів")
         String name,
         @NotNull
-        String languageId
+        String languageId,
+        // Постійний режим checker'а; якщо не передано - звичайний запуск на кожен тест
+        Boolean persistent
 ) {
 }
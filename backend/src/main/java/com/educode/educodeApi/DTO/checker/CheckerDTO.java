@@ -1,4 +1,4 @@
 package com.educode.educodeApi.DTO.checker;
 
-public record CheckerDTO(String path, String logPath, String lang, String langVersion) {
+public record CheckerDTO(String path, String logPath, String lang, String langVersion, boolean persistent) {
 }
@@ -4,5 +4,5 @@ import com.educode.educodeApi.DTO.puzzle.PuzzleDTO;
 
 import java.util.List;
 
-public record CheckerDetailDTO(Long id, String language, String name, Long size, List<PuzzleDTO> puzzles) {
+public record CheckerDetailDTO(Long id, String language, String name, Long size, boolean persistent, List<PuzzleDTO> puzzles) {
 }
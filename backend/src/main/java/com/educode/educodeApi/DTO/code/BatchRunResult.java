@@ -0,0 +1,46 @@
+package com.educode.educodeApi.DTO.code;
+
+/**
+ * Результат одного тесту пакетного запуску (batch_runner.sh)
+ * @param index номер тесту в пакеті
+ * @param exitCode код завершення програми
+ * @param timeMs час виконання в мілісекундах
+ * @param limit який ліміт перевищив тест
+ * @param output stdout програми, якщо exitCode == 0 і ліміт не перевищено, інакше stderr
+ * @param truncated вивід довший за ліміт тесту, і output містить лише його початок
+ */
+public record BatchRunResult(int index, int exitCode, long timeMs, Limit limit, String output, boolean truncated) {
+    public BatchRunResult(int index, int exitCode, long timeMs, String output) {
+        this(index, exitCode, timeMs, Limit.NONE, output, false);
+    }
+
+    /**
+     * Ліміт, перевищений тестом; batch_runner.sh передає його ознакою в заголовку кадру
+     */
+    public enum Limit {
+        NONE("-"),
+        TIME("T"),
+        OUTPUT("O");
+
+        private final String flag;
+
+        Limit(String flag) {
+            this.flag = flag;
+        }
+
+        public String getFlag() {
+            return flag;
+        }
+
+        /**
+         * @return ліміт за ознакою або null, якщо ознака невідома
+         */
+        public static Limit fromFlag(String flag) {
+            for (Limit limit : values()) {
+                if (limit.flag.equals(flag))
+                    return limit;
+            }
+            return null;
+        }
+    }
+}
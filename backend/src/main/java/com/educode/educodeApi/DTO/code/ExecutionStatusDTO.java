@@ -0,0 +1,16 @@
+package com.educode.educodeApi.DTO.code;
+
+import com.educode.educodeApi.enums.ExecutionStatus;
+
+import java.util.Map;
+
+/**
+ * Стан асинхронного виконання коду
+ * @param executionId ідентифікатор виконання
+ * @param status стан виконання
+ * @param position позиція в черзі (0 якщо виконання вже отримало слот)
+ * @param httpStatus код відповіді, який повернув би синхронний /execute, або null до завершення
+ * @param result тіло відповіді синхронного /execute (output або message), або null до завершення
+ */
+public record ExecutionStatusDTO(String executionId, ExecutionStatus status, long position, Integer httpStatus, Map<String, Object> result) {
+}
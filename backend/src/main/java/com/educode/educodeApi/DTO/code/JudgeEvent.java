@@ -0,0 +1,27 @@
+package com.educode.educodeApi.DTO.code;
+
+/**
+ * Подія перевірки, яку воркер надсилає вузлу API для клієнта рішення
+ * @param decisionId ідентифікатор рішення
+ * @param type тип події
+ * @param text текст повідомлення (MESSAGE) або помилки (ERROR), для інших подій null
+ * @param progress типізована подія для клієнта (PROGRESS), для інших подій null
+ */
+public record JudgeEvent(Long decisionId, Type type, String text, JudgeProgressEvent progress) {
+    public JudgeEvent(Long decisionId, Type type, String text) {
+        this(decisionId, type, text, null);
+    }
+
+    public enum Type {
+        // Повідомлення для клієнта
+        MESSAGE,
+        // Типізована подія для клієнта
+        PROGRESS,
+        // Перевірку завершено
+        COMPLETE,
+        // Перевірку завершено з помилкою
+        ERROR,
+        // Воркер ще перевіряє рішення
+        HEARTBEAT
+    }
+}
@@ -0,0 +1,8 @@
+package com.educode.educodeApi.DTO.code;
+
+/**
+ * Завдання перевірки, яке вузол API видає воркеру. Рішення, тести та checker воркер читає зі спільної бази сам.
+ * @param decisionId ідентифікатор рішення
+ */
+public record JudgeJob(Long decisionId) {
+}
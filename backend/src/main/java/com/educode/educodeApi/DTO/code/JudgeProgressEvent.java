@@ -0,0 +1,160 @@
+package com.educode.educodeApi.DTO.code;
+
+import com.educode.educodeApi.utils.DoubleUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Типізована подія ходу перевірки рішення (протокол SSE версії 2). У JSON потрапляють лише поля, заповнені для типу події.
+ * Для протоколу версії 1 подія перетворюється на текстові повідомлення (legacyMessages()), такі самі, як раніше.
+ * @param type тип події
+ * @param position QUEUED: кількість рішень попереду + 1
+ * @param etaSeconds QUEUED: оцінка часу до результату
+ * @param test TEST_RESULT: номер тесту, з 1
+ * @param verdict TEST_RESULT: результат тесту
+ * @param percent TEST_RESULT: оцінка checker'а у відсотках, якщо тест перевіряв checker
+ * @param message TEST_RESULT: повідомлення checker'а чи опис помилки; MESSAGE: текст повідомлення
+ * @param passed SUMMARY: кількість пройдених тестів
+ * @param partial SUMMARY: кількість частково пройдених тестів
+ * @param skipped SUMMARY: кількість тестів, пропущених після першого непройденого
+ * @param total SUMMARY: кількість тестів задачі
+ * @param score RATING: загальна оцінка рішення
+ * @param maxScore RATING: максимальна оцінка задачі
+ * @param added RATING: скільки додано до рейтингу, 0 - рейтинг не змінився
+ * @param rating RATING: новий рейтинг, якщо його змінено
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JudgeProgressEvent(
+        Type type,
+        Long position,
+        Long etaSeconds,
+        Integer test,
+        Verdict verdict,
+        Double percent,
+        String message,
+        Integer passed,
+        Integer partial,
+        Integer skipped,
+        Integer total,
+        Float score,
+        Float maxScore,
+        Integer added,
+        Integer rating
+) {
+    public enum Type {
+        QUEUED("queued"),
+        COMPILING("compiling"),
+        TEST_RESULT("test_result"),
+        SUMMARY("summary"),
+        RATING("rating"),
+        // Повідомлення, що не має окремого типу (помилка сервера, повідомлення checker'а інтерактивної задачі)
+        MESSAGE("message");
+
+        private final String code;
+
+        Type(String code) {
+            this.code = code;
+        }
+
+        @JsonValue
+        public String getCode() {
+            return code;
+        }
+    }
+
+    public enum Verdict {
+        PASSED("passed"),
+        FAILED("failed"),
+        // Checker зарахував частину балів тесту
+        PARTIAL("partial"),
+        // Програма чи checker не виконались; опис у message
+        ERROR("error");
+
+        private final String code;
+
+        Verdict(String code) {
+            this.code = code;
+        }
+
+        @JsonValue
+        public String getCode() {
+            return code;
+        }
+    }
+
+    public static JudgeProgressEvent queued(long position, long etaSeconds) {
+        return new JudgeProgressEvent(Type.QUEUED, position, etaSeconds, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    public static JudgeProgressEvent compiling() {
+        return new JudgeProgressEvent(Type.COMPILING, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @param percent оцінка checker'а у відсотках або null
+     * @param message повідомлення checker'а, опис помилки або null
+     */
+    public static JudgeProgressEvent testResult(int test, Verdict verdict, Double percent, String message) {
+        return new JudgeProgressEvent(Type.TEST_RESULT, null, null, test, verdict, percent, message, null, null, null, null, null, null, null, null);
+    }
+
+    public static JudgeProgressEvent summary(int passed, int partial, int skipped, int total) {
+        return new JudgeProgressEvent(Type.SUMMARY, null, null, null, null, null, null, passed, partial, skipped, total, null, null, null, null);
+    }
+
+    /**
+     * @param added скільки додано до рейтингу
+     * @param rating новий рейтинг або null, якщо рейтинг не змінився
+     */
+    public static JudgeProgressEvent rating(float score, float maxScore, int added, Integer rating) {
+        return new JudgeProgressEvent(Type.RATING, null, null, null, null, null, null, null, null, null, null, score, maxScore, added, rating);
+    }
+
+    public static JudgeProgressEvent message(String text) {
+        return new JudgeProgressEvent(Type.MESSAGE, null, null, null, null, null, text, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Повертає текстові повідомлення протоколу версії 1 для цієї події
+     * @return повідомлення; порожній список, якщо у версії 1 такої події не було
+     */
+    @JsonIgnore
+    public List<String> legacyMessages() {
+        List<String> messages = new ArrayList<>();
+        switch (type) {
+            case TEST_RESULT -> {
+                switch (verdict) {
+                    case PASSED -> messages.add("Test #" + test + " пройдено");
+                    case ERROR -> messages.add("Test #" + test + " не пройдено" + (message != null ? ". " + message : ", через несподівану помилку"));
+                    default -> messages.add("Test #" + test + " не пройдено" + (percent != null ? " (" + DoubleUtils.format(percent, 2) + "%)" : ""));
+                }
+                if (verdict != Verdict.ERROR && message != null && !message.isBlank())
+                    messages.add("Повідомлення від викладача: " + message);
+            }
+            case SUMMARY -> {
+                if (passed > 0 || partial == 0)
+                    messages.add("Тести пройдено: " + passed + "/" + total);
+                if (partial > 0)
+                    messages.add("Тести пройдено частково: " + partial + "/" + total);
+                if (skipped > 0)
+                    messages.add("Тести пропущено після першого непройденого: " + skipped + "/" + total);
+            }
+            case RATING -> {
+                messages.add("Загальна оцінка: " + DoubleUtils.format(score, 1) + "/" + DoubleUtils.format(maxScore, 1));
+                if (added > 0) {
+                    messages.add("До рейтингу додано: " + added);
+                    messages.add("Новий рейтинг: " + rating);
+                }
+            }
+            case MESSAGE -> messages.add(message);
+            default -> {
+                // QUEUED надсилається окремою подією "queue", COMPILING у версії 1 не було
+            }
+        }
+        return messages;
+    }
+}
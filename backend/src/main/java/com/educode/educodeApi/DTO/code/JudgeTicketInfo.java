@@ -0,0 +1,26 @@
+package com.educode.educodeApi.DTO.code;
+
+import com.educode.educodeApi.enums.JudgePriority;
+
+/**
+ * Дані, за якими черга перевірки розподіляє слоти: автор рішення, вузол-орендар та пріоритет.
+ * @param userId автор рішення; рішення одного автора обслуговуються по черзі з рішеннями інших
+ * @param tenantId TreeNode, від імені якого відправлено рішення, або null
+ * @param tenantShare частка слотів (0..1], яку може зайняти орендар, або null для значення за замовчуванням
+ * @param priority клас пріоритету
+ */
+public record JudgeTicketInfo(Long userId, Long tenantId, Float tenantShare, JudgePriority priority) {
+    public static JudgeTicketInfo anonymous(Long id) {
+        return new JudgeTicketInfo(id, null, null, JudgePriority.NORMAL);
+    }
+
+    /**
+     * Обчислює, скільки слотів може одночасно зайняти орендар
+     * @param maxSlots загальна кількість слотів
+     * @param share частка орендаря
+     * @return кількість слотів, не менше одного
+     */
+    public static int tenantSlotCap(int maxSlots, float share) {
+        return Math.max(1, (int) Math.ceil(share * maxSlots));
+    }
+}
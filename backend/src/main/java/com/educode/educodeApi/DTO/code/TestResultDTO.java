@@ -0,0 +1,15 @@
+package com.educode.educodeApi.DTO.code;
+
+import com.educode.educodeApi.enums.TestVerdict;
+
+/**
+ * Результат одного тесту рішення для викладачів і моніторингу
+ * @param test номер тесту, починаючи з 1
+ * @param puzzleDataId ідентифікатор тесту задачі
+ * @param timeMs час виконання в мілісекундах або null
+ * @param memoryKb пікова пам'ять у кілобайтах або null
+ * @param outputBytes розмір виводу в байтах або null
+ */
+public record TestResultDTO(int test, Long puzzleDataId, TestVerdict verdict, Float score, Long timeMs, Long memoryKb,
+                            Integer exitCode, Long outputBytes) {
+}
@@ -1,5 +1,6 @@
 package com.educode.educodeApi.DTO.puzzle;
 
+import com.educode.educodeApi.enums.JudgingPolicy;
 import com.educode.educodeApi.enums.TaskType;
 import com.educode.educodeApi.enums.converters.TaskTypeConverter;
 import jakarta.persistence.Convert;
@@ -56,6 +57,10 @@ public class PuzzleCreateDTO {
     @Convert(converter = TaskTypeConverter.class)
     private TaskType taskType = TaskType.NON_INTERACTIVE;
 
+    // Політика перевірки
+    @NotNull
+    private JudgingPolicy judgingPolicy = JudgingPolicy.FULL_REPORT;
+
     @NotNull
     private Boolean visible;
 
@@ -147,6 +152,14 @@ public class PuzzleCreateDTO {
         this.taskType = taskType;
     }
 
+    public JudgingPolicy getJudgingPolicy() {
+        return judgingPolicy;
+    }
+
+    public void setJudgingPolicy(JudgingPolicy judgingPolicy) {
+        this.judgingPolicy = judgingPolicy;
+    }
+
     public Boolean getVisible() {
         return visible;
     }
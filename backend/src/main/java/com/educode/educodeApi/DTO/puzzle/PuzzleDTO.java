@@ -1,6 +1,7 @@
 package com.educode.educodeApi.DTO.puzzle;
 
 import com.educode.educodeApi.DTO.DecisionDTO;
+import com.educode.educodeApi.enums.JudgingPolicy;
 import com.educode.educodeApi.enums.TaskType;
 import com.educode.educodeApi.enums.converters.TaskTypeConverter;
 import jakarta.persistence.Convert;
@@ -43,6 +44,9 @@ public class PuzzleDTO {
     @Convert(converter = TaskTypeConverter.class)
     private TaskType taskType = TaskType.NON_INTERACTIVE;
 
+    // Політика перевірки
+    private JudgingPolicy judgingPolicy = JudgingPolicy.FULL_REPORT;
+
     private Boolean visible;
 
     /**
@@ -196,6 +200,14 @@ public class PuzzleDTO {
         this.checkerId = checkerId;
     }
 
+    public JudgingPolicy getJudgingPolicy() {
+        return judgingPolicy;
+    }
+
+    public void setJudgingPolicy(JudgingPolicy judgingPolicy) {
+        this.judgingPolicy = judgingPolicy;
+    }
+
     public TaskType getTaskType() {
         return taskType;
     }
@@ -0,0 +1,33 @@
+package com.educode.educodeApi.DTO.puzzle;
+
+import java.util.List;
+
+/**
+ * Статистика виконання тестів задачі за збереженими результатами перевірених рішень:
+ * допомагає знайти повільні тести, підібрати ліміт часу і рішення, що виконуються впритул до нього
+ * @param timeLimitMs поточний ліміт часу задачі
+ * @param nearLimitMs поріг, з якого запуск вважається близьким до ліміту
+ * @param tests статистика кожного поточного тесту, для якого є результати
+ * @param slowDecisions найповільніші рішення з запуском, не коротшим за nearLimitMs
+ */
+public record PuzzleTestStatsDTO(Long puzzleId, long timeLimitMs, long nearLimitMs, List<TestStats> tests, List<SlowDecision> slowDecisions) {
+
+    /**
+     * @param runs кількість збережених запусків тесту
+     * @param avgTimeMs середній час запусків, для яких час відомий
+     * @param nearLimit скільки запусків тривали не менше nearLimitMs
+     * @param timeLimitExceeded скільки запусків перевищили ліміт часу
+     * @param runtimeErrors скільки запусків завершились помилкою
+     * @param passed скільки запусків пройшли тест
+     * @param maxOutputBytes найбільший відомий розмір виводу
+     */
+    public record TestStats(Long puzzleDataId, Long runs, Double avgTimeMs, Long maxTimeMs, Long nearLimit, Long timeLimitExceeded,
+                            Long runtimeErrors, Long passed, Long maxOutputBytes) {
+    }
+
+    /**
+     * @param maxTimeMs найдовший запуск рішення на поточних тестах
+     */
+    public record SlowDecision(Long decisionId, Long maxTimeMs) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.educode.educodeApi.DTO.puzzle;
 
+import com.educode.educodeApi.enums.JudgingPolicy;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
@@ -45,6 +46,9 @@ public class PuzzleUpdateDTO {
     @NotNull
     private Boolean visible;
 
+    // Політика перевірки; null - залишити без змін
+    private JudgingPolicy judgingPolicy;
+
     public String getTitle() {
         return title;
     }
@@ -101,6 +105,14 @@ public class PuzzleUpdateDTO {
         this.checkerId = checkerId;
     }
 
+    public JudgingPolicy getJudgingPolicy() {
+        return judgingPolicy;
+    }
+
+    public void setJudgingPolicy(JudgingPolicy judgingPolicy) {
+        this.judgingPolicy = judgingPolicy;
+    }
+
     public Boolean getVisible() {
         return visible;
     }
@@ -0,0 +1,18 @@
+package com.educode.educodeApi.DTO.puzzle;
+
+import com.educode.educodeApi.enums.RejudgeStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Хід повторної перевірки рішень задачі
+ * @param total кількість перевірених рішень задачі на момент запуску
+ * @param processed скільки рішень переглянуто
+ * @param queued скільки з них поставлено на повторну перевірку
+ * @param skipped скільки пропущено, бо вони вже перевірені на поточних тестах і checker'і
+ * @param inFlight скільки рішень поточної партії ще перевіряється
+ * @param ratingChanges скільки авторів отримали зміну рейтингу
+ */
+public record RejudgeJobDTO(Long id, Long puzzleId, RejudgeStatus status, int total, int processed, int queued, int skipped,
+                            long inFlight, int ratingChanges, LocalDateTime createdAt, LocalDateTime finishedAt) {
+}
@@ -0,0 +1,14 @@
+package com.educode.educodeApi.DTO.treenode;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+
+/**
+ * DTO для зміни частки слотів перевірки вузла дерева
+ * @param share частка (0..1] або null, щоб повернути значення за замовчуванням
+ */
+public record JudgeSlotShareDTO(
+        @DecimalMin(value = "0", inclusive = false, message = "Частка слотів перевірки має бути більшою за 0")
+        @DecimalMax(value = "1", message = "Частка слотів перевірки не може бути більшою за 1")
+        Float share
+) {}
@@ -4,6 +4,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -11,6 +12,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableJpaRepositories(basePackages = "com.educode.educodeApi.repositories") // Вказує на пакети, де знаходяться JPA репозиторії
 @EntityScan(basePackages = "com.educode.educodeApi.models") // Вказує на пакети, де знаходяться JPA моделі
 @EnableAsync
+@EnableScheduling
 public class WebConfig implements WebMvcConfigurer {
 
     @Override
@@ -18,6 +18,8 @@ import com.educode.educodeApi.models.User;
 import com.educode.educodeApi.repositories.CheckerRepository;
 import com.educode.educodeApi.services.CheckerService;
 import com.educode.educodeApi.services.ProgrammingLanguageService;
+import com.educode.educodeApi.services.RejudgeService;
+import com.educode.educodeApi.services.VerdictCacheService;
 import com.educode.educodeApi.services.UserService;
 import com.educode.educodeApi.utils.LogDescriptor;
 import com.educode.educodeApi.utils.PaginationUtils;
@@ -55,13 +57,18 @@ public class CheckerController {
     private final CheckerService checkerService;
     private final CheckerRepository checkerRepository;
     private final ProgrammingLanguageService programmingLanguageService;
+    private final RejudgeService rejudgeService;
+    private final VerdictCacheService verdictCacheService;
 
-    public CheckerController(UserService userService, CheckerMapper checkerMapper, CheckerService checkerService, CheckerRepository checkerRepository, ProgrammingLanguageService programmingLanguageService) {
+    public CheckerController(UserService userService, CheckerMapper checkerMapper, CheckerService checkerService, CheckerRepository checkerRepository,
+                             ProgrammingLanguageService programmingLanguageService, RejudgeService rejudgeService, VerdictCacheService verdictCacheService) {
         this.userService = userService;
         this.checkerMapper = checkerMapper;
         this.checkerService = checkerService;
         this.checkerRepository = checkerRepository;
         this.programmingLanguageService = programmingLanguageService;
+        this.rejudgeService = rejudgeService;
+        this.verdictCacheService = verdictCacheService;
     }
 
     private static final Logger log = LoggerFactory.getLogger(CheckerController.class);
@@ -221,7 +228,7 @@ public class CheckerController {
         if (authUser == null)
             throw new UnauthorizedError("Ви маєте бути авторизовані");
 
-        Checker checker = checkerService.findById(id);
+        Checker checker = checkerService.findById(id, Set.of(CheckerInclude.PUZZLES));
 
         if (checker == null)
             throw new BadRequestError("Checker за таким id не знайдено");
@@ -234,9 +241,14 @@ public class CheckerController {
             ));
         }
 
+        String checkerVersion = verdictCacheService.checkerHash(checker);
         Path compiledFilePath = checkerService.validateChecker(authUser, checkerUpdateDTO, file, checker);
         checkerService.updateChecker(checker, checkerUpdateDTO, compiledFilePath);
 
+        // Новий checker може змінити оцінки вже перевірених рішень
+        if (!Objects.equals(checkerVersion, verdictCacheService.checkerHash(checker)))
+            checker.getPuzzles().forEach(puzzle -> rejudgeService.onPuzzleChanged(puzzle.getId()));
+
         return ResponseEntity.ok(Map.of("success", "Checker успішно змінено"));
     }
 
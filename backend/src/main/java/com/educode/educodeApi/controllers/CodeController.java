@@ -1,23 +1,18 @@
 package com.educode.educodeApi.controllers;
 
-import com.educode.educodeApi.DTO.checker.CheckerDTO;
 import com.educode.educodeApi.DTO.code.CodeExecuteDTO;
 import com.educode.educodeApi.DTO.code.CodeTestDTO;
-import com.educode.educodeApi.DTO.code.InteractiveResult;
+import com.educode.educodeApi.DTO.code.ExecutionStatusDTO;
 import com.educode.educodeApi.enums.PermissionType;
-import com.educode.educodeApi.enums.TaskType;
 import com.educode.educodeApi.exceptions.*;
+import com.educode.educodeApi.interfaces.JudgeReporter;
 import com.educode.educodeApi.lazyinit.HomeworkInclude;
 import com.educode.educodeApi.lazyinit.PuzzleInclude;
-import com.educode.educodeApi.mappers.CheckerMapper;
 import com.educode.educodeApi.models.*;
-import com.educode.educodeApi.properties.ContainerProperties;
 import com.educode.educodeApi.repositories.DecisionRepository;
 import com.educode.educodeApi.repositories.PuzzleDataRepository;
 import com.educode.educodeApi.repositories.PuzzleRepository;
-import com.educode.educodeApi.repositories.UserRepository;
 import com.educode.educodeApi.services.*;
-import com.educode.educodeApi.utils.DoubleUtils;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.validation.Valid;
@@ -26,19 +21,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.data.util.Pair;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Контролер для управління кодом та виконанням тестів
@@ -58,31 +49,28 @@ public class CodeController {
     // Репозиторій для роботи з даними задач
     @Autowired
     private PuzzleDataRepository puzzleDataRepository;
-    // Репозиторій для роботи з користувачами
-    @Autowired
-    private UserRepository userRepository;
-    // Сервіс для виконання коду
-    @Autowired
-    private ContainerExecutionService containerExecutionService;
     // Репозиторій для роботи з рішеннями
     @Autowired
     private DecisionRepository decisionRepository;
-    // Сервіс для роботи з чергою компіляції
+    // Сервіс персистентної черги перевірки рішень
     @Autowired
-    private CompileQueueService compileQueueService;
-    // Сервіс для виконання завдань
+    private JudgeQueueService judgeQueueService;
+    // Сервіс асинхронного виконання коду
     @Autowired
-    private TaskExecutor taskExecutor;
-    @PersistenceContext
-    private EntityManager entityManager;
+    private ExecutionService executionService;
+    // Сервіс перевірки рішень, що відтворює збережені результати
     @Autowired
-    private PuzzleService puzzleService;
+    private JudgeService judgeService;
     @Autowired
-    private ContainerProperties containerProperties;
+    private AdmissionService admissionService;
     @Autowired
-    private CheckerMapper checkerMapper;
+    private CompressionService compressionService;
     @Autowired
-    private ContainerExceptionMapper containerExceptionMapper;
+    private JudgeStreamService judgeStreamService;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private PuzzleService puzzleService;
     @Autowired
     private ApplicationEventPublisher eventPublisher;
     @Autowired
@@ -93,65 +81,70 @@ public class CodeController {
     private TreeNodeHierarchyService treeNodeHierarchyService;
 
     /**
-      * Виконує код, надісланий користувачем
+      * Виконує код, надісланий користувачем.
+      * Потік запиту не чекає на чергу: відповідь завершується асинхронно, коли код виконано
       *
       * @param codeExecuteDTO DTO об'єкт, що містить код для виконання, мову програмування та вхідні дані
-      * @return ResponseEntity з результатами виконання коду
+      * @return CompletableFuture з ResponseEntity з результатами виконання коду
       *         - У разі успіху повертає вихідні дані програми
       *         - У разі помилки повертає відповідне повідомлення про помилку
       *         - Код відповіді 401 якщо користувач не авторизований
       *         - Код відповіді 422 якщо мова програмування не підтримується
+      *         - Код відповіді 429 з Retry-After якщо сервер перевантажено
       *         - Код відповіді 500 у випадку внутрішньої помилки сервера
       */
     @PostMapping("/execute")
-    public ResponseEntity<Map<String, Object>> executeCode(@RequestBody @Valid CodeExecuteDTO codeExecuteDTO) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> executeCode(@RequestBody @Valid CodeExecuteDTO codeExecuteDTO) {
         // Перевіряємо чи користувач авторизований
         if (!userService.isAuth()) {
-            return ResponseEntity.status(401).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).build());
         }
 
-        Map<String, Object> response = new HashMap<>();
+        ExecutionService.Execution execution = executionService.submit(userService.getAuthUser(), codeExecuteDTO);
+        return execution.getCompletion().thenApply(done -> ResponseEntity.status(done.getHttpStatus()).body(done.getBody()));
+    }
 
-        // Генеруємо унікальний ідентифікатор для виконання
-        Long executionId = new Random().nextLong();
+    /**
+      * Ставить код у чергу виконання та одразу повертає ідентифікатор виконання
+      *
+      * @param codeExecuteDTO DTO об'єкт, що містить код для виконання, мову програмування та вхідні дані
+      * @return ResponseEntity з executionId, за яким результат можна отримати через /execute/{executionId}
+      *         або /execute/{executionId}/stream на тому самому вузлі API
+      *         - Код відповіді 429 з Retry-After якщо сервер перевантажено
+      */
+    @PostMapping("/execute-async")
+    public ResponseEntity<Map<String, Object>> executeCodeAsync(@RequestBody @Valid CodeExecuteDTO codeExecuteDTO) {
+        User user = userService.getAuthUserElseThrow();
 
-        // Додаємо ідентифікатор до черги компіляції
-        compileQueueService.addToQueue(executionId);
+        ExecutionService.Execution execution = executionService.submit(user, codeExecuteDTO);
+        return ResponseEntity.accepted().body(Map.of("executionId", execution.getId()));
+    }
 
-        try {
-            // Очікуємо поки звільниться місце в черзі
-            compileQueueService.waitForQueue(executionId);
-        } catch (InterruptedException e) {
-            // Видаляємо ідентифікатор з черги у випадку перевищення часу очікування
-            compileQueueService.removeFromQueue(executionId);
-            response.put("error", "Вихід за межі часу очікування");
-            return ResponseEntity.ok(response);
-        }
+    /**
+      * Повертає стан асинхронного виконання
+      *
+      * @param executionId ідентифікатор виконання
+      * @return ResponseEntity зі станом, позицією в черзі та результатом, якщо виконання завершилось
+      *         - Код відповіді 404 якщо виконання не знайдено або його результат вже видалено
+      */
+    @GetMapping("/execute/{executionId}")
+    public ResponseEntity<ExecutionStatusDTO> getExecution(@PathVariable String executionId) {
+        User user = userService.getAuthUserElseThrow();
 
-        String output = null;
-        try {
-            // Розділяємо мову програмування та версію
-            String[] spVals = codeExecuteDTO.getLanguage().split(":");
-            // Виконуємо код з обмеженнями пам'яті (256 МБ) та часу (5 секунд)
-            output = containerExecutionService.runCode(spVals[0], spVals[1], codeExecuteDTO.getCode(), codeExecuteDTO.getInput(), containerProperties.getMemoryLimit(), containerProperties.getTimeLimit());
-        } catch (ContainerException e) {
-            var mapping = containerExceptionMapper.map(e);
-            response.putAll(mapping.body());
-            log.warn(e.getLogTemplate(), e.getLogArgs());
-            return ResponseEntity.status(mapping.status()).body(response);
-        } catch (Exception e) {
-            // Обробка непередбачених помилок
-            response.put("message", "Несподівана помилка");
-            return ResponseEntity.status(500).body(response);
-        } finally {
-            // Видаляємо завдання з черги після завершення
-            compileQueueService.removeFromQueue(executionId);
-        }
+        return ResponseEntity.ok(executionService.getStatus(executionService.get(executionId, user)));
+    }
 
-        // Додаємо результат виконання до відповіді, якщо він ще не був доданий
-        if (!response.containsKey("output"))
-            response.put("output", output);
-        return ResponseEntity.ok(response);
+    /**
+      * Надсилає стан асинхронного виконання через SSE: подію status одразу та подію result після завершення
+      *
+      * @param executionId ідентифікатор виконання
+      * @return SseEmitter з подіями виконання
+      */
+    @GetMapping(value = "/execute/{executionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamExecution(@PathVariable String executionId) {
+        User user = userService.getAuthUserElseThrow();
+
+        return executionService.stream(executionService.get(executionId, user));
     }
 
     /**
@@ -163,24 +156,28 @@ public class CodeController {
       *         - Відправляє загальний результат тестування
       *         - Оновлює рейтинг користувача при успішному проходженні тестів
       *         - Код відповіді 401 якщо користувач не авторизований
+      *         - Код відповіді 429 з Retry-After якщо черга перевірки переповнена
+      * @param protocol версія протоколу подій: 1 - текстові події "message", 2 - JSON-кадри "judge" з типізованими подіями
       * @throws IOException якщо виникла помилка при відправці даних
       */
     @PostMapping(value = "/test", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter testCode(@RequestBody @Valid CodeTestDTO codeTestDTO) throws IOException {
+    public SseEmitter testCode(@RequestBody @Valid CodeTestDTO codeTestDTO,
+                               @RequestParam(defaultValue = "1") int protocol) throws IOException {
         SseEmitter emitter = new SseEmitter(180000L);
+        JudgeReporter reporter = judgeStreamService.reporter(emitter, protocol);
 
         // Перевіряємо авторизацію користувача
         User loggedUser = userService.getAuthUser();
         if (loggedUser == null) {
-            emitter.send(SseEmitter.event().name("message").data("Щоб виконувати тестування ваших розв'язків, потрібно зареєструватися.").reconnectTime(3000));
-            emitter.complete();
+            reporter.message("Щоб виконувати тестування ваших розв'язків, потрібно зареєструватися.");
+            reporter.complete();
             return emitter;
         }
 
         // Перевіряємо наявність задачі та необхідних даних
         Puzzle puzzle = puzzleService.findById(codeTestDTO.getPuzzleId(), Set.of(PuzzleInclude.PUZZLE_DATA, PuzzleInclude.CHECKER));
         if (puzzle == null || codeTestDTO.getPuzzleId() == null || codeTestDTO.getCode() == null || codeTestDTO.getLanguage() == null) {
-            emitter.complete();
+            reporter.complete();
             return emitter;
         }
 
@@ -189,6 +186,8 @@ public class CodeController {
         }
 
         Homework homework = null;
+        // Вузол, від імені якого відправлено рішення; його частка слотів обмежує рішення в черзі перевірки
+        Long tenantId = null;
         if (codeTestDTO.getHomeworkId() != null) {
             homework = homeworkService.findById(codeTestDTO.getHomeworkId(), Set.of(HomeworkInclude.GROUP));
 
@@ -202,6 +201,9 @@ public class CodeController {
                 throw new BadRequestError("Строк здачі цього завдання минув");
             if (!homeworkService.hasPermission(homework, loggedUser, PermissionType.SUBMIT_DECISIONS))
                 throw new ForbiddenError("В цій групі вам не дозволено відправляти рішення");
+
+            if (homework.getGroup() != null && homework.getGroup().getTreeNode() != null)
+                tenantId = homework.getGroup().getTreeNode().getId();
         }
 
         if (codeTestDTO.getTreeNodeId() != null) {
@@ -213,11 +215,13 @@ public class CodeController {
                 throw new BadRequestException("Задача не належить цьому вузлу");
             if (!treeNodeService.hasPermission(treeNode, loggedUser, PermissionType.SUBMIT_DECISIONS))
                 throw new ForbiddenError("В цій групі вам не дозволено відправляти рішення");
+
+            tenantId = treeNode.getId();
         }
 
         if (!puzzle.getEnabled() && codeTestDTO.getHomeworkId() == null && codeTestDTO.getTreeNodeId() == null) {
-            emitter.send(SseEmitter.event().name("message").data("Ця задача недоступна для нових рішень.").reconnectTime(3000));
-            emitter.complete();
+            reporter.message("Ця задача недоступна для нових рішень.");
+            reporter.complete();
             return emitter;
         }
 
@@ -226,163 +230,28 @@ public class CodeController {
 
         LocalDateTime now = LocalDateTime.now();
         if (oldDecisions.stream().anyMatch(decision -> !decision.isFinished() && decision.getCreatedAt().isAfter(now.minusMinutes(10)))) {
-            emitter.send(SseEmitter.event().name("message").data("Ви вже виконуєте тест").reconnectTime(3000));
-            emitter.complete();
+            reporter.message("Ви вже виконуєте тест");
+            reporter.complete();
             return emitter;
         }
 
-        // Створюємо нове рішення та додаємо його в чергу компіляції
-        Decision[] thisDecision = new Decision[1];
-        thisDecision[0] = new Decision(null, codeTestDTO.getCode(), codeTestDTO.getLanguage(), 0.0f, loggedUser, puzzle, LocalDateTime.now(), false, false);
-        thisDecision[0].setHomework(homework);
-        thisDecision[0] = decisionRepository.save(thisDecision[0]);
+        // Під перевантаженням відхиляємо рішення одразу з 429 і Retry-After, а не тримаємо його в черзі
+        admissionService.admitDecision(loggedUser, judgeQueueService.priorityFor(homework));
 
-        // Додаємо рішення в чергу компіляції
-        compileQueueService.addToQueue(thisDecision[0].getId());
+        // Створюємо нове рішення та додаємо його в чергу компіляції
+        Decision thisDecision = new Decision(null, codeTestDTO.getCode(), codeTestDTO.getLanguage(), 0.0f, loggedUser, puzzle, LocalDateTime.now(), false, false);
+        thisDecision.setHomework(homework);
+        compressionService.compressCode(thisDecision);
+        thisDecision = decisionRepository.save(thisDecision);
 
-        try {
-            // Очікуємо черги
-            compileQueueService.waitForQueue(thisDecision[0].getId());
-        } catch (InterruptedException e) {
-            // Видаляємо ідентифікатор з черги у випадку перевищення часу очікування
-            decisionRepository.delete(thisDecision[0]);
-            compileQueueService.removeFromQueue(thisDecision[0].getId());
-            emitter.send(SseEmitter.event().name("message").data("Вихід за межі часу очікування").reconnectTime(3000));
-            emitter.complete();
+        // Такий самий код вже перевірявся на цих тестах: відтворюємо результат без черги
+        if (judgeService.replay(thisDecision, puzzle, reporter))
             return emitter;
-        }
-
-        // Запускаємо тестування
-        taskExecutor.execute(() -> {
-            try {
-                String[] spVals = codeTestDTO.getLanguage().split(":");
-                float totalScore = 0.0f;
-                if (puzzle.getTaskType() == TaskType.NON_INTERACTIVE || puzzle.getTaskType() == TaskType.OUTPUT_CHECKING) {
-                    int i = 1;
-                    List<PuzzleData> passedTests = new ArrayList<>();
-                    List<Pair<PuzzleData, Float>> halfPassedTests = new ArrayList<>();
-                    // Проходимо по всім тестам задачі
-
-                    CheckerDTO checkerDTO = checkerMapper.toTechDTO(puzzle.getChecker());
-                    try (DockerContainer userContainer = containerExecutionService.prepareForRun(spVals[0], spVals[1], codeTestDTO.getCode(), containerProperties.getMemoryLimit(), TaskType.OUTPUT_CHECKING);
-                         DockerContainer checkerContainer = puzzle.getTaskType() == TaskType.NON_INTERACTIVE ? null : userContainer.prepareChecker(checkerDTO, containerProperties.getCheckerMemoryLimit())) {
-                        for (PuzzleData puzzleData : puzzle.getPuzzleData()) {
-                            try {
-                                InteractiveResult result = null;
-                                boolean isCorrect = false;
-                                boolean isIncorrect = true;
-                                if (puzzle.getTaskType() == TaskType.NON_INTERACTIVE || (puzzle.getTaskType() == TaskType.OUTPUT_CHECKING && puzzleData.getOutput() != null)) {
-                                    String output = containerExecutionService.runCode(userContainer, puzzleData.getInput(), puzzle.getTimeLimit());
-                                    isCorrect = output.equals(puzzleData.getOutput());
-                                    isIncorrect = !isCorrect;
-                                } else if (puzzleData.getOutput() == null) {
-                                    result = containerExecutionService.runCodeCheckingOutput(userContainer, checkerContainer, puzzleData.getInput(), puzzle.getTimeLimit(), checkerDTO);
-                                    containerExceptionMapper.checkInteractiveResult(log, result, puzzle, thisDecision[0], loggedUser);
-                                    isCorrect = result.getScore() == 100.0d;
-                                    isIncorrect = result.getScore() == 0.0d;
-                                }
-                                if (isCorrect) {
-                                    emitter.send(SseEmitter.event().name("message").data("Test #" + i + " пройдено").reconnectTime(3000));
-                                    passedTests.add(puzzleData);
-                                } else {
-                                    emitter.send(SseEmitter.event().name("message").data("Test #" + i + " не пройдено" + (result != null ? " (" + DoubleUtils.format(result.getScore(), 2) + "%)" : "")).reconnectTime(3000));
-                                    if (!isIncorrect) {
-                                        halfPassedTests.add(Pair.of(puzzleData, result.getRealScore(puzzleData.getScore())));
-                                    }
-                                }
-                                if (result != null && result.getMessage() != null && !result.getMessage().isBlank()) {
-                                    emitter.send(SseEmitter.event().name("message").data("Повідомлення від викладача: " + result.getMessage()).reconnectTime(3000));
-                                }
-                            } catch (ContainerException | InteractiveResultParsingException e) {
-                                var mapper = containerExceptionMapper.map(e);
-                                containerExceptionMapper.act(e, thisDecision[0], puzzle.getChecker());
-                                emitter.send(SseEmitter.event().name("message").data("Test #" + i + " не пройдено. " + mapper.message()).reconnectTime(3000));
-                            } catch (Exception e) {
-                                emitter.send(SseEmitter.event().name("message").data("Test #" + i + " не пройдено, через несподівану помилку").reconnectTime(3000));
-                            } finally {
-                                i++;
-                            }
-                        }
-                    } catch (ContainerCreateException e) {
-                        emitter.send(SseEmitter.event().name("message").data("Тестування не пройдено через те, що на сервері сталася технічна помилка").reconnectTime(3000));
-                        throw e;
-                    } catch (UnsupportedLanguageException e) {
-                        emitter.send(SseEmitter.event().name("message").data("Тестування не пройдено через те, що мова не підтримується на сервері").reconnectTime(3000));
-                        throw e;
-                    }
-
-                    // Підраховуємо загальний результат
-                    totalScore = passedTests.stream().map(PuzzleData::getScore).reduce(0f, Float::sum);
-                    totalScore += halfPassedTests.stream().map(Pair::getSecond).reduce(0f, Float::sum);
-                    if (!passedTests.isEmpty() || halfPassedTests.isEmpty()) {
-                        emitter.send(SseEmitter.event().name("message").data("Тести пройдено: " + passedTests.size() + "/" + puzzle.getPuzzleData().size()).reconnectTime(3000));
-                    }
-                    if (!halfPassedTests.isEmpty()) {
-                        emitter.send(SseEmitter.event().name("message").data("Тести пройдено частково: " + halfPassedTests.size() + "/" + puzzle.getPuzzleData().size()).reconnectTime(3000));
-                    }
-
-                    // Оновлюємо дані про рішення
-                    thisDecision[0].setCorrect(passedTests.size() == puzzle.getPuzzleData().size());
-                    thisDecision[0].setScore(totalScore);
-                    thisDecision[0].setFinished(true);
-                    decisionRepository.save(thisDecision[0]);
-                } else if (puzzle.getTaskType() == TaskType.FULL_INTERACTIVE) {
-                    InteractiveResult result;
-                    try {
-                        result = containerExecutionService.runCodeInteractive(spVals[0], spVals[1], codeTestDTO.getCode(), containerProperties.getMemoryLimit(), puzzle.getTimeLimit(), checkerMapper.toTechDTO(puzzle.getChecker()));
-                    } catch (ContainerException | InteractiveResultParsingException e) {
-                        var mapper = containerExceptionMapper.map(e);
-                        containerExceptionMapper.act(e, thisDecision[0], puzzle.getChecker());
-                        emitter.send(SseEmitter.event().name("message").data("Тестування не пройдено. " + mapper.message()).reconnectTime(3000));
-                        throw e;
-                    }
-
-                    if (result.getMessage() != null && !result.getMessage().isBlank()) {
-                        emitter.send(SseEmitter.event().name("message").data("Повідомлення від вчителя: " + result.getMessage()).reconnectTime(3000));
-                    }
-
-                    containerExceptionMapper.checkInteractiveResult(log, result, puzzle, thisDecision[0], loggedUser);
-
-                    totalScore = result.getRealScore(puzzle.getScore());
-
-                    // Оновлюємо дані про рішення
-                    thisDecision[0].setCorrect(totalScore == puzzle.getScore());
-                    thisDecision[0].setScore(totalScore);
-                    thisDecision[0].setFinished(true);
-                    decisionRepository.save(thisDecision[0]);
-                }
-
-                emitter.send(SseEmitter.event().name("message").data("Загальна оцінка: " + DoubleUtils.format(totalScore, 1) + "/" + DoubleUtils.format(puzzle.getScore(), 1)).reconnectTime(3000));
-
-                // Підраховуємо скільки раніше користувачу додавали за цю задачу
-                int maxRatingPlus = Math.round(oldDecisions.stream().map(Decision::getScore).max(Comparator.naturalOrder()).orElse(0.0f));
-
-                // Оновлюємо рейтинг користувача
-                Integer addRating = Math.round(totalScore) - maxRatingPlus;
-                if (addRating > 0) {
-                    loggedUser.setRating(loggedUser.getRating() + addRating);
-                    userRepository.save(loggedUser);
-                    emitter.send(SseEmitter.event().name("message").data("До рейтингу додано: " + addRating).reconnectTime(3000));
-                    emitter.send(SseEmitter.event().name("message").data("Новий рейтинг: " + loggedUser.getRating()).reconnectTime(3000));
-                }
 
-                emitter.complete();
-            } catch (IOException e) {
-                decisionRepository.delete(thisDecision[0]);
-                emitter.completeWithError(e);
-            } catch (Exception e) {
-                decisionRepository.delete(thisDecision[0]);
-                emitter.complete();
-                if (e instanceof ContainerException ce)
-                    log.warn(ce.getLogTemplate(), ce.getLogArgs());
-                else
-                    log.error("Error while testing: {}", e.getMessage(), e);
-            } finally {
-                // Видаляємо завдання з черги
-                compileQueueService.removeFromQueue(thisDecision[0].getId());
-            }
-        });
+        // Додаємо рішення в персистентну чергу перевірки. Тестування почнеться одразу, як звільниться слот,
+        // а потік запиту не чекає на чергу
+        judgeQueueService.enqueue(thisDecision, tenantId, reporter);
 
         return emitter;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.educode.educodeApi.controllers;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeJob;
+import com.educode.educodeApi.enums.LogLevel;
+import com.educode.educodeApi.exceptions.ForbiddenError;
+import com.educode.educodeApi.functional.HttpJudgeTransport;
+import com.educode.educodeApi.properties.JudgeWorkerProperties;
+import com.educode.educodeApi.services.JudgeDispatchService;
+import com.educode.educodeApi.utils.LogDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Контролер для воркерів перевірки (профіль judge-worker з judge.worker.transport=http).
+ * Доступ лише із заголовком X-Judge-Worker-Token, що збігається з judge.worker.token.
+ */
+@RestController
+@RequestMapping("/api/judge-worker")
+public class JudgeWorkerController {
+
+    // Найдовше очікування завдання в одному запиті
+    private static final long MAX_WAIT_MILLIS = 30000L;
+
+    @Autowired
+    private JudgeDispatchService judgeDispatchService;
+    @Autowired
+    private JudgeWorkerProperties properties;
+
+    /**
+     * Видає воркеру наступне рішення для перевірки
+     *
+     * @param workerId ідентифікатор воркера
+     * @param waitMs скільки чекати на рішення, якщо зараз їх немає
+     * @return ResponseEntity із завданням
+     *         - Код відповіді 204 якщо за час очікування рішень не з'явилося
+     *         - Код відповіді 403 якщо токен воркера невірний
+     */
+    @PostMapping("/claim")
+    public ResponseEntity<JudgeJob> claim(@RequestHeader(value = HttpJudgeTransport.TOKEN_HEADER, required = false) String token,
+                                          @RequestParam String workerId,
+                                          @RequestParam(defaultValue = "10000") long waitMs) throws InterruptedException {
+        checkToken(token, workerId);
+
+        JudgeJob job = judgeDispatchService.claim(workerId, Duration.ofMillis(Math.clamp(waitMs, 0L, MAX_WAIT_MILLIS)));
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Приймає подію перевірки рішення від воркера
+     *
+     * @param workerId ідентифікатор воркера
+     * @param event подія
+     * @return ResponseEntity без тіла
+     *         - Код відповіді 410 якщо воркер має припинити перевірку
+     *         - Код відповіді 403 якщо токен воркера невірний
+     */
+    @PostMapping("/events")
+    public ResponseEntity<Void> event(@RequestHeader(value = HttpJudgeTransport.TOKEN_HEADER, required = false) String token,
+                                      @RequestParam String workerId,
+                                      @RequestBody JudgeEvent event) {
+        checkToken(token, workerId);
+
+        if (!judgeDispatchService.accept(workerId, event))
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        return ResponseEntity.ok().build();
+    }
+
+    private void checkToken(String token, String workerId) {
+        String expected = properties.getToken();
+        if (expected == null || expected.isEmpty() || token == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8)))
+            throw new ForbiddenError("Доступ заборонено", LogDescriptor.of(
+                    LogLevel.WARN,
+                    "Judge worker {} rejected: invalid token",
+                    List.of(() -> workerId)
+            ));
+    }
+}
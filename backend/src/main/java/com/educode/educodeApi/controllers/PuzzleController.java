@@ -1,6 +1,7 @@
 package com.educode.educodeApi.controllers;
 
 import com.educode.educodeApi.DTO.*;
+import com.educode.educodeApi.DTO.code.TestResultDTO;
 import com.educode.educodeApi.DTO.puzzle.*;
 import com.educode.educodeApi.enums.LogLevel;
 import com.educode.educodeApi.enums.PermissionType;
@@ -10,11 +11,13 @@ import com.educode.educodeApi.exceptions.ForbiddenError;
 import com.educode.educodeApi.exceptions.NotFoundError;
 import com.educode.educodeApi.exceptions.UnauthorizedError;
 import com.educode.educodeApi.lazyinit.GroupInclude;
+import com.educode.educodeApi.lazyinit.HomeworkInclude;
 import com.educode.educodeApi.lazyinit.PuzzleInclude;
 import com.educode.educodeApi.mappers.DecisionMapper;
 import com.educode.educodeApi.mappers.PuzzleMapper;
 import com.educode.educodeApi.models.*;
 import com.educode.educodeApi.repositories.CheckerRepository;
+import com.educode.educodeApi.repositories.DecisionRepository;
 import com.educode.educodeApi.repositories.HomeworkRepository;
 import com.educode.educodeApi.repositories.PuzzleDataRepository;
 import com.educode.educodeApi.repositories.PuzzleRepository;
@@ -56,6 +59,10 @@ public class PuzzleController {
     private final TreeNodeService treeNodeService;
     private final TreeNodeResourceService resourceService;
     private final GroupService groupService;
+    private final RejudgeService rejudgeService;
+    private final TestResultService testResultService;
+    private final DecisionRepository decisionRepository;
+    private final HomeworkService homeworkService;
 
     public PuzzleController(UserService userService,
                             PuzzleRepository puzzleRepository,
@@ -64,7 +71,9 @@ public class PuzzleController {
                             PuzzleService puzzleService,
                             HomeworkRepository homeworkRepository,
                             TreeNodeService treeNodeService,
-                            TreeNodeResourceService resourceService, GroupService groupService) {
+                            TreeNodeResourceService resourceService, GroupService groupService,
+                            RejudgeService rejudgeService, TestResultService testResultService,
+                            DecisionRepository decisionRepository, HomeworkService homeworkService) {
         this.userService = userService;
         this.puzzleRepository = puzzleRepository;
         this.puzzleMapper = puzzleMapper;
@@ -74,6 +83,10 @@ public class PuzzleController {
         this.treeNodeService = treeNodeService;
         this.resourceService = resourceService;
         this.groupService = groupService;
+        this.rejudgeService = rejudgeService;
+        this.testResultService = testResultService;
+        this.decisionRepository = decisionRepository;
+        this.homeworkService = homeworkService;
     }
 
     /**
@@ -382,7 +395,7 @@ public class PuzzleController {
             );
         }
 
-        Puzzle original = puzzleService.findById(id, Set.of(PuzzleInclude.PUZZLE_DATA));
+        Puzzle original = puzzleService.findById(id, Set.of(PuzzleInclude.PUZZLE_DATA, PuzzleInclude.CHECKER));
 
         if (original == null) {
             throw new BadRequestError(
@@ -479,13 +492,102 @@ public class PuzzleController {
             }
         }
 
+        String judgeVersion = rejudgeService.version(original);
         puzzleMapper.setFromUpdateDTO(original, puzzleUpdateDTO, checker.get());
 
         puzzleRepository.save(original);
 
+        // Змінені тести, ліміти чи checker можуть змінити оцінки вже перевірених рішень
+        if (!judgeVersion.equals(rejudgeService.version(original)))
+            rejudgeService.onPuzzleChanged(original.getId());
+
         return ResponseEntity.ok(Map.of("message", "success"));
     }
 
+    /**
+     * Запускає повторну перевірку всіх рішень задачі у фоні
+     * @param puzzleId ідентифікатор задачі
+     * @return хід повторної перевірки
+     */
+    @PostMapping("/{puzzleId}/rejudge")
+    public ResponseEntity<RejudgeJobDTO> rejudgePuzzle(@PathVariable Long puzzleId) {
+        User authUser = userService.getAuthUserElseThrow();
+        findOwnPuzzleForRejudge(puzzleId, authUser);
+
+        log.info("User {} @{} started rejudge of puzzle id={}", authUser.getId(), authUser.getLogin(), puzzleId);
+        return ResponseEntity.ok(rejudgeService.toDTO(rejudgeService.start(puzzleId)));
+    }
+
+    /**
+     * Повертає хід останньої повторної перевірки задачі
+     * @param puzzleId ідентифікатор задачі
+     * @return хід повторної перевірки
+     */
+    @GetMapping("/{puzzleId}/rejudge")
+    public ResponseEntity<RejudgeJobDTO> getRejudge(@PathVariable Long puzzleId) {
+        User authUser = userService.getAuthUserElseThrow();
+        findOwnPuzzleForRejudge(puzzleId, authUser);
+
+        RejudgeJob job = rejudgeService.findLatest(puzzleId);
+        if (job == null)
+            throw new NotFoundError("Повторних перевірок цієї задачі ще не було");
+        return ResponseEntity.ok(rejudgeService.toDTO(job));
+    }
+
+    /**
+     * Повертає статистику виконання тестів задачі: час, перевищення ліміту, помилки та найповільніші рішення.
+     * Доступно автору задачі та користувачам з правом VIEW_ALL_PUZZLES
+     * @param puzzleId ідентифікатор задачі
+     * @return статистика поточних тестів задачі
+     */
+    @GetMapping("/{puzzleId}/test-stats")
+    public ResponseEntity<PuzzleTestStatsDTO> getTestStats(@PathVariable Long puzzleId) {
+        User authUser = userService.getAuthUserElseThrow();
+        Puzzle puzzle = puzzleService.findById(puzzleId, Set.of(PuzzleInclude.PUZZLE_DATA));
+        if (puzzle == null)
+            throw new NotFoundError("Не знайдено задачу за таким id");
+        if (!Objects.equals(puzzle.getUser().getId(), authUser.getId()) && !authUser.hasPermission(PermissionType.VIEW_ALL_PUZZLES))
+            throw new ForbiddenError("Ви не можете переглядати статистику тестів цієї задачі");
+
+        return ResponseEntity.ok(testResultService.stats(puzzle));
+    }
+
+    /**
+     * Повертає результати тестів рішення: вердикт, час, код завершення та розмір виводу кожного тесту.
+     * Доступно автору задачі, користувачам з правом VIEW_ALL_PUZZLES та викладачам домашнього завдання,
+     * в яке відправлено рішення
+     * @param puzzleId ідентифікатор задачі
+     * @param decisionId ідентифікатор рішення
+     * @return результати тестів у порядку тестів; порожній список, якщо вони не збереглися
+     */
+    @GetMapping("/{puzzleId}/decisions/{decisionId}/tests")
+    public ResponseEntity<List<TestResultDTO>> getDecisionTests(@PathVariable Long puzzleId, @PathVariable Long decisionId) {
+        User authUser = userService.getAuthUserElseThrow();
+        Decision decision = decisionRepository.findById(decisionId).orElse(null);
+        if (decision == null || !Objects.equals(decision.getPuzzle().getId(), puzzleId))
+            throw new NotFoundError("Не знайдено рішення за таким id");
+
+        boolean allowed = Objects.equals(decision.getPuzzle().getUser().getId(), authUser.getId())
+                || authUser.hasPermission(PermissionType.VIEW_ALL_PUZZLES);
+        if (!allowed && decision.getHomework() != null) {
+            Homework homework = homeworkService.findById(decision.getHomework().getId(), Set.of(HomeworkInclude.GROUP));
+            allowed = homework != null && homeworkService.hasPermission(homework, authUser, PermissionType.VIEW_HOMEWORK_SUBMISSIONS);
+        }
+        if (!allowed)
+            throw new ForbiddenError("Вам не дозволено переглядати результати тестів цього рішення");
+
+        return ResponseEntity.ok(testResultService.findByDecisionId(decisionId));
+    }
+
+    private Puzzle findOwnPuzzleForRejudge(Long puzzleId, User authUser) {
+        Puzzle puzzle = puzzleService.findById(puzzleId);
+        if (puzzle == null)
+            throw new BadRequestError("Не знайдено задачу за таким id");
+        if (!Objects.equals(puzzle.getUser().getId(), authUser.getId()))
+            throw new ForbiddenError("Ви не можете повторно перевіряти рішення задачі іншого користувача");
+        return puzzle;
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Map<String, String>> deletePuzzle(@PathVariable Long id) {
         User loggedUser = userService.getAuthUser();
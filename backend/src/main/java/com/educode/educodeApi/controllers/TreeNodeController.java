@@ -3,6 +3,7 @@ package com.educode.educodeApi.controllers;
 import com.educode.educodeApi.DTO.TreeNodeMemberDTO;
 import com.educode.educodeApi.DTO.puzzle.PuzzleDTO;
 import com.educode.educodeApi.DTO.treenode.AddMemberDTO;
+import com.educode.educodeApi.DTO.treenode.JudgeSlotShareDTO;
 import com.educode.educodeApi.DTO.treenode.UpdateMemberRolesDTO;
 import com.educode.educodeApi.enums.PermissionType;
 import com.educode.educodeApi.exceptions.BadRequestError;
@@ -13,6 +14,7 @@ import com.educode.educodeApi.mappers.*;
 import com.educode.educodeApi.models.*;
 import com.educode.educodeApi.repositories.NodeRepository;
 import com.educode.educodeApi.repositories.TreeNodeInvitationRepository;
+import com.educode.educodeApi.repositories.TreeNodeRepository;
 import com.educode.educodeApi.services.*;
 import com.educode.educodeApi.utils.PaginationUtils;
 import jakarta.validation.Valid;
@@ -57,6 +59,7 @@ public class TreeNodeController {
     private final TreeNodeEntityMapper treeNodeEntityMapper;
     private final TreeNodeInvitationRepository treeNodeInvitationRepository;
     private final TreeNodeInvitationMapper treeNodeInvitationMapper;
+    private final TreeNodeRepository treeNodeRepository;
 
     public TreeNodeController(TreeNodeService treeNodeService,
                               TreeNodeMemberService memberService,
@@ -64,7 +67,7 @@ public class TreeNodeController {
                               TreeNodeResourceService resourceService,
                               TreeNodePermissionService permissionService,
                               UserService userService,
-                              PuzzleService puzzleService, RoleService roleService, PuzzleMapper puzzleMapper, NodeRepository nodeRepository, GroupService groupService, NodeService nodeService, NodeMapper nodeMapper, GroupMapper groupMapper, TreeNodeMapper treeNodeMapper, TreeNodeMemberMapper memberMapper, TreeNodeEntityMapper treeNodeEntityMapper, TreeNodeInvitationRepository treeNodeInvitationRepository, TreeNodeInvitationMapper treeNodeInvitationMapper) {
+                              PuzzleService puzzleService, RoleService roleService, PuzzleMapper puzzleMapper, NodeRepository nodeRepository, GroupService groupService, NodeService nodeService, NodeMapper nodeMapper, GroupMapper groupMapper, TreeNodeMapper treeNodeMapper, TreeNodeMemberMapper memberMapper, TreeNodeEntityMapper treeNodeEntityMapper, TreeNodeInvitationRepository treeNodeInvitationRepository, TreeNodeInvitationMapper treeNodeInvitationMapper, TreeNodeRepository treeNodeRepository) {
         this.treeNodeService = treeNodeService;
         this.memberService = memberService;
         this.hierarchyService = hierarchyService;
@@ -84,6 +87,7 @@ public class TreeNodeController {
         this.treeNodeEntityMapper = treeNodeEntityMapper;
         this.treeNodeInvitationRepository = treeNodeInvitationRepository;
         this.treeNodeInvitationMapper = treeNodeInvitationMapper;
+        this.treeNodeRepository = treeNodeRepository;
     }
 
     /**
@@ -645,6 +649,40 @@ public class TreeNodeController {
         }
     }
 
+    /**
+     * Изменить долю слотов проверки, которую могут одновременно занять решения узла.
+     * Долю задаёт тот, кто может редактировать родительский узел (для корневого - сам узел),
+     * поэтому участники узла не могут сами увеличить свою долю
+     */
+    @PutMapping("/{treeNodeId}/judge-slot-share")
+    public ResponseEntity<Map<String, Object>> updateJudgeSlotShare(
+            @PathVariable Long treeNodeId,
+            @RequestBody @Valid JudgeSlotShareDTO judgeSlotShareDTO) {
+
+        User authUser = userService.getAuthUserElseThrow();
+        log.info("User {} @{} setting judge slot share of treeNodeId={} to {}",
+                authUser.getId(), authUser.getLogin(), treeNodeId, judgeSlotShareDTO.share());
+
+        TreeNode treeNode = treeNodeService.findById(treeNodeId);
+
+        if (treeNode == null) {
+            throw new NotFoundError("Не знайдено вузол за таким id");
+        }
+
+        TreeNode owner = treeNode.getParent() != null ? treeNode.getParent() : treeNode;
+        if (!treeNodeService.hasPermission(owner, authUser, PermissionType.EDIT_NODES)) {
+            throw new ForbiddenError("Вам не дозволено змінювати частку слотів перевірки цього вузла");
+        }
+
+        treeNode.setJudgeSlotShare(judgeSlotShareDTO.share());
+        treeNodeRepository.save(treeNode);
+
+        return ResponseEntity.ok(Map.of(
+                "message", "Частку слотів перевірки успішно змінено",
+                "treeNodeId", treeNodeId
+        ));
+    }
+
     /**
      * Переместить узел к новому родителю
      */
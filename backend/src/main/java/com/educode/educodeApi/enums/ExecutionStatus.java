@@ -0,0 +1,8 @@
+package com.educode.educodeApi.enums;
+
+/**
+ * Стан асинхронного виконання коду
+ */
+public enum ExecutionStatus {
+    QUEUED, RUNNING, FINISHED
+}
@@ -0,0 +1,31 @@
+package com.educode.educodeApi.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Клас пріоритету рішення в черзі перевірки. Менший код обслуговується раніше.
+ */
+public enum JudgePriority implements CodeEnum<Integer> {
+    URGENT(0),
+    NORMAL(1),
+    // Повторна перевірка старих рішень після зміни задачі; займає не більше judge.rejudge.max-running слотів вузла
+    BACKGROUND(2);
+
+    private final Integer code;
+    private static final Map<Integer, JudgePriority> BY_CODE = new HashMap<>();
+
+    static {
+        for (JudgePriority t : values()) BY_CODE.put(t.code, t);
+    }
+
+    JudgePriority(Integer code) { this.code = code; }
+    public Integer getCode() { return code; }
+
+    public static JudgePriority fromCode(Integer code) {
+        if (code == null) return null;
+        JudgePriority t = BY_CODE.get(code);
+        if (t == null) throw new IllegalArgumentException("Unknown JudgePriority code: " + code);
+        return t;
+    }
+}
@@ -0,0 +1,31 @@
+package com.educode.educodeApi.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Клас політики перевірки задачі.
+ * FULL_REPORT - рішення перевіряється на всіх тестах.
+ * FAIL_FAST - перевірка зупиняється на першому тесті, який не пройдено повністю, решта тестів пропускається.
+ */
+public enum JudgingPolicy implements CodeEnum<Integer> {
+    FULL_REPORT(0),
+    FAIL_FAST(1);
+
+    private final Integer code;
+    private static final Map<Integer, JudgingPolicy> BY_CODE = new HashMap<>();
+
+    static {
+        for (JudgingPolicy t : values()) BY_CODE.put(t.code, t);
+    }
+
+    JudgingPolicy(Integer code) { this.code = code; }
+    public Integer getCode() { return code; }
+
+    public static JudgingPolicy fromCode(Integer code) {
+        if (code == null) return null;
+        JudgingPolicy t = BY_CODE.get(code);
+        if (t == null) throw new IllegalArgumentException("Unknown JudgingPolicy code: " + code);
+        return t;
+    }
+}
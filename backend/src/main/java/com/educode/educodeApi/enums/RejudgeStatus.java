@@ -0,0 +1,30 @@
+package com.educode.educodeApi.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Стан повторної перевірки рішень задачі.
+ * RUNNING - рішення ставляться в чергу партіями, FINISHED - усі рішення переглянуто.
+ */
+public enum RejudgeStatus implements CodeEnum<Integer> {
+    RUNNING(0),
+    FINISHED(1);
+
+    private final Integer code;
+    private static final Map<Integer, RejudgeStatus> BY_CODE = new HashMap<>();
+
+    static {
+        for (RejudgeStatus t : values()) BY_CODE.put(t.code, t);
+    }
+
+    RejudgeStatus(Integer code) { this.code = code; }
+    public Integer getCode() { return code; }
+
+    public static RejudgeStatus fromCode(Integer code) {
+        if (code == null) return null;
+        RejudgeStatus t = BY_CODE.get(code);
+        if (t == null) throw new IllegalArgumentException("Unknown RejudgeStatus code: " + code);
+        return t;
+    }
+}
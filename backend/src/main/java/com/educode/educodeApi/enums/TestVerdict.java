@@ -0,0 +1,37 @@
+package com.educode.educodeApi.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Вердикт одного тесту рішення, що зберігається разом з часом виконання тесту
+ */
+public enum TestVerdict implements CodeEnum<Integer> {
+    PASSED(0),
+    // Checker зарахував частину балів тесту
+    PARTIAL(1),
+    WRONG_ANSWER(2),
+    RUNTIME_ERROR(3),
+    TIME_LIMIT(4),
+    // Помилка сервера чи checker'а, а не рішення
+    ERROR(5),
+    // Тест не виконувався через політику FAIL_FAST
+    SKIPPED(6);
+
+    private final Integer code;
+    private static final Map<Integer, TestVerdict> BY_CODE = new HashMap<>();
+
+    static {
+        for (TestVerdict t : values()) BY_CODE.put(t.code, t);
+    }
+
+    TestVerdict(Integer code) { this.code = code; }
+    public Integer getCode() { return code; }
+
+    public static TestVerdict fromCode(Integer code) {
+        if (code == null) return null;
+        TestVerdict t = BY_CODE.get(code);
+        if (t == null) throw new IllegalArgumentException("Unknown TestVerdict code: " + code);
+        return t;
+    }
+}
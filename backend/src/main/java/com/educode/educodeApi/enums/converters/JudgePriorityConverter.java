@@ -0,0 +1,11 @@
+package com.educode.educodeApi.enums.converters;
+
+import com.educode.educodeApi.enums.JudgePriority;
+import jakarta.persistence.Converter;
+
+@Converter
+public class JudgePriorityConverter extends GenericCodeEnumConverter<JudgePriority, Integer> {
+    public JudgePriorityConverter() {
+        super(JudgePriority.class);
+    }
+}
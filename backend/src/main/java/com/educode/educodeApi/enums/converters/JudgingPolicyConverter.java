@@ -0,0 +1,11 @@
+package com.educode.educodeApi.enums.converters;
+
+import com.educode.educodeApi.enums.JudgingPolicy;
+import jakarta.persistence.Converter;
+
+@Converter
+public class JudgingPolicyConverter extends GenericCodeEnumConverter<JudgingPolicy, Integer> {
+    public JudgingPolicyConverter() {
+        super(JudgingPolicy.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.educode.educodeApi.enums.converters;
+
+import com.educode.educodeApi.enums.RejudgeStatus;
+import jakarta.persistence.Converter;
+
+@Converter
+public class RejudgeStatusConverter extends GenericCodeEnumConverter<RejudgeStatus, Integer> {
+    public RejudgeStatusConverter() {
+        super(RejudgeStatus.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.educode.educodeApi.enums.converters;
+
+import com.educode.educodeApi.enums.TestVerdict;
+import jakarta.persistence.Converter;
+
+@Converter
+public class TestVerdictConverter extends GenericCodeEnumConverter<TestVerdict, Integer> {
+    public TestVerdictConverter() {
+        super(TestVerdict.class);
+    }
+}
@@ -1,6 +1,7 @@
 package com.educode.educodeApi.exceptions;
 
 import com.educode.educodeApi.utils.LogDescriptor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import java.util.Map;
 import java.util.Objects;
@@ -42,6 +43,11 @@ public class ResponseError extends RuntimeException {
     public Map<String, Object> getDetails() { return details; }
     public LogDescriptor getLogDescriptor() { return logDescriptor; }
 
+    /**
+     * Додаткові заголовки відповіді
+     */
+    public HttpHeaders getHeaders() { return HttpHeaders.EMPTY; }
+
 
     public Map<String, Object> toBody() {
         return Map.of(
@@ -0,0 +1,31 @@
+package com.educode.educodeApi.exceptions;
+
+import com.educode.educodeApi.utils.LogDescriptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+/**
+ * Відмова через перевантаження. Відповідь містить заголовок Retry-After з кількістю секунд,
+ * через яку варто повторити запит.
+ */
+public class TooManyRequestsError extends ResponseError {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsError(String clientMessage, long retryAfterSeconds, LogDescriptor logDescriptor) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS", clientMessage, Map.of("retryAfter", retryAfterSeconds), logDescriptor);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
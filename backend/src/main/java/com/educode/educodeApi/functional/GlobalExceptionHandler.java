@@ -90,7 +90,7 @@ public class GlobalExceptionHandler {
             log.error("ResponseError without LogDescriptor: {} / {}", ex.getCode(), ex.getClientMessage());
         }
 
-        return ResponseEntity.status(ex.getStatus()).body(ex.toBody());
+        return ResponseEntity.status(ex.getStatus()).headers(ex.getHeaders()).body(ex.toBody());
     }
 
 
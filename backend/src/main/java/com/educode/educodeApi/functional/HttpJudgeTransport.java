@@ -0,0 +1,72 @@
+package com.educode.educodeApi.functional;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeJob;
+import com.educode.educodeApi.interfaces.JudgeTransport;
+import com.educode.educodeApi.properties.JudgeWorkerProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Транспорт для воркера на окремій машині: звертається до JudgeWorkerController вузла API за judge.worker.api-url.
+ * Завдання забираються довгим опитуванням, кожна подія перевірки надсилається окремим запитом.
+ */
+@Component
+@ConditionalOnProperty(name = "judge.worker.transport", havingValue = "http")
+public class HttpJudgeTransport implements JudgeTransport {
+
+    public static final String TOKEN_HEADER = "X-Judge-Worker-Token";
+
+    private final RestClient client;
+
+    public HttpJudgeTransport(JudgeWorkerProperties properties) {
+        RestClient.Builder builder = RestClient.builder().baseUrl(properties.getApiUrl());
+        if (properties.getToken() != null)
+            builder.defaultHeader(TOKEN_HEADER, properties.getToken());
+        this.client = builder.build();
+    }
+
+    @Override
+    public JudgeJob claim(String workerId, Duration wait) throws IOException {
+        try {
+            // 204 без тіла означає, що завдань немає
+            return client.post()
+                    .uri(uri -> uri.path("/api/judge-worker/claim")
+                            .queryParam("workerId", workerId)
+                            .queryParam("waitMs", wait.toMillis())
+                            .build())
+                    .retrieve()
+                    .body(JudgeJob.class);
+        } catch (RestClientException e) {
+            throw new IOException("Failed to claim judge job: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean send(String workerId, JudgeEvent event) throws IOException {
+        try {
+            client.post()
+                    .uri(uri -> uri.path("/api/judge-worker/events").queryParam("workerId", workerId).build())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(event)
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (HttpClientErrorException e) {
+            // 410 - перевірку треба припинити
+            if (e.getStatusCode().value() == HttpStatus.GONE.value())
+                return false;
+            throw new IOException("Failed to send judge event: " + e.getMessage(), e);
+        } catch (RestClientException e) {
+            throw new IOException("Failed to send judge event: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.educode.educodeApi.functional;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Передає хід перевірки клієнту через SseEmitter за протоколом версії 2: кожна SSE-подія "judge" містить кадр
+ * {"v": 2, "events": [...]} з типізованими подіями (JudgeProgressEvent).
+ * Результати тестів накопичуються і надсилаються одним кадром не частіше, ніж раз на flushInterval;
+ * будь-яка інша подія надсилається одразу разом з накопиченими результатами, тому порядок подій зберігається.
+ * Надсилання блокує потік, тому події впорядковуються ReentrantLock, а не synchronized: віртуальний потік перевірки,
+ * що чекає на повільного клієнта, не займає потік-носій.
+ */
+public class JsonSseJudgeReporter implements JudgeReporter {
+
+    public static final int VERSION = 2;
+
+    private final SseEmitter emitter;
+    private final ScheduledExecutorService scheduler;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Поля нижче змінюються під блокуванням lock
+    private final List<JudgeProgressEvent> pending = new ArrayList<>();
+    private long lastFlush = System.nanoTime();
+    private ScheduledFuture<?> scheduledFlush;
+    // Помилка відкладеного надсилання; наступна подія кидає її, як при помилці надсилання в потоці перевірки
+    private IOException failure;
+
+    /**
+     * @param emitter SSE-з'єднання клієнта
+     * @param scheduler планувальник відкладеного надсилання накопичених результатів
+     * @param flushInterval мінімальний інтервал між кадрами з результатами тестів
+     */
+    public JsonSseJudgeReporter(SseEmitter emitter, ScheduledExecutorService scheduler, Duration flushInterval) {
+        this.emitter = emitter;
+        this.scheduler = scheduler;
+        this.flushIntervalNanos = flushInterval.toNanos();
+    }
+
+    /**
+     * Кадр протоколу
+     * @param v версія протоколу
+     * @param events події в порядку виникнення
+     */
+    public record Frame(int v, List<JudgeProgressEvent> events) {
+    }
+
+    @Override
+    public void message(String text) throws IOException {
+        event(JudgeProgressEvent.message(text));
+    }
+
+    @Override
+    public void progress(long position, Duration eta) throws IOException {
+        event(JudgeProgressEvent.queued(position, eta.toSeconds()));
+    }
+
+    @Override
+    public void event(JudgeProgressEvent event) throws IOException {
+        lock.lock();
+        try {
+            if (failure != null)
+                throw failure;
+
+            pending.add(event);
+            if (event.type() == JudgeProgressEvent.Type.TEST_RESULT && System.nanoTime() - lastFlush < flushIntervalNanos) {
+                if (scheduledFlush == null)
+                    scheduledFlush = scheduler.schedule(this::flushScheduled, flushIntervalNanos - (System.nanoTime() - lastFlush), TimeUnit.NANOSECONDS);
+                return;
+            }
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void keepAlive() throws IOException {
+        lock.lock();
+        try {
+            emitter.send(SseEmitter.event().comment("keepalive"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void complete() {
+        lock.lock();
+        try {
+            cancelScheduledFlush();
+            try {
+                if (failure == null)
+                    flush();
+            } catch (IOException | IllegalStateException ignored) {
+                // Клієнт вже відключився, завершувати нічого
+            }
+            emitter.complete();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void completeWithError(Throwable e) {
+        lock.lock();
+        try {
+            cancelScheduledFlush();
+            pending.clear();
+            emitter.completeWithError(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onDisconnect(Runnable callback) {
+        emitter.onTimeout(callback);
+        emitter.onError(e -> callback.run());
+    }
+
+    /**
+     * Надсилає накопичені події одним кадром. Викликається під блокуванням.
+     */
+    private void flush() throws IOException {
+        cancelScheduledFlush();
+        lastFlush = System.nanoTime();
+        if (pending.isEmpty())
+            return;
+
+        Frame frame = new Frame(VERSION, List.copyOf(pending));
+        pending.clear();
+        emitter.send(SseEmitter.event().name("judge").data(frame, MediaType.APPLICATION_JSON).reconnectTime(3000));
+    }
+
+    private void flushScheduled() {
+        lock.lock();
+        try {
+            scheduledFlush = null;
+            if (failure != null)
+                return;
+            flush();
+        } catch (IOException e) {
+            failure = e;
+        } catch (IllegalStateException e) {
+            failure = new IOException(e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.educode.educodeApi.functional;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeJob;
+import com.educode.educodeApi.interfaces.JudgeTransport;
+import com.educode.educodeApi.services.JudgeDispatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+
+/**
+ * Транспорт для воркера в тому ж процесі, що й вузол API: викликає JudgeDispatchService напряму.
+ * Дозволяє перевірити роботу з воркерами на одній машині без мережі.
+ */
+@Component
+@ConditionalOnProperty(name = "judge.worker.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackJudgeTransport implements JudgeTransport {
+
+    @Autowired
+    private JudgeDispatchService judgeDispatchService;
+
+    @Override
+    public JudgeJob claim(String workerId, Duration wait) throws InterruptedIOException {
+        try {
+            return judgeDispatchService.claim(workerId, wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for judge job");
+        }
+    }
+
+    @Override
+    public boolean send(String workerId, JudgeEvent event) {
+        return judgeDispatchService.accept(workerId, event);
+    }
+}
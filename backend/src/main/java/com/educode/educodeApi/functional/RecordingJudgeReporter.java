@@ -0,0 +1,71 @@
+package com.educode.educodeApi.functional;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Передає події перевірки далі і запам'ятовує їх, щоб результат можна було відтворити для такого самого рішення.
+ * Якщо результат залежить не лише від коду (вийшов час, помилка сервера), запис позначається як неповторюваний.
+ */
+public class RecordingJudgeReporter implements JudgeReporter {
+    private final JudgeReporter delegate;
+    private final List<JudgeProgressEvent> events = new ArrayList<>();
+    private boolean replayable = true;
+
+    public RecordingJudgeReporter(JudgeReporter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void message(String text) throws IOException {
+        event(JudgeProgressEvent.message(text));
+    }
+
+    @Override
+    public void event(JudgeProgressEvent event) throws IOException {
+        events.add(event);
+        delegate.event(event);
+    }
+
+    @Override
+    public void progress(long position, Duration eta) throws IOException {
+        delegate.progress(position, eta);
+    }
+
+    @Override
+    public void keepAlive() throws IOException {
+        delegate.keepAlive();
+    }
+
+    @Override
+    public void complete() {
+        delegate.complete();
+    }
+
+    @Override
+    public void completeWithError(Throwable e) {
+        delegate.completeWithError(e);
+    }
+
+    @Override
+    public void onDisconnect(Runnable callback) {
+        delegate.onDisconnect(callback);
+    }
+
+    public void markNotReplayable() {
+        replayable = false;
+    }
+
+    public boolean isReplayable() {
+        return replayable;
+    }
+
+    public List<JudgeProgressEvent> getEvents() {
+        return events;
+    }
+}
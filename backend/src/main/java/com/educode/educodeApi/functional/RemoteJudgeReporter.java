@@ -0,0 +1,87 @@
+package com.educode.educodeApi.functional;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.interfaces.JudgeTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Передає повідомлення перевірки з воркера на вузол API через JudgeTransport.
+ * Якщо вузол API відповів, що перевірку треба припинити, виконуються дії onDisconnect, як при відключенні клієнта.
+ */
+public class RemoteJudgeReporter implements JudgeReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteJudgeReporter.class);
+
+    private final JudgeTransport transport;
+    private final String workerId;
+    private final Long decisionId;
+    private final List<Runnable> disconnectCallbacks = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    public RemoteJudgeReporter(JudgeTransport transport, String workerId, Long decisionId) {
+        this.transport = transport;
+        this.workerId = workerId;
+        this.decisionId = decisionId;
+    }
+
+    @Override
+    public void message(String text) throws IOException {
+        if (cancelled.get())
+            throw new IOException("Judging of decision #" + decisionId + " was cancelled by API node");
+        send(new JudgeEvent(decisionId, JudgeEvent.Type.MESSAGE, text));
+    }
+
+    @Override
+    public void event(JudgeProgressEvent event) throws IOException {
+        if (cancelled.get())
+            throw new IOException("Judging of decision #" + decisionId + " was cancelled by API node");
+        send(new JudgeEvent(decisionId, JudgeEvent.Type.PROGRESS, null, event));
+    }
+
+    @Override
+    public void complete() {
+        if (finished.compareAndSet(false, true))
+            sendQuietly(JudgeEvent.Type.COMPLETE, null);
+    }
+
+    @Override
+    public void completeWithError(Throwable e) {
+        if (finished.compareAndSet(false, true))
+            sendQuietly(JudgeEvent.Type.ERROR, e.getMessage());
+    }
+
+    @Override
+    public void onDisconnect(Runnable callback) {
+        disconnectCallbacks.add(callback);
+    }
+
+    /**
+     * Повідомляє вузол API, що перевірка ще йде, і дізнається, чи не треба її припинити
+     */
+    public void heartbeat() {
+        if (!finished.get())
+            sendQuietly(JudgeEvent.Type.HEARTBEAT, null);
+    }
+
+    private void send(JudgeEvent event) throws IOException {
+        if (!transport.send(workerId, event) && cancelled.compareAndSet(false, true))
+            disconnectCallbacks.forEach(Runnable::run);
+    }
+
+    private void sendQuietly(JudgeEvent.Type type, String text) {
+        try {
+            send(new JudgeEvent(decisionId, type, text));
+        } catch (IOException e) {
+            log.warn("Failed to send {} event of decision #{} to API node: {}", type, decisionId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.educode.educodeApi.functional;
+
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Передає повідомлення перевірки клієнту через SseEmitter у вигляді подій "message".
+ * Позиція в черзі надсилається подіями "queue" ({"position", "etaSeconds"}), keepalive - SSE-коментарем.
+ */
+public class SseJudgeReporter implements JudgeReporter {
+    private final SseEmitter emitter;
+
+    public SseJudgeReporter(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void message(String text) throws IOException {
+        emitter.send(SseEmitter.event().name("message").data(text).reconnectTime(3000));
+    }
+
+    @Override
+    public void progress(long position, Duration eta) throws IOException {
+        emitter.send(SseEmitter.event().name("queue").data(Map.of("position", position, "etaSeconds", eta.toSeconds())).reconnectTime(3000));
+    }
+
+    @Override
+    public void keepAlive() throws IOException {
+        emitter.send(SseEmitter.event().comment("keepalive"));
+    }
+
+    @Override
+    public void complete() {
+        emitter.complete();
+    }
+
+    @Override
+    public void completeWithError(Throwable e) {
+        emitter.completeWithError(e);
+    }
+
+    @Override
+    public void onDisconnect(Runnable callback) {
+        emitter.onTimeout(callback);
+        emitter.onError(e -> callback.run());
+    }
+}
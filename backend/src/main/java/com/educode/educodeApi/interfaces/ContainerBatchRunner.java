@@ -0,0 +1,19 @@
+package com.educode.educodeApi.interfaces;
+
+import com.educode.educodeApi.services.DockerContainer;
+
+/**
+ * Пакетний запуск рішення в контейнері: один виклик "sh batch_runner.sh ліміт_часу" замість виклику на кожен тест.
+ * Вивід кожного тесту batch_runner.sh обмежує в самому контейнері (другий аргумент, за замовчуванням 64 МіБ).
+ * Реалізація надається шаром контейнерів; загальний час виклику обмежується кількістю тестів, помноженою на ліміт часу.
+ */
+public interface ContainerBatchRunner {
+    /**
+     * Запускає batch_runner.sh у підготовленому контейнері рішення
+     * @param container контейнер рішення
+     * @param input пакет вхідних даних (BatchInputWriter), передається в stdin
+     * @param timeLimit ліміт часу на один тест у секундах
+     * @param output обробник stdout виклику (BatchOutputParser)
+     */
+    void runBatch(DockerContainer container, InputWriter input, float timeLimit, StreamHandler output);
+}
@@ -0,0 +1,67 @@
+package com.educode.educodeApi.interfaces;
+
+import com.educode.educodeApi.DTO.checker.CheckerDTO;
+import com.educode.educodeApi.services.DockerContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Запуск checker'а в постійному режимі: checker запускається один раз у підготовленому контейнері checker'а
+ * зі змінною оточення EDUCODE_CHECKER_MODE=persistent і отримує кадри тестів у stdin (формат - CheckerProtocol).
+ * Реалізація надається шаром контейнерів.
+ */
+public interface ContainerCheckerLauncher {
+    /**
+     * Запускає checker у постійному режимі
+     * @param checkerContainer підготовлений контейнер checker'а
+     * @param checkerDTO технічні дані checker'а
+     * @param readTimeout скільки чекати на відповідь checker'а; довше очікування читання завершує IOException
+     * @return з'єднання з процесом checker'а
+     */
+    Connection launch(DockerContainer checkerContainer, CheckerDTO checkerDTO, Duration readTimeout) throws IOException;
+
+    /**
+     * Потоки процесу checker'а. close() завершує процес, якщо він ще працює.
+     */
+    interface Connection extends AutoCloseable {
+        OutputStream stdin();
+
+        InputStream stdout();
+
+        /**
+         * Читає з stdout checker'а, чекаючи на дані не довше, ніж до deadline.
+         * Реалізація за замовчуванням опитує available(), тому закритий stdout помічає лише після deadline;
+         * шар контейнерів може замінити її читанням з таймаутом каналу.
+         * @param deadlineNanos момент за System.nanoTime(), після якого читання припиняється
+         * @return кількість прочитаних байтів, не менше одного, або -1, якщо stdout закрито
+         * @throws SocketTimeoutException якщо до deadline checker нічого не вивів
+         */
+        default int read(byte[] buffer, int offset, int length, long deadlineNanos) throws IOException {
+            InputStream stdout = stdout();
+            while (true) {
+                int available = stdout.available();
+                if (available > 0)
+                    return stdout.read(buffer, offset, Math.min(length, available));
+
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0)
+                    throw new SocketTimeoutException("Checker did not answer in time");
+                LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for checker");
+                }
+            }
+        }
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,59 @@
+package com.educode.educodeApi.interfaces;
+
+import com.educode.educodeApi.DTO.checker.CheckerDTO;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.services.DockerContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Операції шару контейнерів, потрібні пулу "теплих" контейнерів.
+ * Вільний контейнер запущений з образу мови, але ще не містить коду; prepare-методи завантажують у нього код
+ * і збирають його так само, як це роблять ContainerExecutionService.prepareForRun та DockerContainer.prepareChecker.
+ */
+public interface ContainerLifecycle {
+    /**
+     * Запускає вільний контейнер з образу мови
+     * @param image образ у форматі "мова:версія"
+     */
+    DockerContainer createIdle(String image);
+
+    /**
+     * Завантажує код рішення у вільний контейнер і збирає його
+     */
+    DockerContainer prepareForRun(DockerContainer idle, String code, int memoryLimit, TaskType taskType);
+
+    /**
+     * Завантажує у вільний контейнер зібраний раніше артефакт замість компіляції коду
+     * @param artifact вміст, записаний exportArtifact
+     */
+    DockerContainer prepareFromArtifact(DockerContainer idle, InputStream artifact, int memoryLimit, TaskType taskType) throws IOException;
+
+    /**
+     * Записує результат компіляції з підготовленого контейнера (файли, потрібні для запуску)
+     */
+    void exportArtifact(DockerContainer container, OutputStream stream) throws IOException;
+
+    /**
+     * Завантажує checker у вільний контейнер і збирає його для роботи з контейнером рішення
+     */
+    DockerContainer prepareChecker(DockerContainer idle, DockerContainer userContainer, CheckerDTO checkerDTO, int memoryLimit);
+
+    /**
+     * Перевіряє, чи контейнер запущений і відповідає
+     */
+    boolean isHealthy(DockerContainer container);
+
+    /**
+     * Повертає робочу директорію контейнера до стану образу та завершує всі процеси в ньому
+     * @return false, якщо контейнер не вдалося очистити
+     */
+    boolean reset(DockerContainer container);
+
+    /**
+     * Зупиняє та видаляє контейнер
+     */
+    void destroy(DockerContainer container);
+}
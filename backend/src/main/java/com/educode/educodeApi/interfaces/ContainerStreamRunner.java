@@ -0,0 +1,21 @@
+package com.educode.educodeApi.interfaces;
+
+import com.educode.educodeApi.services.DockerContainer;
+
+/**
+ * Запуск рішення, при якому stdout передається обробнику, а не збирається в рядок.
+ * Реалізація надається шаром контейнерів.
+ */
+public interface ContainerStreamRunner {
+    /**
+     * Запускає рішення в підготовленому контейнері так само, як ContainerExecutionService.runCode.
+     * Якщо handle() повернувся до кінця потоку, процес завершується примусово, і його код завершення не перевіряється.
+     * @param container контейнер рішення
+     * @param input вхідні дані тесту, передаються в stdin
+     * @param timeLimit ліміт часу в секундах
+     * @param output обробник stdout
+     * @throws com.educode.educodeApi.exceptions.ContainerTimeoutException якщо програма перевищила ліміт часу
+     * @throws com.educode.educodeApi.exceptions.ContainerExecutionException якщо програма сама завершилась з помилкою
+     */
+    void run(DockerContainer container, InputWriter input, float timeLimit, StreamHandler output);
+}
@@ -0,0 +1,62 @@
+package com.educode.educodeApi.interfaces;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Канал, яким перевірка рішення повідомляє клієнта про свій хід.
+ * Рішення, відновлені з персистентної черги, перевіряються без клієнта і використовують NONE.
+ */
+public interface JudgeReporter {
+    void message(String text) throws IOException;
+
+    /**
+     * Надсилає типізовану подію перевірки. За замовчуванням подія передається текстовими повідомленнями протоколу версії 1.
+     * @param event подія
+     */
+    default void event(JudgeProgressEvent event) throws IOException {
+        for (String text : event.legacyMessages())
+            message(text);
+    }
+
+    void complete();
+
+    /**
+     * Повідомляє позицію рішення в черзі, поки воно чекає на перевірку
+     * @param position кількість рішень попереду + 1
+     * @param eta оцінка часу до результату
+     */
+    default void progress(long position, Duration eta) throws IOException {
+    }
+
+    /**
+     * Надсилає порожню подію, щоб проксі не закрили з'єднання, поки немає повідомлень
+     */
+    default void keepAlive() throws IOException {
+    }
+
+    void completeWithError(Throwable e);
+
+    /**
+     * Реєструє дію, яку треба виконати, коли клієнт відключився або з'єднання вичерпало час
+     * @param callback дія
+     */
+    default void onDisconnect(Runnable callback) {
+    }
+
+    JudgeReporter NONE = new JudgeReporter() {
+        @Override
+        public void message(String text) {
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @Override
+        public void completeWithError(Throwable e) {
+        }
+    };
+}
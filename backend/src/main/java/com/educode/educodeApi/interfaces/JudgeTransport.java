@@ -0,0 +1,32 @@
+package com.educode.educodeApi.interfaces;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeJob;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Канал між воркером перевірки і вузлом API: воркер забирає завдання і повертає події перевірки.
+ * Реалізація обирається параметром judge.worker.transport.
+ */
+public interface JudgeTransport {
+
+    /**
+     * Забирає наступне завдання, чекаючи на нього не довше wait
+     * @param workerId ідентифікатор воркера
+     * @param wait максимальний час очікування
+     * @return завдання або null, якщо завдань немає
+     * @throws IOException якщо вузол API недоступний
+     */
+    JudgeJob claim(String workerId, Duration wait) throws IOException;
+
+    /**
+     * Надсилає подію перевірки
+     * @param workerId ідентифікатор воркера
+     * @param event подія
+     * @return false, якщо перевірку треба припинити: клієнт відключився або завдання передано іншому воркеру
+     * @throws IOException якщо вузол API недоступний
+     */
+    boolean send(String workerId, JudgeEvent event) throws IOException;
+}
@@ -44,7 +44,7 @@ public class CheckerMapper {
         return new CheckerDTO(
                 Paths.get(checkerProperties.getBasePath()).resolve(checker.getFilename()).toString(),
                 Paths.get(checkerProperties.getBaseLogPath()).resolve(checker.getFilename()).toString(),
-                lang, langVersion);
+                lang, langVersion, Boolean.TRUE.equals(checker.getPersistent()));
     }
 
     public CheckerViewDTO toViewDTO(Checker checker) {
@@ -56,22 +56,25 @@ public class CheckerMapper {
     }
 
     public CheckerDetailDTO toDetailDTO(Checker checker, StdOptional<Set<Puzzle>> puzzles) {
-        return new CheckerDetailDTO(checker.getId(), checker.getLanguageId(), checker.getName(), checker.getSizeBytes(), puzzles.orElseGet(checker::getPuzzles).stream().map(puzzleMapper::toMinDTO).collect(Collectors.toList()));
+        return new CheckerDetailDTO(checker.getId(), checker.getLanguageId(), checker.getName(), checker.getSizeBytes(), Boolean.TRUE.equals(checker.getPersistent()), puzzles.orElseGet(checker::getPuzzles).stream().map(puzzleMapper::toMinDTO).collect(Collectors.toList()));
     }
 
     public CheckerCreateDTO toCreateDTO(CheckerUpdateDTO checkerUpdateDTO) {
-        return new CheckerCreateDTO(checkerUpdateDTO.name(), checkerUpdateDTO.languageId());
+        return new CheckerCreateDTO(checkerUpdateDTO.name(), checkerUpdateDTO.languageId(), checkerUpdateDTO.persistent());
     }
 
     public void setFromUpdateDTO(Checker checker, CheckerUpdateDTO dto, Path checkerPath) {
         checker.setName(dto.name());
         checker.setLanguageId(dto.languageId());
+        checker.setPersistent(Boolean.TRUE.equals(dto.persistent()));
         checker.setFilename(checkerPath.getFileName().toString());
         checker.setSizeBytes(fileManagementUtil.getDirectorySize(checkerPath));
     }
 
     public Checker fromCreateDTO(CheckerCreateDTO dto, User user, Path compiledFilePath) {
-        return new Checker(null, user, compiledFilePath.getFileName().toString(), fileManagementUtil.getDirectorySize(compiledFilePath), dto.languageId(), dto.name());
+        Checker checker = new Checker(null, user, compiledFilePath.getFileName().toString(), fileManagementUtil.getDirectorySize(compiledFilePath), dto.languageId(), dto.name());
+        checker.setPersistent(Boolean.TRUE.equals(dto.persistent()));
+        return checker;
     }
 
     public CheckerOnPageDTO toPageDTO(Checker checker) {
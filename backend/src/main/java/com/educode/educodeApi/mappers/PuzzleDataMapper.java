@@ -5,20 +5,30 @@ import com.educode.educodeApi.DTO.puzzle.PuzzleDataDTO;
 import com.educode.educodeApi.DTO.puzzle.PuzzleDataUpdateDTO;
 import com.educode.educodeApi.models.Puzzle;
 import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.services.TestDataService;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PuzzleDataMapper {
+    private final TestDataService testDataService;
+
+    public PuzzleDataMapper(TestDataService testDataService) {
+        this.testDataService = testDataService;
+    }
+
     public PuzzleData fromCreateDTO(PuzzleDataCreateDTO puzzleDataCreateDTO, Puzzle puzzle) {
-        return new PuzzleData(null, puzzle, puzzleDataCreateDTO.getInput(), puzzleDataCreateDTO.getOutput(), puzzleDataCreateDTO.getScore());
+        PuzzleData puzzleData = new PuzzleData(null, puzzle, puzzleDataCreateDTO.getInput(), puzzleDataCreateDTO.getOutput(), puzzleDataCreateDTO.getScore());
+        testDataService.store(puzzleData);
+        return puzzleData;
     }
 
     public PuzzleDataDTO toViewDTO(PuzzleData puzzleData) {
-        return new PuzzleDataDTO(puzzleData.getId(), puzzleData.getInput(), puzzleData.getOutput(), puzzleData.getScore());
+        return new PuzzleDataDTO(puzzleData.getId(), testDataService.readInput(puzzleData), testDataService.readOutput(puzzleData), puzzleData.getScore());
     }
 
     public void setFromUpdateDTO(PuzzleData puzzleData, PuzzleDataUpdateDTO puzzleDataUpdateDTO) {
         puzzleData.setInput(puzzleDataUpdateDTO.getInput());
-        puzzleData.setOutput(puzzleData.getOutput());
+        puzzleData.setOutput(puzzleDataUpdateDTO.getOutput());
+        testDataService.store(puzzleData);
     }
 }
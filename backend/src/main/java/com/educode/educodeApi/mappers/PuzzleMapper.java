@@ -30,7 +30,7 @@ public class PuzzleMapper {
                 ? p.getPuzzleData().stream().filter(o -> o.getScore() == 0).collect(Collectors.toSet())
                 : p.getPuzzleData();
 
-        return new PuzzleDTO(
+        PuzzleDTO dto = new PuzzleDTO(
             p.getId(),
             p.getTitle(),
             p.getDescription(),
@@ -45,6 +45,8 @@ public class PuzzleMapper {
             checkerId.orElseGet(() -> p.getChecker().getId()),
             p.getVisible()
         );
+        dto.setJudgingPolicy(p.getJudgingPolicy());
+        return dto;
     }
 
     public PuzzleDTO toDTO(Puzzle p) {
@@ -56,7 +58,7 @@ public class PuzzleMapper {
     }
 
     public PuzzleDTO toMinDTO(Puzzle puzzle) {
-        return new PuzzleDTO(
+        PuzzleDTO dto = new PuzzleDTO(
             puzzle.getId(),
             puzzle.getTitle(),
             puzzle.getDescription(),
@@ -71,6 +73,8 @@ public class PuzzleMapper {
             null,
             puzzle.getVisible()
         );
+        dto.setJudgingPolicy(puzzle.getJudgingPolicy());
+        return dto;
     }
 
     public Puzzle fromCreateDTO(PuzzleCreateDTO p, User user, Checker checker) {
@@ -89,6 +93,7 @@ public class PuzzleMapper {
             true,
             p.getVisible()
         );
+        puzzle.setJudgingPolicy(p.getJudgingPolicy());
 
         puzzle.setPuzzleData(MappingUtils.toDtoCollection(p.getPuzzleData(), pd -> puzzleDataMapper.fromCreateDTO(pd, puzzle), null, false, Collectors.toSet()));
 
@@ -102,6 +107,8 @@ public class PuzzleMapper {
         puzzle.setTimeLimit(puzzleUpdateDTO.getTimeLimit());
         puzzle.setEnabled(puzzleUpdateDTO.getEnabled());
         puzzle.setVisible(puzzleUpdateDTO.getVisible());
+        if (puzzleUpdateDTO.getJudgingPolicy() != null)
+            puzzle.setJudgingPolicy(puzzleUpdateDTO.getJudgingPolicy());
 
         if (checker != null)
             puzzle.setChecker(checker);
@@ -28,6 +28,10 @@ public class Checker {
     @Column(nullable = false)
     private String name;
 
+    // Checker підтримує постійний режим: запускається один раз на рішення і перевіряє тести потоком кадрів
+    @Column(columnDefinition = "TINYINT(1) NOT NULL DEFAULT 0")
+    private Boolean persistent = false;
+
     @OneToMany(mappedBy = "checker", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Puzzle> puzzles = new HashSet<>();
 
@@ -87,6 +91,14 @@ public class Checker {
         this.languageId = languageId;
     }
 
+    public Boolean getPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(Boolean persistent) {
+        this.persistent = persistent;
+    }
+
     public Set<Puzzle> getPuzzles() {
         return puzzles;
     }
@@ -1,7 +1,9 @@
 package com.educode.educodeApi.models;
 
+import com.educode.educodeApi.utils.DeflateCodec;
 import jakarta.persistence.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
 /**
@@ -9,17 +11,27 @@ import java.time.LocalDateTime;
  * Зберігає код, мову програмування, оцінку та інші параметри рішення.
  */
 @Entity
-@Table(name = "decisions")
+@Table(name = "decisions", indexes = {
+    @Index(name = "idx_decisions_code_hash", columnList = "puzzle_id, codeHash"),
+    @Index(name = "idx_decisions_rejudge_job", columnList = "rejudgeJobId")
+})
 public class Decision {
     // Унікальний ідентифікатор рішення
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    // Код рішення та мова програмування
+    // Код рішення та мова програмування; великий код зберігається стиснутим у codeDeflated, а code тоді null
     @Column(columnDefinition = "TEXT")
     private String code;
 
+    @Column(length = 16777215)
+    private byte[] codeDeflated;
+
+    // Розпакований codeDeflated, щоб не розпаковувати код при кожному читанні
+    @Transient
+    private String inflatedCode;
+
     private String language;
 
     // Оцінка за рішення
@@ -46,6 +58,24 @@ public class Decision {
     @JoinColumn(name = "homework_id")
     private Homework homework;
 
+    // SHA-256 мови та коду рішення; за ним шукається вже перевірене таке саме рішення
+    @Column(length = 64)
+    private String codeHash;
+
+    // Версії тестів і checker'а, на яких отримано результат
+    @Column(length = 64)
+    private String testSetHash;
+
+    @Column(length = 64)
+    private String checkerHash;
+
+    // Повідомлення перевірки (JSON-масив), які відтворюються для такого самого рішення; null - результат не можна повторити
+    @Column(columnDefinition = "TEXT")
+    private String verdictLog;
+
+    // Повторна перевірка (RejudgeJob), в черзі якої зараз стоїть рішення, або null
+    private Long rejudgeJobId;
+
     /**
      * Метод, що автоматично встановлює час створення рішення перед збереженням у базу даних.
      */
@@ -93,11 +123,29 @@ public class Decision {
     }
 
     public String getCode() {
-        return code;
+        if (code == null && codeDeflated != null && inflatedCode == null)
+            inflatedCode = new String(DeflateCodec.decompress(codeDeflated), StandardCharsets.UTF_8);
+        return code != null ? code : inflatedCode;
     }
 
     public void setCode(String code) {
         this.code = code;
+        this.codeDeflated = null;
+        this.inflatedCode = null;
+    }
+
+    /**
+     * Зберігає код стиснутим замість тексту
+     * @param codeDeflated код, стиснутий DeflateCodec
+     */
+    public void moveCodeToDeflated(byte[] codeDeflated) {
+        this.inflatedCode = getCode();
+        this.code = null;
+        this.codeDeflated = codeDeflated;
+    }
+
+    public boolean isCodeDeflated() {
+        return codeDeflated != null;
     }
 
     public String getLanguage() {
@@ -164,6 +212,46 @@ public class Decision {
         this.homework = homework;
     }
 
+    public String getCodeHash() {
+        return codeHash;
+    }
+
+    public void setCodeHash(String codeHash) {
+        this.codeHash = codeHash;
+    }
+
+    public String getTestSetHash() {
+        return testSetHash;
+    }
+
+    public void setTestSetHash(String testSetHash) {
+        this.testSetHash = testSetHash;
+    }
+
+    public String getCheckerHash() {
+        return checkerHash;
+    }
+
+    public void setCheckerHash(String checkerHash) {
+        this.checkerHash = checkerHash;
+    }
+
+    public String getVerdictLog() {
+        return verdictLog;
+    }
+
+    public void setVerdictLog(String verdictLog) {
+        this.verdictLog = verdictLog;
+    }
+
+    public Long getRejudgeJobId() {
+        return rejudgeJobId;
+    }
+
+    public void setRejudgeJobId(Long rejudgeJobId) {
+        this.rejudgeJobId = rejudgeJobId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,187 @@
+package com.educode.educodeApi.models;
+
+import com.educode.educodeApi.DTO.code.JudgeTicketInfo;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.enums.converters.JudgePriorityConverter;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запис персистентної черги перевірки рішень.
+ * Поки ownerNode порожній, запис чекає на перевірку. Вузол, що захопив запис, тримає його
+ * до leaseUntil і періодично продовжує оренду; прострочений запис може захопити інший вузол.
+ */
+@Entity
+@Table(name = "judge_queue", indexes = {
+    @Index(name = "idx_judge_queue_lease", columnList = "ownerNode, leaseUntil"),
+    @Index(name = "idx_judge_queue_priority", columnList = "priority, id"),
+})
+public class JudgeQueueEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Рішення, яке потрібно перевірити
+    @Column(nullable = false, unique = true)
+    private Long decisionId;
+
+    // Вузол, який прийняв рішення від клієнта і тримає його SSE-з'єднання
+    @Column(nullable = false)
+    private String originNode;
+
+    // Вузол, що зараз перевіряє рішення, або null, якщо запис чекає
+    private String ownerNode;
+
+    // Час, до якого діє оренда ownerNode
+    @Column(columnDefinition = "TIMESTAMP(6) DEFAULT NULL")
+    private LocalDateTime leaseUntil;
+
+    // Кількість захоплень запису, тобто спроб перевірки
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int attempts = 0;
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime createdAt;
+
+    // Автор рішення; вузли обслуговують авторів по черзі
+    private Long userId;
+
+    // TreeNode, від імені якого відправлено рішення, та його частка слотів
+    private Long tenantId;
+    private Float tenantShare;
+
+    @Convert(converter = JudgePriorityConverter.class)
+    @Column(nullable = false, columnDefinition = "TINYINT NOT NULL DEFAULT 1")
+    private JudgePriority priority = JudgePriority.NORMAL;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public JudgeQueueEntry() {
+    }
+
+    public JudgeQueueEntry(Long decisionId, String originNode) {
+        this.decisionId = decisionId;
+        this.originNode = originNode;
+    }
+
+    public JudgeQueueEntry(Long decisionId, String originNode, JudgeTicketInfo info) {
+        this(decisionId, originNode);
+        this.userId = info.userId();
+        this.tenantId = info.tenantId();
+        this.tenantShare = info.tenantShare();
+        this.priority = info.priority();
+    }
+
+    /**
+     * Повертає дані для розподілу слотів
+     */
+    public JudgeTicketInfo toTicketInfo() {
+        return new JudgeTicketInfo(userId != null ? userId : decisionId, tenantId, tenantShare, priority);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDecisionId() {
+        return decisionId;
+    }
+
+    public void setDecisionId(Long decisionId) {
+        this.decisionId = decisionId;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public void setOriginNode(String originNode) {
+        this.originNode = originNode;
+    }
+
+    public String getOwnerNode() {
+        return ownerNode;
+    }
+
+    public void setOwnerNode(String ownerNode) {
+        this.ownerNode = ownerNode;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public Float getTenantShare() {
+        return tenantShare;
+    }
+
+    public void setTenantShare(Float tenantShare) {
+        this.tenantShare = tenantShare;
+    }
+
+    public JudgePriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(JudgePriority priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        if (org.hibernate.Hibernate.getClass(this) != org.hibernate.Hibernate.getClass(o)) return false;
+        JudgeQueueEntry that = (JudgeQueueEntry) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
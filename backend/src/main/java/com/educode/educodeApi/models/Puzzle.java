@@ -1,6 +1,8 @@
 package com.educode.educodeApi.models;
 
+import com.educode.educodeApi.enums.JudgingPolicy;
 import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.enums.converters.JudgingPolicyConverter;
 import com.educode.educodeApi.enums.converters.TaskTypeConverter;
 import jakarta.persistence.*;
 
@@ -58,6 +60,11 @@ public class Puzzle {
     @Column(columnDefinition = "TINYINT NOT NULL DEFAULT 0", nullable = false)
     private TaskType taskType = TaskType.NON_INTERACTIVE;
 
+    // Політика перевірки: на всіх тестах чи до першого непройденого
+    @Convert(converter = JudgingPolicyConverter.class)
+    @Column(columnDefinition = "TINYINT NOT NULL DEFAULT 0", nullable = false)
+    private JudgingPolicy judgingPolicy = JudgingPolicy.FULL_REPORT;
+
     @Column(columnDefinition = "TINYINT(1) NOT NULL DEFAULT 1")
     private Boolean enabled = true;
 
@@ -199,6 +206,14 @@ public class Puzzle {
         this.taskType = taskType;
     }
 
+    public JudgingPolicy getJudgingPolicy() {
+        return judgingPolicy;
+    }
+
+    public void setJudgingPolicy(JudgingPolicy judgingPolicy) {
+        this.judgingPolicy = judgingPolicy;
+    }
+
     public Boolean getEnabled() {
         return enabled;
     }
@@ -0,0 +1,87 @@
+package com.educode.educodeApi.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Скільки балів за задачу зараховано до рейтингу автора: округлений найкращий бал його рішень на момент останнього
+ * зарахування. Рейтинг автора завжди змінюється на різницю між новим найкращим балом і зарахованим (DecisionFinalizationService),
+ * тому повторне завершення рішення або повторна перевірка, що йде одночасно з новими рішеннями, не додають бали двічі.
+ */
+@Entity
+@Table(name = "puzzle_credits", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_puzzle_credits_user_puzzle", columnNames = {"userId", "puzzleId"})
+})
+public class PuzzleCredit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long puzzleId;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int credited = 0;
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public PuzzleCredit() {
+    }
+
+    public PuzzleCredit(Long userId, Long puzzleId, int credited) {
+        this.userId = userId;
+        this.puzzleId = puzzleId;
+        this.credited = credited;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getPuzzleId() {
+        return puzzleId;
+    }
+
+    public void setPuzzleId(Long puzzleId) {
+        this.puzzleId = puzzleId;
+    }
+
+    public int getCredited() {
+        return credited;
+    }
+
+    public void setCredited(int credited) {
+        this.credited = credited;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 /**
  * Клас, що представляє дані для тестування задачі.
  * Містить вхідні дані, очікувані вихідні дані та кількість балів за правильне рішення.
+ * Якщо увімкнено сховище тестових даних, вхідні та вихідні дані зберігаються у файлах (TestDataService),
+ * а в БД залишаються лише їх хеші та розміри.
  */
 @Entity
 @Table(name="puzzle_data")
@@ -25,6 +27,19 @@ public class PuzzleData {
     // Очікувані вихідні дані для перевірки правильності рішення
     private String output;
 
+    // SHA-256 вхідних даних у сховищі тестових даних; якщо задано, input порожній
+    @Column(length = 64)
+    private String inputHash;
+
+    // SHA-256 очікуваних вихідних даних у сховищі; якщо задано, output порожній
+    @Column(length = 64)
+    private String outputHash;
+
+    // Розміри даних у сховищі в байтах
+    private Long inputSize;
+
+    private Long outputSize;
+
     // Кількість балів за правильне рішення тесту
     private Float score;
 
@@ -70,16 +85,67 @@ public class PuzzleData {
         return input;
     }
 
+    /**
+     * Задає вхідні дані в БД; посилання на сховище при цьому скидається
+     */
     public void setInput(String input) {
         this.input = input;
+        this.inputHash = null;
+        this.inputSize = null;
     }
 
     public String getOutput() {
         return output;
     }
 
+    /**
+     * Задає очікувані вихідні дані в БД; посилання на сховище при цьому скидається
+     */
     public void setOutput(String output) {
         this.output = output;
+        this.outputHash = null;
+        this.outputSize = null;
+    }
+
+    public String getInputHash() {
+        return inputHash;
+    }
+
+    public Long getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Переносить вхідні дані у сховище: у БД залишаються лише хеш і розмір
+     */
+    public void moveInputToStore(String hash, long size) {
+        this.input = null;
+        this.inputHash = hash;
+        this.inputSize = size;
+    }
+
+    public String getOutputHash() {
+        return outputHash;
+    }
+
+    public Long getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * Переносить очікувані вихідні дані у сховище: у БД залишаються лише хеш і розмір
+     */
+    public void moveOutputToStore(String hash, long size) {
+        this.output = null;
+        this.outputHash = hash;
+        this.outputSize = size;
+    }
+
+    /**
+     * Перевіряє, чи тест має очікуваний вивід; тест без нього перевіряє checker
+     */
+    public boolean hasOutput() {
+        return output != null || outputHash != null;
     }
 
     public Float getScore() {
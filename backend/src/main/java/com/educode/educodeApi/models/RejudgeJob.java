@@ -0,0 +1,163 @@
+package com.educode.educodeApi.models;
+
+import com.educode.educodeApi.enums.RejudgeStatus;
+import com.educode.educodeApi.enums.converters.RejudgeStatusConverter;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Повторна перевірка рішень задачі після зміни тестів або checker'а.
+ * Рішення переглядаються партіями авторів у порядку їх ідентифікаторів: cursorUserId - останній автор,
+ * чиї рішення вже поставлено в чергу. Поки партія перевіряється, ratingUsers зберігає її авторів,
+ * щоб після перевірки виправити їх рейтинг.
+ */
+@Entity
+@Table(name = "rejudge_jobs", indexes = {
+    @Index(name = "idx_rejudge_jobs_status", columnList = "status, puzzleId")
+})
+public class RejudgeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long puzzleId;
+
+    // Партію може взяти лише один вузол: збереження із застарілою версією відхиляється
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version = 0L;
+
+    @Convert(converter = RejudgeStatusConverter.class)
+    @Column(nullable = false, columnDefinition = "TINYINT NOT NULL DEFAULT 0")
+    private RejudgeStatus status = RejudgeStatus.RUNNING;
+
+    // Кількість перевірених рішень задачі на момент запуску
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int total = 0;
+
+    // Скільки рішень переглянуто, з них поставлено в чергу і пропущено, бо тести й checker не змінились
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int processed = 0;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int queued = 0;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int skipped = 0;
+
+    // Скільки авторів отримали зміну рейтингу
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int ratingChanges = 0;
+
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long cursorUserId = 0L;
+
+    // JSON-масив id авторів поточної партії, чий рейтинг треба виправити після перевірки, або null
+    @Column(columnDefinition = "TEXT")
+    private String ratingUsers;
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime createdAt;
+
+    @Column(columnDefinition = "TIMESTAMP(6) DEFAULT NULL")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public RejudgeJob() {
+    }
+
+    public RejudgeJob(Long puzzleId, int total) {
+        this.puzzleId = puzzleId;
+        this.total = total;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPuzzleId() {
+        return puzzleId;
+    }
+
+    public RejudgeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RejudgeStatus status) {
+        this.status = status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getRatingChanges() {
+        return ratingChanges;
+    }
+
+    public void setRatingChanges(int ratingChanges) {
+        this.ratingChanges = ratingChanges;
+    }
+
+    public Long getCursorUserId() {
+        return cursorUserId;
+    }
+
+    public void setCursorUserId(Long cursorUserId) {
+        this.cursorUserId = cursorUserId;
+    }
+
+    public String getRatingUsers() {
+        return ratingUsers;
+    }
+
+    public void setRatingUsers(String ratingUsers) {
+        this.ratingUsers = ratingUsers;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
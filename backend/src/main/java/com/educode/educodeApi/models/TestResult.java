@@ -0,0 +1,166 @@
+package com.educode.educodeApi.models;
+
+import com.educode.educodeApi.enums.TestVerdict;
+import com.educode.educodeApi.enums.converters.TestVerdictConverter;
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Результат одного тесту перевіреного рішення: вердикт, час виконання, код завершення та розмір виводу.
+ * Записи додаються пакетною вставкою JDBC в кінці перевірки (TestResultService), а не через JPA.
+ * Тест зберігається за ідентифікатором без зовнішнього ключа, тому результати залишаються після зміни тестів задачі.
+ * На рішення є зовнішній ключ з ON DELETE CASCADE: результати видаляються разом із рішенням, яким би шляхом його не видалили.
+ * Невідомі величини (наприклад, час тесту, що не виконувався, або пам'ять, яку контейнер не повідомив) - null.
+ */
+@Entity
+@Table(name = "decision_test_results", indexes = {
+    @Index(name = "idx_decision_test_results_decision", columnList = "decisionId, testNumber"),
+    @Index(name = "idx_decision_test_results_puzzle_data", columnList = "puzzleDataId")
+})
+public class TestResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long decisionId;
+
+    // Лише для зовнішнього ключа і запитів; записи додаються за decisionId
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "decision_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Decision decision;
+
+    private Long puzzleDataId;
+
+    // Номер тесту, починаючи з 1, у тому порядку, в якому клієнт отримував результати
+    @Column(nullable = false)
+    private int testNumber;
+
+    @Convert(converter = TestVerdictConverter.class)
+    @Column(nullable = false, columnDefinition = "TINYINT NOT NULL")
+    private TestVerdict verdict;
+
+    // Бали, зараховані за тест
+    private Float score;
+
+    // Час виконання програми на тесті в мілісекундах; для запуску разом з checker'ом - включно з checker'ом
+    private Long timeMs;
+
+    // Пікова пам'ять програми в кілобайтах
+    private Long memoryKb;
+
+    private Integer exitCode;
+
+    // Розмір виводу програми в байтах
+    private Long outputBytes;
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public TestResult() {
+    }
+
+    public TestResult(Long decisionId, Long puzzleDataId, int testNumber, TestVerdict verdict) {
+        this.decisionId = decisionId;
+        this.puzzleDataId = puzzleDataId;
+        this.testNumber = testNumber;
+        this.verdict = verdict;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDecisionId() {
+        return decisionId;
+    }
+
+    public void setDecisionId(Long decisionId) {
+        this.decisionId = decisionId;
+    }
+
+    public Long getPuzzleDataId() {
+        return puzzleDataId;
+    }
+
+    public void setPuzzleDataId(Long puzzleDataId) {
+        this.puzzleDataId = puzzleDataId;
+    }
+
+    public int getTestNumber() {
+        return testNumber;
+    }
+
+    public void setTestNumber(int testNumber) {
+        this.testNumber = testNumber;
+    }
+
+    public TestVerdict getVerdict() {
+        return verdict;
+    }
+
+    public void setVerdict(TestVerdict verdict) {
+        this.verdict = verdict;
+    }
+
+    public Float getScore() {
+        return score;
+    }
+
+    public void setScore(Float score) {
+        this.score = score;
+    }
+
+    public Long getTimeMs() {
+        return timeMs;
+    }
+
+    public void setTimeMs(Long timeMs) {
+        this.timeMs = timeMs;
+    }
+
+    public Long getMemoryKb() {
+        return memoryKb;
+    }
+
+    public void setMemoryKb(Long memoryKb) {
+        this.memoryKb = memoryKb;
+    }
+
+    public Integer getExitCode() {
+        return exitCode;
+    }
+
+    public void setExitCode(Integer exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    public Long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public void setOutputBytes(Long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -38,6 +38,10 @@ public class TreeNode {
     )
     private Set<Puzzle> puzzles = new HashSet<>();
 
+    // Частка слотів перевірки (0..1], яку можуть одночасно зайняти рішення цього вузла; null - значення за замовчуванням.
+    // Змінюється через PUT /api/tree-node/{id}/judge-slot-share
+    private Float judgeSlotShare;
+
     public TreeNode() {}
 
     public TreeNode(TreeNode parent, Boolean canHaveChildren) {
@@ -66,6 +70,14 @@ public class TreeNode {
     public Set<Puzzle> getPuzzles() { return puzzles; }
     public void setPuzzles(Set<Puzzle> puzzles) { this.puzzles = puzzles; }
 
+    public Float getJudgeSlotShare() {
+        return judgeSlotShare;
+    }
+
+    public void setJudgeSlotShare(Float judgeSlotShare) {
+        this.judgeSlotShare = judgeSlotShare;
+    }
+
     public TreeNodeType getType() {
         return type;
     }
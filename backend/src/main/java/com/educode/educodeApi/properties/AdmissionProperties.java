@@ -0,0 +1,87 @@
+package com.educode.educodeApi.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "judge.admission")
+@Validated
+public class AdmissionProperties {
+    @NotNull(message = "Admission enabled flag must not be null")
+    private Boolean enabled = true;
+
+    // Максимальна кількість рішень у персистентній черзі (спільній для всіх вузлів)
+    @NotNull(message = "Admission max queue depth must not be null")
+    @Min(value = 1, message = "Admission max queue depth must be positive")
+    private Integer maxQueueDepth = 500;
+
+    // Починаючи з цієї глибини черги приймаються лише термінові рішення, а запуски коду відхиляються
+    @NotNull(message = "Admission shed queue depth must not be null")
+    @Min(value = 1, message = "Admission shed queue depth must be positive")
+    private Integer shedQueueDepth = 300;
+
+    // Максимальна кількість запусків коду, що чекають на слот цього вузла
+    @NotNull(message = "Admission max execution queue depth must not be null")
+    @Min(value = 1, message = "Admission max execution queue depth must be positive")
+    private Integer maxExecutionQueueDepth = 100;
+
+    // Скільки незавершених рішень і окремо запусків коду може мати один користувач
+    @NotNull(message = "Admission max in-flight per user must not be null")
+    @Min(value = 1, message = "Admission max in-flight per user must be positive")
+    private Integer maxInFlightPerUser = 3;
+
+    @NotNull(message = "Admission max retry after seconds must not be null")
+    @Min(value = 1, message = "Admission max retry after seconds must be positive")
+    private Long maxRetryAfterSeconds = 300L;
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Integer getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public void setMaxQueueDepth(Integer maxQueueDepth) {
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    public Integer getShedQueueDepth() {
+        return shedQueueDepth;
+    }
+
+    public void setShedQueueDepth(Integer shedQueueDepth) {
+        this.shedQueueDepth = shedQueueDepth;
+    }
+
+    public Integer getMaxExecutionQueueDepth() {
+        return maxExecutionQueueDepth;
+    }
+
+    public void setMaxExecutionQueueDepth(Integer maxExecutionQueueDepth) {
+        this.maxExecutionQueueDepth = maxExecutionQueueDepth;
+    }
+
+    public Integer getMaxInFlightPerUser() {
+        return maxInFlightPerUser;
+    }
+
+    public void setMaxInFlightPerUser(Integer maxInFlightPerUser) {
+        this.maxInFlightPerUser = maxInFlightPerUser;
+    }
+
+    public Long getMaxRetryAfterSeconds() {
+        return maxRetryAfterSeconds;
+    }
+
+    public void setMaxRetryAfterSeconds(Long maxRetryAfterSeconds) {
+        this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+    }
+}
@@ -0,0 +1,70 @@
+package com.educode.educodeApi.properties;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "compile-cache")
+@Validated
+public class CompileCacheProperties {
+    @NotNull(message = "Compile cache enabled flag must not be null")
+    private Boolean enabled = false;
+
+    @NotNull(message = "Compile cache base path must not be null")
+    private String basePath = "/opt/educode/compile-cache";
+
+    @NotNull(message = "Compile cache max bytes must not be null")
+    private Long maxBytes = 2147483648L;
+
+    // Мови (частина server_id до ':'), які мають етап компіляції
+    private List<String> languages = new ArrayList<>();
+
+    // Входить у ключ кешу; змінюється разом із прапорцями компіляції в entrypoint.sh, щоб старі записи не використовувались
+    @NotNull(message = "Compile cache flags version must not be null")
+    private String flagsVersion = "1";
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    public void setBasePath(String basePath) {
+        this.basePath = basePath;
+    }
+
+    public Long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(Long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<String> languages) {
+        this.languages = languages;
+    }
+
+    public String getFlagsVersion() {
+        return flagsVersion;
+    }
+
+    public void setFlagsVersion(String flagsVersion) {
+        this.flagsVersion = flagsVersion;
+    }
+}
@@ -0,0 +1,51 @@
+package com.educode.educodeApi.properties;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "compression")
+@Validated
+public class CompressionProperties {
+    @NotNull(message = "Compression enabled flag must not be null")
+    private Boolean enabled = false;
+
+    // Рівень Deflate: 1 - найшвидше, 9 - найкраще стиснення
+    @NotNull(message = "Compression level must not be null")
+    @Min(value = 1, message = "Compression level must be at least 1")
+    @Max(value = 9, message = "Compression level must be at most 9")
+    private Integer level = 1;
+
+    // Дані, коротші за це значення, зберігаються без стиснення
+    @NotNull(message = "Compression min bytes must not be null")
+    @Min(value = 0, message = "Compression min bytes must not be negative")
+    private Integer minBytes = 4096;
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public void setLevel(Integer level) {
+        this.level = level;
+    }
+
+    public Integer getMinBytes() {
+        return minBytes;
+    }
+
+    public void setMinBytes(Integer minBytes) {
+        this.minBytes = minBytes;
+    }
+}
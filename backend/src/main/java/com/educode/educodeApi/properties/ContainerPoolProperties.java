@@ -0,0 +1,83 @@
+package com.educode.educodeApi.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "container.pool")
+@Validated
+public class ContainerPoolProperties {
+    @NotNull(message = "Pool enabled flag must not be null")
+    private Boolean enabled = false;
+
+    @NotNull(message = "Pool min idle must not be null")
+    @Min(value = 0, message = "Pool min idle must not be negative")
+    private Integer minIdle = 1;
+
+    @NotNull(message = "Pool max idle must not be null")
+    @Min(value = 0, message = "Pool max idle must not be negative")
+    private Integer maxIdle = 4;
+
+    @NotNull(message = "Pool max idle seconds must not be null")
+    private Long maxIdleSeconds = 600L;
+
+    // Образи "мова:версія" з programmingLanguages.json, для яких тримати пул; порожній список - усі мови
+    private List<String> languages = new ArrayList<>();
+
+    // Образи з checkerLanguages.json, для яких тримати пул checker'ів; порожній список - усі мови
+    private List<String> checkerLanguages = new ArrayList<>();
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Integer getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(Integer minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public Integer getMaxIdle() {
+        return maxIdle;
+    }
+
+    public void setMaxIdle(Integer maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    public Long getMaxIdleSeconds() {
+        return maxIdleSeconds;
+    }
+
+    public void setMaxIdleSeconds(Long maxIdleSeconds) {
+        this.maxIdleSeconds = maxIdleSeconds;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<String> languages) {
+        this.languages = languages;
+    }
+
+    public List<String> getCheckerLanguages() {
+        return checkerLanguages;
+    }
+
+    public void setCheckerLanguages(List<String> checkerLanguages) {
+        this.checkerLanguages = checkerLanguages;
+    }
+}
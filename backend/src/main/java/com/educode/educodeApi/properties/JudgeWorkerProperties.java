@@ -0,0 +1,84 @@
+package com.educode.educodeApi.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "judge.worker")
+@Validated
+public class JudgeWorkerProperties {
+    // Чи забирати завдання перевірки з вузла API (профіль judge-worker)
+    @NotNull(message = "Judge worker enabled flag must not be null")
+    private Boolean enabled = false;
+
+    // loopback - вузол API в тому ж процесі, http - окремий вузол API за apiUrl
+    @NotNull(message = "Judge worker transport must not be null")
+    private String transport = "loopback";
+
+    @NotNull(message = "Judge worker API url must not be null")
+    private String apiUrl = "http://localhost:8080";
+
+    // Спільний секрет воркерів і вузла API; якщо не задано, вузол API не приймає http-воркерів
+    private String token;
+
+    // Скільки рішень воркер перевіряє одночасно
+    @NotNull(message = "Judge worker concurrency must not be null")
+    @Min(value = 1, message = "Judge worker concurrency must be positive")
+    private Integer concurrency = 4;
+
+    // Скільки чекати на завдання в одному запиті до вузла API
+    @NotNull(message = "Judge worker poll wait must not be null")
+    @Min(value = 0, message = "Judge worker poll wait must not be negative")
+    private Long pollWaitMs = 10000L;
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public void setApiUrl(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Long getPollWaitMs() {
+        return pollWaitMs;
+    }
+
+    public void setPollWaitMs(Long pollWaitMs) {
+        this.pollWaitMs = pollWaitMs;
+    }
+}
@@ -0,0 +1,72 @@
+package com.educode.educodeApi.properties;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "test-data")
+@Validated
+public class TestDataProperties {
+    @NotNull(message = "Test data store enabled flag must not be null")
+    private Boolean enabled = false;
+
+    @NotNull(message = "Test data base path must not be null")
+    private String basePath = "/opt/educode/test-data";
+
+    // Чи переносити тести, збережені в БД, у сховище після запуску. Перенесення незворотне, тому вмикається явно
+    @NotNull(message = "Test data migrate flag must not be null")
+    private Boolean migrate = false;
+
+    // Скільки тестів за раз переносити з БД у сховище після запуску
+    @NotNull(message = "Test data migrate batch size must not be null")
+    @Min(value = 1, message = "Test data migrate batch size must be at least 1")
+    private Integer migrateBatchSize = 100;
+
+    // Файли без посилань з БД видаляються лише після цього часу з останньої зміни
+    @NotNull(message = "Test data gc grace hours must not be null")
+    @Min(value = 1, message = "Test data gc grace hours must be at least 1")
+    private Integer gcGraceHours = 24;
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    public void setBasePath(String basePath) {
+        this.basePath = basePath;
+    }
+
+    public Boolean getMigrate() {
+        return migrate;
+    }
+
+    public void setMigrate(Boolean migrate) {
+        this.migrate = migrate;
+    }
+
+    public Integer getMigrateBatchSize() {
+        return migrateBatchSize;
+    }
+
+    public void setMigrateBatchSize(Integer migrateBatchSize) {
+        this.migrateBatchSize = migrateBatchSize;
+    }
+
+    public Integer getGcGraceHours() {
+        return gcGraceHours;
+    }
+
+    public void setGcGraceHours(Integer gcGraceHours) {
+        this.gcGraceHours = gcGraceHours;
+    }
+}
@@ -8,9 +8,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -29,4 +33,65 @@ public interface DecisionRepository extends JpaRepository<Decision, Long> {
     List<Decision> findAllByUserAndPuzzle(@Param("user") User user, @Param("puzzle") Puzzle puzzle);
 
     Page<Decision> findAllByHomework(Homework homework, Pageable pageable);
+
+    /**
+     * Знаходить перевірені рішення задачі з таким самим кодом, результат яких можна відтворити
+     * @param puzzle задача
+     * @param codeHash хеш мови та коду рішення
+     * @param pageable обмеження кількості, найновіші рішення першими
+     * @return список рішень
+     */
+    @Query("SELECT d FROM Decision d WHERE d.puzzle = :puzzle AND d.codeHash = :codeHash AND d.isFinished = true AND d.verdictLog IS NOT NULL ORDER BY d.id DESC")
+    List<Decision> findReplayable(@Param("puzzle") Puzzle puzzle, @Param("codeHash") String codeHash, Pageable pageable);
+
+    /**
+     * Рахує незавершені рішення користувача, створені після вказаного часу
+     * @param user користувач
+     * @param since старіші незавершені рішення вважаються втраченими і не враховуються
+     * @return кількість рішень
+     */
+    @Query("SELECT COUNT(d) FROM Decision d WHERE d.user = :user AND d.isFinished = false AND d.createdAt > :since")
+    long countInFlight(@Param("user") User user, @Param("since") LocalDateTime since);
+
+    @Query("SELECT COUNT(d) FROM Decision d WHERE d.puzzle.id = :puzzleId AND d.isFinished = true")
+    long countFinishedByPuzzleId(@Param("puzzleId") Long puzzleId);
+
+    /**
+     * Повертає авторів перевірених рішень задачі в порядку ідентифікаторів, починаючи після afterUserId
+     */
+    @Query("SELECT DISTINCT d.user.id FROM Decision d WHERE d.puzzle.id = :puzzleId AND d.isFinished = true AND d.user.id > :afterUserId ORDER BY d.user.id")
+    List<Long> findAuthorIdsByPuzzleId(@Param("puzzleId") Long puzzleId, @Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    @Query("SELECT d FROM Decision d WHERE d.puzzle.id = :puzzleId AND d.isFinished = true AND d.user.id IN (:userIds)")
+    List<Decision> findFinishedByPuzzleIdAndUserIds(@Param("puzzleId") Long puzzleId, @Param("userIds") Collection<Long> userIds);
+
+    long countByRejudgeJobId(Long rejudgeJobId);
+
+    /**
+     * Повертає ті з ідентифікаторів, рішення з якими ще існують
+     */
+    @Query("SELECT d.id FROM Decision d WHERE d.id IN (:ids)")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Записує результат перевірки одним UPDATE, без завантаження сутності: рішення стає завершеним,
+     * а позначка повторної перевірки знімається. Рішення, яке вже завершено і не чекає на повторну перевірку,
+     * не змінюється: так результат перевірки, повернутої в чергу від загубленого воркера, не записується двічі
+     * @return 1, якщо результат записано, 0 - рішення вже завершено іншою перевіркою або видалено
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Decision d SET d.score = :score, d.isCorrect = :correct, d.isFinished = true, d.rejudgeJobId = NULL, " +
+            "d.verdictLog = :verdictLog, d.codeHash = :codeHash, d.testSetHash = :testSetHash, d.checkerHash = :checkerHash " +
+            "WHERE d.id = :id AND (d.isFinished = false OR d.rejudgeJobId IS NOT NULL)")
+    int finish(@Param("id") Long id, @Param("score") Float score, @Param("correct") boolean correct, @Param("verdictLog") String verdictLog,
+               @Param("codeHash") String codeHash, @Param("testSetHash") String testSetHash, @Param("checkerHash") String checkerHash);
+
+    /**
+     * Знімає з рішення позначку повторної перевірки, залишаючи попередній результат
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Decision d SET d.rejudgeJobId = NULL WHERE d.id = :id")
+    int clearRejudge(@Param("id") Long id);
 }
@@ -0,0 +1,83 @@
+package com.educode.educodeApi.repositories;
+
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.models.JudgeQueueEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторій персистентної черги перевірки рішень.
+ * Захоплення запису виконується умовним UPDATE, тому два вузли не можуть перевіряти одне рішення одночасно.
+ */
+public interface JudgeQueueRepository extends JpaRepository<JudgeQueueEntry, Long> {
+
+    /**
+     * Знаходить записи, які можна захопити: ті, що чекають, і ті, чия оренда прострочена
+     * @param now поточний час
+     * @param pageable обмеження кількості записів
+     * @return записи в порядку пріоритету, а в межах пріоритету - в порядку надходження
+     */
+    @Query("SELECT e FROM JudgeQueueEntry e WHERE e.ownerNode IS NULL OR e.leaseUntil < :now ORDER BY e.priority, e.id")
+    List<JudgeQueueEntry> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Захоплює запис для вузла, якщо його ще ніхто не тримає або оренда прострочена
+     * @param id ідентифікатор запису
+     * @param node ідентифікатор вузла
+     * @param leaseUntil час завершення оренди
+     * @param now поточний час
+     * @return 1 якщо запис захоплено, 0 якщо його вже захопив інший вузол
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JudgeQueueEntry e SET e.ownerNode = :node, e.leaseUntil = :leaseUntil, e.attempts = e.attempts + 1 " +
+            "WHERE e.id = :id AND (e.ownerNode IS NULL OR e.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("node") String node, @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Продовжує оренду всіх записів, які перевіряє вузол
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JudgeQueueEntry e SET e.leaseUntil = :leaseUntil WHERE e.ownerNode = :node AND e.decisionId IN (:decisionIds)")
+    int renewLeases(@Param("node") String node, @Param("decisionIds") Collection<Long> decisionIds, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Повертає в чергу всі записи вузла (наприклад, після його перезапуску)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JudgeQueueEntry e SET e.ownerNode = NULL, e.leaseUntil = NULL WHERE e.ownerNode = :node")
+    int releaseAll(@Param("node") String node);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JudgeQueueEntry e WHERE e.decisionId = :decisionId")
+    int deleteByDecisionId(@Param("decisionId") Long decisionId);
+
+    List<JudgeQueueEntry> findAllByDecisionIdIn(Collection<Long> decisionIds);
+
+    /**
+     * Повертає рішення, які ще не захоплено жодним вузлом, у порядку захоплення
+     */
+    @Query("SELECT e.decisionId FROM JudgeQueueEntry e WHERE e.ownerNode IS NULL ORDER BY e.priority, e.id")
+    List<Long> findWaitingDecisionIds(Pageable pageable);
+
+    /**
+     * Рахує записи черги, крім записів з вказаним пріоритетом
+     */
+    long countByPriorityNot(JudgePriority priority);
+
+    /**
+     * Рахує записи, які ще не захоплено жодним вузлом
+     */
+    long countByOwnerNodeIsNull();
+}
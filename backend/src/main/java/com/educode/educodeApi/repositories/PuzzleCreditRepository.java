@@ -0,0 +1,58 @@
+package com.educode.educodeApi.repositories;
+
+import com.educode.educodeApi.models.PuzzleCredit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Репозиторій зарахованих до рейтингу балів за задачі
+ */
+public interface PuzzleCreditRepository extends JpaRepository<PuzzleCredit, Long> {
+
+    /**
+     * Знаходить зараховані бали і блокує запис до кінця транзакції. Блокуюче читання бачить останні зафіксовані
+     * зміни навіть у транзакції з REPEATABLE READ, тому зарахування інших вузлів не губляться
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<PuzzleCredit> findByUserIdAndPuzzleId(Long userId, Long puzzleId);
+
+    /**
+     * Рейтинг автора і його бали за задачу
+     */
+    interface CreditState {
+        Number getRating();
+
+        // Зараховані бали або null, якщо їх ще не записано
+        Number getCredited();
+
+        // Округлений найкращий бал завершених рішень задачі, 0 - якщо їх немає.
+        // Округлення FLOOR(x + 0.5) збігається з Math.round для невід'ємних балів
+        Number getBest();
+    }
+
+    /**
+     * Блокує рядок автора до кінця транзакції і одним запитом читає його рейтинг, зараховані бали та найкращий бал
+     * за задачу. Зараховані бали автора змінюються лише під цим блокуванням, тому підзапити бачать останні зафіксовані значення
+     */
+    @Query(value = "SELECT COALESCE(u.rating, 0) AS rating, " +
+            "(SELECT c.credited FROM puzzle_credits c WHERE c.user_id = u.id AND c.puzzle_id = :puzzleId) AS credited, " +
+            "(SELECT FLOOR(COALESCE(MAX(d.score), 0) + 0.5) FROM decisions d " +
+            "WHERE d.user_id = u.id AND d.puzzle_id = :puzzleId AND d.is_finished = TRUE) AS best " +
+            "FROM users u WHERE u.id = :userId FOR UPDATE", nativeQuery = true)
+    CreditState lockCredit(@Param("userId") Long userId, @Param("puzzleId") Long puzzleId);
+
+    /**
+     * Записує зараховані бали одним INSERT ... ON DUPLICATE KEY UPDATE, незалежно від того, чи є вже запис
+     */
+    @Modifying
+    @Query(value = "INSERT INTO puzzle_credits (user_id, puzzle_id, credited, updated_at) " +
+            "VALUES (:userId, :puzzleId, :credited, CURRENT_TIMESTAMP(6)) " +
+            "ON DUPLICATE KEY UPDATE credited = VALUES(credited), updated_at = VALUES(updated_at)", nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("puzzleId") Long puzzleId, @Param("credited") int credited);
+}
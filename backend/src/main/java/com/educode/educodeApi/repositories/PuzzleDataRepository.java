@@ -1,12 +1,27 @@
 package com.educode.educodeApi.repositories;
 
 import com.educode.educodeApi.models.PuzzleData;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 /**
  * Репозиторій для роботи з тестовими даними головоломок (PuzzleData)
  * Забезпечує базові операції CRUD через JpaRepository
  */
 public interface PuzzleDataRepository extends JpaRepository<PuzzleData, Long> {
-    // Наслідує всі стандартні методи JpaRepository для роботи з сутністю PuzzleData
+
+    /**
+     * Знаходить тести, дані яких ще зберігаються в БД, а не в сховищі тестових даних
+     */
+    @Query("SELECT pd FROM PuzzleData pd WHERE pd.input IS NOT NULL OR pd.output IS NOT NULL ORDER BY pd.id")
+    List<PuzzleData> findAllInline(Pageable pageable);
+
+    @Query("SELECT pd.inputHash FROM PuzzleData pd WHERE pd.inputHash IS NOT NULL")
+    List<String> findAllInputHashes();
+
+    @Query("SELECT pd.outputHash FROM PuzzleData pd WHERE pd.outputHash IS NOT NULL")
+    List<String> findAllOutputHashes();
 }
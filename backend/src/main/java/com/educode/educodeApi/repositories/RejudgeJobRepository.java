@@ -0,0 +1,34 @@
+package com.educode.educodeApi.repositories;
+
+import com.educode.educodeApi.enums.RejudgeStatus;
+import com.educode.educodeApi.models.RejudgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторій повторних перевірок рішень
+ */
+public interface RejudgeJobRepository extends JpaRepository<RejudgeJob, Long> {
+
+    List<RejudgeJob> findAllByStatus(RejudgeStatus status);
+
+    Optional<RejudgeJob> findFirstByPuzzleIdOrderByIdDesc(Long puzzleId);
+
+    Optional<RejudgeJob> findFirstByPuzzleIdAndStatus(Long puzzleId, RejudgeStatus status);
+
+    /**
+     * Починає перегляд рішень задачі спочатку. Версія збільшується, тому партія, яку зараз готує інший вузол, не збережеться.
+     * @param total кількість перевірених рішень задачі
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RejudgeJob j SET j.cursorUserId = 0, j.total = :total, j.processed = 0, j.queued = 0, j.skipped = 0, " +
+            "j.version = j.version + 1 WHERE j.id = :id")
+    int restart(@Param("id") Long id, @Param("total") int total);
+}
@@ -0,0 +1,49 @@
+package com.educode.educodeApi.repositories;
+
+import com.educode.educodeApi.DTO.puzzle.PuzzleTestStatsDTO;
+import com.educode.educodeApi.enums.TestVerdict;
+import com.educode.educodeApi.models.TestResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Репозиторій результатів тестів рішень. Записи додаються через TestResultService пакетною вставкою JDBC,
+ * тут - лише читання для викладачів і моніторингу.
+ */
+public interface TestResultRepository extends JpaRepository<TestResult, Long> {
+
+    List<TestResult> findAllByDecisionIdOrderByTestNumber(Long decisionId);
+
+    /**
+     * Рахує статистику запусків кожного поточного тесту задачі
+     * @param puzzleId задача
+     * @param testSetHash поточний хеш тестів задачі; результати рішень, перевірених на інших тестах чи ліміті часу, не враховуються
+     * @param nearLimitMs час, починаючи з якого запуск вважається близьким до ліміту
+     * @return статистика тестів, для яких є результати
+     */
+    @Query("SELECT new com.educode.educodeApi.DTO.puzzle.PuzzleTestStatsDTO$TestStats(r.puzzleDataId, COUNT(r), AVG(r.timeMs), MAX(r.timeMs), " +
+            "SUM(CASE WHEN r.timeMs >= :nearLimitMs THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.verdict = :timeLimit THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.verdict = :runtimeError THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.verdict = :passed THEN 1 ELSE 0 END), MAX(r.outputBytes)) " +
+            "FROM TestResult r WHERE r.puzzleDataId IN (SELECT pd.id FROM PuzzleData pd WHERE pd.puzzle.id = :puzzleId) " +
+            "AND r.decision.testSetHash = :testSetHash " +
+            "GROUP BY r.puzzleDataId")
+    List<PuzzleTestStatsDTO.TestStats> findStatsByPuzzleId(@Param("puzzleId") Long puzzleId, @Param("testSetHash") String testSetHash, @Param("nearLimitMs") long nearLimitMs,
+                                                           @Param("timeLimit") TestVerdict timeLimit, @Param("runtimeError") TestVerdict runtimeError,
+                                                           @Param("passed") TestVerdict passed);
+
+    /**
+     * Знаходить рішення задачі, перевірені на поточних тестах, що виконувались на якомусь тесті не менше nearLimitMs
+     * @return рішення від найповільнішого
+     */
+    @Query("SELECT new com.educode.educodeApi.DTO.puzzle.PuzzleTestStatsDTO$SlowDecision(r.decisionId, MAX(r.timeMs)) " +
+            "FROM TestResult r WHERE r.timeMs >= :nearLimitMs AND r.puzzleDataId IN (SELECT pd.id FROM PuzzleData pd WHERE pd.puzzle.id = :puzzleId) " +
+            "AND r.decision.testSetHash = :testSetHash " +
+            "GROUP BY r.decisionId ORDER BY MAX(r.timeMs) DESC")
+    List<PuzzleTestStatsDTO.SlowDecision> findSlowDecisions(@Param("puzzleId") Long puzzleId, @Param("testSetHash") String testSetHash, @Param("nearLimitMs") long nearLimitMs, Pageable pageable);
+}
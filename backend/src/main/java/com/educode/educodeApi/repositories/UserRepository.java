@@ -4,8 +4,10 @@ import com.educode.educodeApi.models.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -34,4 +36,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE LOWER(u.login) LIKE %:query%")
     Page<User> searchByLogin(@Param("query") String query, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Змінює рейтинг користувача атомарним UPDATE, без читання сутності
+     * @param delta на скільки змінити рейтинг, може бути від'ємним
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.rating = COALESCE(u.rating, 0) + :delta WHERE u.id = :id")
+    int addRating(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Блокує рядок користувача до кінця транзакції і повертає його рейтинг.
+     * Завершення рішень одного користувача під цим блокуванням виконуються по черзі
+     */
+    @Query(value = "SELECT COALESCE(rating, 0) FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Integer lockRating(@Param("id") Long id);
+}
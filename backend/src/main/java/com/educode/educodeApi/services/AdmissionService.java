@@ -0,0 +1,116 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.enums.LogLevel;
+import com.educode.educodeApi.exceptions.TooManyRequestsError;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.properties.AdmissionProperties;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.JudgeQueueRepository;
+import com.educode.educodeApi.utils.LogDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Сервіс допуску до перевірки та виконання коду.
+ * Під перевантаженням запит відхиляється одразу відповіддю 429 з оцінкою, коли варто повторити спробу,
+ * замість того щоб займати потік і рядок у базі, поки він чекає в черзі. Обмежуються глибина черги перевірки,
+ * кількість незавершених запитів одного користувача, а після порогу скидання навантаження приймаються
+ * лише термінові рішення. Перевірка і додавання в чергу не атомарні, тому межі можуть бути перевищені
+ * на кількість одночасних запитів.
+ */
+@Service
+public class AdmissionService {
+
+    // Незавершені рішення, старші за цей час, вважаються втраченими (як і в перевірці "Ви вже виконуєте тест")
+    private static final long IN_FLIGHT_WINDOW_MINUTES = 10L;
+
+    @Autowired
+    private AdmissionProperties properties;
+    @Autowired
+    private JudgeQueueRepository judgeQueueRepository;
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @Autowired
+    private CompileQueueService compileQueueService;
+    @Autowired
+    private JudgeLatencyService judgeLatencyService;
+
+    @Value("${code.max.concurrent.executions}")
+    private int maxConcurrentChecks;
+
+    /**
+     * Перевіряє, чи можна прийняти рішення на перевірку
+     * @param user автор рішення
+     * @param priority пріоритет рішення в черзі
+     * @throws TooManyRequestsError якщо черга переповнена або в користувача забагато незавершених рішень
+     */
+    public void admitDecision(User user, JudgePriority priority) {
+        if (!properties.getEnabled())
+            return;
+
+        long depth = interactiveQueueDepth();
+        int limit = priority == JudgePriority.URGENT ? properties.getMaxQueueDepth() : properties.getShedQueueDepth();
+        if (depth >= limit)
+            throw overloaded("Черга перевірки переповнена. Спробуйте пізніше", depth - limit + 1,
+                    "Decision of user {} rejected: judge queue depth {} reached limit {} for priority {}",
+                    List.of(user::getId, () -> depth, () -> limit, () -> priority));
+
+        long inFlight = decisionRepository.countInFlight(user, LocalDateTime.now().minusMinutes(IN_FLIGHT_WINDOW_MINUTES));
+        if (inFlight >= properties.getMaxInFlightPerUser())
+            throw overloaded("У вас забагато рішень, що ще перевіряються. Дочекайтеся їх результатів", 1L,
+                    "Decision of user {} rejected: {} decisions in flight",
+                    List.of(user::getId, () -> inFlight));
+    }
+
+    /**
+     * Перевіряє, чи можна поставити код у чергу виконання цього вузла
+     * @param user автор коду
+     * @param userInFlight кількість незавершених виконань користувача
+     * @throws TooManyRequestsError якщо черга переповнена, навантаження скидається або в користувача забагато виконань
+     */
+    public void admitExecution(User user, long userInFlight) {
+        if (!properties.getEnabled())
+            return;
+
+        long judgeDepth = interactiveQueueDepth();
+        if (judgeDepth >= properties.getShedQueueDepth())
+            throw overloaded("Сервер перевантажено перевіркою рішень. Спробуйте пізніше", judgeDepth - properties.getShedQueueDepth() + 1,
+                    "Execution of user {} shed: judge queue depth {}",
+                    List.of(user::getId, () -> judgeDepth));
+
+        long waiting = compileQueueService.getWaitingCount();
+        if (waiting >= properties.getMaxExecutionQueueDepth())
+            throw overloaded("Черга виконання переповнена. Спробуйте пізніше", waiting - properties.getMaxExecutionQueueDepth() + 1,
+                    "Execution of user {} rejected: {} executions waiting for a slot",
+                    List.of(user::getId, () -> waiting));
+
+        if (userInFlight >= properties.getMaxInFlightPerUser())
+            throw overloaded("У вас забагато запусків коду, що ще виконуються. Дочекайтеся їх результатів", 1L,
+                    "Execution of user {} rejected: {} executions in flight",
+                    List.of(user::getId, () -> userInFlight));
+    }
+
+    /**
+     * Глибина черги без повторних перевірок: вони мають найнижчий пріоритет і не затримують нові рішення
+     */
+    private long interactiveQueueDepth() {
+        return judgeQueueRepository.countByPriorityNot(JudgePriority.BACKGROUND);
+    }
+
+    /**
+     * Створює відмову з Retry-After: час, за який встигне завершитися excess запитів, обмежений judge.admission.max-retry-after-seconds
+     * @param excess скільки запитів має завершитись, щоб цей запит прийняли
+     */
+    private TooManyRequestsError overloaded(String message, long excess, String logTemplate, List<Supplier<?>> logArgs) {
+        Duration wait = judgeLatencyService.estimateDrain(excess, maxConcurrentChecks);
+        long seconds = Math.clamp((wait.toMillis() + 999L) / 1000L, 1L, properties.getMaxRetryAfterSeconds());
+        return new TooManyRequestsError(message, seconds, LogDescriptor.of(LogLevel.INFO, logTemplate, logArgs));
+    }
+}
@@ -0,0 +1,81 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.BatchRunResult;
+import com.educode.educodeApi.exceptions.ContainerExecutionException;
+import com.educode.educodeApi.exceptions.ContainerTimeoutException;
+import com.educode.educodeApi.interfaces.ContainerBatchRunner;
+import com.educode.educodeApi.utils.BatchInputWriter;
+import com.educode.educodeApi.utils.BatchOutputParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Сервіс пакетного запуску тестів: усі вхідні дані пакета передаються в контейнер одним викликом,
+ * а batch_runner.sh запускає програму для кожного тесту окремо з лімітом часу на тест.
+ * Працює, лише якщо шар контейнерів надає ContainerBatchRunner і увімкнено judge.batch.enabled.
+ */
+@Service
+public class BatchExecutionService {
+
+    @Autowired(required = false)
+    private ContainerBatchRunner batchRunner;
+
+    @Value("${judge.batch.enabled:true}")
+    private boolean enabled;
+    // Максимальна кількість тестів в одному пакеті
+    @Value("${judge.batch.size:16}")
+    private int batchSize;
+    // З якої кількості тестів варто запускати їх пакетами
+    @Value("${judge.batch.min-tests:4}")
+    private int minTests;
+
+    /**
+     * Повертає розмір пакета для задачі з вказаною кількістю тестів
+     * @return 1, якщо тести треба запускати по одному
+     */
+    public int batchSize(int testCount) {
+        if (batchRunner == null || !enabled || testCount < minTests)
+            return 1;
+        return Math.max(1, batchSize);
+    }
+
+    /**
+     * Запускає програму на кількох тестах одним викликом
+     * @param container підготовлений контейнер рішення
+     * @param input вхідні дані тестів пакета
+     * @param outputLimits максимальна довжина виводу кожного тесту в байтах (null - без обмеження), по одній на тест
+     * @param timeLimit ліміт часу на один тест у секундах
+     * @return результати тестів у тому ж порядку
+     * @throws UncheckedIOException якщо вивід пакета обірвався або має невірний формат
+     */
+    public List<BatchRunResult> run(DockerContainer container, BatchInputWriter input, List<Integer> outputLimits, float timeLimit) {
+        BatchOutputParser parser = new BatchOutputParser(outputLimits);
+        batchRunner.runBatch(container, input, timeLimit, parser);
+        try {
+            return parser.getResults();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Повертає вивід тесту так само, як ContainerExecutionService.runCode
+     * @throws ContainerTimeoutException якщо тест перевищив ліміт часу
+     * @throws ContainerExecutionException якщо програма завершилась з помилкою або перевищила ліміт виводу
+     */
+    public String outputOf(BatchRunResult result, float timeLimit) {
+        // Ліміт часу визначає batch_runner.sh за часом виконання, а не за кодом завершення
+        if (result.limit() == BatchRunResult.Limit.TIME)
+            throw new ContainerTimeoutException((long) (timeLimit * 1000));
+        if (result.limit() == BatchRunResult.Limit.OUTPUT)
+            throw new ContainerExecutionException("Перевищено ліміт виводу", result.exitCode());
+        if (result.exitCode() != 0)
+            throw new ContainerExecutionException(result.output(), result.exitCode());
+        return result.output();
+    }
+}
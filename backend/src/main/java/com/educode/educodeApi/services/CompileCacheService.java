@@ -0,0 +1,127 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.exceptions.ContainerBuildingException;
+import com.educode.educodeApi.interfaces.InputWriter;
+import com.educode.educodeApi.properties.CompileCacheProperties;
+import com.educode.educodeApi.utils.DiskLruCache;
+import com.educode.educodeApi.utils.HashUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Сервіс кешу результатів компіляції.
+ * Ключ - SHA-256 від мови, версії, версії прапорців компіляції та коду, тому однакові рішення компілюються один раз.
+ * Кешуються як зібрані артефакти, так і помилки компіляції: повторна відправка коду з помилкою отримує її одразу.
+ * Будь-яка помилка кешу лише логується, перевірка при цьому йде без кешу.
+ */
+@Service
+public class CompileCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompileCacheService.class);
+
+    private static final String ARTIFACT_SUFFIX = ".art";
+    private static final String ERROR_SUFFIX = ".err";
+
+    // Коди завершення, з якими компілятор вбили за пам'яттю чи часом; така помилка не залежить лише від коду
+    private static final int EXIT_KILLED = 137;
+    private static final int EXIT_TIMEOUT = 124;
+
+    @Autowired
+    private CompileCacheProperties properties;
+
+    private DiskLruCache cache;
+
+    @PostConstruct
+    public void init() {
+        if (!properties.getEnabled())
+            return;
+
+        try {
+            cache = new DiskLruCache(Path.of(properties.getBasePath()), properties.getMaxBytes());
+            log.info("Compile cache opened at {}: {} entries, {} bytes", properties.getBasePath(), cache.getEntryCount(), cache.getTotalBytes());
+        } catch (IOException e) {
+            log.warn("Compile cache is disabled, directory {} is not usable: {}", properties.getBasePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Перевіряє, чи варто кешувати компіляцію мови
+     * @param language мова (частина server_id до ':')
+     */
+    public boolean isCacheable(String language) {
+        return cache != null && properties.getLanguages().contains(language);
+    }
+
+    /**
+     * Обчислює ключ кешу
+     * @return шістнадцятковий SHA-256
+     */
+    public String key(String language, String version, String code) {
+        return HashUtils.sha256(language, version, properties.getFlagsVersion(), code);
+    }
+
+    /**
+     * Кидає збережену помилку компіляції, якщо цей код вже не компілювався
+     * @param key ключ кешу
+     * @throws ContainerBuildingException збережена помилка компіляції
+     */
+    public void throwIfCompileFailed(String key) {
+        String content;
+        try (InputStream stream = cache.open(key + ERROR_SUFFIX)) {
+            if (stream == null)
+                return;
+            content = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Failed to read cached compile error {}: {}", key, e.getMessage());
+            return;
+        }
+
+        // Перший рядок - код завершення компілятора, далі - його вивід
+        int newline = content.indexOf('\n');
+        throw new ContainerBuildingException(content.substring(newline + 1), Integer.parseInt(content.substring(0, newline)));
+    }
+
+    /**
+     * Зберігає помилку компіляції, якщо вона залежить лише від коду
+     */
+    public void putCompileError(String key, ContainerBuildingException e) {
+        Integer exitCode = e.getCode();
+        if (exitCode == null || exitCode == EXIT_KILLED || exitCode == EXIT_TIMEOUT)
+            return;
+
+        byte[] content = (exitCode + "\n" + e.getOutput()).getBytes(StandardCharsets.UTF_8);
+        put(key + ERROR_SUFFIX, stream -> stream.write(content));
+    }
+
+    /**
+     * Відкриває збережений артефакт компіляції
+     * @return потік артефакту або null, якщо його немає
+     */
+    public InputStream openArtifact(String key) {
+        return cache.open(key + ARTIFACT_SUFFIX);
+    }
+
+    /**
+     * Зберігає артефакт компіляції
+     * @param writer записує артефакт у потік
+     */
+    public void putArtifact(String key, InputWriter writer) {
+        put(key + ARTIFACT_SUFFIX, writer);
+    }
+
+    private void put(String name, InputWriter writer) {
+        try {
+            cache.put(name, writer);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to store compile cache entry {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeTicketInfo;
+import com.educode.educodeApi.utils.FairShareQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Сервіс для управління чергою компіляції коду.
+ * Має фіксовану кількість слотів виконання та чергу заявок, що чекають на слот.
+ * Слоти розподіляються по черзі між користувачами, термінові заявки обслуговуються першими,
+ * а один орендар (TreeNode) не може зайняти більше своєї частки слотів.
+ * Заявка отримує слот через завершення її CompletableFuture, тому потоки не опитують чергу.
+ */
+@Service
+public class CompileQueueService {
+
+    // Максимальний час очікування слоту в блокуючому режимі
+    private static final long MAX_WAIT_MILLIS = 120000L;
+
+    private final int maxConcurrentChecks;
+
+    // Частка слотів, яку може зайняти орендар без власного обмеження
+    private final float defaultTenantShare;
+
+    private final Object lock = new Object();
+
+    // Заявки, що чекають на слот
+    private final FairShareQueue<Ticket> waiting = new FairShareQueue<>();
+
+    // Усі заявки за ідентифікатором: і ті, що чекають, і ті, що виконуються
+    private final Map<Long, Ticket> tickets = new HashMap<>();
+
+    // Кількість зайнятих слотів
+    private int running = 0;
+
+    // Кількість зайнятих слотів за орендарями
+    private final Map<Long, Integer> runningByTenant = new HashMap<>();
+
+    // Останні відомі частки слотів орендарів
+    private final Map<Long, Float> tenantShares = new HashMap<>();
+
+    /**
+     * Конструктор сервісу черги компіляції.
+     * @param maxConcurrentChecks максимальна кількість одночасних перевірок
+     * @param defaultTenantShare частка слотів, яку може зайняти один орендар за замовчуванням
+     */
+    @Autowired
+    public CompileQueueService(@Value("${code.max.concurrent.executions}") int maxConcurrentChecks,
+                               @Value("${judge.fair.tenant-max-share:1.0}") float defaultTenantShare) {
+        this.maxConcurrentChecks = maxConcurrentChecks;
+        this.defaultTenantShare = defaultTenantShare;
+    }
+
+    public CompileQueueService(int maxConcurrentChecks) {
+        this(maxConcurrentChecks, 1.0f);
+    }
+
+    /**
+     * Додає ідентифікатор до черги як окремого анонімного користувача.
+     * @param id ідентифікатор завдання для компіляції
+     * @return future, що завершується в момент, коли завдання отримало слот виконання
+     */
+    public CompletableFuture<Void> addToQueue(Long id) {
+        return addToQueue(id, JudgeTicketInfo.anonymous(id));
+    }
+
+    /**
+     * Додає ідентифікатор до черги.
+     * @param id ідентифікатор завдання для компіляції
+     * @param info автор, орендар та пріоритет завдання
+     * @return future, що завершується в момент, коли завдання отримало слот виконання
+     */
+    public CompletableFuture<Void> addToQueue(Long id, JudgeTicketInfo info) {
+        Ticket ticket;
+        synchronized (lock) {
+            ticket = tickets.get(id);
+            if (ticket != null)
+                return ticket.future;
+
+            ticket = new Ticket(id, info.tenantId());
+            tickets.put(id, ticket);
+            if (info.tenantId() != null && info.tenantShare() != null)
+                tenantShares.put(info.tenantId(), info.tenantShare());
+            ticket.handle = waiting.add(ticket, info.userId(), info.tenantId(), info.priority());
+        }
+
+        dispatch();
+        return ticket.future;
+    }
+
+    /**
+     * Перевіряє чи отримало завдання слот виконання.
+     * @param id ідентифікатор завдання для перевірки
+     * @return true якщо завдання виконується, false - в іншому випадку
+     */
+    public boolean isInTop(Long id) {
+        if (id == null)
+            return false;
+
+        synchronized (lock) {
+            Ticket ticket = tickets.get(id);
+            return ticket != null && ticket.running;
+        }
+    }
+
+    /**
+     * Повертає оцінку позиції завдання в черзі за O(1).
+     * Черга обслуговує користувачів по черзі, тому позиція залежить від кількості активних користувачів;
+     * скасовані заявки, до яких черга ще не дійшла, теж враховуються.
+     * @param id ідентифікатор завдання
+     * @return 0 якщо завдання виконується, -1 якщо його немає в черзі, інакше кількість заявок попереду + 1
+     */
+    public long getPosition(Long id) {
+        synchronized (lock) {
+            Ticket ticket = tickets.get(id);
+            if (ticket == null)
+                return -1;
+            if (ticket.running)
+                return 0;
+            return waiting.estimatePosition(ticket.handle);
+        }
+    }
+
+    /**
+     * Повертає кількість заявок, що чекають на слот.
+     * @return кількість заявок у черзі очікування
+     */
+    public int getWaitingCount() {
+        synchronized (lock) {
+            return tickets.size() - running;
+        }
+    }
+
+    /**
+     * Повертає кількість зайнятих слотів.
+     * @return кількість завдань, що виконуються
+     */
+    public int getRunningCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Очікує, поки завдання не отримає слот виконання.
+     * @param decisionId ідентифікатор рішення для очікування
+     * @throws InterruptedException якщо час очікування перевищив 2 хвилини
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void waitForQueue(Long decisionId) throws InterruptedException {
+        CompletableFuture<Void> future;
+        synchronized (lock) {
+            Ticket ticket = tickets.get(decisionId);
+            if (ticket == null)
+                throw new InterruptedException();
+            future = ticket.future;
+        }
+
+        try {
+            future.get(MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Видаляє завдання з черги. Якщо завдання займало слот, слот одразу передається наступній заявці.
+     * @param id ідентифікатор завдання для видалення
+     */
+    public void removeFromQueue(Long id) {
+        Ticket ticket;
+        synchronized (lock) {
+            ticket = tickets.remove(id);
+            if (ticket == null)
+                return;
+
+            if (ticket.running) {
+                running--;
+                if (ticket.tenantId != null)
+                    runningByTenant.merge(ticket.tenantId, -1, Integer::sum);
+            } else {
+                ticket.cancelled = true; // Заявка залишається в черзі і буде пропущена при розподілі
+            }
+        }
+
+        ticket.future.cancel(false);
+        dispatch();
+    }
+
+    /**
+     * Розподіляє вільні слоти між заявками черги.
+     * Future завершуються поза блокуванням, щоб колбеки не виконувались під ним.
+     */
+    private void dispatch() {
+        List<Ticket> granted = new ArrayList<>();
+        synchronized (lock) {
+            while (running < maxConcurrentChecks && !waiting.isEmpty()) {
+                FairShareQueue.Handle<Ticket> handle = waiting.poll(tenant -> isTenantSaturated((Long) tenant));
+                if (handle == null)
+                    break; // Усі заявки, що чекають, належать орендарям, які вичерпали свою частку
+
+                Ticket next = handle.getItem();
+                if (next.cancelled)
+                    continue;
+
+                next.running = true;
+                running++;
+                if (next.tenantId != null)
+                    runningByTenant.merge(next.tenantId, 1, Integer::sum);
+                granted.add(next);
+            }
+        }
+
+        for (Ticket ticket : granted) {
+            // Якщо future вже скасовано (наприклад, за таймаутом), слот звільниться через removeFromQueue
+            ticket.future.complete(null);
+        }
+    }
+
+    /**
+     * Перевіряє, чи зайняв орендар усі слоти своєї частки. Викликається під блокуванням.
+     */
+    private boolean isTenantSaturated(Long tenantId) {
+        float share = tenantShares.getOrDefault(tenantId, defaultTenantShare);
+        return runningByTenant.getOrDefault(tenantId, 0) >= JudgeTicketInfo.tenantSlotCap(maxConcurrentChecks, share);
+    }
+
+    /**
+     * Заявка на слот виконання.
+     */
+    private static final class Ticket {
+        private final Long id;
+        private final Long tenantId;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private FairShareQueue.Handle<Ticket> handle;
+        private boolean running = false;
+        private boolean cancelled = false;
+
+        private Ticket(Long id, Long tenantId) {
+            this.id = id;
+            this.tenantId = tenantId;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.properties.CompressionProperties;
+import com.educode.educodeApi.utils.DeflateCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервіс стиснення даних, що зберігаються: тестових даних у TestDataStore та коду рішень у БД.
+ * Рахує метрики (/actuator/metrics), окремо для кожного виду даних (тег data):
+ * educode.compression.raw.bytes і educode.compression.stored.bytes - скільки байт записано до і після стиснення,
+ * educode.compression.ratio - їх відношення з моменту запуску, educode.compression.compress - час стиснення;
+ * educode.compression.read.bytes і educode.compression.read - скільки байт прочитано для перевірки і за який час
+ * (тег compressed відділяє розпаковані дані від нестиснутих), тому пропускну здатність видно як відношення байт до часу.
+ */
+@Service
+public class CompressionService {
+
+    public static final String TEST_DATA = "test_data";
+    public static final String SUBMISSION = "submission";
+
+    @Autowired
+    private CompressionProperties properties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DeflateCodec codec;
+
+    // Вид даних -> байти до і після стиснення з моменту запуску, для educode.compression.ratio
+    private final Map<String, AtomicLong[]> totals = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (properties.getEnabled())
+            codec = new DeflateCodec(properties.getLevel());
+    }
+
+    /**
+     * @return кодек або null, якщо стиснення вимкнено
+     */
+    public DeflateCodec getCodec() {
+        return codec;
+    }
+
+    public int getMinBytes() {
+        return properties.getMinBytes();
+    }
+
+    /**
+     * Стискає код рішення перед першим збереженням, якщо він достатньо великий і стиснення дає виграш
+     */
+    public void compressCode(Decision decision) {
+        String code = decision.getCode();
+        if (codec == null || code == null || decision.isCodeDeflated())
+            return;
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < properties.getMinBytes())
+            return;
+
+        long start = System.nanoTime();
+        byte[] compressed = codec.compress(bytes);
+        long elapsed = System.nanoTime() - start;
+        if (compressed.length >= bytes.length)
+            return;
+
+        decision.moveCodeToDeflated(compressed);
+        recordStored(SUBMISSION, bytes.length, compressed.length, elapsed);
+    }
+
+    /**
+     * Записує метрики збереження нових даних
+     * @param data вид даних
+     * @param rawBytes розмір до стиснення
+     * @param storedBytes розмір на диску чи в БД
+     * @param nanos час стиснення; 0, якщо дані збережено без стиснення
+     */
+    public void recordStored(String data, long rawBytes, long storedBytes, long nanos) {
+        AtomicLong[] total = totals.computeIfAbsent(data, this::registerRatio);
+        total[0].addAndGet(rawBytes);
+        total[1].addAndGet(storedBytes);
+
+        Counter.builder("educode.compression.raw.bytes").tag("data", data).baseUnit("bytes").register(meterRegistry).increment(rawBytes);
+        Counter.builder("educode.compression.stored.bytes").tag("data", data).baseUnit("bytes").register(meterRegistry).increment(storedBytes);
+        if (nanos > 0)
+            Timer.builder("educode.compression.compress").tag("data", data).register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Записує метрики читання даних для перевірки
+     * @param data вид даних
+     * @param compressed чи дані розпаковувались
+     * @param rawBytes прочитано байт після розпакування
+     * @param nanos час читання
+     */
+    public void recordRead(String data, boolean compressed, long rawBytes, long nanos) {
+        String tag = Boolean.toString(compressed);
+        Counter.builder("educode.compression.read.bytes").tag("data", data).tag("compressed", tag).baseUnit("bytes")
+                .register(meterRegistry).increment(rawBytes);
+        Timer.builder("educode.compression.read").tag("data", data).tag("compressed", tag)
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicLong[] registerRatio(String data) {
+        AtomicLong[] total = {new AtomicLong(), new AtomicLong()};
+        Gauge.builder("educode.compression.ratio", total, t -> t[1].get() > 0 ? (double) t[0].get() / t[1].get() : 1.0)
+                .tag("data", data)
+                .description("Raw bytes divided by stored bytes since startup")
+                .register(meterRegistry);
+        return total;
+    }
+}
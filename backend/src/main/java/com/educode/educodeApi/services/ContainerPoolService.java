@@ -0,0 +1,229 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.checker.CheckerDTO;
+import com.educode.educodeApi.DTO.code.ProgrammingLanguage;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.exceptions.ContainerBuildingException;
+import com.educode.educodeApi.interfaces.ContainerLifecycle;
+import com.educode.educodeApi.properties.ContainerPoolProperties;
+import com.educode.educodeApi.utils.WarmPool;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сервіс пулу "теплих" контейнерів.
+ * Для кожної мови з programmingLanguages.json (і кожної мови checker'ів з checkerLanguages.json) тримає кілька
+ * запущених вільних контейнерів, тому перевірка не чекає на створення контейнера. Після використання контейнер
+ * очищується і повертається в пул або знищується, якщо очистити його не вдалося.
+ * Пул працює, лише якщо увімкнено container.pool.enabled і шар контейнерів надає ContainerLifecycle;
+ * інакше контейнери створюються для кожного запиту, як і раніше.
+ */
+@Service
+public class ContainerPoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerPoolService.class);
+
+    @Autowired
+    private ContainerPoolProperties properties;
+    @Autowired
+    private ContainerExecutionService containerExecutionService;
+    @Autowired
+    private CompileCacheService compileCacheService;
+    @Autowired
+    private JudgeMetricsService judgeMetricsService;
+    @Autowired(required = false)
+    private ContainerLifecycle lifecycle;
+
+    private WarmPool<DockerContainer> runPool;
+    private WarmPool<DockerContainer> checkerPool;
+
+    // Обслуговування пулу створює контейнери, тому виконується в окремому потоці, а не в потоці планувальника
+    private final AtomicBoolean maintaining = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!properties.getEnabled())
+            return;
+        if (lifecycle == null) {
+            log.warn("Container pool is enabled, but the container layer does not provide ContainerLifecycle; pool is disabled");
+            return;
+        }
+
+        Duration maxIdleTime = Duration.ofSeconds(properties.getMaxIdleSeconds());
+        runPool = new WarmPool<>(new Lifecycle(JudgeMetricsService.POOL_RUN), images("staticdata/programmingLanguages.json", properties.getLanguages()),
+                properties.getMinIdle(), properties.getMaxIdle(), maxIdleTime);
+        checkerPool = new WarmPool<>(new Lifecycle(JudgeMetricsService.POOL_CHECKER), images("staticdata/checkerLanguages.json", properties.getCheckerLanguages()),
+                properties.getMinIdle(), properties.getMaxIdle(), maxIdleTime);
+        maintain();
+    }
+
+    public boolean isEnabled() {
+        return runPool != null;
+    }
+
+    /**
+     * Готує контейнер з кодом рішення: бере вільний контейнер з пулу або створює новий.
+     * Для мов з етапом компіляції використовує CompileCacheService: збережена помилка компіляції кидається одразу,
+     * а збережений артефакт завантажується в контейнер замість компіляції
+     * @return оренда контейнера; закриття повертає контейнер у пул або знищує його
+     * @throws ContainerBuildingException якщо код не компілюється
+     */
+    public WarmPool.Lease<DockerContainer> prepareForRun(String language, String version, String code, int memoryLimit, TaskType taskType) throws Exception {
+        String cacheKey = compileCacheService.isCacheable(language) ? compileCacheService.key(language, version, code) : null;
+        if (cacheKey != null)
+            compileCacheService.throwIfCompileFailed(cacheKey);
+
+        try {
+            if (!isEnabled() || !runPool.isPooled(language + ":" + version))
+                return WarmPool.Lease.unpooled(containerExecutionService.prepareForRun(language, version, code, memoryLimit, taskType));
+
+            WarmPool.Lease<DockerContainer> lease = runPool.acquire(language + ":" + version);
+            try {
+                prepareWarm(lease.get(), cacheKey, code, memoryLimit, taskType);
+                return lease;
+            } catch (Exception e) {
+                // Помилка компіляції не псує контейнер, тому він повертається в пул після очищення
+                lease.close();
+                throw e;
+            }
+        } catch (ContainerBuildingException e) {
+            if (cacheKey != null)
+                compileCacheService.putCompileError(cacheKey, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Завантажує код у вільний контейнер: зібраний артефакт з кешу, якщо він є, інакше компілює код і зберігає артефакт
+     */
+    private void prepareWarm(DockerContainer container, String cacheKey, String code, int memoryLimit, TaskType taskType) throws IOException {
+        if (cacheKey != null) {
+            try (InputStream artifact = compileCacheService.openArtifact(cacheKey)) {
+                if (artifact != null) {
+                    lifecycle.prepareFromArtifact(container, artifact, memoryLimit, taskType);
+                    return;
+                }
+            }
+        }
+
+        lifecycle.prepareForRun(container, code, memoryLimit, taskType);
+        if (cacheKey != null)
+            compileCacheService.putArtifact(cacheKey, stream -> lifecycle.exportArtifact(container, stream));
+    }
+
+    /**
+     * Готує контейнер checker'а для контейнера рішення
+     * @return оренда контейнера; закриття повертає контейнер у пул або знищує його
+     */
+    public WarmPool.Lease<DockerContainer> prepareChecker(DockerContainer userContainer, CheckerDTO checkerDTO, int memoryLimit) throws Exception {
+        String image = checkerDTO.lang() + ":" + checkerDTO.langVersion();
+        if (!isEnabled() || !checkerPool.isPooled(image))
+            return WarmPool.Lease.unpooled(userContainer.prepareChecker(checkerDTO, memoryLimit));
+
+        WarmPool.Lease<DockerContainer> lease = checkerPool.acquire(image);
+        try {
+            lifecycle.prepareChecker(lease.get(), userContainer, checkerDTO, memoryLimit);
+            return lease;
+        } catch (Exception e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Доповнює пули до мінімального розміру, прибирає зайві та непридатні контейнери
+     */
+    @Scheduled(fixedDelayString = "${container.pool.maintain-interval-ms:5000}")
+    public void maintain() {
+        if (!isEnabled() || !maintaining.compareAndSet(false, true))
+            return;
+
+        Thread.ofVirtual().name("container-pool-maintain").start(() -> {
+            try {
+                runPool.maintain();
+                checkerPool.maintain();
+            } catch (Exception e) {
+                log.error("Error while maintaining container pool: {}", e.getMessage(), e);
+            } finally {
+                maintaining.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!isEnabled())
+            return;
+        runPool.close();
+        checkerPool.close();
+    }
+
+    /**
+     * Читає образи мов зі статичного JSON-файлу
+     * @param resource шлях до файлу в classpath
+     * @param allowed образи, які треба залишити; порожній список - усі
+     */
+    private List<String> images(String resource, List<String> allowed) throws IOException {
+        try (InputStream stream = new ClassPathResource(resource).getInputStream()) {
+            List<ProgrammingLanguage> languages = new ObjectMapper().readValue(stream, new TypeReference<>() {});
+            return languages.stream()
+                    .map(ProgrammingLanguage::serverId)
+                    .filter(image -> allowed.isEmpty() || allowed.contains(image))
+                    .toList();
+        }
+    }
+
+    /**
+     * Життєвий цикл контейнерів пулу поверх ContainerLifecycle; час створення та знищення контейнерів потрапляє в метрики
+     */
+    private class Lifecycle implements WarmPool.Lifecycle<DockerContainer> {
+        // Назва пулу для тегу метрик
+        private final String pool;
+
+        Lifecycle(String pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public DockerContainer create(String key) {
+            long start = System.nanoTime();
+            DockerContainer container = lifecycle.createIdle(key);
+            judgeMetricsService.recordContainerCreate(pool, key, System.nanoTime() - start);
+            return container;
+        }
+
+        @Override
+        public boolean isHealthy(DockerContainer container) {
+            return lifecycle.isHealthy(container);
+        }
+
+        @Override
+        public boolean recycle(DockerContainer container) {
+            return lifecycle.reset(container);
+        }
+
+        @Override
+        public void destroy(DockerContainer container) {
+            long start = System.nanoTime();
+            try {
+                lifecycle.destroy(container);
+            } finally {
+                judgeMetricsService.recordContainerDestroy(pool, System.nanoTime() - start);
+            }
+        }
+    }
+}
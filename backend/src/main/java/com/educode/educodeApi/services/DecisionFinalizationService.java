@@ -0,0 +1,269 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.PuzzleCreditRepository;
+import com.educode.educodeApi.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Сервіс завершення перевірки рішення. В одній транзакції записує результат рішення одним UPDATE і змінює рейтинг
+ * автора на різницю між новим найкращим балом за задачу і вже зарахованим (PuzzleCredit). Зарахування одного автора
+ * виконуються по черзі під блокуванням його рядка: рейтинг і зараховані бали читаються одним блокуючим SELECT,
+ * різниця рахується тут, а потім записуються зараховані бали (INSERT ... ON DUPLICATE KEY UPDATE) і рейтинг (UPDATE
+ * з додаванням). Разом із записом рішення це не більше чотирьох запитів, і одночасні рішення одного автора
+ * не втрачають оновлень і не додають бали двічі.
+ * <p>
+ * Повторна перевірка рейтинг під час завершення не змінює: після її партії RejudgeService викликає reconcile,
+ * який зараховує найкращий бал серед усіх завершених рішень, зокрема надісланих під час перевірки.
+ * <p>
+ * З judge.finalize.write-behind=true завершення накопичуються і записуються пакетами однією транзакцією:
+ * пакет записується через flush-interval-ms після першого завершення в ньому або одразу, коли в ньому max-batch завершень.
+ * Перевірка чекає на запис свого пакета, тому клієнт отримує рейтинг вже після збереження.
+ * <p>
+ * Транзакції завершення виконуються з READ COMMITTED: у пакеті з REPEATABLE READ (типовий рівень MySQL) найкращий
+ * бал інших рішень автора читався б зі знімка початку транзакції і не бачив би рішень, завершених тим часом іншими вузлами.
+ */
+@Service
+public class DecisionFinalizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DecisionFinalizationService.class);
+
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PuzzleCreditRepository puzzleCreditRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${judge.finalize.write-behind:false}")
+    private boolean writeBehind;
+    @Value("${judge.finalize.flush-interval-ms:5}")
+    private long flushIntervalMs;
+    @Value("${judge.finalize.max-batch:200}")
+    private int maxBatch;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread flusher;
+
+    /**
+     * Результат завершення
+     * @param added скільки додано до рейтингу автора, 0 - рейтинг не змінився; після повторної перевірки може бути від'ємним
+     * @param rating новий рейтинг автора або null, якщо він не змінився
+     */
+    public record Result(int added, Integer rating) {
+        static final Result UNRATED = new Result(0, null);
+    }
+
+    /**
+     * Завершення, що чекає на запис пакетом
+     */
+    private record Pending(Decision decision, boolean rejudge, CompletableFuture<Result> result) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        if (!writeBehind)
+            return;
+        running = true;
+        flusher = Thread.ofPlatform().name("decision-finalizer").daemon().start(this::flushLoop);
+    }
+
+    // Завершення, що вже чекають у черзі, записуються перед зупинкою
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher == null)
+            return;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Завершення, додані вже після зупинки потоку запису
+        List<Pending> rest = new ArrayList<>();
+        pending.drainTo(rest);
+        if (!rest.isEmpty())
+            flush(rest);
+    }
+
+    /**
+     * Записує результат перевіреного рішення і, якщо це не повторна перевірка, змінює рейтинг його автора.
+     * Блокує потік до запису, зокрема до запису пакета в режимі write-behind.
+     * @param decision рішення з заповненими score, isCorrect і даними для відтворення вердикту
+     * @param rejudge повторна перевірка: рейтинг виправить RejudgeService після всієї партії
+     * @return скільки додано до рейтингу і новий рейтинг
+     */
+    public Result finish(Decision decision, boolean rejudge) {
+        if (!writeBehind || !running)
+            return transactionTemplate.execute(status -> apply(decision, rejudge));
+
+        Pending item = new Pending(decision, rejudge, new CompletableFuture<>());
+        pending.add(item);
+        try {
+            return item.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Виправляє рейтинг автора після повторної перевірки: зараховує округлений найкращий бал серед усіх завершених
+     * рішень задачі, зокрема у менший бік. Рішення, надіслані під час перевірки, вже зараховані і вдруге не додаються.
+     * @return на скільки змінився рейтинг
+     */
+    public int reconcile(Long userId, Long puzzleId) {
+        return transactionTemplate.execute(status -> {
+            PuzzleCreditRepository.CreditState state = puzzleCreditRepository.lockCredit(userId, puzzleId);
+            return credit(userId, puzzleId, state, state.getBest().intValue()).added();
+        });
+    }
+
+    /**
+     * Запам'ятовує зараховані бали авторів перед повторною перевіркою їх рішень, якщо їх ще не записано
+     * (рішення, завершені до появи обліку зарахованих балів). Виконується в поточній транзакції.
+     * @param best округлений найкращий бал кожного автора до перевірки
+     */
+    public void rememberCredits(Long puzzleId, Map<Long, Integer> best) {
+        // Рядки авторів блокуються в порядку їх ідентифікаторів
+        best.keySet().stream().sorted().forEach(userId -> {
+            if (puzzleCreditRepository.lockCredit(userId, puzzleId).getCredited() == null)
+                puzzleCreditRepository.upsert(userId, puzzleId, best.get(userId));
+        });
+    }
+
+    /**
+     * Записує рішення і змінює рейтинг у поточній транзакції
+     */
+    private Result apply(Decision decision, boolean rejudge) {
+        decision.setFinished(true);
+        decision.setRejudgeJobId(null);
+        if (rejudge) {
+            finishDecision(decision);
+            return Result.UNRATED;
+        }
+
+        Long userId = decision.getUser().getId();
+        Long puzzleId = decision.getPuzzle().getId();
+        // Зараховані бали читаються до запису рішення: якщо їх ще немає, вони рахуються з інших завершених рішень
+        PuzzleCreditRepository.CreditState state = puzzleCreditRepository.lockCredit(userId, puzzleId);
+        if (!finishDecision(decision))
+            return Result.UNRATED;
+
+        // Нове рішення може лише підняти найкращий бал
+        Result result = credit(userId, puzzleId, state, Math.max(credited(state), Math.round(decision.getScore())));
+        if (result.rating() != null)
+            decision.getUser().setRating(result.rating());
+        return result;
+    }
+
+    /**
+     * Записує результат рішення
+     * @return false, якщо рішення вже завершено іншою перевіркою (наприклад, воркером, від якого його забрали
+     * після таймауту) або видалено; тоді рейтинг не змінюється
+     */
+    private boolean finishDecision(Decision decision) {
+        if (decisionRepository.finish(decision.getId(), decision.getScore(), decision.isCorrect(), decision.getVerdictLog(),
+                decision.getCodeHash(), decision.getTestSetHash(), decision.getCheckerHash()) == 1)
+            return true;
+        log.warn("Decision #{} is already finished or no longer exists, result is not recorded again", decision.getId());
+        return false;
+    }
+
+    /**
+     * Повертає зараховані бали автора або, якщо їх ще не записано, найкращий бал його завершених рішень
+     */
+    private static int credited(PuzzleCreditRepository.CreditState state) {
+        return state.getCredited() != null ? state.getCredited().intValue() : state.getBest().intValue();
+    }
+
+    /**
+     * Зараховує новий найкращий бал і змінює рейтинг на різницю з попереднім зарахованим
+     * @param state рейтинг і бали автора, прочитані під блокуванням
+     */
+    private Result credit(Long userId, Long puzzleId, PuzzleCreditRepository.CreditState state, int best) {
+        int added = best - credited(state);
+        if (state.getCredited() == null || added != 0)
+            puzzleCreditRepository.upsert(userId, puzzleId, best);
+        if (added == 0)
+            return Result.UNRATED;
+
+        userRepository.addRating(userId, added);
+        return new Result(added, state.getRating().intValue() + added);
+    }
+
+    private void flushLoop() {
+        while (running || !pending.isEmpty()) {
+            try {
+                Pending first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+
+                List<Pending> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < maxBatch) {
+                    pending.drainTo(batch, maxBatch - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || wait <= 0)
+                        break;
+                    Pending next = pending.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Decision finalizer failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Записує пакет однією транзакцією. Рядки авторів блокуються в порядку їх ідентифікаторів, щоб пакети
+     * різних вузлів не блокували один одного; завершення одного автора зберігають свій порядок.
+     * Якщо транзакція пакета не вдалась, завершення записуються по одному, і помилку отримує лише те, що її спричинило.
+     */
+    private void flush(List<Pending> batch) {
+        batch.sort(Comparator.comparing(item -> item.decision().getUser().getId()));
+        try {
+            List<Result> results = transactionTemplate.execute(status -> batch.stream()
+                    .map(item -> apply(item.decision(), item.rejudge()))
+                    .toList());
+            for (int i = 0; i < batch.size(); i++)
+                batch.get(i).result().complete(results.get(i));
+        } catch (Exception e) {
+            log.warn("Batch of {} decision finalizations failed, writing them one by one: {}", batch.size(), e.getMessage());
+            for (Pending item : batch) {
+                try {
+                    item.result().complete(transactionTemplate.execute(status -> apply(item.decision(), item.rejudge())));
+                } catch (Exception ex) {
+                    item.result().completeExceptionally(ex);
+                }
+            }
+        }
+    }
+}
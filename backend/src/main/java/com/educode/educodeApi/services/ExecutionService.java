@@ -0,0 +1,268 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.CodeExecuteDTO;
+import com.educode.educodeApi.DTO.code.ExecutionStatusDTO;
+import com.educode.educodeApi.DTO.code.JudgeTicketInfo;
+import com.educode.educodeApi.enums.ExecutionStatus;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.exceptions.ContainerException;
+import com.educode.educodeApi.exceptions.ContainerExceptionMapper;
+import com.educode.educodeApi.exceptions.NotFoundError;
+import com.educode.educodeApi.exceptions.TooManyRequestsError;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.properties.ContainerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервіс асинхронного виконання коду.
+ * Виконання отримує ідентифікатор одразу, чекає на слот у CompileQueueService без блокування потоків
+ * і виконується в taskExecutor. Результат можна отримати опитуванням або через SSE,
+ * а після завершення він зберігається ще code.execution.result-ttl-seconds.
+ * Виконання зберігаються лише в пам'яті вузла, що його прийняв, тому за кількох вузлів API запити
+ * /api/code/execute/{id} мають маршрутизуватися на той самий вузол (sticky routing), інакше вони отримають 404.
+ */
+@Service
+public class ExecutionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionService.class);
+
+    @Autowired
+    private CompileQueueService compileQueueService;
+    @Autowired
+    private ContainerExecutionService containerExecutionService;
+    @Autowired
+    private ContainerProperties containerProperties;
+    @Autowired
+    private ContainerExceptionMapper containerExceptionMapper;
+    @Autowired
+    private TaskExecutor taskExecutor;
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Value("${code.execution.result-ttl-seconds:300}")
+    private long resultTtlSeconds;
+    // Максимальний час очікування слоту; під перевантаженням запит відхиляє AdmissionService ще до черги
+    @Value("${code.execution.max-wait-ms:120000}")
+    private long maxWaitMillis;
+
+    // Ідентифікатори в CompileQueueService від'ємні, щоб не перетинатися з ідентифікаторами рішень
+    private final AtomicLong queueIds = new AtomicLong();
+
+    private final Map<String, Execution> executions = new ConcurrentHashMap<>();
+
+    // Кількість незавершених виконань кожного користувача; користувачі без виконань не зберігаються
+    private final Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ставить код у чергу виконання та одразу повертає керування
+     * @param user автор коду
+     * @param codeExecuteDTO код, мова програмування та вхідні дані
+     * @return виконання, що завершиться разом із запуском коду
+     * @throws TooManyRequestsError якщо сервер перевантажено
+     */
+    public Execution submit(User user, CodeExecuteDTO codeExecuteDTO) {
+        admissionService.admitExecution(user, inFlight.getOrDefault(user.getId(), 0));
+
+        Execution execution = new Execution(UUID.randomUUID().toString(), queueIds.decrementAndGet(), user.getId());
+        inFlight.merge(user.getId(), 1, Integer::sum);
+        executions.put(execution.getId(), execution);
+
+        CompletableFuture<Void> slot = compileQueueService.addToQueue(execution.queueId,
+                new JudgeTicketInfo(user.getId(), null, null, JudgePriority.NORMAL));
+        slot.orTimeout(maxWaitMillis, TimeUnit.MILLISECONDS).whenComplete((ignored, error) -> {
+            if (error != null) {
+                compileQueueService.removeFromQueue(execution.queueId);
+                Map<String, Object> body = new HashMap<>();
+                body.put("error", "Вихід за межі часу очікування");
+                finish(execution, HttpStatus.OK, body);
+                return;
+            }
+
+            try {
+                taskExecutor.execute(() -> run(execution, codeExecuteDTO));
+            } catch (RejectedExecutionException e) {
+                compileQueueService.removeFromQueue(execution.queueId);
+                Map<String, Object> body = new HashMap<>();
+                body.put("message", "Несподівана помилка");
+                finish(execution, HttpStatus.INTERNAL_SERVER_ERROR, body);
+            }
+        });
+
+        return execution;
+    }
+
+    /**
+     * Завершує виконання і зменшує лічильник незавершених виконань його автора
+     */
+    private void finish(Execution execution, HttpStatus status, Map<String, Object> body) {
+        if (execution.finish(status, body))
+            inFlight.computeIfPresent(execution.userId, (userId, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Виконує код у контейнері. Викликається, коли виконання отримало слот.
+     */
+    private void run(Execution execution, CodeExecuteDTO codeExecuteDTO) {
+        execution.status = ExecutionStatus.RUNNING;
+        HttpStatus status = HttpStatus.OK;
+        Map<String, Object> body = new HashMap<>();
+        try {
+            // Розділяємо мову програмування та версію
+            String[] spVals = codeExecuteDTO.getLanguage().split(":");
+            String output = containerExecutionService.runCode(spVals[0], spVals[1], codeExecuteDTO.getCode(), codeExecuteDTO.getInput(), containerProperties.getMemoryLimit(), containerProperties.getTimeLimit());
+            body.put("output", output);
+        } catch (ContainerException e) {
+            var mapping = containerExceptionMapper.map(e);
+            status = mapping.status();
+            body.putAll(mapping.body());
+            log.warn(e.getLogTemplate(), e.getLogArgs());
+        } catch (Exception e) {
+            // Обробка непередбачених помилок
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            body.put("message", "Несподівана помилка");
+        } finally {
+            // Звільняємо слот після завершення
+            compileQueueService.removeFromQueue(execution.queueId);
+        }
+
+        finish(execution, status, body);
+    }
+
+    /**
+     * Знаходить виконання користувача
+     * @param id ідентифікатор виконання
+     * @param user користувач, що запитує виконання
+     * @return виконання
+     * @throws NotFoundError якщо виконання немає або воно належить іншому користувачу
+     */
+    public Execution get(String id, User user) {
+        Execution execution = id != null ? executions.get(id) : null;
+        if (execution == null || !Objects.equals(execution.userId, user.getId()))
+            throw new NotFoundError("Виконання не знайдено");
+        return execution;
+    }
+
+    /**
+     * Повертає стан виконання
+     * @param execution виконання
+     * @return стан, позиція в черзі та результат, якщо виконання завершилось
+     */
+    public ExecutionStatusDTO getStatus(Execution execution) {
+        long position = 0;
+        if (execution.status == ExecutionStatus.QUEUED)
+            position = Math.max(0, compileQueueService.getPosition(execution.queueId));
+
+        return new ExecutionStatusDTO(
+                execution.getId(),
+                execution.status,
+                position,
+                execution.httpStatus != null ? execution.httpStatus.value() : null,
+                execution.body
+        );
+    }
+
+    /**
+     * Відкриває SSE-потік, що надсилає подію status одразу та подію result після завершення виконання
+     * @param execution виконання
+     * @return SseEmitter, який закривається після надсилання результату
+     */
+    public SseEmitter stream(Execution execution) {
+        SseEmitter emitter = new SseEmitter(maxWaitMillis + 60000L);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(getStatus(execution), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        execution.completion.thenRun(() -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(getStatus(execution), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Видаляє результати, які зберігаються довше code.execution.result-ttl-seconds
+     */
+    @Scheduled(fixedDelay = 60000L)
+    public void removeExpired() {
+        LocalDateTime threshold = LocalDateTime.now().minusSeconds(resultTtlSeconds);
+        executions.values().removeIf(execution -> execution.finishedAt != null && execution.finishedAt.isBefore(threshold));
+    }
+
+    /**
+     * Асинхронне виконання коду
+     */
+    public static final class Execution {
+        private final String id;
+        private final Long queueId;
+        private final Long userId;
+        private final CompletableFuture<Execution> completion = new CompletableFuture<>();
+        private volatile ExecutionStatus status = ExecutionStatus.QUEUED;
+        private volatile HttpStatus httpStatus;
+        private volatile Map<String, Object> body;
+        private volatile LocalDateTime finishedAt;
+
+        private Execution(String id, Long queueId, Long userId) {
+            this.id = id;
+            this.queueId = queueId;
+            this.userId = userId;
+        }
+
+        /**
+         * @return false, якщо виконання вже завершено
+         */
+        private synchronized boolean finish(HttpStatus httpStatus, Map<String, Object> body) {
+            if (status == ExecutionStatus.FINISHED)
+                return false;
+            this.httpStatus = httpStatus;
+            this.body = body;
+            this.status = ExecutionStatus.FINISHED;
+            this.finishedAt = LocalDateTime.now();
+            completion.complete(this);
+            return true;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public HttpStatus getHttpStatus() {
+            return httpStatus;
+        }
+
+        public Map<String, Object> getBody() {
+            return body;
+        }
+
+        /**
+         * @return future, що завершується разом із виконанням
+         */
+        public CompletableFuture<Execution> getCompletion() {
+            return completion;
+        }
+    }
+}
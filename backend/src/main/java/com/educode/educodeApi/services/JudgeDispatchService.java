@@ -0,0 +1,177 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeJob;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервіс, що передає захоплені рішення на перевірку.
+ * Якщо judge.dispatch.remote вимкнено, рішення перевіряє JudgeEngine цього вузла. Інакше рішення чекають,
+ * поки їх забере воркер перевірки (профіль judge-worker), а події, які воркер повертає, передаються клієнту.
+ * Завдання воркера, від якого довше judge.dispatch.worker-timeout-seconds немає подій, повертається в чергу
+ * для іншого воркера; пізні події старого воркера відхиляються, і він припиняє перевірку.
+ */
+@Service
+public class JudgeDispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeDispatchService.class);
+
+    @Autowired
+    private JudgeEngine judgeEngine;
+
+    @Value("${judge.dispatch.remote:false}")
+    private boolean remote;
+    @Value("${judge.dispatch.worker-timeout-seconds:30}")
+    private long workerTimeoutSeconds;
+
+    // Рішення, які ще не забрав жоден воркер
+    private final BlockingQueue<Long> waiting = new LinkedBlockingQueue<>();
+
+    // Усі передані воркерам рішення, що ще не завершені
+    private final Map<Long, Dispatch> dispatches = new ConcurrentHashMap<>();
+
+    /**
+     * Передає рішення на перевірку
+     * @param decisionId ідентифікатор рішення
+     * @param reporter канал для повідомлень клієнту
+     * @param onFinish дія після завершення перевірки (звільнення слоту), виконується завжди
+     */
+    public void submit(Long decisionId, JudgeReporter reporter, Runnable onFinish) {
+        if (!remote) {
+            judgeEngine.submit(decisionId, reporter, onFinish);
+            return;
+        }
+
+        Dispatch dispatch = new Dispatch(reporter, onFinish);
+        reporter.onDisconnect(() -> dispatch.cancelled = true);
+        dispatches.put(decisionId, dispatch);
+        waiting.add(decisionId);
+    }
+
+    /**
+     * Видає воркеру наступне рішення
+     * @param workerId ідентифікатор воркера
+     * @param wait максимальний час очікування
+     * @return завдання або null, якщо за час очікування рішень не з'явилося
+     */
+    public JudgeJob claim(String workerId, Duration wait) throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        Long decisionId;
+        while ((decisionId = waiting.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) != null) {
+            Dispatch dispatch = dispatches.get(decisionId);
+            if (dispatch == null)
+                continue;
+
+            synchronized (dispatch) {
+                dispatch.workerId = workerId;
+                dispatch.lastSeen = LocalDateTime.now();
+            }
+            return new JudgeJob(decisionId);
+        }
+        return null;
+    }
+
+    /**
+     * Приймає подію перевірки від воркера
+     * @param workerId ідентифікатор воркера
+     * @param event подія
+     * @return false, якщо воркер має припинити перевірку: клієнт відключився або рішення передано іншому воркеру
+     */
+    public boolean accept(String workerId, JudgeEvent event) {
+        Dispatch dispatch = dispatches.get(event.decisionId());
+        if (dispatch == null)
+            return false;
+        synchronized (dispatch) {
+            if (!workerId.equals(dispatch.workerId))
+                return false;
+            dispatch.lastSeen = LocalDateTime.now();
+        }
+
+        switch (event.type()) {
+            case MESSAGE -> {
+                try {
+                    dispatch.reporter.message(event.text());
+                } catch (IOException | IllegalStateException e) {
+                    dispatch.cancelled = true;
+                }
+            }
+            case PROGRESS -> {
+                try {
+                    dispatch.reporter.event(event.progress());
+                } catch (IOException | IllegalStateException e) {
+                    dispatch.cancelled = true;
+                }
+            }
+            case COMPLETE -> {
+                dispatch.reporter.complete();
+                finish(event.decisionId(), dispatch);
+            }
+            case ERROR -> {
+                dispatch.reporter.completeWithError(new IOException(event.text()));
+                finish(event.decisionId(), dispatch);
+            }
+            case HEARTBEAT -> {
+            }
+        }
+        return !dispatch.cancelled;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    /**
+     * Повертає в чергу рішення воркерів, які перестали надсилати події
+     */
+    @Scheduled(fixedDelayString = "${judge.dispatch.check-interval-ms:5000}")
+    public void requeueLost() {
+        if (!remote || dispatches.isEmpty())
+            return;
+
+        LocalDateTime threshold = LocalDateTime.now().minusSeconds(workerTimeoutSeconds);
+        for (Map.Entry<Long, Dispatch> entry : dispatches.entrySet()) {
+            Dispatch dispatch = entry.getValue();
+            synchronized (dispatch) {
+                if (dispatch.workerId == null || dispatch.lastSeen.isAfter(threshold))
+                    continue;
+                log.warn("Judge worker {} lost decision #{}, returning it to dispatch queue", dispatch.workerId, entry.getKey());
+                dispatch.workerId = null;
+            }
+            waiting.add(entry.getKey());
+        }
+    }
+
+    private void finish(Long decisionId, Dispatch dispatch) {
+        if (dispatches.remove(decisionId, dispatch))
+            dispatch.onFinish.run();
+    }
+
+    private static final class Dispatch {
+        private final JudgeReporter reporter;
+        private final Runnable onFinish;
+        private volatile boolean cancelled = false;
+        // Воркер, що перевіряє рішення, і час його останньої події; змінюються під блокуванням Dispatch
+        private String workerId;
+        private LocalDateTime lastSeen;
+
+        private Dispatch(JudgeReporter reporter, Runnable onFinish) {
+            this.reporter = reporter;
+            this.onFinish = onFinish;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.utils.JudgeScope;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Рушій перевірки рішень на віртуальних потоках.
+ * Кожне рішення перевіряється у власному віртуальному потоці з власною JudgeScope, тому перевірки
+ * не конкурують зі спільним TaskExecutor, а їх кількість обмежує лише CompileQueueService.
+ * Область скасовується, коли перевірка перевищує judge.engine.submission-timeout-seconds
+ * або клієнт відключається, і разом з нею скасовуються всі запуски тестів, а повідомлення більше не надсилаються.
+ * Таймаут менший за таймаут SSE-з'єднання (180 с), щоб клієнт встиг отримати повідомлення про перевищення часу.
+ */
+@Service
+public class JudgeEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeEngine.class);
+
+    @Autowired
+    private JudgeService judgeService;
+
+    @Value("${judge.engine.submission-timeout-seconds:150}")
+    private long submissionTimeoutSeconds;
+
+    // Таймер для скасування перевірок за часом; сам нічого не виконує, тому вистачає одного потоку
+    private final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("judge-timeouts").daemon().factory());
+
+    // Перевірки, що виконуються зараз
+    private final Map<Long, JudgeScope> active = new ConcurrentHashMap<>();
+
+    /**
+     * Запускає перевірку рішення у новому віртуальному потоці
+     * @param decisionId ідентифікатор рішення
+     * @param reporter канал для повідомлень клієнту
+     * @param onFinish дія після завершення перевірки (звільнення слоту), виконується завжди
+     */
+    public void submit(Long decisionId, JudgeReporter reporter, Runnable onFinish) {
+        Thread.ofVirtual().name("judge-" + decisionId).start(() -> {
+            try (JudgeScope scope = new JudgeScope(Thread.ofVirtual().name("judge-" + decisionId + "-", 0).factory())) {
+                active.put(decisionId, scope);
+                reporter.onDisconnect(() -> scope.cancel("client disconnected"));
+                ScheduledFuture<?> timeout = timeouts.schedule(() -> scope.cancel("timeout"), submissionTimeoutSeconds, TimeUnit.SECONDS);
+                try {
+                    judgeService.judge(decisionId, new ScopedReporter(reporter, scope), scope);
+                } catch (CancellationException e) {
+                    log.info("Judging of decision #{} cancelled: {}", decisionId, scope.getCancelReason());
+                    notifyCancelled(reporter, scope);
+                } finally {
+                    timeout.cancel(false);
+                }
+            } catch (Exception e) {
+                log.error("Unexpected error while judging decision #{}: {}", decisionId, e.getMessage(), e);
+            } finally {
+                active.remove(decisionId);
+                onFinish.run();
+            }
+        });
+    }
+
+    /**
+     * Скасовує перевірку рішення, якщо вона виконується на цьому вузлі
+     * @param decisionId ідентифікатор рішення
+     * @param reason причина скасування
+     */
+    public void cancel(Long decisionId, String reason) {
+        JudgeScope scope = active.get(decisionId);
+        if (scope != null)
+            scope.cancel(reason);
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    private void notifyCancelled(JudgeReporter reporter, JudgeScope scope) {
+        if (!"timeout".equals(scope.getCancelReason())) {
+            reporter.complete();
+            return;
+        }
+
+        try {
+            reporter.message("Тестування перервано: перевищено час перевірки");
+            reporter.complete();
+        } catch (Exception e) {
+            reporter.completeWithError(e);
+        }
+    }
+
+    // Перевірки, що виконуються під час зупинки, не скасовуємо: їх записи залишаються в judge_queue
+    // і після закінчення оренди їх перевірить інший вузол
+    @PreDestroy
+    public void shutdown() {
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * Надсилає повідомлення клієнту в потоці перевірки, спершу перевіряючи, чи не скасовано область,
+     * тому скасована перевірка більше нічого не надсилає.
+     */
+    private static final class ScopedReporter implements JudgeReporter {
+        private final JudgeReporter delegate;
+        private final JudgeScope scope;
+
+        private ScopedReporter(JudgeReporter delegate, JudgeScope scope) {
+            this.delegate = delegate;
+            this.scope = scope;
+        }
+
+        @Override
+        public void message(String text) throws IOException {
+            scope.throwIfCancelled();
+            delegate.message(text);
+        }
+
+        @Override
+        public void event(JudgeProgressEvent event) throws IOException {
+            scope.throwIfCancelled();
+            delegate.event(event);
+        }
+
+        @Override
+        public void complete() {
+            delegate.complete();
+        }
+
+        @Override
+        public void completeWithError(Throwable e) {
+            delegate.completeWithError(e);
+        }
+
+        @Override
+        public void onDisconnect(Runnable callback) {
+            delegate.onDisconnect(callback);
+        }
+    }
+}
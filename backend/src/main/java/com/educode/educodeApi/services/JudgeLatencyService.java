@@ -0,0 +1,54 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.utils.LatencyEstimator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Сервіс оцінки тривалості перевірки рішень за останніми перевірками кожної мови.
+ * Використовується для оцінки часу очікування клієнтів у черзі.
+ */
+@Service
+public class JudgeLatencyService {
+
+    private final LatencyEstimator estimator;
+
+    public JudgeLatencyService(@Value("${judge.progress.latency-window:50}") int window,
+                               @Value("${judge.progress.default-duration-ms:5000}") long defaultMillis) {
+        this.estimator = new LatencyEstimator(window, defaultMillis);
+    }
+
+    /**
+     * Додає тривалість завершеної перевірки
+     * @param language мова рішення у форматі "мова:версія"
+     * @param duration тривалість перевірки
+     */
+    public void record(String language, Duration duration) {
+        estimator.record(language, duration.toMillis());
+    }
+
+    /**
+     * Оцінює час до результату рішення
+     * @param language мова рішення або null
+     * @param position позиція в черзі (кількість рішень попереду + 1)
+     * @param slots кількість слотів перевірки
+     * @return оцінка часу: рішення попереду проходять хвилями по slots, далі перевіряється саме рішення
+     */
+    public Duration estimateWait(String language, long position, int slots) {
+        long waves = (Math.max(0, position - 1) + slots - 1) / Math.max(1, slots);
+        return Duration.ofMillis(waves * estimator.estimateAll() + estimator.estimate(language));
+    }
+
+    /**
+     * Оцінює, за який час звільниться місце для jobs рішень
+     * @param jobs кількість рішень, які мають завершитись
+     * @param slots кількість слотів перевірки
+     * @return оцінка часу: рішення проходять хвилями по slots
+     */
+    public Duration estimateDrain(long jobs, int slots) {
+        long waves = (Math.max(0, jobs) + slots - 1) / Math.max(1, slots);
+        return Duration.ofMillis(waves * estimator.estimateAll());
+    }
+}
@@ -0,0 +1,139 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.repositories.JudgeQueueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервіс метрик конвеєра перевірки рішень. Метрики доступні на локальному порту керування
+ * (/actuator/metrics та /actuator/prometheus); гістограми перцентилів для таймерів educode.judge.*
+ * вмикаються в application.properties (management.metrics.distribution.*).
+ * <ul>
+ *     <li>educode.judge.queue.pending, educode.judge.queue.waiting, educode.judge.queue.running - глибина черги:
+ *     незахоплені записи персистентної черги всіх вузлів, рішення цього вузла, що чекають на слот, і ті, що перевіряються;</li>
+ *     <li>educode.judge.queue.wait - час від постановки в чергу до початку перевірки (тег priority);</li>
+ *     <li>educode.judge.compile - підготовка контейнера з кодом рішення, включно з компіляцією чи завантаженням
+ *     артефакту з кешу (тег outcome: success або compile_error);</li>
+ *     <li>educode.judge.test.run - запуск рішення на одному тесті (тег mode: single, batch, with_checker - запуск
+ *     разом з checker'ом одним викликом, interactive - перевірка інтерактивної задачі цілком);</li>
+ *     <li>educode.judge.checker - перевірка виводу постійним checker'ом;</li>
+ *     <li>educode.judge.verdicts - кількість результатів тестів (тег verdict);</li>
+ *     <li>educode.judge.decision - перевірка рішення цілком (тег result: accepted, rejected, error, cancelled);</li>
+ *     <li>educode.judge.container.create, educode.judge.container.destroy - створення та знищення контейнерів пулу
+ *     (тег pool: run або checker). Контейнери поза пулом створюються разом з компіляцією і входять у educode.judge.compile.</li>
+ * </ul>
+ * Метрики рішень мають теги language, version і task_type.
+ */
+@Service
+public class JudgeMetricsService {
+
+    public static final String RUN_SINGLE = "single";
+    public static final String RUN_BATCH = "batch";
+    public static final String RUN_WITH_CHECKER = "with_checker";
+    public static final String RUN_INTERACTIVE = "interactive";
+
+    public static final String POOL_RUN = "run";
+    public static final String POOL_CHECKER = "checker";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CompileQueueService compileQueueService;
+    @Autowired
+    private JudgeQueueRepository judgeQueueRepository;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("educode.judge.queue.pending", judgeQueueRepository, JudgeQueueRepository::countByOwnerNodeIsNull)
+                .description("Judge queue entries not claimed by any node")
+                .register(meterRegistry);
+        Gauge.builder("educode.judge.queue.waiting", compileQueueService, CompileQueueService::getWaitingCount)
+                .description("Claimed decisions waiting for an execution slot on this node")
+                .register(meterRegistry);
+        Gauge.builder("educode.judge.queue.running", compileQueueService, CompileQueueService::getRunningCount)
+                .description("Decisions being judged on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param wait час від постановки в персистентну чергу до початку перевірки
+     */
+    public void recordQueueWait(JudgePriority priority, Duration wait) {
+        Timer.builder("educode.judge.queue.wait").tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry).record(wait.isNegative() ? Duration.ZERO : wait);
+    }
+
+    /**
+     * @param language мова рішення у форматі "мова:версія"
+     * @param failed код не скомпілювався
+     */
+    public void recordCompile(String language, TaskType taskType, boolean failed, long nanos) {
+        Timer.builder("educode.judge.compile").tags(decisionTags(language, taskType)).tag("outcome", failed ? "compile_error" : "success")
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param mode спосіб запуску: RUN_SINGLE, RUN_BATCH, RUN_WITH_CHECKER або RUN_INTERACTIVE
+     */
+    public void recordTestRun(String language, TaskType taskType, String mode, long nanos) {
+        Timer.builder("educode.judge.test.run").tags(decisionTags(language, taskType)).tag("mode", mode)
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordChecker(String language, TaskType taskType, long nanos) {
+        Timer.builder("educode.judge.checker").tags(decisionTags(language, taskType))
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordVerdict(String language, TaskType taskType, JudgeProgressEvent.Verdict verdict) {
+        Counter.builder("educode.judge.verdicts").tags(decisionTags(language, taskType)).tag("verdict", verdict.getCode())
+                .register(meterRegistry).increment();
+    }
+
+    /**
+     * @param result accepted, rejected, error або cancelled
+     * @param nanos тривалість перевірки рішення
+     */
+    public void recordDecision(String language, TaskType taskType, String result, long nanos) {
+        Timer.builder("educode.judge.decision").tags(decisionTags(language, taskType)).tag("result", result)
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param pool POOL_RUN або POOL_CHECKER
+     * @param image образ контейнера у форматі "мова:версія"
+     */
+    public void recordContainerCreate(String pool, String image, long nanos) {
+        Timer.builder("educode.judge.container.create").tag("pool", pool).tags(languageTags(image))
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordContainerDestroy(String pool, long nanos) {
+        Timer.builder("educode.judge.container.destroy").tag("pool", pool)
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Tags decisionTags(String language, TaskType taskType) {
+        return languageTags(language).and("task_type", taskType != null ? taskType.name().toLowerCase() : "unknown");
+    }
+
+    private static Tags languageTags(String language) {
+        if (language == null)
+            return Tags.of("language", "unknown", "version", "unknown");
+        int colon = language.indexOf(':');
+        return colon < 0 ? Tags.of("language", language, "version", "unknown")
+                : Tags.of("language", language.substring(0, colon), "version", language.substring(colon + 1));
+    }
+}
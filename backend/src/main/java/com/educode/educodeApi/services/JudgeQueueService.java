@@ -0,0 +1,489 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeTicketInfo;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Homework;
+import com.educode.educodeApi.models.JudgeQueueEntry;
+import com.educode.educodeApi.models.TreeNode;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.JudgeQueueRepository;
+import com.educode.educodeApi.repositories.TreeNodeRepository;
+import com.educode.educodeApi.utils.FairShareQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сервіс персистентної черги перевірки рішень.
+ * Рішення спочатку записується в таблицю judge_queue, а потім кожен вузол API захоплює з неї
+ * стільки записів, скільки в нього вільних слотів. Захоплений запис орендується на judge.queue.lease-seconds
+ * і продовжується, поки йде перевірка, тому після падіння вузла запис повертається в чергу сам.
+ * Серед записів, які можна захопити, вузол обирає по черзі між авторами, спершу термінові
+ * (домашні завдання з близьким дедлайном), і не дає одному орендарю зайняти більше його частки слотів.
+ * Чергу опитує один потік вузла: нове рішення і завершення перевірки лише будять його, тому запити до бази
+ * не виконуються під блокуванням і потоки запитів не чекають один на одного.
+ */
+@Service
+public class JudgeQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeQueueService.class);
+
+    // Скільки клієнт чекає на початок перевірки, перш ніж ми закриємо його SSE-з'єднання
+    private static final long CLIENT_WAIT_LIMIT_SECONDS = 120L;
+
+    // Рішення прибрано з черги і видалено, бо його перевірка кілька разів обривалась
+    private static final String DROPPED_MESSAGE = "Рішення не вдалося перевірити через технічну помилку на сервері. Спробуйте надіслати його ще раз";
+
+    // Скільки перших записів черги переглядати для визначення позиції; далі позиція оцінюється знизу
+    private static final int PROGRESS_WINDOW = 500;
+
+    @Autowired
+    private JudgeQueueRepository judgeQueueRepository;
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @Autowired
+    private CompileQueueService compileQueueService;
+    @Autowired
+    private JudgeDispatchService judgeDispatchService;
+    @Autowired
+    private TreeNodeRepository treeNodeRepository;
+    @Autowired
+    private JudgeLatencyService judgeLatencyService;
+    @Autowired
+    private JudgeMetricsService judgeMetricsService;
+
+    // Ідентифікатор цього вузла, за замовчуванням ім'я хоста; має зберігатися після перезапуску,
+    // інакше вузол не поверне в чергу свої незавершені записи
+    @Value("${judge.node-id:}")
+    private String nodeId;
+    @Value("${code.max.concurrent.executions}")
+    private int maxConcurrentChecks;
+    @Value("${judge.queue.lease-seconds:60}")
+    private long leaseSeconds;
+    // Через скільки секунд вузол може забрати рішення, прийняте іншим вузлом
+    @Value("${judge.queue.steal-after-seconds:30}")
+    private long stealAfterSeconds;
+    @Value("${judge.queue.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+    @Value("${judge.queue.max-attempts:3}")
+    private int maxAttempts;
+    // Воркери перевірки (профіль judge-worker) не захоплюють записи самі, а отримують їх від вузла API
+    @Value("${judge.queue.claim-enabled:true}")
+    private boolean claimEnabled;
+    // Скільки записів черги переглядати за раз, щоб мати з кого обирати по черзі
+    @Value("${judge.fair.window:50}")
+    private int fairWindow;
+    @Value("${judge.fair.tenant-max-share:1.0}")
+    private float defaultTenantShare;
+    // За скільки хвилин до дедлайну домашнього завдання рішення стає терміновим
+    @Value("${judge.fair.deadline-boost-minutes:60}")
+    private long deadlineBoostMinutes;
+    // Скільки слотів вузла можуть одночасно займати повторні перевірки, щоб не затримувати нові рішення
+    @Value("${judge.rejudge.max-running:1}")
+    private int maxBackgroundChecks;
+
+    // Клієнти цього вузла, чиї рішення ще не почали перевірятися
+    private final Map<Long, PendingClient> pendingClients = new ConcurrentHashMap<>();
+
+    // Рішення, які зараз перевіряє цей вузол, з даними для розподілу слотів; доступ лише під lock
+    private final Map<Long, JudgeTicketInfo> running = new HashMap<>();
+
+    // Клієнти захоплених рішень: чекають на слот CompileQueueService або вже отримують результати тестів
+    private final Map<Long, ActiveClient> activeClients = new ConcurrentHashMap<>();
+
+    // Блокування лише для стану в пам'яті (running, запит на опитування); запити до бази виконуються поза ним
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pollRequest = lock.newCondition();
+    private boolean pollRequested = false;
+    private volatile boolean polling = false;
+    private Thread poller;
+
+    @PostConstruct
+    public void init() throws UnknownHostException {
+        if (nodeId.isBlank())
+            nodeId = InetAddress.getLocalHost().getHostName();
+    }
+
+    /**
+     * Після старту повертає в чергу записи, які цей вузол не встиг перевірити до зупинки, і запускає опитування черги.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void releaseOwnEntries() {
+        int released = judgeQueueRepository.releaseAll(nodeId);
+        if (released > 0)
+            log.info("Returned {} unfinished decisions of node {} to the judge queue", released, nodeId);
+        polling = true;
+        poller = Thread.ofPlatform().name("judge-queue-poller").daemon().start(this::pollLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        polling = false;
+        if (poller == null)
+            return;
+        poller.interrupt();
+        poller.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Додає рішення до персистентної черги та одразу пробує почати його перевірку
+     * @param decision збережене рішення
+     * @param tenantId TreeNode, від імені якого відправлено рішення, або null
+     * @param reporter канал для повідомлень клієнту
+     */
+    public void enqueue(Decision decision, Long tenantId, JudgeReporter reporter) {
+        Float tenantShare = null;
+        if (tenantId != null)
+            tenantShare = treeNodeRepository.findById(tenantId).map(TreeNode::getJudgeSlotShare).orElse(null);
+
+        JudgeTicketInfo info = new JudgeTicketInfo(decision.getUser().getId(), tenantId, tenantShare, priorityFor(decision.getHomework()));
+        // Клієнт реєструється до запису в черзі, щоб цей вузол не захопив запис раніше, ніж з'явиться його клієнт.
+        // Поки запис не збережено, відсутність запису не означає, що рішення перевіряє інший вузол
+        PendingClient client = new PendingClient(reporter, decision.getLanguage(), LocalDateTime.now(), false);
+        pendingClients.put(decision.getId(), client);
+        try {
+            judgeQueueRepository.save(new JudgeQueueEntry(decision.getId(), nodeId, info));
+        } catch (RuntimeException e) {
+            pendingClients.remove(decision.getId(), client);
+            throw e;
+        }
+        pendingClients.replace(decision.getId(), client, client.asQueued());
+        wakePoller();
+    }
+
+    /**
+     * Додає до черги повторну перевірку вже перевіреного рішення з найнижчим пріоритетом. Клієнта в неї немає.
+     * @param decision рішення з позначкою повторної перевірки
+     */
+    public void enqueueBackground(Decision decision) {
+        JudgeTicketInfo info = new JudgeTicketInfo(decision.getUser().getId(), null, null, JudgePriority.BACKGROUND);
+        judgeQueueRepository.save(new JudgeQueueEntry(decision.getId(), nodeId, info));
+    }
+
+    /**
+     * Визначає пріоритет рішення в черзі
+     * @param homework домашнє завдання, в яке відправлено рішення, або null
+     * @return URGENT, якщо до дедлайну домашнього завдання лишилось менше judge.fair.deadline-boost-minutes, інакше NORMAL
+     */
+    public JudgePriority priorityFor(Homework homework) {
+        LocalDateTime deadline = homework != null ? homework.getDeadline() : null;
+        if (deadline != null && deadline.isBefore(LocalDateTime.now().plusMinutes(deadlineBoostMinutes)))
+            return JudgePriority.URGENT;
+        return JudgePriority.NORMAL;
+    }
+
+    /**
+     * Будить потік опитування черги: він одразу захопить записи під вільні слоти
+     */
+    private void wakePoller() {
+        lock.lock();
+        try {
+            pollRequested = true;
+            pollRequest.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Опитує чергу кожні judge.queue.poll-interval-ms або одразу, коли його розбудили
+     */
+    private void pollLoop() {
+        while (polling) {
+            lock.lock();
+            try {
+                if (!pollRequested)
+                    pollRequest.await(pollIntervalMs, TimeUnit.MILLISECONDS);
+                pollRequested = false;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            if (polling)
+                poll();
+        }
+    }
+
+    /**
+     * Продовжує оренду записів, що перевіряються, повідомляє клієнтів, що чекають, і захоплює нові записи.
+     * Виконується лише в потоці опитування.
+     */
+    private void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Set<Long> renewed = runningSnapshot(map -> Set.copyOf(map.keySet()));
+            if (!renewed.isEmpty())
+                judgeQueueRepository.renewLeases(nodeId, renewed, now.plusSeconds(leaseSeconds));
+
+            notifyPendingClients(now);
+            claimFreeSlots(now);
+        } catch (Exception e) {
+            log.error("Error while polling judge queue: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Читає стан running під блокуванням
+     */
+    private <T> T runningSnapshot(Function<Map<Long, JudgeTicketInfo>, T> reader) {
+        lock.lock();
+        try {
+            return reader.apply(running);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Захоплює записи черги під вільні слоти цього вузла.
+     * Порядок захоплення визначає FairShareQueue: термінові записи першими, автори по черзі,
+     * а орендар не отримує більше слотів цього вузла, ніж дозволяє його частка.
+     */
+    private void claimFreeSlots(LocalDateTime now) {
+        if (!claimEnabled)
+            return;
+
+        List<JudgeTicketInfo> runningInfo = runningSnapshot(map -> List.copyOf(map.values()));
+        int free = maxConcurrentChecks - runningInfo.size();
+        if (free <= 0)
+            return;
+
+        List<JudgeQueueEntry> candidates = judgeQueueRepository.findClaimable(now, PageRequest.of(0, Math.max(free * 4, fairWindow)));
+        FairShareQueue<JudgeQueueEntry> order = new FairShareQueue<>();
+        Map<Long, Float> tenantShares = new HashMap<>();
+        // Повторні перевірки не займають більше maxBackgroundChecks слотів; решта чекає наступного захоплення
+        long backgroundAllowed = maxBackgroundChecks - runningInfo.stream().filter(info -> info.priority() == JudgePriority.BACKGROUND).count();
+        for (JudgeQueueEntry entry : candidates) {
+            // Свіжі рішення інших вузлів залишаємо їм, бо там їх чекає клієнт
+            boolean foreign = !nodeId.equals(entry.getOriginNode());
+            boolean leaseExpired = entry.getOwnerNode() != null;
+            if (foreign && !leaseExpired && entry.getCreatedAt().isAfter(now.minusSeconds(stealAfterSeconds)))
+                continue;
+
+            if (entry.getPriority() == JudgePriority.BACKGROUND && backgroundAllowed-- <= 0)
+                continue;
+
+            JudgeTicketInfo info = entry.toTicketInfo();
+            if (info.tenantId() != null && info.tenantShare() != null)
+                tenantShares.put(info.tenantId(), info.tenantShare());
+            order.add(entry, info.userId(), info.tenantId(), info.priority());
+        }
+
+        Map<Long, Integer> runningByTenant = new HashMap<>();
+        for (JudgeTicketInfo info : runningInfo) {
+            if (info.tenantId() != null)
+                runningByTenant.merge(info.tenantId(), 1, Integer::sum);
+        }
+
+        while (free > 0) {
+            FairShareQueue.Handle<JudgeQueueEntry> handle = order.poll(tenant -> runningByTenant.getOrDefault((Long) tenant, 0) >=
+                    JudgeTicketInfo.tenantSlotCap(maxConcurrentChecks, tenantShares.getOrDefault((Long) tenant, defaultTenantShare)));
+            if (handle == null)
+                break;
+
+            JudgeQueueEntry entry = handle.getItem();
+            if (judgeQueueRepository.claim(entry.getId(), nodeId, now.plusSeconds(leaseSeconds), now) != 1)
+                continue;
+
+            if (entry.getAttempts() >= maxAttempts) {
+                // Рішення вже кілька разів обривало перевірку, тому прибираємо його з черги
+                log.warn("Decision #{} dropped from judge queue after {} attempts", entry.getDecisionId(), entry.getAttempts());
+                judgeQueueRepository.deleteByDecisionId(entry.getDecisionId());
+                // Повторна перевірка залишає попередній результат
+                if (entry.getPriority() == JudgePriority.BACKGROUND)
+                    decisionRepository.clearRejudge(entry.getDecisionId());
+                else
+                    decisionRepository.deleteById(entry.getDecisionId());
+                PendingClient client = pendingClients.get(entry.getDecisionId());
+                if (client != null)
+                    closeClient(entry.getDecisionId(), client, DROPPED_MESSAGE);
+                continue;
+            }
+
+            free--;
+            JudgeTicketInfo info = entry.toTicketInfo();
+            if (info.tenantId() != null)
+                runningByTenant.merge(info.tenantId(), 1, Integer::sum);
+            start(entry.getDecisionId(), info, entry.getCreatedAt());
+        }
+    }
+
+    /**
+     * Запускає перевірку захопленого рішення, щойно звільниться слот виконання.
+     * @param queuedAt час постановки рішення в персистентну чергу
+     */
+    private void start(Long decisionId, JudgeTicketInfo info, LocalDateTime queuedAt) {
+        lock.lock();
+        try {
+            running.put(decisionId, info);
+        } finally {
+            lock.unlock();
+        }
+        PendingClient client = pendingClients.remove(decisionId);
+        JudgeReporter reporter = client != null ? client.reporter() : JudgeReporter.NONE;
+        if (client != null)
+            activeClients.put(decisionId, new ActiveClient(reporter, client.language()));
+
+        compileQueueService.addToQueue(decisionId, info).thenRun(() -> {
+            judgeMetricsService.recordQueueWait(info.priority(), Duration.between(queuedAt, LocalDateTime.now()));
+            judgeDispatchService.submit(decisionId, reporter, () -> finish(decisionId));
+        });
+    }
+
+    /**
+     * Прибирає рішення з черги після перевірки і будить потік опитування, щоб він одразу зайняв звільнений слот.
+     */
+    private void finish(Long decisionId) {
+        try {
+            judgeQueueRepository.deleteByDecisionId(decisionId);
+        } catch (Exception e) {
+            log.error("Failed to remove decision #{} from judge queue: {}", decisionId, e.getMessage(), e);
+        } finally {
+            lock.lock();
+            try {
+                running.remove(decisionId);
+            } finally {
+                lock.unlock();
+            }
+            activeClients.remove(decisionId);
+            compileQueueService.removeFromQueue(decisionId);
+        }
+        wakePoller();
+    }
+
+    /**
+     * Надсилає клієнтам, що чекають, позицію в черзі та оцінку часу до результату, а клієнтам, чиї рішення
+     * перевіряються, - keepalive. Позиція в персистентній черзі рахується за порядком захоплення (пріоритет, id)
+     * разом із рішеннями, що вже чекають на слот CompileQueueService; позиція в CompileQueueService береться з неї за O(1).
+     */
+    @Scheduled(fixedDelayString = "${judge.progress.interval-ms:3000}")
+    public void reportProgress() {
+        if (pendingClients.isEmpty() && activeClients.isEmpty())
+            return;
+
+        try {
+            if (!pendingClients.isEmpty()) {
+                List<Long> waiting = judgeQueueRepository.findWaitingDecisionIds(PageRequest.of(0, PROGRESS_WINDOW));
+                Map<Long, Integer> ranks = new HashMap<>();
+                for (int i = 0; i < waiting.size(); i++)
+                    ranks.put(waiting.get(i), i);
+
+                long claimedWaiting = compileQueueService.getWaitingCount();
+                for (Map.Entry<Long, PendingClient> pending : pendingClients.entrySet()) {
+                    long position = claimedWaiting + ranks.getOrDefault(pending.getKey(), waiting.size()) + 1;
+                    sendProgress(pending.getValue().reporter(), pending.getValue().language(), position);
+                }
+            }
+
+            for (Map.Entry<Long, ActiveClient> active : activeClients.entrySet()) {
+                long position = compileQueueService.getPosition(active.getKey());
+                if (position > 0)
+                    sendProgress(active.getValue().reporter(), active.getValue().language(), position);
+                else if (position == 0)
+                    sendKeepAlive(active.getValue().reporter());
+            }
+        } catch (Exception e) {
+            log.debug("Error while reporting judge queue progress: {}", e.getMessage());
+        }
+    }
+
+    private void sendProgress(JudgeReporter reporter, String language, long position) {
+        try {
+            reporter.progress(position, judgeLatencyService.estimateWait(language, position, maxConcurrentChecks));
+        } catch (IOException e) {
+            // Клієнт відключився; рішення залишається в черзі
+        }
+    }
+
+    private void sendKeepAlive(JudgeReporter reporter) {
+        try {
+            reporter.keepAlive();
+        } catch (IOException e) {
+            // Клієнт відключився; перевірку скасує JudgeEngine
+        }
+    }
+
+    /**
+     * Закриває з'єднання клієнтів, чиї рішення довго чекають або перевіряються іншим вузлом.
+     * Самі рішення залишаються в черзі і будуть перевірені.
+     */
+    private void notifyPendingClients(LocalDateTime now) {
+        if (pendingClients.isEmpty())
+            return;
+
+        Set<Long> waiting = Set.copyOf(pendingClients.keySet());
+        Map<Long, JudgeQueueEntry> entries = judgeQueueRepository.findAllByDecisionIdIn(waiting).stream()
+                .collect(Collectors.toMap(JudgeQueueEntry::getDecisionId, Function.identity()));
+        // Рішення без запису в черзі або вже перевірене, або видалене, бо його не вдалося перевірити
+        Set<Long> missing = waiting.stream().filter(id -> !entries.containsKey(id)).collect(Collectors.toSet());
+        Set<Long> existing = missing.isEmpty() ? Set.of() : Set.copyOf(decisionRepository.findExistingIds(missing));
+
+        for (Map.Entry<Long, PendingClient> pending : pendingClients.entrySet()) {
+            // Запис ще зберігається, тому його відсутність нічого не означає
+            if (!pending.getValue().queued())
+                continue;
+            JudgeQueueEntry entry = entries.get(pending.getKey());
+            String message = null;
+
+            if (entry == null && !existing.contains(pending.getKey()))
+                message = DROPPED_MESSAGE;
+            else if (entry == null || (entry.getOwnerNode() != null && !nodeId.equals(entry.getOwnerNode())))
+                message = "Рішення перевіряється на іншому сервері. Результат з'явиться у списку ваших рішень";
+            else if (pending.getValue().since().isBefore(now.minusSeconds(CLIENT_WAIT_LIMIT_SECONDS)))
+                message = "Рішення залишається в черзі і буде перевірене пізніше. Результат з'явиться у списку ваших рішень";
+
+            if (message != null)
+                closeClient(pending.getKey(), pending.getValue(), message);
+        }
+    }
+
+    /**
+     * Надсилає клієнту, що чекає, останнє повідомлення і закриває його з'єднання
+     */
+    private void closeClient(Long decisionId, PendingClient client, String message) {
+        if (!pendingClients.remove(decisionId, client))
+            return;
+        JudgeReporter reporter = client.reporter();
+        try {
+            reporter.message(message);
+            reporter.complete();
+        } catch (IOException e) {
+            reporter.completeWithError(e);
+        }
+    }
+
+    /**
+     * @param queued запис рішення вже збережено в черзі
+     */
+    private record PendingClient(JudgeReporter reporter, String language, LocalDateTime since, boolean queued) {
+        PendingClient asQueued() {
+            return new PendingClient(reporter, language, since, true);
+        }
+    }
+
+    private record ActiveClient(JudgeReporter reporter, String language) {}
+}
@@ -0,0 +1,716 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.checker.CheckerDTO;
+import com.educode.educodeApi.DTO.code.BatchRunResult;
+import com.educode.educodeApi.DTO.code.InteractiveResult;
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.enums.JudgingPolicy;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.enums.TestVerdict;
+import com.educode.educodeApi.exceptions.*;
+import com.educode.educodeApi.functional.RecordingJudgeReporter;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.lazyinit.PuzzleInclude;
+import com.educode.educodeApi.mappers.CheckerMapper;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.models.TestResult;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.properties.ContainerProperties;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.utils.BatchInputWriter;
+import com.educode.educodeApi.utils.JudgeScope;
+import com.educode.educodeApi.utils.PersistentChecker;
+import com.educode.educodeApi.utils.WarmPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервіс перевірки рішень: запускає код рішення на тестах задачі, рахує оцінку та оновлює рейтинг.
+ * Не знає, звідки прийшло рішення: з HTTP-запиту чи з персистентної черги після перезапуску.
+ */
+@Service
+public class JudgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeService.class);
+
+    @Autowired
+    private ContainerExecutionService containerExecutionService;
+    @Autowired
+    private ContainerPoolService containerPoolService;
+    @Autowired
+    private BatchExecutionService batchExecutionService;
+    @Autowired
+    private PersistentCheckerService persistentCheckerService;
+    @Autowired
+    private OutputCompareService outputCompareService;
+    @Autowired
+    private TestDataService testDataService;
+    @Autowired
+    private VerdictCacheService verdictCacheService;
+    @Autowired
+    private JudgeLatencyService judgeLatencyService;
+    @Autowired
+    private JudgeMetricsService judgeMetricsService;
+    @Autowired
+    private TestResultService testResultService;
+    @Autowired
+    private DecisionFinalizationService decisionFinalizationService;
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @Autowired
+    private PuzzleService puzzleService;
+    @Autowired
+    private ContainerProperties containerProperties;
+    @Autowired
+    private CheckerMapper checkerMapper;
+    @Autowired
+    private ContainerExceptionMapper containerExceptionMapper;
+
+    // Скільки контейнерів може одночасно виконувати тести одного рішення
+    @Value("${judge.parallel.fan-out:4}")
+    private int parallelFanOut;
+    // З якої кількості тестів варто запускати додаткові контейнери
+    @Value("${judge.parallel.min-tests:8}")
+    private int parallelMinTests;
+
+    /**
+     * Перевіряє рішення за його ідентифікатором.
+     * Запуски тестів і виклики checker'а виконуються як дочірні задачі scope, тому скасування scope
+     * перериває перевірку: рішення видаляється, а CancellationException передається далі.
+     * Для задач з політикою FAIL_FAST тести після першого непройденого не виконуються і дають 0 балів.
+     * Рішення з позначкою повторної перевірки (rejudgeJobId) перевіряється ще раз, навіть якщо воно завершене:
+     * оцінка оновлюється, рейтинг виправляє RejudgeService після всієї партії, а при помилці залишається попередній результат.
+     *
+     * @param decisionId ідентифікатор рішення
+     * @param reporter канал для повідомлень про хід перевірки
+     * @param scope область перевірки
+     * @throws CancellationException якщо перевірку скасовано
+     */
+    public void judge(Long decisionId, JudgeReporter reporter, JudgeScope scope) {
+        long started = System.nanoTime();
+        Decision decision = decisionRepository.findById(decisionId).orElse(null);
+        boolean rejudge = decision != null && decision.getRejudgeJobId() != null;
+        if (decision == null || (decision.isFinished() && !rejudge)) {
+            reporter.complete();
+            return;
+        }
+
+        Puzzle puzzle = puzzleService.findById(decision.getPuzzle().getId(), Set.of(PuzzleInclude.PUZZLE_DATA, PuzzleInclude.CHECKER));
+        if (puzzle == null) {
+            reporter.complete();
+            return;
+        }
+        User user = decision.getUser();
+
+        // Повідомлення про тести запам'ятовуються, щоб відтворити їх для такого самого рішення
+        RecordingJudgeReporter recorder = new RecordingJudgeReporter(reporter);
+        // Результат завершення; після нього рішення вже збережено і не прибирається при помилці
+        DecisionFinalizationService.Result finished = null;
+        try {
+            String[] spVals = decision.getLanguage().split(":");
+            float totalScore = 0.0f;
+            // Результати тестів зберігаються пакетом після збереження рішення
+            List<TestResult> testResults = new ArrayList<>();
+            if (puzzle.getTaskType() == TaskType.NON_INTERACTIVE || puzzle.getTaskType() == TaskType.OUTPUT_CHECKING) {
+                List<PuzzleData> passedTests = new ArrayList<>();
+                List<Pair<PuzzleData, Float>> halfPassedTests = new ArrayList<>();
+                // Тести впорядковані за ідентифікатором, у цьому ж порядку клієнт отримує результати
+                List<PuzzleData> tests = puzzle.getPuzzleData().stream()
+                        .sorted(Comparator.comparing(PuzzleData::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                        .toList();
+
+                boolean failFast = puzzle.getJudgingPolicy() == JudgingPolicy.FAIL_FAST;
+                // Найменший індекс непройденого тесту: контейнери пропускають лише тести після нього
+                AtomicInteger firstFailed = failFast ? new AtomicInteger(Integer.MAX_VALUE) : null;
+                int skippedTests = 0;
+
+                CheckerDTO checkerDTO = checkerMapper.toTechDTO(puzzle.getChecker());
+                // Підготовка першого контейнера включає компіляцію; ця подія не запам'ятовується для відтворення
+                reporter.event(JudgeProgressEvent.compiling());
+                try (TestRunner primary = openRunner(decision, puzzle, checkerDTO)) {
+                    // Тести розподіляються між кількома контейнерами, а результати надсилаються по порядку
+                    List<CompletableFuture<TestOutcome>> outcomes = new ArrayList<>();
+                    for (int t = 0; t < tests.size(); t++)
+                        outcomes.add(scope.link(new CompletableFuture<>()));
+
+                    AtomicInteger nextTest = new AtomicInteger();
+                    int fanOut = tests.size() >= parallelMinTests ? Math.min(parallelFanOut, tests.size()) : 1;
+                    Future<Void> primaryWorker = null;
+                    boolean completed = false;
+                    try {
+                        primaryWorker = scope.fork(() -> runTests(scope, primary, decision, puzzle, checkerDTO, tests, nextTest, firstFailed, outcomes));
+                        for (int w = 1; w < fanOut; w++) {
+                            // Додатковий контейнер закривається у своєму потоці, коли його тести завершились
+                            scope.fork(() -> {
+                                try (TestRunner extra = openRunner(decision, puzzle, checkerDTO)) {
+                                    try {
+                                        return runTests(scope, extra, decision, puzzle, checkerDTO, tests, nextTest, firstFailed, outcomes);
+                                    } finally {
+                                        if (scope.isCancelled())
+                                            extra.discard();
+                                    }
+                                } catch (Exception e) {
+                                    // Додатковий контейнер не обов'язковий: решту тестів виконають інші
+                                    log.debug("Extra test runner for decision #{} failed: {}", decisionId, e.getMessage());
+                                    return null;
+                                }
+                            });
+                        }
+
+                        boolean failed = false;
+                        for (int t = 0; t < tests.size(); t++) {
+                            // Чекаємо на всі тести, навіть пропущені, щоб результати надсилались по порядку
+                            TestOutcome outcome = scope.await(outcomes.get(t));
+                            scope.throwIfCancelled();
+                            // Тести, що встигли виконатися після першого непройденого, теж вважаються пропущеними,
+                            // тому результат не залежить від кількості контейнерів
+                            PuzzleData puzzleData = tests.get(t);
+                            int i = t + 1;
+                            if (failed || outcome == TestOutcome.SKIPPED) {
+                                failed = true;
+                                skippedTests++;
+                                testResults.add(testResult(decision, puzzleData, i, TestVerdict.SKIPPED, 0f, null));
+                                continue;
+                            }
+                            if (failFast && !outcome.correct()) {
+                                failed = true;
+                                firstFailed.accumulateAndGet(t, Math::min);
+                            }
+
+                            if (!isReproducible(outcome.error()))
+                                recorder.markNotReplayable();
+                            if (outcome.error() instanceof ContainerException || outcome.error() instanceof InteractiveResultParsingException) {
+                                var mapper = containerExceptionMapper.map(outcome.error());
+                                containerExceptionMapper.act(outcome.error(), decision, puzzle.getChecker());
+                                reportTest(recorder, decision, puzzle, JudgeProgressEvent.testResult(i, JudgeProgressEvent.Verdict.ERROR, null, mapper.message()));
+                                testResults.add(testResult(decision, puzzleData, i, errorVerdict(outcome.error()), 0f, outcome.stats()));
+                                continue;
+                            }
+                            if (outcome.error() != null) {
+                                reportTest(recorder, decision, puzzle, JudgeProgressEvent.testResult(i, JudgeProgressEvent.Verdict.ERROR, null, null));
+                                testResults.add(testResult(decision, puzzleData, i, TestVerdict.ERROR, 0f, outcome.stats()));
+                                continue;
+                            }
+
+                            InteractiveResult result = outcome.result();
+                            Double percent = result != null ? result.getScore() : null;
+                            String message = result != null && result.getMessage() != null && !result.getMessage().isBlank() ? result.getMessage() : null;
+                            if (outcome.correct()) {
+                                reportTest(recorder, decision, puzzle, JudgeProgressEvent.testResult(i, JudgeProgressEvent.Verdict.PASSED, percent, message));
+                                passedTests.add(puzzleData);
+                                testResults.add(testResult(decision, puzzleData, i, TestVerdict.PASSED, puzzleData.getScore(), outcome.stats()));
+                            } else if (!outcome.incorrect()) {
+                                reportTest(recorder, decision, puzzle, JudgeProgressEvent.testResult(i, JudgeProgressEvent.Verdict.PARTIAL, percent, message));
+                                halfPassedTests.add(Pair.of(puzzleData, result.getRealScore(puzzleData.getScore())));
+                                testResults.add(testResult(decision, puzzleData, i, TestVerdict.PARTIAL, result.getRealScore(puzzleData.getScore()), outcome.stats()));
+                            } else {
+                                reportTest(recorder, decision, puzzle, JudgeProgressEvent.testResult(i, JudgeProgressEvent.Verdict.FAILED, percent, message));
+                                testResults.add(testResult(decision, puzzleData, i, TestVerdict.WRONG_ANSWER, 0f, outcome.stats()));
+                            }
+                        }
+                        completed = true;
+                    } finally {
+                        // Контейнер закривається лише після того, як завершився запуск на ньому, навіть скасований
+                        if (primaryWorker != null)
+                            scope.join(primaryWorker);
+                        // Скасований запуск міг залишити в контейнері процес рішення, тому такий контейнер знищується, а не повертається в пул
+                        if (!completed || scope.isCancelled())
+                            primary.discard();
+                    }
+                } catch (ContainerCreateException e) {
+                    recorder.message("Тестування не пройдено через те, що на сервері сталася технічна помилка");
+                    throw e;
+                } catch (UnsupportedLanguageException e) {
+                    recorder.message("Тестування не пройдено через те, що мова не підтримується на сервері");
+                    throw e;
+                }
+
+                // Підраховуємо загальний результат
+                totalScore = passedTests.stream().map(PuzzleData::getScore).reduce(0f, Float::sum);
+                totalScore += halfPassedTests.stream().map(Pair::getSecond).reduce(0f, Float::sum);
+                recorder.event(JudgeProgressEvent.summary(passedTests.size(), halfPassedTests.size(), skippedTests, puzzle.getPuzzleData().size()));
+
+                // Оновлюємо дані про рішення
+                decision.setCorrect(passedTests.size() == puzzle.getPuzzleData().size());
+                decision.setScore(totalScore);
+                verdictCacheService.remember(decision, puzzle, recorder);
+            } else if (puzzle.getTaskType() == TaskType.FULL_INTERACTIVE) {
+                InteractiveResult result;
+                try {
+                    CheckerDTO checkerDTO = checkerMapper.toTechDTO(puzzle.getChecker());
+                    reporter.event(JudgeProgressEvent.compiling());
+                    long runStarted = System.nanoTime();
+                    try {
+                        result = scope.call(() -> containerExecutionService.runCodeInteractive(spVals[0], spVals[1], decision.getCode(), containerProperties.getMemoryLimit(), puzzle.getTimeLimit(), checkerDTO));
+                    } finally {
+                        recordTestRun(decision, puzzle, JudgeMetricsService.RUN_INTERACTIVE, runStarted);
+                    }
+                } catch (ContainerException | InteractiveResultParsingException e) {
+                    var mapper = containerExceptionMapper.map(e);
+                    containerExceptionMapper.act(e, decision, puzzle.getChecker());
+                    reporter.message("Тестування не пройдено. " + mapper.message());
+                    throw e;
+                }
+
+                if (result.getMessage() != null && !result.getMessage().isBlank()) {
+                    reporter.message("Повідомлення від вчителя: " + result.getMessage());
+                }
+
+                containerExceptionMapper.checkInteractiveResult(log, result, puzzle, decision, user);
+
+                totalScore = result.getRealScore(puzzle.getScore());
+
+                // Оновлюємо дані про рішення
+                decision.setCorrect(totalScore == puzzle.getScore());
+                decision.setScore(totalScore);
+            }
+
+            scope.throwIfCancelled();
+            // Рішення і рейтинг автора записуються однією транзакцією; рейтинг після повторної перевірки виправляє RejudgeService
+            finished = decisionFinalizationService.finish(decision, rejudge);
+            saveTestResults(decision, () -> testResultService.replace(decision.getId(), testResults));
+            judgeLatencyService.record(decision.getLanguage(), Duration.ofNanos(System.nanoTime() - started));
+            judgeMetricsService.recordDecision(decision.getLanguage(), puzzle.getTaskType(), decision.isCorrect() ? "accepted" : "rejected", System.nanoTime() - started);
+            if (!rejudge)
+                reportTotal(decision, puzzle, finished, reporter);
+
+            reporter.complete();
+        } catch (CancellationException e) {
+            judgeMetricsService.recordDecision(decision.getLanguage(), puzzle.getTaskType(), "cancelled", System.nanoTime() - started);
+            if (finished == null)
+                discard(decision, rejudge);
+            throw e;
+        } catch (IOException e) {
+            judgeMetricsService.recordDecision(decision.getLanguage(), puzzle.getTaskType(), "error", System.nanoTime() - started);
+            if (finished == null)
+                discard(decision, rejudge);
+            reporter.completeWithError(e);
+        } catch (Exception e) {
+            judgeMetricsService.recordDecision(decision.getLanguage(), puzzle.getTaskType(), "error", System.nanoTime() - started);
+            if (finished == null)
+                discard(decision, rejudge);
+            reporter.complete();
+            if (e instanceof ContainerException ce)
+                log.warn(ce.getLogTemplate(), ce.getLogArgs());
+            else
+                log.error("Error while testing: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Прибирає рішення, перевірку якого не завершено: нове рішення видаляється,
+     * а повторно перевірюване зберігає попередній результат
+     */
+    private void discard(Decision decision, boolean rejudge) {
+        if (rejudge)
+            decisionRepository.clearRejudge(decision.getId());
+        else
+            decisionRepository.delete(decision);
+    }
+
+    /**
+     * Відтворює збережений результат такого самого рішення замість перевірки: рішення не стає в чергу і не запускає контейнери.
+     * Оцінка і рейтинг оновлюються так само, як після перевірки.
+     *
+     * @param decision нове, ще не перевірене рішення
+     * @param puzzle задача з тестами та checker'ом
+     * @param reporter канал для повідомлень
+     * @return false, якщо збереженого результату немає і рішення треба перевірити
+     */
+    public boolean replay(Decision decision, Puzzle puzzle, JudgeReporter reporter) {
+        Decision source = verdictCacheService.findReplayable(decision, puzzle);
+        if (source == null)
+            return false;
+
+        List<JudgeProgressEvent> events;
+        try {
+            events = verdictCacheService.events(source);
+        } catch (IOException e) {
+            log.warn("Stored verdict of decision #{} is corrupted: {}", source.getId(), e.getMessage());
+            return false;
+        }
+
+        DecisionFinalizationService.Result finished = null;
+        try {
+            for (JudgeProgressEvent event : events)
+                reporter.event(event);
+
+            verdictCacheService.copy(source, decision);
+            finished = decisionFinalizationService.finish(decision, false);
+            saveTestResults(decision, () -> testResultService.copy(source.getId(), decision.getId()));
+            log.debug("Decision #{} reuses the verdict of decision #{}", decision.getId(), source.getId());
+
+            reportTotal(decision, puzzle, finished, reporter);
+            reporter.complete();
+        } catch (IOException e) {
+            if (finished == null)
+                decisionRepository.delete(decision);
+            reporter.completeWithError(e);
+        }
+        return true;
+    }
+
+    /**
+     * Надсилає загальну оцінку та зміну рейтингу користувача
+     * @param finished результат завершення: скільки додано до рейтингу (різниця з найкращим попереднім рішенням задачі) і новий рейтинг
+     */
+    private void reportTotal(Decision decision, Puzzle puzzle, DecisionFinalizationService.Result finished, JudgeReporter reporter) throws IOException {
+        reporter.event(JudgeProgressEvent.rating(decision.getScore(), puzzle.getScore(), finished.added(), finished.rating()));
+    }
+
+    /**
+     * Зберігає результати тестів вже збереженого рішення. Помилка збереження не скасовує перевірку:
+     * рішення залишається перевіреним, лише без результатів тестів.
+     */
+    private void saveTestResults(Decision decision, Runnable save) {
+        try {
+            save.run();
+        } catch (Exception e) {
+            log.warn("Could not save test results of decision #{}: {}", decision.getId(), e.getMessage());
+        }
+    }
+
+    private static TestResult testResult(Decision decision, PuzzleData puzzleData, int test, TestVerdict verdict, Float score, RunStats stats) {
+        TestResult result = new TestResult(decision.getId(), puzzleData.getId(), test, verdict);
+        result.setScore(score);
+        if (stats != null) {
+            result.setTimeMs(stats.timeMs());
+            result.setExitCode(stats.exitCode());
+            result.setOutputBytes(stats.outputBytes());
+        }
+        return result;
+    }
+
+    private static TestVerdict errorVerdict(Exception error) {
+        if (error instanceof ContainerTimeoutException)
+            return TestVerdict.TIME_LIMIT;
+        if (error instanceof ContainerExecutionException)
+            return TestVerdict.RUNTIME_ERROR;
+        return TestVerdict.ERROR;
+    }
+
+    /**
+     * Надсилає результат тесту і враховує його вердикт у метриках
+     */
+    private void reportTest(JudgeReporter recorder, Decision decision, Puzzle puzzle, JudgeProgressEvent event) throws IOException {
+        judgeMetricsService.recordVerdict(decision.getLanguage(), puzzle.getTaskType(), event.verdict());
+        recorder.event(event);
+    }
+
+    /**
+     * Перевіряє, чи результат тесту з такою помилкою залежить лише від коду рішення.
+     * Вихід за час і помилки сервера чи checker'а можуть не повторитися, тому такий результат не відтворюється.
+     */
+    private static boolean isReproducible(Exception error) {
+        return error == null || error instanceof ContainerBuildingException || error instanceof ContainerExecutionException;
+    }
+
+    /**
+     * Готує контейнер рішення та, для задач з перевіркою виводу, контейнер checker'а.
+     * Checker з підтримкою постійного режиму запускається одразу і перевіряє всі тести цього контейнера.
+     */
+    private TestRunner openRunner(Decision decision, Puzzle puzzle, CheckerDTO checkerDTO) throws Exception {
+        String[] spVals = decision.getLanguage().split(":");
+        long compileStarted = System.nanoTime();
+        WarmPool.Lease<DockerContainer> userLease;
+        try {
+            userLease = containerPoolService.prepareForRun(spVals[0], spVals[1], decision.getCode(), containerProperties.getMemoryLimit(), TaskType.OUTPUT_CHECKING);
+        } catch (ContainerBuildingException e) {
+            judgeMetricsService.recordCompile(decision.getLanguage(), puzzle.getTaskType(), true, System.nanoTime() - compileStarted);
+            throw e;
+        }
+        judgeMetricsService.recordCompile(decision.getLanguage(), puzzle.getTaskType(), false, System.nanoTime() - compileStarted);
+        try {
+            WarmPool.Lease<DockerContainer> checkerLease = puzzle.getTaskType() == TaskType.NON_INTERACTIVE ? null
+                    : containerPoolService.prepareChecker(userLease.get(), checkerDTO, containerProperties.getCheckerMemoryLimit());
+            boolean usesChecker = checkerLease != null && puzzle.getPuzzleData().stream().anyMatch(puzzleData -> !comparesOutput(puzzle, puzzleData));
+            PersistentChecker session = usesChecker ? persistentCheckerService.open(checkerLease.get(), checkerDTO) : null;
+            return new TestRunner(userLease, checkerLease, session);
+        } catch (Exception e) {
+            userLease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Виконує тести на одному контейнері, поки є невиконані. Тести забираються через nextTest групами по розміру пакета,
+     * тому контейнери, що працюють швидше, виконують більше тестів.
+     * @param firstFailed найменший індекс непройденого тесту для політики FAIL_FAST або null; пропущеними позначаються
+     *                    лише тести після нього, а тести перед ним виконуються, навіть якщо інший контейнер вже знайшов помилку
+     */
+    private Void runTests(JudgeScope scope, TestRunner runner, Decision decision, Puzzle puzzle, CheckerDTO checkerDTO, List<PuzzleData> tests,
+                          AtomicInteger nextTest, AtomicInteger firstFailed, List<CompletableFuture<TestOutcome>> outcomes) {
+        int batchSize = batchExecutionService.batchSize(tests.size());
+        int first;
+        // Після скасування нові тести не запускаються, щоб контейнер якнайшвидше звільнився
+        while (!scope.isCancelled() && (first = nextTest.getAndAdd(batchSize)) < tests.size()) {
+            int end = Math.min(first + batchSize, tests.size());
+
+            // Тести з порівнянням виводу, а з постійним checker'ом і решта, запускаються одним пакетом
+            List<Integer> batch = new ArrayList<>();
+            for (int t = first; t < end; t++) {
+                if (batchSize > 1 && (comparesOutput(puzzle, tests.get(t)) || runner.checksPersistently()))
+                    batch.add(t);
+            }
+            if (!batch.isEmpty() && !isSkipped(firstFailed, batch.get(0)))
+                runBatch(runner, decision, puzzle, tests, batch, firstFailed, outcomes);
+
+            for (int t = first; t < end && !scope.isCancelled(); t++) {
+                if (outcomes.get(t).isDone())
+                    continue;
+                if (isSkipped(firstFailed, t))
+                    outcomes.get(t).complete(TestOutcome.SKIPPED);
+                else
+                    complete(outcomes, t, runTest(runner, decision, puzzle, checkerDTO, tests.get(t)), firstFailed);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Виконує один тест
+     */
+    private TestOutcome runTest(TestRunner runner, Decision decision, Puzzle puzzle, CheckerDTO checkerDTO, PuzzleData puzzleData) {
+        try {
+            if (comparesOutput(puzzle, puzzleData)) {
+                long started = System.nanoTime();
+                try {
+                    // Вивід порівнюється під час виконання і не зберігається, тому його розмір невідомий
+                    boolean isCorrect = outputCompareService.runAndCompare(runner.user().get(), puzzleData, puzzle.getTimeLimit());
+                    return new TestOutcome(isCorrect, !isCorrect, null, null, RunStats.since(started, null));
+                } finally {
+                    recordTestRun(decision, puzzle, JudgeMetricsService.RUN_SINGLE, started);
+                }
+            }
+            if (runner.checksPersistently()) {
+                long started = System.nanoTime();
+                String output;
+                try {
+                    output = containerExecutionService.runCode(runner.user().get(), testDataService.readInput(puzzleData), puzzle.getTimeLimit());
+                } finally {
+                    recordTestRun(decision, puzzle, JudgeMetricsService.RUN_SINGLE, started);
+                }
+                RunStats stats = RunStats.since(started, output);
+                InteractiveResult result = checkPersistently(runner, decision, puzzle, puzzleData, output);
+                if (result != null)
+                    return checkerOutcome(decision, puzzle, result, stats);
+            }
+            // Рішення і checker запускаються одним викликом, тому час перевірки виводу входить у час запуску
+            long started = System.nanoTime();
+            InteractiveResult result;
+            try {
+                result = containerExecutionService.runCodeCheckingOutput(runner.user().get(), runner.checker().get(), testDataService.readInput(puzzleData), puzzle.getTimeLimit(), checkerDTO);
+            } finally {
+                recordTestRun(decision, puzzle, JudgeMetricsService.RUN_WITH_CHECKER, started);
+            }
+            return checkerOutcome(decision, puzzle, result, RunStats.since(started, null));
+        } catch (Exception e) {
+            return new TestOutcome(false, true, null, e, RunStats.of(e));
+        }
+    }
+
+    /**
+     * Перевіряє вивід рішення постійним checker'ом
+     * @return результат checker'а або null, якщо сесія зламалась і тест треба перевірити звичайним запуском checker'а
+     */
+    private InteractiveResult checkPersistently(TestRunner runner, Decision decision, Puzzle puzzle, PuzzleData puzzleData, String output) {
+        long started = System.nanoTime();
+        try {
+            InteractiveResult result = runner.session().check(testDataService.readInput(puzzleData), testDataService.readOutput(puzzleData), output,
+                    persistentCheckerService.exchangeTimeout(puzzle.getTimeLimit()));
+            judgeMetricsService.recordChecker(decision.getLanguage(), puzzle.getTaskType(), System.nanoTime() - started);
+            return result;
+        } catch (IOException e) {
+            log.debug("Persistent checker session failed, checking the remaining tests one by one: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void recordTestRun(Decision decision, Puzzle puzzle, String mode, long started) {
+        judgeMetricsService.recordTestRun(decision.getLanguage(), puzzle.getTaskType(), mode, System.nanoTime() - started);
+    }
+
+    private TestOutcome checkerOutcome(Decision decision, Puzzle puzzle, InteractiveResult result, RunStats stats) {
+        containerExceptionMapper.checkInteractiveResult(log, result, puzzle, decision, decision.getUser());
+        return new TestOutcome(result.getScore() == 100.0d, result.getScore() == 0.0d, result, null, stats);
+    }
+
+    /**
+     * Виконує тести одним викликом batch_runner.sh. Якщо пакет не вдався цілком, результати не заповнюються,
+     * і ці тести виконуються по одному. Вивід тестів з checker'ом перевіряє постійний checker; тести, які він
+     * не зміг перевірити, теж залишаються без результату.
+     * @param batch індекси тестів пакета
+     */
+    private void runBatch(TestRunner runner, Decision decision, Puzzle puzzle, List<PuzzleData> tests, List<Integer> batch,
+                          AtomicInteger firstFailed, List<CompletableFuture<TestOutcome>> outcomes) {
+        List<BatchRunResult> results;
+        try {
+            // Вивід тестів з порівнянням довший за очікуваний не зберігається повністю: він вже не може збігтися
+            List<Integer> outputLimits = batch.stream()
+                    .map(t -> comparesOutput(puzzle, tests.get(t)) ? outputCompareService.maxOutputBytes(tests.get(t)) : null)
+                    .toList();
+            // Ввід тестів передається в контейнер потоком, без читання файлів сховища в пам'ять
+            BatchInputWriter input = new BatchInputWriter(batch.stream()
+                    .map(t -> new BatchInputWriter.Input(testDataService.inputSize(tests.get(t)), testDataService.input(tests.get(t))))
+                    .toArray(BatchInputWriter.Input[]::new));
+            results = batchExecutionService.run(runner.user().get(), input, outputLimits, puzzle.getTimeLimit());
+        } catch (Exception e) {
+            log.debug("Batch run of {} tests failed, running them one by one: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            int t = batch.get(i);
+            PuzzleData puzzleData = tests.get(t);
+            TestOutcome outcome;
+            RunStats stats = null;
+            try {
+                BatchRunResult run = results.get(i);
+                // Пакетний запуск сам вимірює час кожного тесту
+                stats = new RunStats(run.timeMs(), run.exitCode(), run.output() != null ? utf8Length(run.output()) : null);
+                judgeMetricsService.recordTestRun(decision.getLanguage(), puzzle.getTaskType(), JudgeMetricsService.RUN_BATCH,
+                        TimeUnit.MILLISECONDS.toNanos(run.timeMs()));
+                String output = batchExecutionService.outputOf(run, puzzle.getTimeLimit());
+                if (comparesOutput(puzzle, puzzleData)) {
+                    boolean isCorrect = !run.truncated() && outputCompareService.matches(puzzleData, output);
+                    outcome = new TestOutcome(isCorrect, !isCorrect, null, null, stats);
+                } else {
+                    InteractiveResult result = checkPersistently(runner, decision, puzzle, puzzleData, output);
+                    if (result == null)
+                        continue;
+                    outcome = checkerOutcome(decision, puzzle, result, stats);
+                }
+            } catch (Exception e) {
+                outcome = new TestOutcome(false, true, null, e, stats != null ? stats : RunStats.of(e));
+            }
+            complete(outcomes, t, outcome, firstFailed);
+        }
+    }
+
+    /**
+     * Перевіряє, чи результат тесту визначається порівнянням виводу з очікуваним, а не checker'ом
+     */
+    private static boolean comparesOutput(Puzzle puzzle, PuzzleData puzzleData) {
+        return puzzle.getTaskType() == TaskType.NON_INTERACTIVE || (puzzle.getTaskType() == TaskType.OUTPUT_CHECKING && puzzleData.hasOutput());
+    }
+
+    private static void complete(List<CompletableFuture<TestOutcome>> outcomes, int t, TestOutcome outcome, AtomicInteger firstFailed) {
+        if (firstFailed != null && !outcome.correct())
+            firstFailed.accumulateAndGet(t, Math::min);
+        outcomes.get(t).complete(outcome);
+    }
+
+    /**
+     * Перевіряє, чи тест можна не виконувати: за політикою FAIL_FAST перед ним вже є непройдений тест
+     */
+    private static boolean isSkipped(AtomicInteger firstFailed, int t) {
+        return firstFailed != null && firstFailed.get() < t;
+    }
+
+    /**
+     * Контейнери, на яких виконуються тести рішення
+     * @param session сесія постійного checker'а або null
+     */
+    private record TestRunner(WarmPool.Lease<DockerContainer> user, WarmPool.Lease<DockerContainer> checker,
+                              PersistentChecker session) implements AutoCloseable {
+        boolean checksPersistently() {
+            return session != null && session.isUsable();
+        }
+
+        /**
+         * Позначає контейнери як непридатні: при закритті їх буде знищено, а не повернуто в пул
+         */
+        void discard() {
+            user.discard();
+            if (checker != null)
+                checker.discard();
+        }
+
+        @Override
+        public void close() throws Exception {
+            try {
+                if (session != null)
+                    session.close();
+                if (checker != null)
+                    checker.close();
+            } finally {
+                user.close();
+            }
+        }
+    }
+
+    /**
+     * Результат одного тесту
+     * @param correct тест пройдено повністю
+     * @param incorrect тест не пройдено зовсім
+     * @param result результат checker'а або null
+     * @param error помилка виконання або null
+     * @param stats виміри запуску або null, якщо тест не виконувався
+     */
+    private record TestOutcome(boolean correct, boolean incorrect, InteractiveResult result, Exception error, RunStats stats) {
+        // Тест не виконувався через політику FAIL_FAST: перед ним є непройдений тест
+        static final TestOutcome SKIPPED = new TestOutcome(false, true, null, null, null);
+    }
+
+    /**
+     * Виміри одного запуску рішення на тесті; невідомі величини - null
+     * @param timeMs час виконання в мілісекундах
+     * @param exitCode код завершення програми
+     * @param outputBytes розмір виводу в байтах
+     */
+    private record RunStats(Long timeMs, Integer exitCode, Long outputBytes) {
+        /**
+         * Виміри успішного запуску, що почався в started (System.nanoTime())
+         * @param output вивід програми або null, якщо він не зберігався
+         */
+        static RunStats since(long started, String output) {
+            return new RunStats(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), 0, output != null ? utf8Length(output) : null);
+        }
+
+        /**
+         * Виміри невдалого запуску з винятку контейнера
+         */
+        static RunStats of(Exception error) {
+            if (error instanceof ContainerTimeoutException e)
+                return new RunStats(e.getTime(), null, null);
+            if (error instanceof ContainerExecutionException e)
+                return new RunStats(null, e.getCode(), null);
+            return null;
+        }
+    }
+
+    /**
+     * Рахує розмір рядка в UTF-8 без копіювання його в масив байтів
+     */
+    private static long utf8Length(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80)
+                length++;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else
+                length += 3;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,52 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.exceptions.BadRequestError;
+import com.educode.educodeApi.functional.JsonSseJudgeReporter;
+import com.educode.educodeApi.functional.SseJudgeReporter;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Сервіс SSE-потоків перевірки рішень. Клієнт обирає версію протоколу:
+ * 1 - текстові події "message" по одній на повідомлення (як раніше),
+ * 2 - JSON-кадри з типізованими подіями, результати тестів у яких об'єднуються (JsonSseJudgeReporter).
+ */
+@Service
+public class JudgeStreamService {
+
+    public static final int LEGACY_VERSION = 1;
+
+    // Мінімальний інтервал між кадрами з результатами тестів у протоколі версії 2
+    @Value("${judge.stream.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    // Таймер відкладеного надсилання кадрів; надсилання коротке, тому вистачає одного потоку
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("judge-stream-flush").daemon().factory());
+
+    /**
+     * Створює канал повідомлень перевірки для SSE-з'єднання
+     * @param emitter SSE-з'єднання клієнта
+     * @param version версія протоколу
+     * @throws BadRequestError якщо версія не підтримується
+     */
+    public JudgeReporter reporter(SseEmitter emitter, int version) {
+        return switch (version) {
+            case LEGACY_VERSION -> new SseJudgeReporter(emitter);
+            case JsonSseJudgeReporter.VERSION -> new JsonSseJudgeReporter(emitter, scheduler, Duration.ofMillis(flushIntervalMs));
+            default -> throw new BadRequestError("Непідтримувана версія протоколу: " + version);
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
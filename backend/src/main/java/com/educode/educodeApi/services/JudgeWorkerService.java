@@ -0,0 +1,119 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeJob;
+import com.educode.educodeApi.functional.RemoteJudgeReporter;
+import com.educode.educodeApi.interfaces.JudgeTransport;
+import com.educode.educodeApi.properties.JudgeWorkerProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Воркер перевірки рішень (профіль judge-worker).
+ * judge.worker.concurrency віртуальних потоків забирають завдання з вузла API через JudgeTransport
+ * і перевіряють їх тим самим JudgeEngine, що й вузол API, а повідомлення перевірки повертаються на вузол API.
+ * Поки рішення перевіряється, воркер періодично надсилає heartbeat, тому вузол API відрізняє довгу перевірку
+ * від воркера, що зник.
+ */
+@Service
+public class JudgeWorkerService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeWorkerService.class);
+
+    // Пауза після помилки зв'язку з вузлом API
+    private static final long RETRY_DELAY_MILLIS = 5000L;
+
+    @Autowired
+    private JudgeWorkerProperties properties;
+    @Autowired
+    private JudgeEngine judgeEngine;
+    @Autowired(required = false)
+    private JudgeTransport transport;
+
+    @Value("${judge.node-id:${random.uuid}}")
+    private String workerId;
+
+    // Рішення, які зараз перевіряє воркер
+    private final Map<Long, RemoteJudgeReporter> running = new ConcurrentHashMap<>();
+
+    private volatile boolean stopped = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.getEnabled())
+            return;
+        if (transport == null) {
+            log.warn("Judge worker is enabled, but no transport '{}' is available; worker is disabled", properties.getTransport());
+            return;
+        }
+
+        log.info("Judge worker {} started with {} slots over {} transport", workerId, properties.getConcurrency(), properties.getTransport());
+        for (int i = 0; i < properties.getConcurrency(); i++)
+            Thread.ofVirtual().name("judge-worker-" + i).start(this::work);
+    }
+
+    /**
+     * Забирає і перевіряє завдання одне за одним, поки воркер не зупинено
+     */
+    private void work() {
+        while (!stopped) {
+            try {
+                JudgeJob job = transport.claim(workerId, Duration.ofMillis(properties.getPollWaitMs()));
+                if (job != null)
+                    judge(job);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                if (stopped)
+                    return;
+                log.warn("Judge worker {} cannot reach API node: {}", workerId, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (Exception e) {
+                log.error("Unexpected error in judge worker {}: {}", workerId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void judge(JudgeJob job) throws InterruptedException {
+        Long decisionId = job.decisionId();
+        RemoteJudgeReporter reporter = new RemoteJudgeReporter(transport, workerId, decisionId);
+        CountDownLatch done = new CountDownLatch(1);
+        running.put(decisionId, reporter);
+
+        judgeEngine.submit(decisionId, reporter, () -> {
+            running.remove(decisionId);
+            // Вузол API звільняє слот лише після завершення, тому воно надсилається, навіть якщо перевірка впала
+            reporter.complete();
+            done.countDown();
+        });
+        done.await();
+    }
+
+    @Scheduled(fixedDelayString = "${judge.worker.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        running.values().forEach(RemoteJudgeReporter::heartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+    }
+}
@@ -0,0 +1,69 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.interfaces.ContainerStreamRunner;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.utils.StreamingOutputComparator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Сервіс порівняння виводу рішення з очікуваним для тестів без checker'а.
+ * Якщо шар контейнерів надає ContainerStreamRunner, вивід порівнюється під час виконання, і програма зупиняється
+ * на першій розбіжності; інакше вивід збирається в рядок, як і раніше.
+ */
+@Service
+public class OutputCompareService {
+
+    @Autowired
+    private ContainerExecutionService containerExecutionService;
+    @Autowired
+    private TestDataService testDataService;
+    @Autowired(required = false)
+    private ContainerStreamRunner streamRunner;
+
+    @Value("${judge.compare.streaming:true}")
+    private boolean streaming;
+    // Порівнювати токени, розділені пробільними символами, замість точного збігу виводу
+    @Value("${judge.compare.tokens:false}")
+    private boolean tokens;
+    // На скільки байт вивід може бути довшим за очікуваний у режимі токенів
+    @Value("${judge.compare.max-extra-bytes:4096}")
+    private int maxExtraBytes;
+
+    /**
+     * Запускає тест і порівнює вивід з очікуваним
+     * @param container контейнер рішення
+     * @param timeLimit ліміт часу в секундах
+     * @return true, якщо вивід збігся
+     * @throws com.educode.educodeApi.exceptions.ContainerException якщо програма не виконалась
+     */
+    public boolean runAndCompare(DockerContainer container, PuzzleData puzzleData, float timeLimit) {
+        if (streamRunner == null || !streaming)
+            return matches(puzzleData, containerExecutionService.runCode(container, testDataService.readInput(puzzleData), timeLimit));
+
+        try (StreamingOutputComparator comparator = testDataService.comparator(puzzleData, tokens, maxExtraBytes)) {
+            streamRunner.run(container, testDataService.input(puzzleData), timeLimit, comparator);
+            return comparator.matches();
+        }
+    }
+
+    /**
+     * Порівнює вже зібраний вивід з очікуваним виводом тесту за тими самими правилами
+     */
+    public boolean matches(PuzzleData puzzleData, String actual) {
+        return StreamingOutputComparator.matches(testDataService.comparator(puzzleData, tokens, maxExtraBytes), actual);
+    }
+
+    /**
+     * Повертає, скільки байт виводу варто читати для тесту: довший вивід вже не може збігтися з очікуваним
+     */
+    public int maxOutputBytes(PuzzleData puzzleData) {
+        long length = testDataService.outputSize(puzzleData) + (tokens ? maxExtraBytes : 0);
+        return (int) Math.min(length, Integer.MAX_VALUE);
+    }
+
+    public boolean isTokenMode() {
+        return tokens;
+    }
+}
@@ -0,0 +1,69 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.checker.CheckerDTO;
+import com.educode.educodeApi.interfaces.ContainerCheckerLauncher;
+import com.educode.educodeApi.utils.PersistentChecker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Сервіс постійного режиму checker'ів для задач з перевіркою виводу: checker запускається один раз на контейнер рішення
+ * замість запуску на кожен тест. Працює лише для checker'ів з позначкою persistent, якщо шар контейнерів надає
+ * ContainerCheckerLauncher і увімкнено judge.checker.persistent.enabled; інакше checker запускається на кожен тест, як і раніше.
+ */
+@Service
+public class PersistentCheckerService {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentCheckerService.class);
+
+    @Autowired(required = false)
+    private ContainerCheckerLauncher launcher;
+
+    @Value("${judge.checker.persistent.enabled:true}")
+    private boolean enabled;
+    // Скільки чекати на результат одного тесту від checker'а
+    @Value("${judge.checker.persistent.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    /**
+     * Перевіряє, чи можна запустити checker у постійному режимі
+     */
+    public boolean isAvailable(CheckerDTO checkerDTO) {
+        return launcher != null && enabled && checkerDTO != null && checkerDTO.persistent();
+    }
+
+    /**
+     * Скільки чекати на результат одного тесту від checker'а: ліміт часу задачі,
+     * але не довше judge.checker.persistent.read-timeout-ms
+     * @param timeLimit ліміт часу задачі в секундах або null
+     */
+    public Duration exchangeTimeout(Float timeLimit) {
+        Duration readTimeout = Duration.ofMillis(readTimeoutMs);
+        if (timeLimit == null || timeLimit <= 0)
+            return readTimeout;
+        Duration limit = Duration.ofMillis((long) Math.ceil(timeLimit * 1000));
+        return limit.compareTo(readTimeout) < 0 ? limit : readTimeout;
+    }
+
+    /**
+     * Запускає checker у постійному режимі
+     * @param checkerContainer підготовлений контейнер checker'а
+     * @return сесія або null, якщо checker не вдалося запустити і тести треба перевіряти по одному
+     */
+    public PersistentChecker open(DockerContainer checkerContainer, CheckerDTO checkerDTO) {
+        if (!isAvailable(checkerDTO))
+            return null;
+
+        try {
+            return new PersistentChecker(launcher.launch(checkerContainer, checkerDTO, Duration.ofMillis(readTimeoutMs)));
+        } catch (Exception e) {
+            log.debug("Failed to launch persistent checker {}, checking tests one by one: {}", checkerDTO.path(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.puzzle.RejudgeJobDTO;
+import com.educode.educodeApi.enums.RejudgeStatus;
+import com.educode.educodeApi.lazyinit.PuzzleInclude;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.RejudgeJob;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.RejudgeJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Сервіс повторної перевірки рішень після зміни тестів або checker'а задачі.
+ * Рішення ставляться в персистентну чергу з пріоритетом BACKGROUND партіями по judge.rejudge.batch-users авторів:
+ * наступна партія починається лише після перевірки попередньої, а вузол дає повторним перевіркам не більше
+ * judge.rejudge.max-running слотів, тому нові рішення не чекають на них. Рішення, вже перевірені на поточних тестах
+ * і checker'і (за хешами з VerdictCacheService), пропускаються. Після кожної партії рейтинг її авторів
+ * виправляється на різницю між округленим найкращим балом за задачу і вже зарахованим (DecisionFinalizationService.reconcile),
+ * зокрема й у менший бік. Рішення, надіслані під час перевірки, зараховуються під час свого завершення і вдруге не додаються.
+ */
+@Service
+public class RejudgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(RejudgeService.class);
+
+    @Autowired
+    private RejudgeJobRepository rejudgeJobRepository;
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @Autowired
+    private DecisionFinalizationService decisionFinalizationService;
+    @Autowired
+    private PuzzleService puzzleService;
+    @Autowired
+    private VerdictCacheService verdictCacheService;
+    @Autowired
+    private JudgeQueueService judgeQueueService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Чи запускати повторну перевірку автоматично після зміни тестів або checker'а
+    @Value("${judge.rejudge.auto:true}")
+    private boolean auto;
+    @Value("${judge.rejudge.batch-users:20}")
+    private int batchUsers;
+
+    /**
+     * Запускає повторну перевірку після зміни задачі, якщо увімкнено judge.rejudge.auto
+     * @param puzzleId ідентифікатор задачі
+     */
+    public void onPuzzleChanged(Long puzzleId) {
+        if (auto)
+            start(puzzleId);
+    }
+
+    /**
+     * Запускає повторну перевірку рішень задачі. Якщо вона вже йде, рішення переглядаються спочатку:
+     * ті, що вже перевірено на нових тестах, буде пропущено.
+     * @param puzzleId ідентифікатор задачі
+     * @return повторна перевірка
+     */
+    public RejudgeJob start(Long puzzleId) {
+        int total = (int) decisionRepository.countFinishedByPuzzleId(puzzleId);
+        Optional<RejudgeJob> running = rejudgeJobRepository.findFirstByPuzzleIdAndStatus(puzzleId, RejudgeStatus.RUNNING);
+        if (running.isPresent()) {
+            rejudgeJobRepository.restart(running.get().getId(), total);
+            log.info("Rejudge #{} of puzzle #{} restarted, {} decisions", running.get().getId(), puzzleId, total);
+            return rejudgeJobRepository.findById(running.get().getId()).orElseThrow();
+        }
+
+        RejudgeJob job = rejudgeJobRepository.save(new RejudgeJob(puzzleId, total));
+        log.info("Rejudge #{} of puzzle #{} started, {} decisions", job.getId(), puzzleId, total);
+        return job;
+    }
+
+    /**
+     * Обчислює версію всього, від чого залежить результат перевірки рішень задачі, крім коду:
+     * якщо вона після редагування не змінилась, повторна перевірка не потрібна
+     * @param puzzle задача з тестами та checker'ом
+     */
+    public String version(Puzzle puzzle) {
+        return verdictCacheService.testSetHash(puzzle) + verdictCacheService.checkerHash(puzzle.getChecker());
+    }
+
+    /**
+     * @return остання повторна перевірка задачі або null
+     */
+    public RejudgeJob findLatest(Long puzzleId) {
+        return rejudgeJobRepository.findFirstByPuzzleIdOrderByIdDesc(puzzleId).orElse(null);
+    }
+
+    public RejudgeJobDTO toDTO(RejudgeJob job) {
+        long inFlight = job.getStatus() == RejudgeStatus.RUNNING ? decisionRepository.countByRejudgeJobId(job.getId()) : 0L;
+        return new RejudgeJobDTO(job.getId(), job.getPuzzleId(), job.getStatus(), job.getTotal(), job.getProcessed(), job.getQueued(),
+                job.getSkipped(), inFlight, job.getRatingChanges(), job.getCreatedAt(), job.getFinishedAt());
+    }
+
+    /**
+     * Ставить у чергу наступні партії тих повторних перевірок, чия попередня партія вже перевірена
+     */
+    @Scheduled(fixedDelayString = "${judge.rejudge.interval-ms:10000}")
+    public void advance() {
+        for (RejudgeJob job : rejudgeJobRepository.findAllByStatus(RejudgeStatus.RUNNING)) {
+            if (decisionRepository.countByRejudgeJobId(job.getId()) > 0)
+                continue;
+
+            try {
+                // Рейтинг кожного автора виправляється окремою транзакцією під блокуванням його рядка
+                int ratingChanges = applyRatings(job);
+                transactionTemplate.executeWithoutResult(status -> nextBatch(job, ratingChanges));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // Партію вже взяв інший вузол або перевірку перезапустили
+                log.debug("Rejudge #{} was changed concurrently, batch skipped", job.getId());
+            } catch (Exception e) {
+                log.error("Error while advancing rejudge #{}: {}", job.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Записує виправлення рейтингу перевіреної партії і ставить у чергу рішення наступної
+     * @param ratingChanges скільки авторів перевіреної партії отримали зміну рейтингу
+     */
+    private void nextBatch(RejudgeJob job, int ratingChanges) {
+        if (job.getRatingUsers() != null) {
+            job.setRatingChanges(job.getRatingChanges() + ratingChanges);
+            job.setRatingUsers(null);
+        }
+
+        Puzzle puzzle = puzzleService.findById(job.getPuzzleId(), Set.of(PuzzleInclude.PUZZLE_DATA, PuzzleInclude.CHECKER));
+        List<Long> userIds = puzzle == null ? List.of() :
+                decisionRepository.findAuthorIdsByPuzzleId(job.getPuzzleId(), job.getCursorUserId(), PageRequest.of(0, batchUsers));
+        if (userIds.isEmpty()) {
+            job.setStatus(RejudgeStatus.FINISHED);
+            job.setFinishedAt(LocalDateTime.now());
+            rejudgeJobRepository.save(job);
+            log.info("Rejudge #{} of puzzle #{} finished: {} rejudged, {} skipped, {} rating changes",
+                    job.getId(), job.getPuzzleId(), job.getQueued(), job.getSkipped(), job.getRatingChanges());
+            return;
+        }
+
+        String testSetHash = verdictCacheService.testSetHash(puzzle);
+        String checkerHash = verdictCacheService.checkerHash(puzzle.getChecker());
+        List<Decision> decisions = decisionRepository.findFinishedByPuzzleIdAndUserIds(job.getPuzzleId(), userIds);
+        List<Decision> stale = new ArrayList<>();
+        for (Decision decision : decisions) {
+            // Якщо файли checker'а зараз не прочитати, рішення перевіряються повторно лише через зміну тестів
+            boolean current = testSetHash.equals(decision.getTestSetHash())
+                    && (checkerHash == null || checkerHash.equals(decision.getCheckerHash()));
+            if (!current && decision.getRejudgeJobId() == null)
+                stale.add(decision);
+        }
+
+        job.setCursorUserId(userIds.getLast());
+        job.setProcessed(job.getProcessed() + decisions.size());
+        job.setQueued(job.getQueued() + stale.size());
+        job.setSkipped(job.getSkipped() + decisions.size() - stale.size());
+        // Автори, чиї рішення перевіряються повторно; їх зараховані бали запам'ятовуються до перевірки
+        Map<Long, Integer> best = bestScores(decisions);
+        best.keySet().retainAll(stale.stream().map(decision -> decision.getUser().getId()).toList());
+        decisionFinalizationService.rememberCredits(job.getPuzzleId(), best);
+        job.setRatingUsers(best.isEmpty() ? null : writeUserIds(best.keySet()));
+        rejudgeJobRepository.saveAndFlush(job);
+
+        for (Decision decision : stale)
+            decision.setRejudgeJobId(job.getId());
+        decisionRepository.saveAll(stale);
+        stale.forEach(judgeQueueService::enqueueBackground);
+    }
+
+    /**
+     * Виправляє рейтинг авторів перевіреної партії на різницю між їх найкращим балом за задачу і зарахованим.
+     * Виправлення можна повторити: якщо партію вже обробив інший вузол, рейтинг не зміниться
+     * @return кількість авторів, чий рейтинг змінився
+     */
+    private int applyRatings(RejudgeJob job) {
+        if (job.getRatingUsers() == null)
+            return 0;
+
+        List<Long> userIds;
+        try {
+            userIds = objectMapper.readValue(job.getRatingUsers(), new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Rating users of rejudge #{} are corrupted, ratings are left unchanged: {}", job.getId(), e.getMessage());
+            return 0;
+        }
+
+        int changed = 0;
+        for (Long userId : userIds) {
+            if (decisionFinalizationService.reconcile(userId, job.getPuzzleId()) != 0)
+                changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Рахує округлений найкращий бал кожного автора; саме стільки за задачу зараховано до його рейтингу
+     */
+    private Map<Long, Integer> bestScores(List<Decision> decisions) {
+        Map<Long, Integer> best = new HashMap<>();
+        for (Decision decision : decisions)
+            best.merge(decision.getUser().getId(), Math.round(decision.getScore() != null ? decision.getScore() : 0.0f), Math::max);
+        return best;
+    }
+
+    private String writeUserIds(Collection<Long> userIds) {
+        try {
+            return objectMapper.writeValueAsString(userIds);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.interfaces.InputWriter;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.properties.TestDataProperties;
+import com.educode.educodeApi.repositories.PuzzleDataRepository;
+import com.educode.educodeApi.utils.HashUtils;
+import com.educode.educodeApi.utils.StreamingOutputComparator;
+import com.educode.educodeApi.utils.TestDataStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сервіс тестових даних задач.
+ * Якщо увімкнено test-data.enabled, вхідні та вихідні дані тестів зберігаються у TestDataStore, а в БД - лише хеші
+ * та розміри; дані, збережені в БД раніше, переносяться у сховище після запуску, якщо увімкнено test-data.migrate. Перевірка читає дані через цей сервіс:
+ * вхідні дані передаються в контейнер потоком з файлу, а очікуваний вивід відображається в пам'ять.
+ * Якщо увімкнено compression.enabled, великі файли зберігаються стиснутими і розпаковуються під час читання.
+ * Якщо сховище недоступне, нові дані залишаються в БД, як і раніше.
+ */
+@Service
+public class TestDataService {
+
+    private static final Logger log = LoggerFactory.getLogger(TestDataService.class);
+
+    @Autowired
+    private TestDataProperties properties;
+    @Autowired
+    private PuzzleDataRepository puzzleDataRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CompressionService compressionService;
+
+    private TestDataStore store;
+
+    @PostConstruct
+    public void init() {
+        Path directory = Path.of(properties.getBasePath());
+        // Вимкнене сховище все одно відкривається, якщо воно вже є: тести, перенесені раніше, мають читатися
+        if (!properties.getEnabled() && !Files.isDirectory(directory))
+            return;
+
+        try {
+            store = new TestDataStore(directory, compressionService.getCodec(), compressionService.getMinBytes());
+            log.info("Test data store opened at {}, storing new test data: {}, compressing: {}", directory, properties.getEnabled(), compressionService.getCodec() != null);
+        } catch (IOException e) {
+            log.warn("Test data store is disabled, directory {} is not usable: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Перевіряє, чи нові тестові дані зберігаються у сховищі
+     */
+    public boolean isEnabled() {
+        return store != null && properties.getEnabled();
+    }
+
+    /**
+     * Переносить вхідні та вихідні дані тесту у сховище. Тест після цього треба зберегти.
+     * Якщо записати файл не вдалося, дані залишаються в БД.
+     */
+    public void store(PuzzleData puzzleData) {
+        if (!isEnabled())
+            return;
+
+        try {
+            if (puzzleData.getInput() != null) {
+                TestDataStore.Stored stored = put(puzzleData.getInput());
+                puzzleData.moveInputToStore(stored.hash(), stored.size());
+            }
+            if (puzzleData.getOutput() != null) {
+                TestDataStore.Stored stored = put(puzzleData.getOutput());
+                puzzleData.moveOutputToStore(stored.hash(), stored.size());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to move test #{} to the test data store, keeping it in the database: {}", puzzleData.getId(), e.getMessage());
+        }
+    }
+
+    private TestDataStore.Stored put(String content) throws IOException {
+        long start = System.nanoTime();
+        TestDataStore.Stored stored = store.put(content);
+        if (stored.created()) {
+            long elapsed = stored.storedSize() < stored.size() ? System.nanoTime() - start : 0L;
+            compressionService.recordStored(CompressionService.TEST_DATA, stored.size(), stored.storedSize(), elapsed);
+        }
+        return stored;
+    }
+
+    /**
+     * Повертає запис вхідних даних тесту в stdin контейнера; стиснуті дані розпаковуються прямо в потік
+     */
+    public InputWriter input(PuzzleData puzzleData) {
+        if (puzzleData.getInputHash() != null) {
+            String hash = puzzleData.getInputHash();
+            InputWriter writer = requireStore().writer(hash);
+            return stream -> {
+                long start = System.nanoTime();
+                writer.write(stream);
+                compressionService.recordRead(CompressionService.TEST_DATA, store.isCompressed(hash), puzzleData.getInputSize(), System.nanoTime() - start);
+            };
+        }
+
+        byte[] bytes = bytes(puzzleData.getInput());
+        return stream -> stream.write(bytes);
+    }
+
+    /**
+     * @return довжина вхідних даних у байтах
+     */
+    public long inputSize(PuzzleData puzzleData) {
+        if (puzzleData.getInputHash() != null)
+            return puzzleData.getInputSize();
+        return bytes(puzzleData.getInput()).length;
+    }
+
+    /**
+     * @return довжина очікуваного виводу в байтах
+     */
+    public long outputSize(PuzzleData puzzleData) {
+        if (puzzleData.getOutputHash() != null)
+            return puzzleData.getOutputSize();
+        return bytes(puzzleData.getOutput()).length;
+    }
+
+    /**
+     * Створює компаратор з очікуваним виводом тесту. Нестиснуті дані зі сховища відображаються в пам'ять,
+     * а стиснуті розпаковуються під час порівняння, тому вивід не читається в купу повністю.
+     * Компаратор треба закрити.
+     * @throws UncheckedIOException якщо файл не вдалося прочитати
+     */
+    public StreamingOutputComparator comparator(PuzzleData puzzleData, boolean tokens, int maxExtraBytes) {
+        String hash = puzzleData.getOutputHash();
+        if (hash == null)
+            return new StreamingOutputComparator(ByteBuffer.wrap(bytes(puzzleData.getOutput())), tokens, maxExtraBytes);
+        try {
+            TestDataStore store = requireStore();
+            if (store.isCompressed(hash))
+                return new StreamingOutputComparator(store.open(hash), puzzleData.getOutputSize(), tokens, maxExtraBytes);
+            return new StreamingOutputComparator(store.map(hash), tokens, maxExtraBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Читає вхідні дані рядком; лише для місць, яким потрібен рядок (редагування задачі, виклики контейнерів без потоку)
+     * @throws UncheckedIOException якщо файл не вдалося прочитати
+     */
+    public String readInput(PuzzleData puzzleData) {
+        return puzzleData.getInputHash() != null ? read(puzzleData.getInputHash(), puzzleData.getInputSize()) : puzzleData.getInput();
+    }
+
+    /**
+     * Читає очікуваний вивід рядком
+     * @return вивід або null, якщо тест перевіряє checker
+     * @throws UncheckedIOException якщо файл не вдалося прочитати
+     */
+    public String readOutput(PuzzleData puzzleData) {
+        return puzzleData.getOutputHash() != null ? read(puzzleData.getOutputHash(), puzzleData.getOutputSize()) : puzzleData.getOutput();
+    }
+
+    /**
+     * Повертає SHA-256 вхідних даних, однаковий для даних у БД і у сховищі
+     */
+    public String inputHash(PuzzleData puzzleData) {
+        if (puzzleData.getInputHash() != null)
+            return puzzleData.getInputHash();
+        return puzzleData.getInput() != null ? HashUtils.sha256(bytes(puzzleData.getInput())) : null;
+    }
+
+    /**
+     * Повертає SHA-256 очікуваного виводу або null, якщо тест перевіряє checker
+     */
+    public String outputHash(PuzzleData puzzleData) {
+        if (puzzleData.getOutputHash() != null)
+            return puzzleData.getOutputHash();
+        return puzzleData.getOutput() != null ? HashUtils.sha256(bytes(puzzleData.getOutput())) : null;
+    }
+
+    /**
+     * Переносить у сховище тести, дані яких ще зберігаються в БД, якщо увімкнено test-data.migrate.
+     * Після перенесення дані є лише у сховищі, тому на кількох вузлах воно має бути спільним
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!isEnabled() || !properties.getMigrate())
+            return;
+
+        Thread.ofVirtual().name("test-data-migrate").start(() -> {
+            int moved = 0;
+            try {
+                int batch;
+                while ((batch = transactionTemplate.execute(status -> migrateBatch())) > 0)
+                    moved += batch;
+                if (moved > 0)
+                    log.info("Moved {} tests to the test data store", moved);
+            } catch (Exception e) {
+                log.error("Test data migration stopped after {} tests: {}", moved, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * @return скільки тестів перенесено; 0, якщо переносити більше нічого або сховище не приймає записи
+     */
+    private int migrateBatch() {
+        List<PuzzleData> inline = puzzleDataRepository.findAllInline(PageRequest.of(0, properties.getMigrateBatchSize()));
+        inline.forEach(this::store);
+        puzzleDataRepository.saveAll(inline);
+
+        // Тест, який не вдалося перенести, знову потрапив би в наступну партію
+        boolean stuck = inline.stream().anyMatch(puzzleData -> puzzleData.getInput() != null || puzzleData.getOutput() != null);
+        return stuck ? 0 : inline.size();
+    }
+
+    /**
+     * Видаляє файли сховища, на які більше не посилається жоден тест
+     */
+    @Scheduled(cron = "${test-data.gc-cron:0 30 4 * * *}")
+    public void collectGarbage() {
+        if (store == null)
+            return;
+
+        try {
+            Set<String> referenced = new HashSet<>(puzzleDataRepository.findAllInputHashes());
+            referenced.addAll(puzzleDataRepository.findAllOutputHashes());
+            int deleted = store.deleteUnreferenced(referenced, Duration.ofHours(properties.getGcGraceHours()));
+            if (deleted > 0)
+                log.info("Deleted {} unreferenced test data files", deleted);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to clean up the test data store: {}", e.getMessage());
+        }
+    }
+
+    private String read(String hash, long size) {
+        try {
+            long start = System.nanoTime();
+            String content = requireStore().read(hash);
+            compressionService.recordRead(CompressionService.TEST_DATA, store.isCompressed(hash), size, System.nanoTime() - start);
+            return content;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TestDataStore requireStore() {
+        if (store == null)
+            throw new IllegalStateException("Test data is kept in the store, but the store at " + properties.getBasePath() + " is not available");
+        return store;
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+}
@@ -0,0 +1,114 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.TestResultDTO;
+import com.educode.educodeApi.DTO.puzzle.PuzzleTestStatsDTO;
+import com.educode.educodeApi.enums.TestVerdict;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.TestResult;
+import com.educode.educodeApi.repositories.TestResultRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сервіс результатів тестів рішень. JudgeService збирає результати під час перевірки і зберігає їх
+ * одним викликом в кінці: записи додаються пакетною вставкою JDBC, без сутностей JPA в контексті персистентності.
+ * Для MySQL пакет стає одним INSERT завдяки rewriteBatchedStatements=true в адресі бази даних.
+ */
+@Service
+public class TestResultService {
+
+    private static final String INSERT = "INSERT INTO decision_test_results (decision_id, puzzle_data_id, test_number, verdict, score, " +
+            "time_ms, memory_kb, exit_code, output_bytes, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestResultRepository testResultRepository;
+    @Autowired
+    private VerdictCacheService verdictCacheService;
+
+    // Чи зберігати результати тестів
+    @Value("${judge.test-results.enabled:true}")
+    private boolean enabled;
+    @Value("${judge.test-results.batch-size:100}")
+    private int batchSize;
+    // Частка ліміту часу, з якої запуск вважається близьким до ліміту
+    @Value("${judge.test-results.near-limit-ratio:0.8}")
+    private double nearLimitRatio;
+    @Value("${judge.test-results.slow-decisions:20}")
+    private int slowDecisions;
+
+    /**
+     * Замінює результати тестів рішення: попередні (після повторної перевірки) видаляються, нові додаються пакетом
+     * @param decisionId рішення
+     * @param results результати в порядку тестів
+     */
+    @Transactional
+    public void replace(Long decisionId, List<TestResult> results) {
+        if (!enabled)
+            return;
+
+        jdbcTemplate.update("DELETE FROM decision_test_results WHERE decision_id = ?", decisionId);
+        if (results.isEmpty())
+            return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, results, batchSize, (ps, result) -> {
+            ps.setLong(1, decisionId);
+            ps.setObject(2, result.getPuzzleDataId(), Types.BIGINT);
+            ps.setInt(3, result.getTestNumber());
+            ps.setInt(4, result.getVerdict().getCode());
+            ps.setObject(5, result.getScore(), Types.REAL);
+            ps.setObject(6, result.getTimeMs(), Types.BIGINT);
+            ps.setObject(7, result.getMemoryKb(), Types.BIGINT);
+            ps.setObject(8, result.getExitCode(), Types.INTEGER);
+            ps.setObject(9, result.getOutputBytes(), Types.BIGINT);
+            ps.setTimestamp(10, now);
+        });
+    }
+
+    /**
+     * Копіює результати тестів рішення, вердикт якого відтворено для такого самого рішення, одним INSERT ... SELECT
+     * @param sourceId рішення, чий результат відтворено
+     * @param decisionId нове рішення
+     */
+    public void copy(Long sourceId, Long decisionId) {
+        if (!enabled)
+            return;
+
+        jdbcTemplate.update("INSERT INTO decision_test_results (decision_id, puzzle_data_id, test_number, verdict, score, " +
+                        "time_ms, memory_kb, exit_code, output_bytes, created_at) " +
+                        "SELECT ?, puzzle_data_id, test_number, verdict, score, time_ms, memory_kb, exit_code, output_bytes, ? " +
+                        "FROM decision_test_results WHERE decision_id = ?",
+                decisionId, Timestamp.valueOf(LocalDateTime.now()), sourceId);
+    }
+
+    public List<TestResultDTO> findByDecisionId(Long decisionId) {
+        return testResultRepository.findAllByDecisionIdOrderByTestNumber(decisionId).stream()
+                .map(result -> new TestResultDTO(result.getTestNumber(), result.getPuzzleDataId(), result.getVerdict(), result.getScore(),
+                        result.getTimeMs(), result.getMemoryKb(), result.getExitCode(), result.getOutputBytes()))
+                .toList();
+    }
+
+    /**
+     * Рахує статистику поточних тестів задачі та знаходить рішення, що виконуються впритул до ліміту часу.
+     * Враховуються лише рішення, перевірені на поточній версії тестів і ліміту часу
+     * @param puzzle задача із завантаженими тестами
+     */
+    public PuzzleTestStatsDTO stats(Puzzle puzzle) {
+        long timeLimitMs = Math.round(puzzle.getTimeLimit() * 1000);
+        long nearLimitMs = Math.round(timeLimitMs * nearLimitRatio);
+        String testSetHash = verdictCacheService.testSetHash(puzzle);
+        return new PuzzleTestStatsDTO(puzzle.getId(), timeLimitMs, nearLimitMs,
+                testResultRepository.findStatsByPuzzleId(puzzle.getId(), testSetHash, nearLimitMs, TestVerdict.TIME_LIMIT, TestVerdict.RUNTIME_ERROR, TestVerdict.PASSED),
+                testResultRepository.findSlowDecisions(puzzle.getId(), testSetHash, nearLimitMs, PageRequest.of(0, slowDecisions)));
+    }
+}
@@ -0,0 +1,240 @@
+package com.educode.educodeApi.services;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.functional.RecordingJudgeReporter;
+import com.educode.educodeApi.models.Checker;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.properties.CheckerProperties;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.utils.HashUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Сервіс повторного використання результатів перевірки.
+ * Рішення з тим самим кодом і мовою, перевірене на тих самих тестах тим самим checker'ом, отримує збережений результат
+ * без черги і без запуску контейнерів. Ключ складається з хешу коду, хешу набору тестів (разом з лімітом часу,
+ * балами і політикою перевірки) та хешу вмісту файлів checker'а, тому будь-яка зміна задачі або перекомпіляція
+ * checker'а робить старі результати непридатними. Рішення задачі, файли checker'а якої не вдалося прочитати, не відтворюються.
+ */
+@Service
+public class VerdictCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(VerdictCacheService.class);
+
+    // Скільки останніх рішень з таким самим кодом перевіряти на збіг тестів і checker'а
+    private static final int CANDIDATE_LIMIT = 5;
+
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private OutputCompareService outputCompareService;
+    @Autowired
+    private TestDataService testDataService;
+    @Autowired
+    private CheckerProperties checkerProperties;
+
+    @Value("${judge.verdict-cache.enabled:true}")
+    private boolean enabled;
+
+    // Хеші вмісту checker'ів разом з відбитком їх файлів (шляхи, розміри, час зміни), за яким хеш перераховується
+    private final Map<Path, ContentHash> checkerContentHashes = new ConcurrentHashMap<>();
+
+    private record ContentHash(String fingerprint, String hash) {
+    }
+
+    /**
+     * Перевіряє, чи результати задачі можна відтворювати. Результат повністю інтерактивної задачі залежить від checker'а
+     * під час виконання, тому не відтворюється.
+     */
+    public boolean isCacheable(Puzzle puzzle) {
+        return enabled && puzzle.getTaskType() != TaskType.FULL_INTERACTIVE;
+    }
+
+    /**
+     * Знаходить перевірене рішення, результат якого можна відтворити для цього рішення
+     * @param decision нове рішення
+     * @param puzzle задача з тестами та checker'ом
+     * @return рішення-джерело або null
+     */
+    public Decision findReplayable(Decision decision, Puzzle puzzle) {
+        if (!isCacheable(puzzle))
+            return null;
+
+        List<Decision> candidates = decisionRepository.findReplayable(puzzle, codeHash(decision), PageRequest.of(0, CANDIDATE_LIMIT));
+        if (candidates.isEmpty())
+            return null;
+
+        String checkerHash = checkerHash(puzzle.getChecker());
+        if (checkerHash == null)
+            return null;
+        String testSetHash = testSetHash(puzzle);
+        return candidates.stream()
+                .filter(candidate -> testSetHash.equals(candidate.getTestSetHash()) && checkerHash.equals(candidate.getCheckerHash()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Зберігає в рішенні ключ і повідомлення перевірки. Рішення після цього треба зберегти.
+     * @param decision перевірене рішення
+     * @param puzzle задача з тестами та checker'ом
+     * @param recorder повідомлення перевірки
+     */
+    public void remember(Decision decision, Puzzle puzzle, RecordingJudgeReporter recorder) {
+        // Після повторної перевірки ключ попереднього результату вже не відповідає рішенню
+        decision.setVerdictLog(null);
+        decision.setTestSetHash(null);
+        decision.setCheckerHash(null);
+        if (!isCacheable(puzzle) || !recorder.isReplayable())
+            return;
+        String checkerHash = checkerHash(puzzle.getChecker());
+        if (checkerHash == null)
+            return;
+
+        try {
+            decision.setVerdictLog(objectMapper.writeValueAsString(recorder.getEvents()));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to store verdict of decision #{}: {}", decision.getId(), e.getMessage());
+            return;
+        }
+        decision.setCodeHash(codeHash(decision));
+        decision.setTestSetHash(testSetHash(puzzle));
+        decision.setCheckerHash(checkerHash);
+    }
+
+    /**
+     * Копіює результат рішення-джерела в нове рішення
+     */
+    public void copy(Decision source, Decision decision) {
+        decision.setScore(source.getScore());
+        decision.setCorrect(source.isCorrect());
+        decision.setFinished(true);
+        decision.setCodeHash(source.getCodeHash());
+        decision.setTestSetHash(source.getTestSetHash());
+        decision.setCheckerHash(source.getCheckerHash());
+        decision.setVerdictLog(source.getVerdictLog());
+    }
+
+    /**
+     * Повертає збережені події перевірки. Записи, збережені до появи типізованих подій, містять текстові повідомлення;
+     * вони повертаються як події MESSAGE
+     * @throws JsonProcessingException якщо запис пошкоджено
+     */
+    public List<JudgeProgressEvent> events(Decision source) throws JsonProcessingException {
+        List<JudgeProgressEvent> events = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(source.getVerdictLog())) {
+            if (node.isTextual())
+                events.add(JudgeProgressEvent.message(node.asText()));
+            else
+                events.add(objectMapper.treeToValue(node, JudgeProgressEvent.class));
+        }
+        return events;
+    }
+
+    public String codeHash(Decision decision) {
+        return HashUtils.sha256(decision.getLanguage(), decision.getCode());
+    }
+
+    /**
+     * Обчислює хеш усього, від чого залежить результат перевірки, крім коду і checker'а
+     */
+    public String testSetHash(Puzzle puzzle) {
+        MessageDigest digest = HashUtils.sha256();
+        HashUtils.update(digest, String.valueOf(puzzle.getTaskType()));
+        HashUtils.update(digest, String.valueOf(puzzle.getJudgingPolicy()));
+        HashUtils.update(digest, String.valueOf(puzzle.getTimeLimit()));
+        HashUtils.update(digest, String.valueOf(puzzle.getScore()));
+        // Порівняння токенів може змінити результат; точне порівняння не змінює хеш, збережений до появи цього режиму
+        if (outputCompareService.isTokenMode())
+            HashUtils.update(digest, "tokens");
+
+        List<PuzzleData> tests = puzzle.getPuzzleData().stream()
+                .sorted(Comparator.comparing(PuzzleData::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        for (PuzzleData test : tests) {
+            HashUtils.update(digest, String.valueOf(test.getId()));
+            // Хеші вмісту однакові для даних у БД і у сховищі, тому перенесення тестів у сховище не змінює ключ
+            HashUtils.update(digest, testDataService.inputHash(test));
+            HashUtils.update(digest, testDataService.outputHash(test));
+            HashUtils.update(digest, String.valueOf(test.getScore()));
+        }
+        return HashUtils.hex(digest);
+    }
+
+    /**
+     * Обчислює версію checker'а з його мови і вмісту скомпільованих файлів
+     * @return шістнадцятковий SHA-256 або null, якщо файли checker'а не вдалося прочитати
+     */
+    public String checkerHash(Checker checker) {
+        if (checker == null)
+            return HashUtils.sha256("none");
+        String contentHash = checkerContentHash(Paths.get(checkerProperties.getBasePath()).resolve(checker.getFilename()));
+        if (contentHash == null)
+            return null;
+        return HashUtils.sha256(Objects.toString(checker.getId()), checker.getLanguageId(), contentHash);
+    }
+
+    /**
+     * Обчислює хеш вмісту файлів checker'а (каталогу або одного файлу). Файли читаються лише тоді, коли змінився
+     * їх відбиток, тому для незмінного checker'а перевірка ключа коштує кількох викликів stat
+     * @return шістнадцятковий SHA-256 або null, якщо файлів немає чи їх не вдалося прочитати
+     */
+    private String checkerContentHash(Path path) {
+        if (!Files.exists(path))
+            return null;
+
+        try {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            MessageDigest fingerprint = HashUtils.sha256();
+            for (Path file : files) {
+                HashUtils.update(fingerprint, path.relativize(file).toString());
+                HashUtils.update(fingerprint, String.valueOf(Files.size(file)));
+                HashUtils.update(fingerprint, String.valueOf(Files.getLastModifiedTime(file).toMillis()));
+            }
+            String key = HashUtils.hex(fingerprint);
+            ContentHash cached = checkerContentHashes.get(path);
+            if (cached != null && cached.fingerprint().equals(key))
+                return cached.hash();
+
+            MessageDigest digest = HashUtils.sha256();
+            for (Path file : files) {
+                byte[] content = Files.readAllBytes(file);
+                HashUtils.update(digest, path.relativize(file).toString());
+                HashUtils.update(digest, String.valueOf(content.length));
+                digest.update(content);
+            }
+            String hash = HashUtils.hex(digest);
+            checkerContentHashes.put(path, new ContentHash(key, hash));
+            return hash;
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to hash checker files {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
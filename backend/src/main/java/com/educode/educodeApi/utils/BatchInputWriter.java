@@ -0,0 +1,54 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.interfaces.InputWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Записує вхідні дані кількох тестів одним пакетом для batch_runner.sh:
+ * рядок "EDUBATCH кількість", далі для кожного тесту рядок з довжиною вводу в байтах і сам ввід.
+ * Ввід тесту може бути рядком або потоком з файлу сховища тестових даних.
+ */
+public class BatchInputWriter implements InputWriter {
+
+    public static final String MAGIC = "EDUBATCH";
+
+    private final List<Input> inputs;
+
+    /**
+     * Ввід одного тесту
+     * @param length довжина в байтах
+     * @param writer записує рівно length байт
+     */
+    public record Input(long length, InputWriter writer) {
+        public static Input of(String input) {
+            byte[] bytes = input != null ? input.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            return new Input(bytes.length, stream -> stream.write(bytes));
+        }
+    }
+
+    public BatchInputWriter(List<String> inputs) {
+        this(inputs.stream().map(Input::of).toArray(Input[]::new));
+    }
+
+    public BatchInputWriter(Input... inputs) {
+        this.inputs = List.of(inputs);
+    }
+
+    public int size() {
+        return inputs.size();
+    }
+
+    @Override
+    public void write(OutputStream stream) throws IOException {
+        stream.write((MAGIC + " " + inputs.size() + "\n").getBytes(StandardCharsets.US_ASCII));
+        for (Input input : inputs) {
+            stream.write((input.length() + "\n").getBytes(StandardCharsets.US_ASCII));
+            input.writer().write(stream);
+        }
+        stream.flush();
+    }
+}
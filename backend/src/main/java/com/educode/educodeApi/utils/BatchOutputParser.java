@@ -0,0 +1,106 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.DTO.code.BatchRunResult;
+import com.educode.educodeApi.interfaces.StreamHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Розбирає вивід batch_runner.sh: для кожного тесту рядок "номер код_завершення час_мс ознака_ліміту довжина",
+ * далі вивід тесту вказаної довжини в байтах. Вивід, довший за ліміт тесту, не зберігається повністю:
+ * залишається лише його початок, решта пропускається.
+ */
+public class BatchOutputParser implements StreamHandler {
+
+    // Довший рядок заголовка означає, що потік не є виводом batch_runner.sh
+    private static final int MAX_HEADER_LENGTH = 64;
+
+    private final int expectedCount;
+    private final List<Integer> outputLimits;
+    private final List<BatchRunResult> results = new ArrayList<>();
+
+    /**
+     * @param expectedCount кількість тестів у пакеті
+     */
+    public BatchOutputParser(int expectedCount) {
+        this.expectedCount = expectedCount;
+        this.outputLimits = null;
+    }
+
+    /**
+     * @param outputLimits максимальна довжина виводу кожного тесту в байтах; null - без обмеження
+     */
+    public BatchOutputParser(List<Integer> outputLimits) {
+        this.expectedCount = outputLimits.size();
+        this.outputLimits = outputLimits;
+    }
+
+    /**
+     * @throws IOException якщо потік обірвався або має невірний формат
+     */
+    @Override
+    public void handle(InputStream stream) throws IOException {
+        String header;
+        while ((header = readHeader(stream)) != null) {
+            String[] parts = header.split(" ");
+            if (parts.length != 5)
+                throw new IOException("Malformed batch frame header: " + header);
+
+            int index, exitCode, length;
+            long timeMs;
+            try {
+                index = Integer.parseInt(parts[0]);
+                exitCode = Integer.parseInt(parts[1]);
+                timeMs = Long.parseLong(parts[2]);
+                length = Integer.parseInt(parts[4]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed batch frame header: " + header, e);
+            }
+            BatchRunResult.Limit exceeded = BatchRunResult.Limit.fromFlag(parts[3]);
+            if (index != results.size() || length < 0 || exceeded == null)
+                throw new IOException("Unexpected batch frame: " + header);
+
+            Integer limit = outputLimits != null && index < outputLimits.size() ? outputLimits.get(index) : null;
+            int kept = limit != null ? Math.min(length, limit) : length;
+            byte[] output = stream.readNBytes(kept);
+            if (output.length != kept)
+                throw new IOException("Batch output of test " + index + " is truncated");
+            stream.skipNBytes(length - kept);
+            results.add(new BatchRunResult(index, exitCode, timeMs, exceeded, new String(output, StandardCharsets.UTF_8), kept < length));
+        }
+    }
+
+    /**
+     * @return результати тестів по порядку
+     * @throws IOException якщо пакет завершився раніше, ніж усі тести отримали результат
+     */
+    public List<BatchRunResult> getResults() throws IOException {
+        if (results.size() != expectedCount)
+            throw new IOException("Batch returned " + results.size() + " of " + expectedCount + " results");
+        return results;
+    }
+
+    /**
+     * @return рядок заголовка без '\n' або null, якщо потік закінчився
+     */
+    private static String readHeader(InputStream stream) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = stream.read()) != '\n') {
+            if (b == -1) {
+                if (line.size() == 0)
+                    return null;
+                throw new IOException("Batch frame header is truncated");
+            }
+            if (line.size() >= MAX_HEADER_LENGTH)
+                throw new IOException("Batch frame header is too long");
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+}
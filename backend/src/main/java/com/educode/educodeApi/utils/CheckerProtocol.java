@@ -0,0 +1,90 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.DTO.code.InteractiveResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Формат обміну з checker'ом у постійному режимі.
+ * Кадр тесту (stdin checker'а): рядок "EDUCHECK довжина_вводу довжина_очікуваного довжина_виводу",
+ * далі ввід тесту, очікуваний вивід і вивід рішення вказаних довжин у байтах. Кінець stdin означає, що тестів більше немає.
+ * Кадр результату (stdout checker'а): рядок "оцінка довжина_повідомлення", де оцінка - відсоток від 0 до 100
+ * числом з точкою, далі повідомлення для користувача вказаної довжини в байтах.
+ */
+public final class CheckerProtocol {
+
+    public static final String MAGIC = "EDUCHECK";
+
+    // Довший рядок заголовка означає, що checker пише в stdout щось, крім кадрів
+    private static final int MAX_HEADER_LENGTH = 64;
+    private static final int MAX_MESSAGE_LENGTH = 64 * 1024;
+
+    private CheckerProtocol() {}
+
+    /**
+     * Записує кадр тесту
+     * @param expected очікуваний вивід; null передається як порожній
+     */
+    public static void writeTest(OutputStream stream, String input, String expected, String actual) throws IOException {
+        byte[] inputBytes = bytes(input);
+        byte[] expectedBytes = bytes(expected);
+        byte[] actualBytes = bytes(actual);
+
+        stream.write((MAGIC + " " + inputBytes.length + " " + expectedBytes.length + " " + actualBytes.length + "\n").getBytes(StandardCharsets.US_ASCII));
+        stream.write(inputBytes);
+        stream.write(expectedBytes);
+        stream.write(actualBytes);
+        stream.flush();
+    }
+
+    /**
+     * Читає кадр результату
+     * @throws IOException якщо потік закінчився або кадр має невірний формат
+     */
+    public static InteractiveResult readResult(InputStream stream) throws IOException {
+        String header = readHeader(stream);
+        String[] parts = header.split(" ");
+        if (parts.length != 2)
+            throw new IOException("Malformed checker result header: " + header);
+
+        double score;
+        int length;
+        try {
+            score = Double.parseDouble(parts[0]);
+            length = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed checker result header: " + header, e);
+        }
+        if (Double.isNaN(score) || length < 0 || length > MAX_MESSAGE_LENGTH)
+            throw new IOException("Unexpected checker result: " + header);
+
+        byte[] message = stream.readNBytes(length);
+        if (message.length != length)
+            throw new IOException("Checker result message is truncated");
+        return new InteractiveResult(score, new String(message, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    /**
+     * @return рядок заголовка без '\n'
+     */
+    private static String readHeader(InputStream stream) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = stream.read()) != '\n') {
+            if (b == -1)
+                throw new IOException(line.size() == 0 ? "Checker closed its output" : "Checker result header is truncated");
+            if (line.size() >= MAX_HEADER_LENGTH)
+                throw new IOException("Checker result header is too long");
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.US_ASCII).trim();
+    }
+}
@@ -0,0 +1,90 @@
+package com.educode.educodeApi.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Стиснення даних Deflate (формат zlib з контрольною сумою) засобами JDK.
+ * Рівень 1 (Deflater.BEST_SPEED) стискає текстові тести в кілька разів і працює зі швидкістю сотні МБ/с,
+ * тому придатний для даних, які пишуться один раз і читаються при кожній перевірці.
+ */
+public final class DeflateCodec {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int level;
+
+    /**
+     * @param level рівень стиснення від Deflater.BEST_SPEED до Deflater.BEST_COMPRESSION
+     */
+    public DeflateCodec(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("Invalid deflate level: " + level);
+        this.level = level;
+    }
+
+    /**
+     * Стискає дані
+     */
+    public byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished())
+                result.write(buffer, 0, deflater.deflate(buffer));
+            return result.toByteArray();
+        } finally {
+            // Deflater тримає нативну пам'ять до end()
+            deflater.end();
+        }
+    }
+
+    /**
+     * Розпаковує дані, стиснуті compress()
+     * @throws UncheckedIOException якщо дані пошкоджені
+     */
+    public static byte[] decompress(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new DataFormatException("Unexpected end of deflate stream");
+                result.write(buffer, 0, read);
+            }
+            return result.toByteArray();
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupted deflate data: " + e.getMessage(), e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Розпаковує потік під час читання; закриття потоку звільняє Inflater і закриває вихідний потік
+     */
+    public static InputStream decompressing(InputStream stream) {
+        return new InflaterInputStream(stream, new Inflater(), BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.interfaces.InputWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Кеш файлів на локальному диску з витісненням найдавніше використаних записів при перевищенні розміру.
+ * Записи незмінні: новий запис спершу пишеться у тимчасовий файл і потім атомарно перейменовується.
+ * Порядок використання зберігається в часі зміни файлів, тому після перезапуску кеш відновлюється з директорії.
+ */
+public class DiskLruCache {
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Назва запису -> розмір; порядок доступу, найдавніший запис перший
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0L;
+
+    /**
+     * @param directory директорія кешу; створюється, якщо її немає
+     * @param maxBytes максимальний сумарний розмір записів
+     * @throws IOException якщо директорію не вдалося створити або прочитати
+     */
+    public DiskLruCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(Files::isRegularFile).toList();
+        }
+
+        List<Map.Entry<Path, FileTime>> existing = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(TMP_SUFFIX)) {
+                // Недописаний запис після падіння
+                Files.deleteIfExists(file);
+                continue;
+            }
+            existing.add(Map.entry(file, Files.getLastModifiedTime(file)));
+        }
+        existing.sort(Map.Entry.comparingByValue());
+        for (Map.Entry<Path, FileTime> file : existing) {
+            long size = Files.size(file.getKey());
+            entries.put(file.getKey().getFileName().toString(), size);
+            totalBytes += size;
+        }
+        evict(null);
+    }
+
+    /**
+     * Відкриває запис для читання і позначає його як щойно використаний.
+     * Відкритий потік залишається придатним, навіть якщо запис витіснять під час читання.
+     * @param name назва запису
+     * @return потік або null, якщо запису немає
+     */
+    public synchronized InputStream open(String name) {
+        // get(), на відміну від containsKey(), переносить запис у кінець порядку доступу
+        if (entries.get(name) == null)
+            return null;
+
+        Path file = directory.resolve(name);
+        try {
+            InputStream stream = Files.newInputStream(file);
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {
+                // Порядок після перезапуску буде неточним, але сам запис придатний
+            }
+            return stream;
+        } catch (IOException e) {
+            // Файл видалили поза кешем
+            totalBytes -= entries.remove(name);
+            return null;
+        }
+    }
+
+    public synchronized boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Записує запис. Запис пишеться поза блокуванням, тому повільний запис не заважає читанню інших.
+     * @param name назва запису (лише символи, допустимі в назві файлу)
+     * @param writer вміст запису
+     * @throws IOException якщо запис не вдалося записати; кеш при цьому не змінюється
+     */
+    public void put(String name, InputWriter writer) throws IOException {
+        Path tmp = directory.resolve(name + "." + UUID.randomUUID() + TMP_SUFFIX);
+        try {
+            try (OutputStream stream = Files.newOutputStream(tmp)) {
+                writer.write(stream);
+            }
+            long size = Files.size(tmp);
+            if (size > maxBytes)
+                return; // Запис більший за весь кеш
+
+            synchronized (this) {
+                Files.move(tmp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Long previous = entries.put(name, size);
+                totalBytes += size - (previous != null ? previous : 0L);
+                evict(name);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Видаляє найдавніше використані записи, поки кеш більший за maxBytes. Викликається під блокуванням.
+     * @param keep запис, який не можна витісняти (щойно доданий), або null
+     */
+    private void evict(String keep) throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep))
+                continue;
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            Files.deleteIfExists(directory.resolve(eldest.getKey()));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.enums.JudgePriority;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Черга з розподілом по черзі між користувачами.
+ * Для кожного класу пріоритету тримає кільце користувачів, а в кожного користувача - власну FIFO-чергу.
+ * poll() бере елемент з вищого непорожнього класу у наступного користувача з кільця,
+ * тому один користувач не може зайняти чергу своїми відправками.
+ * Не є потокобезпечною.
+ *
+ * @param <T> тип елементів
+ */
+public class FairShareQueue<T> {
+
+    private final EnumMap<JudgePriority, ArrayDeque<Lane<T>>> rings = new EnumMap<>(JudgePriority.class);
+    private final Map<LaneKey, Lane<T>> lanes = new HashMap<>();
+    private final EnumMap<JudgePriority, Integer> sizes = new EnumMap<>(JudgePriority.class);
+
+    // Лічильники місць у кільцях. Користувач отримує нове місце щоразу, коли стає в кінець кільця,
+    // тому місця в кільці йдуть підряд, а ранг користувача дорівнює різниці з місцем голови
+    private final long[] ringTickets = new long[JudgePriority.values().length];
+
+    public FairShareQueue() {
+        for (JudgePriority priority : JudgePriority.values()) {
+            rings.put(priority, new ArrayDeque<>());
+            sizes.put(priority, 0);
+        }
+    }
+
+    /**
+     * Додає елемент у чергу користувача
+     * @param item елемент
+     * @param user ключ користувача
+     * @param tenant ключ орендаря або null
+     * @param priority клас пріоритету
+     * @return дескриптор елемента, за яким можна оцінити його позицію
+     */
+    public Handle<T> add(T item, Object user, Object tenant, JudgePriority priority) {
+        LaneKey key = new LaneKey(priority, user);
+        Lane<T> lane = lanes.get(key);
+        if (lane == null) {
+            lane = new Lane<>(key);
+            lanes.put(key, lane);
+            appendToRing(lane);
+        }
+
+        Handle<T> handle = new Handle<>(item, tenant, lane, ++lane.enqueued);
+        lane.items.addLast(handle);
+        sizes.merge(priority, 1, Integer::sum);
+        return handle;
+    }
+
+    /**
+     * Забирає наступний елемент
+     * @param tenantBlocked повертає true для орендарів, які вичерпали свою частку слотів
+     * @return дескриптор елемента або null, якщо всі доступні елементи належать заблокованим орендарям
+     */
+    public Handle<T> poll(Predicate<Object> tenantBlocked) {
+        for (JudgePriority priority : JudgePriority.values()) {
+            ArrayDeque<Lane<T>> ring = rings.get(priority);
+            int attempts = ring.size();
+            while (attempts-- > 0) {
+                Lane<T> lane = ring.pollFirst();
+                Handle<T> head = lane.items.peekFirst();
+                if (head.tenant != null && tenantBlocked.test(head.tenant)) {
+                    appendToRing(lane);
+                    continue;
+                }
+
+                lane.items.pollFirst();
+                lane.dequeued = head.laneSeq;
+                sizes.merge(priority, -1, Integer::sum);
+                if (lane.items.isEmpty())
+                    lanes.remove(lane.key);
+                else
+                    appendToRing(lane);
+                return head;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Оцінює позицію елемента за O(1).
+     * До елемента встигнуть: усі елементи вищих класів, елементи його користувача, що стоять раніше,
+     * і по одному елементу інших користувачів за кожен такий хід (користувачі попереду в кільці - на хід більше).
+     * Оцінка точна, поки в інших користувачів вистачає елементів, і обмежена їх загальною кількістю.
+     * @param handle дескриптор елемента
+     * @return оцінка кількості елементів попереду + 1
+     */
+    public long estimatePosition(Handle<T> handle) {
+        JudgePriority priority = handle.lane.key.priority();
+        long ahead = 0;
+        for (JudgePriority p : JudgePriority.values()) {
+            if (p == priority)
+                break;
+            ahead += sizes.get(p);
+        }
+
+        ArrayDeque<Lane<T>> ring = rings.get(priority);
+        long rank = handle.lane.ringTicket - ring.peekFirst().ringTicket;
+        long others = ring.size() - 1;
+        long ownAhead = handle.laneSeq - handle.lane.dequeued - 1;
+        long othersAhead = Math.min(sizes.get(priority) - handle.lane.items.size(), rank * (ownAhead + 1) + (others - rank) * ownAhead);
+        return ahead + ownAhead + othersAhead + 1;
+    }
+
+    private void appendToRing(Lane<T> lane) {
+        int index = lane.key.priority().ordinal();
+        lane.ringTicket = ++ringTickets[index];
+        rings.get(lane.key.priority()).addLast(lane);
+    }
+
+    public int size() {
+        int total = 0;
+        for (int size : sizes.values())
+            total += size;
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Дескриптор елемента в черзі.
+     */
+    public static final class Handle<T> {
+        private final T item;
+        private final Object tenant;
+        private final Lane<T> lane;
+        private final long laneSeq;
+
+        private Handle(T item, Object tenant, Lane<T> lane, long laneSeq) {
+            this.item = item;
+            this.tenant = tenant;
+            this.lane = lane;
+            this.laneSeq = laneSeq;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public Object getTenant() {
+            return tenant;
+        }
+    }
+
+    private record LaneKey(JudgePriority priority, Object user) {}
+
+    private static final class Lane<T> {
+        private final LaneKey key;
+        private final ArrayDeque<Handle<T>> items = new ArrayDeque<>();
+        private long enqueued = 0L;
+        private long dequeued = 0L;
+        private long ringTicket = 0L;
+
+        private Lane(LaneKey key) {
+            this.key = key;
+        }
+    }
+}
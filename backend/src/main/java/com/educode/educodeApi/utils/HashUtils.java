@@ -0,0 +1,61 @@
+package com.educode.educodeApi.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Утиліти для обчислення хешів ключів кешу
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * Створює новий дайджест SHA-256
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Додає рядок до дайджесту; частини розділяються нульовим байтом, тому ("ab", "c") і ("a", "bc") дають різні хеші
+     * @param part рядок або null
+     */
+    public static void update(MessageDigest digest, String part) {
+        if (part != null)
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Обчислює SHA-256 від частин
+     * @return шістнадцятковий SHA-256
+     */
+    public static String sha256(String... parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts)
+            update(digest, part);
+        return hex(digest);
+    }
+
+    /**
+     * Обчислює SHA-256 від вмісту без роздільників, тому хеш збігається з хешем файлу з таким вмістом
+     * @return шістнадцятковий SHA-256
+     */
+    public static String sha256(byte[] content) {
+        MessageDigest digest = sha256();
+        digest.update(content);
+        return hex(digest);
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
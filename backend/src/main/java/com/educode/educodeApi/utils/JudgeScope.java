@@ -0,0 +1,182 @@
+package com.educode.educodeApi.utils;
+
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Область виконання однієї перевірки рішення.
+ * Кожна дочірня задача (запуск тесту, виклик checker'а, відправка повідомлення клієнту) виконується
+ * в окремому потоці з фабрики області. cancel() скасовує всі дочірні задачі одразу, а потік перевірки,
+ * що чекає на дочірню задачу, отримує CancellationException, тому перевірка завершується без очікування тестів.
+ * Скасування лише перериває потік задачі, а запуск у контейнері може ще тривати, тому перед звільненням ресурсів
+ * задачі треба дочекатися через join(). close() скасовує задачі, які ще не завершились, і чекає на їхні потоки.
+ */
+public class JudgeScope implements AutoCloseable {
+
+    private final ThreadFactory threadFactory;
+    private final Set<Future<?>> children = ConcurrentHashMap.newKeySet();
+    // Задачі, потоки яких ще виконуються; скасована задача залишається тут, доки її потік не завершиться
+    private final Set<Child<?>> running = ConcurrentHashMap.newKeySet();
+    private volatile String cancelReason;
+
+    public JudgeScope(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Запускає дочірню задачу
+     * @param task задача
+     * @return future задачі
+     * @throws CancellationException якщо область вже скасовано
+     */
+    public <T> Future<T> fork(Callable<T> task) {
+        throwIfCancelled();
+
+        Child<T> future = new Child<>(task);
+        children.add(future);
+        running.add(future);
+        threadFactory.newThread(() -> {
+            try {
+                future.run();
+            } finally {
+                running.remove(future);
+                future.exited.countDown();
+            }
+        }).start();
+
+        // Область могли скасувати між перевіркою і реєстрацією задачі
+        if (cancelReason != null)
+            future.cancel(true);
+        return future;
+    }
+
+    /**
+     * Прив'язує до області future, який завершує інша дочірня задача: при скасуванні області його теж буде скасовано,
+     * тому await() на ньому не зависне
+     * @param future future результату
+     * @return той самий future
+     */
+    public <T> CompletableFuture<T> link(CompletableFuture<T> future) {
+        children.add(future);
+        future.whenComplete((result, error) -> children.remove(future));
+        if (cancelReason != null)
+            future.cancel(true);
+        return future;
+    }
+
+    /**
+     * Запускає дочірню задачу та чекає на її результат
+     * @param task задача
+     * @return результат задачі
+     * @throws CancellationException якщо область скасовано до або під час виконання задачі
+     * @throws Exception виняток, який кинула сама задача
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        return await(fork(task));
+    }
+
+    /**
+     * Чекає на результат дочірньої задачі
+     * @param future future, отриманий з fork()
+     * @return результат задачі
+     * @throws CancellationException якщо область скасовано
+     * @throws Exception виняток, який кинула сама задача
+     */
+    public <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throwIfCancelled();
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel("interrupted");
+            throw new CancellationException("Judge scope interrupted");
+        } catch (CancellationException e) {
+            throwIfCancelled();
+            throw e;
+        }
+    }
+
+    /**
+     * Чекає, доки потік дочірньої задачі завершиться, навіть якщо задачу вже скасовано.
+     * Переривання потоку, що чекає, не зупиняє очікування: ресурси задачі не можна звільняти, поки вона виконується.
+     * @param future future, отриманий з fork()
+     */
+    public void join(Future<?> future) {
+        ((Child<?>) future).awaitExit();
+    }
+
+    /**
+     * Скасовує всі дочірні задачі. Повторні виклики зберігають першу причину.
+     * @param reason причина скасування
+     */
+    public void cancel(String reason) {
+        synchronized (this) {
+            if (cancelReason == null)
+                cancelReason = reason;
+        }
+        for (Future<?> child : children)
+            child.cancel(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public String getCancelReason() {
+        return cancelReason;
+    }
+
+    /**
+     * @throws CancellationException якщо область скасовано
+     */
+    public void throwIfCancelled() {
+        String reason = cancelReason;
+        if (reason != null)
+            throw new CancellationException(reason);
+    }
+
+    /**
+     * Скасовує задачі, які ще не завершились, і чекає, доки завершаться потоки всіх дочірніх задач
+     */
+    @Override
+    public void close() {
+        for (Future<?> child : children)
+            child.cancel(true);
+        for (Child<?> child : running)
+            child.awaitExit();
+    }
+
+    /**
+     * Дочірня задача; exited звільняється, коли її потік завершився
+     */
+    private final class Child<T> extends FutureTask<T> {
+        private final CountDownLatch exited = new CountDownLatch(1);
+
+        private Child(Callable<T> task) {
+            super(task);
+        }
+
+        @Override
+        protected void done() {
+            children.remove(this);
+        }
+
+        private void awaitExit() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    exited.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.educode.educodeApi.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ковзна оцінка тривалості за ключем (наприклад, мовою програмування).
+ * Для кожного ключа і для всіх разом зберігає останні window вимірювань у кільцевому буфері з поточною сумою,
+ * тому і додавання вимірювання, і оцінка виконуються за O(1).
+ */
+public class LatencyEstimator {
+
+    private final int window;
+    private final long defaultMillis;
+    private final Map<String, Window> byKey = new HashMap<>();
+    private final Window all;
+
+    /**
+     * @param window скільки останніх вимірювань враховувати
+     * @param defaultMillis оцінка, поки вимірювань немає
+     */
+    public LatencyEstimator(int window, long defaultMillis) {
+        this.window = Math.max(1, window);
+        this.defaultMillis = defaultMillis;
+        this.all = new Window(this.window);
+    }
+
+    /**
+     * Додає вимірювання
+     * @param key ключ
+     * @param millis тривалість у мілісекундах
+     */
+    public synchronized void record(String key, long millis) {
+        byKey.computeIfAbsent(key, k -> new Window(window)).add(millis);
+        all.add(millis);
+    }
+
+    /**
+     * @return середня тривалість для ключа; якщо для ключа вимірювань немає - середня для всіх
+     */
+    public synchronized long estimate(String key) {
+        Window samples = key != null ? byKey.get(key) : null;
+        if (samples != null && samples.count > 0)
+            return samples.mean();
+        return estimateAll();
+    }
+
+    /**
+     * @return середня тривалість для всіх ключів
+     */
+    public synchronized long estimateAll() {
+        return all.count > 0 ? all.mean() : defaultMillis;
+    }
+
+    private static final class Window {
+        private final long[] samples;
+        private int next = 0;
+        private int count = 0;
+        private long sum = 0L;
+
+        private Window(int size) {
+            this.samples = new long[size];
+        }
+
+        private void add(long value) {
+            if (count == samples.length)
+                sum -= samples[next];
+            else
+                count++;
+            samples[next] = value;
+            sum += value;
+            next = (next + 1) % samples.length;
+        }
+
+        private long mean() {
+            return sum / count;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.DTO.code.InteractiveResult;
+import com.educode.educodeApi.interfaces.ContainerCheckerLauncher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * Сесія checker'а в постійному режимі для одного контейнера рішення.
+ * Тести перевіряються по черзі; після першої помилки обміну сесія закривається і більше не використовується,
+ * тому решта тестів перевіряється звичайним запуском checker'а на кожен тест.
+ * Кожен обмін обмежено часом: checker, що не відповів вчасно, вважається зламаним, і сесія закривається.
+ */
+public class PersistentChecker implements AutoCloseable {
+
+    private final ContainerCheckerLauncher.Connection connection;
+    private final TimedStdout stdout = new TimedStdout();
+    private boolean broken = false;
+    // Момент за System.nanoTime(), до якого checker має відповісти на поточний тест
+    private long deadlineNanos;
+
+    public PersistentChecker(ContainerCheckerLauncher.Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Надсилає checker'у кадр тесту і чекає на результат
+     * @param expected очікуваний вивід або null
+     * @param actual вивід рішення
+     * @param timeout скільки чекати на результат
+     * @throws IOException якщо обмін не вдався або checker не відповів за timeout; сесія при цьому закривається
+     */
+    public synchronized InteractiveResult check(String input, String expected, String actual, Duration timeout) throws IOException {
+        if (broken)
+            throw new IOException("Persistent checker session is closed");
+
+        try {
+            deadlineNanos = System.nanoTime() + timeout.toNanos();
+            CheckerProtocol.writeTest(connection.stdin(), input, expected, actual);
+            return CheckerProtocol.readResult(stdout);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    public synchronized boolean isUsable() {
+        return !broken;
+    }
+
+    /**
+     * Закриває stdin checker'а, щоб він завершився, і звільняє з'єднання
+     */
+    @Override
+    public synchronized void close() {
+        if (broken)
+            return;
+        broken = true;
+        try {
+            connection.stdin().close();
+        } catch (IOException ignored) {
+            // Процес checker'а вже завершився
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * stdout checker'а, читання з якого завершується до deadlineNanos. Буфер переживає обміни,
+     * тому байти, прочитані наперед, не губляться.
+     */
+    private final class TimedStdout extends InputStream {
+        private final byte[] buffer = new byte[8192];
+        private int position = 0;
+        private int limit = 0;
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && !fill())
+                return -1;
+            return buffer[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            if (position == limit && !fill())
+                return -1;
+            int count = Math.min(length, limit - position);
+            System.arraycopy(buffer, position, target, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            int count = connection.read(buffer, 0, buffer.length, deadlineNanos);
+            if (count < 0)
+                return false;
+            position = 0;
+            limit = count;
+            return true;
+        }
+    }
+}
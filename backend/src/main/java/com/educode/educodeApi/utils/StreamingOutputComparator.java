@@ -0,0 +1,240 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.interfaces.StreamHandler;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Порівнює вивід програми з очікуваним під час читання, не зберігаючи вивід у пам'яті.
+ * handle() повертається, щойно результат відомий: на першій розбіжності або коли вивід став довшим за очікуваний
+ * більше ніж на maxExtraBytes, тому процес, що пише занадто багато, можна зупинити, не дочитуючи його вивід.
+ * Порівняння побайтове або, у режимі токенів, по послідовностях символів, розділених пробільними символами
+ * (кількість і вид пробільних символів між токенами, на початку та в кінці не важливі).
+ * Очікуваний вивід може бути відображеним у пам'ять файлом (читається за абсолютними позиціями і не копіюється)
+ * або потоком, наприклад розпакованим під час читання.
+ */
+public class StreamingOutputComparator implements StreamHandler, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Expected expected;
+    private final long expectedLength;
+    private final boolean tokens;
+    private final long maxBytes;
+
+    // Позиція в очікуваному виводі
+    private long position = 0L;
+    // Режим токенів: зараз читається токен виводу
+    private boolean inToken = false;
+    private long bytesRead = 0L;
+    private Boolean matches;
+
+    /**
+     * @param expected очікуваний вивід; null порівнюється як порожній
+     * @param tokens порівнювати токени, а не байти
+     * @param maxExtraBytes на скільки байт вивід може бути довшим за очікуваний у режимі токенів (зайві пробільні символи)
+     */
+    public StreamingOutputComparator(String expected, boolean tokens, int maxExtraBytes) {
+        this(ByteBuffer.wrap(expected != null ? expected.getBytes(StandardCharsets.UTF_8) : new byte[0]), tokens, maxExtraBytes);
+    }
+
+    /**
+     * @param expected очікуваний вивід від поточної позиції до ліміту буфера; позиція буфера не змінюється
+     * @param tokens порівнювати токени, а не байти
+     * @param maxExtraBytes на скільки байт вивід може бути довшим за очікуваний у режимі токенів (зайві пробільні символи)
+     */
+    public StreamingOutputComparator(ByteBuffer expected, boolean tokens, int maxExtraBytes) {
+        this(new BufferExpected(expected.slice()), expected.remaining(), tokens, maxExtraBytes);
+    }
+
+    /**
+     * Порівнює з очікуваним виводом, який читається послідовно з потоку (наприклад, розпакованим під час читання).
+     * Потік закриває close() компаратора.
+     * @param expected потік очікуваного виводу
+     * @param expectedLength довжина очікуваного виводу в байтах
+     * @param tokens порівнювати токени, а не байти
+     * @param maxExtraBytes на скільки байт вивід може бути довшим за очікуваний у режимі токенів (зайві пробільні символи)
+     */
+    public StreamingOutputComparator(InputStream expected, long expectedLength, boolean tokens, int maxExtraBytes) {
+        this(new StreamExpected(expected), expectedLength, tokens, maxExtraBytes);
+    }
+
+    private StreamingOutputComparator(Expected expected, long expectedLength, boolean tokens, int maxExtraBytes) {
+        this.expected = expected;
+        this.expectedLength = expectedLength;
+        this.tokens = tokens;
+        this.maxBytes = expectedLength + (tokens ? Math.max(0, maxExtraBytes) : 0L);
+    }
+
+    /**
+     * Порівнює рядок виводу, зібраний іншим способом (наприклад, з пакетного запуску)
+     */
+    public static boolean matches(String expected, String actual, boolean tokens, int maxExtraBytes) {
+        return matches(new StreamingOutputComparator(expected, tokens, maxExtraBytes), actual);
+    }
+
+    /**
+     * Порівнює рядок виводу з очікуваним виводом у буфері
+     */
+    public static boolean matches(ByteBuffer expected, String actual, boolean tokens, int maxExtraBytes) {
+        return matches(new StreamingOutputComparator(expected, tokens, maxExtraBytes), actual);
+    }
+
+    /**
+     * Порівнює рядок виводу з очікуваним виводом, переданим компаратору, і закриває компаратор
+     */
+    public static boolean matches(StreamingOutputComparator comparator, String actual) {
+        try (comparator) {
+            comparator.handle(new ByteArrayInputStream(actual.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return comparator.matches();
+    }
+
+    @Override
+    public void handle(InputStream stream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while (matches == null && (read = stream.read(buffer)) != -1) {
+            for (int i = 0; i < read && matches == null; i++) {
+                bytesRead++;
+                if (bytesRead > maxBytes)
+                    matches = false;
+                else if (tokens ? !acceptToken(buffer[i]) : !acceptByte(buffer[i]))
+                    matches = false;
+            }
+        }
+        if (matches == null)
+            matches = finish();
+    }
+
+    /**
+     * @return true, якщо вивід збігся з очікуваним
+     * @throws IllegalStateException якщо вивід ще не прочитано
+     */
+    public boolean matches() {
+        if (matches == null)
+            throw new IllegalStateException("Output has not been compared yet");
+        return matches;
+    }
+
+    /**
+     * @return скільки байт виводу прочитано до отримання результату
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Закриває потік очікуваного виводу, якщо він є
+     */
+    @Override
+    public void close() {
+        expected.close();
+    }
+
+    private boolean acceptByte(byte b) throws IOException {
+        return position < expectedLength && expected.get(position++) == b;
+    }
+
+    private boolean acceptToken(byte b) throws IOException {
+        if (isWhitespace(b)) {
+            if (inToken) {
+                inToken = false;
+                return isTokenEnd();
+            }
+            return true;
+        }
+
+        if (!inToken) {
+            skipExpectedWhitespace();
+            if (position == expectedLength)
+                return false; // Зайвий токен
+            inToken = true;
+        }
+        return position < expectedLength && expected.get(position++) == b;
+    }
+
+    /**
+     * Вирішує результат у кінці виводу
+     */
+    private boolean finish() throws IOException {
+        if (!tokens)
+            return position == expectedLength;
+
+        if (inToken && !isTokenEnd())
+            return false;
+        skipExpectedWhitespace();
+        return position == expectedLength;
+    }
+
+    /**
+     * Перевіряє, що токен очікуваного виводу теж закінчився
+     */
+    private boolean isTokenEnd() throws IOException {
+        return position == expectedLength || isWhitespace(expected.get(position));
+    }
+
+    private void skipExpectedWhitespace() throws IOException {
+        while (position < expectedLength && isWhitespace(expected.get(position)))
+            position++;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+
+    /**
+     * Джерело очікуваного виводу. Позиції запитуються лише в порядку зростання (та сама позиція може повторюватись).
+     */
+    private interface Expected {
+        byte get(long position) throws IOException;
+
+        default void close() {
+        }
+    }
+
+    private record BufferExpected(ByteBuffer buffer) implements Expected {
+        @Override
+        public byte get(long position) {
+            return buffer.get((int) position);
+        }
+    }
+
+    /**
+     * Читає потік вікнами по BUFFER_SIZE байт; попередні вікна не зберігаються
+     */
+    private static class StreamExpected implements Expected {
+        private final InputStream stream;
+        private final byte[] window = new byte[BUFFER_SIZE];
+        private long windowStart = 0L;
+        private int windowLength = 0;
+
+        StreamExpected(InputStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public byte get(long position) throws IOException {
+            while (position >= windowStart + windowLength) {
+                windowStart += windowLength;
+                windowLength = stream.readNBytes(window, 0, window.length);
+                if (windowLength == 0)
+                    throw new EOFException("Expected output is shorter than its recorded length");
+            }
+            return window[(int) (position - windowStart)];
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // Потік лише читався, помилка закриття не впливає на результат
+            }
+        }
+    }
+}
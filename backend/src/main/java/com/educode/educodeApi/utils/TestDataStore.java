@@ -0,0 +1,254 @@
+package com.educode.educodeApi.utils;
+
+import com.educode.educodeApi.interfaces.InputWriter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Сховище тестових даних на диску, адресоване вмістом: назва файлу - SHA-256 від вмісту, тому однакові
+ * вхідні чи вихідні дані зберігаються один раз. Файли незмінні: новий файл спершу пишеться у тимчасовий
+ * і потім атомарно перейменовується. Файли розкладені по піддиректоріях за першими двома символами хешу.
+ * Якщо задано DeflateCodec, вміст від minCompressBytes стискається і зберігається у файлі з суфіксом .z:
+ * 8 байт довжини вмісту, далі потік Deflate. Хеш завжди рахується від нестиснутого вмісту, тому стиснення
+ * не змінює ні адрес, ні дедуплікації, а нестиснуті файли, записані раніше, читаються як і були.
+ */
+public class TestDataStore {
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String COMPRESSED_SUFFIX = ".z";
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})(\\.z)?");
+
+    private final Path directory;
+    private final DeflateCodec codec;
+    private final int minCompressBytes;
+
+    /**
+     * Сховище без стиснення
+     * @param directory директорія сховища; створюється, якщо її немає
+     * @throws IOException якщо директорію не вдалося створити
+     */
+    public TestDataStore(Path directory) throws IOException {
+        this(directory, null, 0);
+    }
+
+    /**
+     * @param directory директорія сховища; створюється, якщо її немає
+     * @param codec кодек стиснення або null, щоб не стискати
+     * @param minCompressBytes вміст, коротший за це значення, не стискається: виграш менший за накладні витрати
+     * @throws IOException якщо директорію не вдалося створити
+     */
+    public TestDataStore(Path directory, DeflateCodec codec, int minCompressBytes) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.minCompressBytes = minCompressBytes;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Результат збереження вмісту
+     * @param hash шістнадцятковий SHA-256 вмісту
+     * @param size розмір вмісту в байтах
+     * @param storedSize розмір файлу на диску
+     * @param created true, якщо файл записано зараз, false - такий вміст вже був
+     */
+    public record Stored(String hash, long size, long storedSize, boolean created) {
+    }
+
+    /**
+     * Зберігає вміст, якщо такого ще немає
+     */
+    public Stored put(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = HashUtils.sha256(bytes);
+        Path existing = find(hash);
+        if (existing != null) {
+            // Свіжий час зміни захищає файл від прибирання, поки рішення про нього ще не збережено в БД
+            Files.setLastModifiedTime(existing, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Stored(hash, bytes.length, Files.size(existing), false);
+        }
+
+        byte[] compressed = codec != null && bytes.length >= minCompressBytes ? codec.compress(bytes) : null;
+        // Дані, що майже не стискаються, зберігаються як є, щоб не розпаковувати їх даремно
+        boolean compress = compressed != null && compressed.length + Long.BYTES < bytes.length;
+        Path file = compress ? compressedPath(hash) : path(hash);
+
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(hash + "." + UUID.randomUUID() + TMP_SUFFIX);
+        try {
+            if (compress) {
+                try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    stream.writeLong(bytes.length);
+                    stream.write(compressed);
+                }
+            } else {
+                Files.write(tmp, bytes);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return new Stored(hash, bytes.length, Files.size(file), true);
+    }
+
+    public boolean contains(String hash) {
+        return find(hash) != null;
+    }
+
+    /**
+     * Перевіряє, чи вміст зберігається стиснутим
+     */
+    public boolean isCompressed(String hash) {
+        return Files.isRegularFile(compressedPath(hash));
+    }
+
+    /**
+     * @return розмір вмісту в байтах (для стиснутого файлу - до стиснення)
+     */
+    public long size(String hash) throws IOException {
+        if (isCompressed(hash)) {
+            try (DataInputStream stream = new DataInputStream(Files.newInputStream(compressedPath(hash)))) {
+                return stream.readLong();
+            }
+        }
+        return Files.size(path(hash));
+    }
+
+    /**
+     * @return розмір файлу вмісту на диску
+     */
+    public long storedSize(String hash) throws IOException {
+        Path file = find(hash);
+        if (file == null)
+            throw new NoSuchFileException(path(hash).toString());
+        return Files.size(file);
+    }
+
+    /**
+     * Відкриває вміст для читання; стиснутий вміст розпаковується під час читання
+     */
+    public InputStream open(String hash) throws IOException {
+        if (!isCompressed(hash))
+            return Files.newInputStream(path(hash));
+
+        InputStream stream = new BufferedInputStream(Files.newInputStream(compressedPath(hash)));
+        try {
+            stream.skipNBytes(Long.BYTES);
+            return DeflateCodec.decompressing(stream);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Повертає запис вмісту в потік. Нестиснутий вміст пишеться через FileChannel.transferTo: він не завантажується
+     * в пам'ять повністю, а якщо потік надає канал файлу чи сокета, копіювання виконує ядро. Стиснутий вміст
+     * розпаковується частинами прямо в потік.
+     */
+    public InputWriter writer(String hash) {
+        Path file = path(hash);
+        return stream -> {
+            if (isCompressed(hash)) {
+                try (InputStream content = open(hash)) {
+                    content.transferTo(stream);
+                }
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                transfer(channel, stream);
+            }
+        };
+    }
+
+    /**
+     * Відображає нестиснутий вміст у пам'ять лише для читання; сторінки завантажує ОС під час читання
+     * @throws IllegalStateException якщо вміст стиснуто; такий вміст читається через open()
+     */
+    public ByteBuffer map(String hash) throws IOException {
+        if (isCompressed(hash))
+            throw new IllegalStateException("Test data " + hash + " is compressed and cannot be mapped");
+        try (FileChannel channel = FileChannel.open(path(hash), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Читає вміст у рядок; для даних, які все одно потрібні рядком (редагування задачі, старі API контейнерів)
+     */
+    public String read(String hash) throws IOException {
+        try (InputStream stream = open(hash)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Видаляє файли, на які більше ніщо не посилається
+     * @param referenced хеші, що використовуються
+     * @param grace файли, змінені пізніше, ніж grace тому, не видаляються: їх могли щойно записати для ще не збереженого тесту
+     * @return кількість видалених файлів
+     */
+    public int deleteUnreferenced(Set<String> referenced, Duration grace) throws IOException {
+        long threshold = System.currentTimeMillis() - grace.toMillis();
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                Matcher matcher = FILE_NAME.matcher(name);
+                if (matcher.matches() && referenced.contains(matcher.group(1)) || Files.getLastModifiedTime(file).toMillis() > threshold)
+                    continue;
+                if (matcher.matches() || name.endsWith(TMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * @throws IllegalArgumentException якщо рядок не є SHA-256, щоб хеш з БД не міг вказати за межі сховища
+     */
+    private Path path(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches())
+            throw new IllegalArgumentException("Invalid test data hash: " + hash);
+        return directory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path compressedPath(String hash) {
+        Path file = path(hash);
+        return file.resolveSibling(hash + COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * @return файл вмісту (стиснутий чи ні) або null, якщо вмісту немає
+     */
+    private Path find(String hash) {
+        Path compressed = compressedPath(hash);
+        if (Files.isRegularFile(compressed))
+            return compressed;
+        Path file = path(hash);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private static void transfer(FileChannel channel, OutputStream stream) throws IOException {
+        WritableByteChannel target = Channels.newChannel(stream);
+        long position = 0L;
+        long size = channel.size();
+        while (position < size)
+            position += channel.transferTo(position, size - position, target);
+    }
+}
@@ -0,0 +1,277 @@
+package com.educode.educodeApi.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Пул заздалегідь створених ресурсів, згрупованих за ключем (наприклад, образом мови програмування).
+ * Для кожного ключа тримає від minIdle до maxIdle вільних ресурсів. Ресурс видається через Lease,
+ * і після використання його обов'язково або очищують і повертають у пул, або знищують.
+ *
+ * @param <C> тип ресурсу
+ */
+public class WarmPool<C extends AutoCloseable> {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmPool.class);
+
+    /**
+     * Життєвий цикл ресурсів пулу
+     */
+    public interface Lifecycle<C> {
+        /**
+         * Створює новий вільний ресурс для ключа
+         */
+        C create(String key);
+
+        /**
+         * Перевіряє, чи ресурс ще придатний до використання
+         */
+        boolean isHealthy(C resource);
+
+        /**
+         * Повертає використаний ресурс до початкового стану
+         * @return false, якщо ресурс не вдалося очистити і його треба знищити
+         */
+        boolean recycle(C resource);
+
+        /**
+         * Знищує ресурс
+         */
+        void destroy(C resource);
+    }
+
+    private final Lifecycle<C> lifecycle;
+    private final Map<String, ArrayDeque<Idle<C>>> idle = new HashMap<>();
+    private final int minIdle;
+    private final int maxIdle;
+    private final Duration maxIdleTime;
+    private boolean closed = false;
+
+    /**
+     * @param lifecycle життєвий цикл ресурсів
+     * @param keys ключі, для яких пул тримає вільні ресурси
+     * @param minIdle скільки вільних ресурсів тримати для кожного ключа
+     * @param maxIdle скільки вільних ресурсів можна тримати для кожного ключа
+     * @param maxIdleTime скільки вільний ресурс понад minIdle може чекати, перш ніж його знищать
+     */
+    public WarmPool(Lifecycle<C> lifecycle, Collection<String> keys, int minIdle, int maxIdle, Duration maxIdleTime) {
+        this.lifecycle = lifecycle;
+        this.minIdle = minIdle;
+        this.maxIdle = Math.max(minIdle, maxIdle);
+        this.maxIdleTime = maxIdleTime;
+        for (String key : keys)
+            idle.put(key, new ArrayDeque<>());
+    }
+
+    /**
+     * Видає вільний ресурс, а якщо його немає - створює новий
+     * @param key ключ ресурсу
+     * @return оренда ресурсу; її треба закрити після використання
+     */
+    public Lease<C> acquire(String key) {
+        synchronized (this) {
+            ArrayDeque<Idle<C>> queue = idle.get(key);
+            Idle<C> ready = queue != null ? queue.pollLast() : null;
+            if (ready != null)
+                return new Lease<>(this, key, ready.resource(), true);
+        }
+        return new Lease<>(this, key, lifecycle.create(key), false);
+    }
+
+    /**
+     * Перевіряє, чи пул тримає ресурси для ключа
+     */
+    public synchronized boolean isPooled(String key) {
+        return idle.containsKey(key);
+    }
+
+    /**
+     * Повертає кількість вільних ресурсів для ключа
+     */
+    public synchronized int idleCount(String key) {
+        ArrayDeque<Idle<C>> queue = idle.get(key);
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Прибирає непридатні та зайві вільні ресурси і доповнює пул до minIdle.
+     * Створення та знищення ресурсів виконується поза блокуванням.
+     */
+    public void maintain() {
+        List<C> toDestroy = new ArrayList<>();
+        List<Idle<C>> toCheck = new ArrayList<>();
+        Map<String, Integer> missing = new HashMap<>();
+        Instant expiry = Instant.now().minus(maxIdleTime);
+
+        synchronized (this) {
+            if (closed)
+                return;
+            for (Map.Entry<String, ArrayDeque<Idle<C>>> entry : idle.entrySet()) {
+                ArrayDeque<Idle<C>> queue = entry.getValue();
+                // Найстаріші ресурси на початку черги: знищуємо ті, що чекають занадто довго, понад minIdle
+                while (queue.size() > minIdle && queue.peekFirst().since().isBefore(expiry))
+                    toDestroy.add(queue.pollFirst().resource());
+                toCheck.addAll(queue);
+                queue.clear();
+            }
+        }
+
+        List<Idle<C>> healthy = new ArrayList<>();
+        for (Idle<C> candidate : toCheck) {
+            if (safeIsHealthy(candidate.resource()))
+                healthy.add(candidate);
+            else
+                toDestroy.add(candidate.resource());
+        }
+
+        synchronized (this) {
+            for (Idle<C> candidate : healthy) {
+                ArrayDeque<Idle<C>> queue = idle.get(candidate.key());
+                if (!closed && queue.size() < maxIdle)
+                    queue.addFirst(candidate);
+                else
+                    toDestroy.add(candidate.resource());
+            }
+            for (Map.Entry<String, ArrayDeque<Idle<C>>> entry : idle.entrySet()) {
+                if (!closed && entry.getValue().size() < minIdle)
+                    missing.put(entry.getKey(), minIdle - entry.getValue().size());
+            }
+        }
+
+        toDestroy.forEach(this::safeDestroy);
+
+        for (Map.Entry<String, Integer> entry : missing.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                C created;
+                try {
+                    created = lifecycle.create(entry.getKey());
+                } catch (Exception e) {
+                    log.warn("Failed to create pooled resource for {}: {}", entry.getKey(), e.getMessage());
+                    break;
+                }
+                offer(entry.getKey(), created);
+            }
+        }
+    }
+
+    /**
+     * Знищує всі вільні ресурси. Ресурси, що зараз використовуються, знищуються при поверненні.
+     */
+    public void close() {
+        List<C> toDestroy = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (ArrayDeque<Idle<C>> queue : idle.values()) {
+                queue.forEach(item -> toDestroy.add(item.resource()));
+                queue.clear();
+            }
+        }
+        toDestroy.forEach(this::safeDestroy);
+    }
+
+    private void release(String key, C resource, boolean discard) {
+        if (discard || !isPooled(key) || !safeRecycle(resource) || !safeIsHealthy(resource)) {
+            safeDestroy(resource);
+            return;
+        }
+        offer(key, resource);
+    }
+
+    private void offer(String key, C resource) {
+        synchronized (this) {
+            ArrayDeque<Idle<C>> queue = idle.get(key);
+            if (!closed && queue != null && queue.size() < maxIdle) {
+                queue.addLast(new Idle<>(key, resource, Instant.now()));
+                return;
+            }
+        }
+        safeDestroy(resource);
+    }
+
+    private boolean safeRecycle(C resource) {
+        try {
+            return lifecycle.recycle(resource);
+        } catch (Exception e) {
+            log.warn("Failed to recycle pooled resource: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean safeIsHealthy(C resource) {
+        try {
+            return lifecycle.isHealthy(resource);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void safeDestroy(C resource) {
+        try {
+            lifecycle.destroy(resource);
+        } catch (Exception e) {
+            log.warn("Failed to destroy pooled resource: {}", e.getMessage());
+        }
+    }
+
+    private record Idle<C>(String key, C resource, Instant since) {}
+
+    /**
+     * Оренда ресурсу. close() повертає ресурс у пул після очищення або знищує його.
+     */
+    public static final class Lease<C extends AutoCloseable> implements AutoCloseable {
+        private final WarmPool<C> pool;
+        private final String key;
+        private final C resource;
+        private final boolean warm;
+        private boolean discard = false;
+        private boolean closed = false;
+
+        private Lease(WarmPool<C> pool, String key, C resource, boolean warm) {
+            this.pool = pool;
+            this.key = key;
+            this.resource = resource;
+            this.warm = warm;
+        }
+
+        /**
+         * Створює оренду ресурсу поза пулом: close() просто закриває ресурс
+         */
+        public static <C extends AutoCloseable> Lease<C> unpooled(C resource) {
+            return new Lease<>(null, null, resource, false);
+        }
+
+        public C get() {
+            return resource;
+        }
+
+        /**
+         * @return true, якщо ресурс узято з пулу, а не створено під цей запит
+         */
+        public boolean isWarm() {
+            return warm;
+        }
+
+        /**
+         * Позначає ресурс як непридатний: при закритті його буде знищено, а не повернуто в пул
+         */
+        public void discard() {
+            this.discard = true;
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (closed)
+                return;
+            closed = true;
+
+            if (pool == null)
+                resource.close();
+            else
+                pool.release(key, resource, discard);
+        }
+    }
+}
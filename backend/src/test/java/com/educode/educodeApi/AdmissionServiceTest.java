@@ -0,0 +1,163 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.CodeExecuteDTO;
+import com.educode.educodeApi.DTO.code.JudgeTicketInfo;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.exceptions.TooManyRequestsError;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.JudgeQueueEntry;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.properties.AdmissionProperties;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.JudgeQueueRepository;
+import com.educode.educodeApi.services.AdmissionService;
+import com.educode.educodeApi.services.JudgeLatencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты допуска к проверке и выполнению кода: пороги глубины очереди для срочных и обычных решений,
+ * повторные проверки не учитываются в глубине, ограничение незавершённых решений пользователя,
+ * Retry-After в ответе 429 и отключение допуска.
+ */
+@TestPropertySource(properties = {
+        "judge.admission.shed-queue-depth=2",
+        "judge.admission.max-queue-depth=3",
+        "judge.admission.max-in-flight-per-user=1",
+        "judge.admission.max-retry-after-seconds=5"
+})
+public class AdmissionServiceTest extends AbstractIntegrationTest {
+
+    @MockBean
+    private JudgeLatencyService judgeLatencyService;
+    @Autowired
+    private AdmissionService admissionService;
+    @Autowired
+    private AdmissionProperties admissionProperties;
+    @Autowired
+    private JudgeQueueRepository judgeQueueRepository;
+    @Autowired
+    private DecisionRepository decisionRepository;
+
+    // Идентификаторы решений в очереди; внешнего ключа на decisions у judge_queue нет
+    private long nextDecisionId = 800_000L;
+
+    @BeforeEach
+    void mockLatency() {
+        when(judgeLatencyService.estimateDrain(anyLong(), anyInt())).thenReturn(Duration.ofMillis(1500));
+    }
+
+    private void enqueue(int count, JudgePriority priority) {
+        for (int i = 0; i < count; i++)
+            judgeQueueRepository.save(new JudgeQueueEntry(nextDecisionId++, "test-node", new JudgeTicketInfo(1L, null, null, priority)));
+        judgeQueueRepository.flush();
+    }
+
+    private void unfinishedDecision(User user) {
+        Puzzle puzzle = createPuzzle("Admission puzzle", user, true);
+        Decision decision = new Decision();
+        decision.setUser(user);
+        decision.setPuzzle(puzzle);
+        decision.setCode("print(1)");
+        decisionRepository.saveAndFlush(decision);
+    }
+
+    private CodeExecuteDTO executeDto() {
+        CodeExecuteDTO dto = new CodeExecuteDTO();
+        dto.setCode("print(1)");
+        dto.setLanguage("python:3.11");
+        dto.setInput("1");
+        return dto;
+    }
+
+    @Test
+    void urgentDecisionsAreAdmittedAfterShedThreshold() {
+        User user = setupUser("admission-urgent");
+        enqueue(2, JudgePriority.NORMAL);
+
+        // После порога сброса нагрузки принимаются только срочные решения
+        assertThrows(TooManyRequestsError.class, () -> admissionService.admitDecision(user, JudgePriority.NORMAL));
+        assertDoesNotThrow(() -> admissionService.admitDecision(user, JudgePriority.URGENT));
+
+        // На полной глубине очереди отклоняются и срочные
+        enqueue(1, JudgePriority.URGENT);
+        assertThrows(TooManyRequestsError.class, () -> admissionService.admitDecision(user, JudgePriority.URGENT));
+    }
+
+    @Test
+    void backgroundEntriesAreNotCounted() {
+        User user = setupUser("admission-background");
+        enqueue(10, JudgePriority.BACKGROUND);
+        assertDoesNotThrow(() -> admissionService.admitDecision(user, JudgePriority.NORMAL));
+
+        enqueue(1, JudgePriority.NORMAL);
+        assertDoesNotThrow(() -> admissionService.admitDecision(user, JudgePriority.NORMAL));
+        enqueue(1, JudgePriority.NORMAL);
+        assertThrows(TooManyRequestsError.class, () -> admissionService.admitDecision(user, JudgePriority.NORMAL));
+    }
+
+    @Test
+    void limitsUnfinishedDecisionsPerUser() {
+        User user = setupUser("admission-user");
+        User other = setupUser("admission-other");
+        unfinishedDecision(user);
+
+        TooManyRequestsError error = assertThrows(TooManyRequestsError.class, () -> admissionService.admitDecision(user, JudgePriority.URGENT));
+        assertEquals(2L, error.getRetryAfterSeconds());
+        // Ограничение действует только на автора незавершённого решения
+        assertDoesNotThrow(() -> admissionService.admitDecision(other, JudgePriority.NORMAL));
+    }
+
+    @Test
+    void retryAfterIsClampedInResponse() throws Exception {
+        loginUser(setupUser("admission-http"));
+        enqueue(2, JudgePriority.NORMAL);
+
+        mvc.perform(post("/api/code/execute-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(executeDto())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.details.retryAfter").value(2));
+
+        // Оценка дольше judge.admission.max-retry-after-seconds обрезается до него
+        when(judgeLatencyService.estimateDrain(anyLong(), anyInt())).thenReturn(Duration.ofHours(1));
+        mvc.perform(post("/api/code/execute-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(executeDto())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+                .andExpect(jsonPath("$.details.retryAfter").value(5));
+    }
+
+    @Test
+    void disabledAdmissionAcceptsEverything() {
+        User user = setupUser("admission-disabled");
+        enqueue(3, JudgePriority.URGENT);
+        unfinishedDecision(user);
+
+        admissionProperties.setEnabled(false);
+        try {
+            assertDoesNotThrow(() -> admissionService.admitDecision(user, JudgePriority.NORMAL));
+            assertDoesNotThrow(() -> admissionService.admitExecution(user, 10L));
+        } finally {
+            admissionProperties.setEnabled(true);
+        }
+        assertThrows(TooManyRequestsError.class, () -> admissionService.admitExecution(user, 0L));
+    }
+}
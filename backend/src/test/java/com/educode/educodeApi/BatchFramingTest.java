@@ -0,0 +1,89 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.BatchRunResult;
+import com.educode.educodeApi.exceptions.ContainerExecutionException;
+import com.educode.educodeApi.exceptions.ContainerTimeoutException;
+import com.educode.educodeApi.services.BatchExecutionService;
+import com.educode.educodeApi.utils.BatchInputWriter;
+import com.educode.educodeApi.utils.BatchOutputParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для формата пакетного запуска (batch_runner.sh): запись входных данных, разбор вывода и признаков превышения лимитов.
+ * Не требует Spring-контекста.
+ */
+public class BatchFramingTest {
+
+    @Test
+    void writesLengthPrefixedInputs() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new BatchInputWriter(Arrays.asList("1 2\n", "", "тест", null)).write(stream);
+
+        // Длина указывается в байтах, а не в символах
+        assertEquals("EDUBATCH 4\n4\n1 2\n0\n8\nтест0\n", stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parsesFramedOutputs() throws Exception {
+        BatchOutputParser parser = new BatchOutputParser(3);
+        parser.handle(stream("0 0 12 - 4\n3\n4\n1 124 1003 T 0\n2 1 5 - 15\nпомилка\n"));
+
+        List<BatchRunResult> results = parser.getResults();
+        assertEquals(new BatchRunResult(0, 0, 12, "3\n4\n"), results.get(0));
+        assertEquals(new BatchRunResult(1, 124, 1003, BatchRunResult.Limit.TIME, "", false), results.get(1));
+        assertEquals(new BatchRunResult(2, 1, 5, "помилка\n"), results.get(2));
+    }
+
+    @Test
+    void rejectsIncompleteOutput() throws Exception {
+        BatchOutputParser truncated = new BatchOutputParser(1);
+        assertThrows(IOException.class, () -> truncated.handle(stream("0 0 1 - 10\nabc")));
+
+        // Пакет оборвался после первого теста
+        BatchOutputParser missing = new BatchOutputParser(2);
+        missing.handle(stream("0 0 1 - 1\na"));
+        assertThrows(IOException.class, missing::getResults);
+
+        assertThrows(IOException.class, () -> new BatchOutputParser(1).handle(stream("garbage\n")));
+        assertThrows(IOException.class, () -> new BatchOutputParser(1).handle(stream("0 0 1 X 0\n")));
+    }
+
+    @Test
+    void keepsOnlyPrefixOfTooLongOutput() throws Exception {
+        BatchOutputParser parser = new BatchOutputParser(Arrays.asList(2, null));
+        parser.handle(stream("0 0 1 - 6\nabcdef1 0 1 - 3\nxyz"));
+
+        // Лишний вывод первого теста пропускается, следующий кадр разбирается как обычно
+        List<BatchRunResult> results = parser.getResults();
+        assertEquals(new BatchRunResult(0, 0, 1, BatchRunResult.Limit.NONE, "ab", true), results.get(0));
+        assertEquals(new BatchRunResult(1, 0, 1, "xyz"), results.get(1));
+    }
+
+    @Test
+    void timeLimitFollowsFlagRatherThanExitCode() throws Exception {
+        BatchOutputParser parser = new BatchOutputParser(3);
+        // Программа сама завершилась с кодом 124; программу, игнорирующую SIGTERM, timeout убил с кодом 137;
+        // третья программа превысила лимит вывода
+        parser.handle(stream("0 124 3 - 0\n1 137 2003 T 0\n2 153 40 O 0\n"));
+        List<BatchRunResult> results = parser.getResults();
+
+        BatchExecutionService service = new BatchExecutionService();
+        ContainerExecutionException error = assertThrows(ContainerExecutionException.class, () -> service.outputOf(results.get(0), 2f));
+        assertEquals(124, error.getCode());
+        assertThrows(ContainerTimeoutException.class, () -> service.outputOf(results.get(1), 2f));
+        assertThrows(ContainerExecutionException.class, () -> service.outputOf(results.get(2), 2f));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
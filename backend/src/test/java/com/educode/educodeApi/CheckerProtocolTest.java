@@ -0,0 +1,120 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.InteractiveResult;
+import com.educode.educodeApi.interfaces.ContainerCheckerLauncher;
+import com.educode.educodeApi.utils.CheckerProtocol;
+import com.educode.educodeApi.utils.PersistentChecker;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для протокола постоянного режима checker'а: кадры тестов, разбор результатов и закрытие сессии
+ * после ошибки или если checker не ответил вовремя.
+ * Не требует Spring-контекста.
+ */
+public class CheckerProtocolTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void writesLengthPrefixedTestFrame() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        CheckerProtocol.writeTest(stream, "1 2\n", null, "тест");
+
+        // Длины указываются в байтах, отсутствующий ожидаемый вывод передаётся пустым
+        assertEquals("EDUCHECK 4 0 8\n1 2\nтест", stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsResultFrames() throws Exception {
+        InputStream stream = stream("100 0\n37.5 10\nмайже\n");
+
+        InteractiveResult first = CheckerProtocol.readResult(stream);
+        assertEquals(100.0, first.getScore());
+        assertEquals("", first.getMessage());
+
+        InteractiveResult second = CheckerProtocol.readResult(stream);
+        assertEquals(37.5, second.getScore());
+        assertEquals("майже", second.getMessage());
+    }
+
+    @Test
+    void rejectsMalformedResults() {
+        assertThrows(IOException.class, () -> CheckerProtocol.readResult(stream("")));
+        assertThrows(IOException.class, () -> CheckerProtocol.readResult(stream("ok\n")));
+        assertThrows(IOException.class, () -> CheckerProtocol.readResult(stream("50 10\nabc")));
+        assertThrows(IOException.class, () -> CheckerProtocol.readResult(stream("NaN 0\n")));
+    }
+
+    @Test
+    void sessionClosesAfterFailure() throws Exception {
+        FakeConnection connection = new FakeConnection("100 0\ngarbage\n");
+        PersistentChecker session = new PersistentChecker(connection);
+
+        assertEquals(100.0, session.check("1", null, "1", TIMEOUT).getScore());
+        assertTrue(session.isUsable());
+
+        // После ошибки обмена сессия закрывается, остальные тесты проверяются по одному
+        assertThrows(IOException.class, () -> session.check("2", null, "2", TIMEOUT));
+        assertFalse(session.isUsable());
+        assertTrue(connection.closed);
+        assertThrows(IOException.class, () -> session.check("3", null, "3", TIMEOUT));
+    }
+
+    @Test
+    void sessionClosesWhenCheckerDoesNotAnswerInTime() throws Exception {
+        // Checker отвечает на первый тест, а на втором выводит начало заголовка и замолкает
+        PipedOutputStream checkerOutput = new PipedOutputStream();
+        FakeConnection connection = new FakeConnection(new PipedInputStream(checkerOutput));
+        PersistentChecker session = new PersistentChecker(connection);
+
+        checkerOutput.write("100 0\n50".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(100.0, session.check("1", null, "1", TIMEOUT).getScore());
+
+        long started = System.nanoTime();
+        assertThrows(SocketTimeoutException.class, () -> session.check("2", null, "2", Duration.ofMillis(100)));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        assertTrue(elapsedMillis >= 100 && elapsedMillis < 5000, "waited " + elapsedMillis + " ms");
+        assertFalse(session.isUsable());
+        assertTrue(connection.closed);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class FakeConnection implements ContainerCheckerLauncher.Connection {
+        private final OutputStream stdin = new ByteArrayOutputStream();
+        private final InputStream stdout;
+        boolean closed = false;
+
+        FakeConnection(String output) {
+            this(stream(output));
+        }
+
+        FakeConnection(InputStream stdout) {
+            this.stdout = stdout;
+        }
+
+        @Override
+        public OutputStream stdin() {
+            return stdin;
+        }
+
+        @Override
+        public InputStream stdout() {
+            return stdout;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
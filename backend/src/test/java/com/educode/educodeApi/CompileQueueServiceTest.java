@@ -0,0 +1,155 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.JudgeTicketInfo;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.services.CompileQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для очереди компиляции: слоты, порядок FIFO, передача слота по завершении
+ * и справедливое распределение слотов между пользователями и арендаторами.
+ * Не требует Spring-контекста.
+ */
+public class CompileQueueServiceTest {
+
+    private CompileQueueService queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new CompileQueueService(2);
+    }
+
+    @Test
+    void grantsOnlyConfiguredNumberOfSlots() {
+        CompletableFuture<Void> first = queue.addToQueue(1L);
+        CompletableFuture<Void> second = queue.addToQueue(2L);
+        CompletableFuture<Void> third = queue.addToQueue(3L);
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+
+        assertTrue(queue.isInTop(1L));
+        assertFalse(queue.isInTop(3L));
+        assertEquals(2, queue.getRunningCount());
+        assertEquals(1, queue.getWaitingCount());
+    }
+
+    @Test
+    void freedSlotStartsNextJobImmediately() {
+        queue.addToQueue(1L);
+        queue.addToQueue(2L);
+        CompletableFuture<Void> third = queue.addToQueue(3L);
+        CompletableFuture<Void> fourth = queue.addToQueue(4L);
+
+        queue.removeFromQueue(1L);
+
+        assertTrue(third.isDone());
+        assertFalse(fourth.isDone());
+        assertTrue(queue.isInTop(3L));
+    }
+
+    @Test
+    void reportsPositionInFifoOrder() {
+        queue.addToQueue(1L);
+        queue.addToQueue(2L);
+        queue.addToQueue(3L);
+        queue.addToQueue(4L);
+
+        assertEquals(0, queue.getPosition(1L));
+        assertEquals(1, queue.getPosition(3L));
+        assertEquals(2, queue.getPosition(4L));
+        assertEquals(-1, queue.getPosition(42L));
+
+        queue.removeFromQueue(2L);
+
+        assertEquals(0, queue.getPosition(3L));
+        assertEquals(1, queue.getPosition(4L));
+    }
+
+    @Test
+    void cancelledWaitingJobIsSkipped() {
+        queue.addToQueue(1L);
+        queue.addToQueue(2L);
+        CompletableFuture<Void> third = queue.addToQueue(3L);
+        CompletableFuture<Void> fourth = queue.addToQueue(4L);
+
+        queue.removeFromQueue(3L);
+        queue.removeFromQueue(1L);
+
+        assertTrue(third.isCancelled());
+        assertTrue(fourth.isDone());
+        assertFalse(fourth.isCancelled());
+        assertEquals(2, queue.getRunningCount());
+        assertEquals(0, queue.getWaitingCount());
+    }
+
+    @Test
+    void waitForQueueReturnsWhenSlotIsGranted() throws Exception {
+        queue.addToQueue(1L);
+        queue.addToQueue(2L);
+        queue.addToQueue(3L);
+
+        Thread releaser = new Thread(() -> queue.removeFromQueue(2L));
+        releaser.start();
+
+        queue.waitForQueue(3L);
+        assertTrue(queue.isInTop(3L));
+        releaser.join();
+    }
+
+    @Test
+    void servesUsersInRoundRobin() {
+        queue = new CompileQueueService(1);
+        queue.addToQueue(1L, user(1L));
+        queue.addToQueue(2L, user(1L));
+        CompletableFuture<Void> last = queue.addToQueue(3L, user(1L));
+        CompletableFuture<Void> other = queue.addToQueue(4L, user(2L));
+
+        // Второй пользователь идет через одну заявку первого, а не после всех его заявок
+        assertEquals(2, queue.getPosition(4L));
+        assertEquals(3, queue.getPosition(3L));
+        queue.removeFromQueue(1L);
+        queue.removeFromQueue(2L);
+        assertTrue(other.isDone());
+        assertFalse(last.isDone());
+    }
+
+    @Test
+    void urgentJobsGoFirst() {
+        queue = new CompileQueueService(1);
+        queue.addToQueue(1L, user(1L));
+        queue.addToQueue(2L, user(2L));
+        CompletableFuture<Void> urgent = queue.addToQueue(3L, new JudgeTicketInfo(3L, null, null, JudgePriority.URGENT));
+
+        assertEquals(1, queue.getPosition(3L));
+        assertEquals(2, queue.getPosition(2L));
+        queue.removeFromQueue(1L);
+        assertTrue(urgent.isDone());
+    }
+
+    @Test
+    void tenantCannotExceedItsShare() {
+        queue = new CompileQueueService(4);
+        queue.addToQueue(1L, new JudgeTicketInfo(1L, 100L, 0.5f, JudgePriority.NORMAL));
+        queue.addToQueue(2L, new JudgeTicketInfo(2L, 100L, 0.5f, JudgePriority.NORMAL));
+        CompletableFuture<Void> overShare = queue.addToQueue(3L, new JudgeTicketInfo(3L, 100L, 0.5f, JudgePriority.NORMAL));
+        CompletableFuture<Void> otherTenant = queue.addToQueue(4L, user(4L));
+
+        assertFalse(overShare.isDone());
+        assertTrue(otherTenant.isDone());
+        assertEquals(3, queue.getRunningCount());
+
+        queue.removeFromQueue(1L);
+        assertTrue(overShare.isDone());
+    }
+
+    private static JudgeTicketInfo user(Long userId) {
+        return new JudgeTicketInfo(userId, null, null, JudgePriority.NORMAL);
+    }
+}
@@ -0,0 +1,139 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleCredit;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.PuzzleCreditRepository;
+import com.educode.educodeApi.services.DecisionFinalizationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты одновременного завершения решений одного автора: каждое завершение выполняется в своей транзакции
+ * (тест не оборачивается в общую транзакцию), а рейтинг автора должен сложиться из лучших баллов по задачам,
+ * сколько бы решений ни завершалось одновременно. Данные сохраняются в базе, поэтому удаляются после теста.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DecisionConcurrencyTest extends AbstractIntegrationTest {
+
+    private static final int PUZZLES = 2;
+    private static final int DECISIONS_PER_PUZZLE = 8;
+
+    @Autowired
+    protected DecisionFinalizationService decisionFinalizationService;
+    @Autowired
+    protected DecisionRepository decisionRepository;
+    @Autowired
+    protected PuzzleCreditRepository puzzleCreditRepository;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> puzzleIds = new ArrayList<>();
+    private final List<Long> checkerIds = new ArrayList<>();
+    private final List<Long> decisionIds = new ArrayList<>();
+
+    protected User createUser(String login) {
+        User user = new User();
+        user.setLogin(login + "-" + UUID.randomUUID());
+        user.setEmail(user.getLogin() + "@test.com");
+        user.setPassword("password");
+        user.setName("Test User " + login);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return user;
+    }
+
+    protected Puzzle createPuzzle(User author) {
+        Puzzle puzzle = createPuzzle("Concurrent puzzle", author, true);
+        puzzleIds.add(puzzle.getId());
+        checkerIds.add(puzzle.getChecker().getId());
+        return puzzle;
+    }
+
+    protected Decision judged(User user, Puzzle puzzle, float score) {
+        Decision decision = new Decision();
+        decision.setUser(user);
+        decision.setPuzzle(puzzle);
+        decision.setCode("code " + score);
+        decision = decisionRepository.save(decision);
+        decisionIds.add(decision.getId());
+        decision.setScore(score);
+        return decision;
+    }
+
+    @AfterEach
+    void cleanup() {
+        puzzleCreditRepository.deleteAll(puzzleCreditRepository.findAll().stream()
+                .filter(credit -> userIds.contains(credit.getUserId()))
+                .toList());
+        decisionRepository.deleteAllById(decisionIds);
+        puzzleRepository.deleteAllById(puzzleIds);
+        checkerRepository.deleteAllById(checkerIds);
+        userRepository.deleteAllById(userIds);
+    }
+
+    /**
+     * Завершает все решения одновременно, каждое в своём потоке
+     * @return результаты завершений
+     */
+    protected List<DecisionFinalizationService.Result> finishConcurrently(List<Decision> decisions) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<DecisionFinalizationService.Result>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Decision decision : decisions)
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return decisionFinalizationService.finish(decision, false);
+                }));
+            start.countDown();
+
+            List<DecisionFinalizationService.Result> results = new ArrayList<>();
+            for (Future<DecisionFinalizationService.Result> future : futures)
+                results.add(future.get(30, TimeUnit.SECONDS));
+            return results;
+        }
+    }
+
+    @Test
+    void concurrentFinishesOfOneUserAreCreditedOnce() throws Exception {
+        User author = createUser("concurrent-author");
+        User student = createUser("concurrent-student");
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int p = 0; p < PUZZLES; p++)
+            puzzles.add(createPuzzle(author));
+
+        // Лучший балл по задаче p - 10 * DECISIONS_PER_PUZZLE + p
+        List<Decision> decisions = new ArrayList<>();
+        for (int i = 1; i <= DECISIONS_PER_PUZZLE; i++)
+            for (int p = 0; p < PUZZLES; p++)
+                decisions.add(judged(student, puzzles.get(p), 10f * i + p));
+        Collections.shuffle(decisions, new Random(42));
+
+        List<DecisionFinalizationService.Result> results = finishConcurrently(decisions);
+
+        int expected = 0;
+        for (int p = 0; p < PUZZLES; p++)
+            expected += 10 * DECISIONS_PER_PUZZLE + p;
+        int rating = userRepository.findById(student.getId()).orElseThrow().getRating();
+        assertEquals(expected, rating);
+        assertEquals(expected, results.stream().mapToInt(DecisionFinalizationService.Result::added).sum());
+
+        for (Puzzle puzzle : puzzles) {
+            List<PuzzleCredit> credits = puzzleCreditRepository.findAll().stream()
+                    .filter(credit -> credit.getUserId().equals(student.getId()) && credit.getPuzzleId().equals(puzzle.getId()))
+                    .toList();
+            assertEquals(1, credits.size());
+        }
+        for (Decision decision : decisions)
+            assertTrue(decisionRepository.findById(decision.getId()).orElseThrow().isFinished());
+    }
+}
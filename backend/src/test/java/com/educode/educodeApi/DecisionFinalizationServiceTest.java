@@ -0,0 +1,107 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.UserRepository;
+import com.educode.educodeApi.services.DecisionFinalizationService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты завершения проверки решения: результат записывается одним UPDATE, а к рейтингу автора
+ * атомарно добавляется разница с лучшим предыдущим решением задачи.
+ */
+public class DecisionFinalizationServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private DecisionFinalizationService decisionFinalizationService;
+
+    @Autowired
+    private DecisionRepository decisionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Decision judged(User user, Puzzle puzzle, float score) {
+        Decision decision = new Decision();
+        decision.setUser(user);
+        decision.setPuzzle(puzzle);
+        decision.setCode("code");
+        decision = decisionRepository.saveAndFlush(decision);
+        decision.setScore(score);
+        decision.setCorrect(score == 100f);
+        return decision;
+    }
+
+    @Test
+    void finishAddsOnlyImprovementOverBestDecision() {
+        User author = setupUser("finalize-author");
+        User student = setupUser("finalize-student");
+        Puzzle puzzle = createPuzzle("Finalize puzzle", author, true);
+
+        DecisionFinalizationService.Result first = decisionFinalizationService.finish(judged(student, puzzle, 40.4f), false);
+        assertEquals(40, first.added());
+        assertEquals(40, first.rating());
+
+        // Худшее решение рейтинг не меняет
+        DecisionFinalizationService.Result worse = decisionFinalizationService.finish(judged(student, puzzle, 30f), false);
+        assertEquals(0, worse.added());
+        assertNull(worse.rating());
+
+        DecisionFinalizationService.Result better = decisionFinalizationService.finish(judged(student, puzzle, 100f), false);
+        assertEquals(60, better.added());
+        assertEquals(100, better.rating());
+        assertEquals(100, userRepository.lockRating(student.getId()));
+    }
+
+    @Test
+    void secondFinishOfSameDecisionIsIgnored() {
+        User author = setupUser("finalize-author");
+        User student = setupUser("finalize-student");
+        Puzzle puzzle = createPuzzle("Finalize puzzle", author, true);
+        Decision decision = judged(student, puzzle, 60f);
+        assertEquals(60, decisionFinalizationService.finish(decision, false).added());
+
+        // Воркер, у которого решение забрали по таймауту, завершает его ещё раз с другим результатом;
+        // как и в JudgeService, решение не привязано к текущему контексту
+        entityManager.clear();
+        decision.setScore(90f);
+        DecisionFinalizationService.Result again = decisionFinalizationService.finish(decision, false);
+        assertEquals(0, again.added());
+        assertNull(again.rating());
+        assertEquals(60, userRepository.lockRating(student.getId()));
+
+        entityManager.clear();
+        assertEquals(60f, decisionRepository.findById(decision.getId()).orElseThrow().getScore());
+    }
+
+    @Test
+    void finishMarksDecisionFinished() {
+        User author = setupUser("finalize-author");
+        Puzzle puzzle = createPuzzle("Finalize puzzle", author, true);
+        Decision decision = judged(author, puzzle, 100f);
+        decision.setRejudgeJobId(7L);
+
+        // Повторная проверка не меняет рейтинг сама
+        DecisionFinalizationService.Result result = decisionFinalizationService.finish(decision, true);
+        assertEquals(0, result.added());
+        assertEquals(0, userRepository.lockRating(author.getId()));
+        assertTrue(decision.isFinished());
+        assertNull(decision.getRejudgeJobId());
+
+        entityManager.clear();
+        Decision saved = decisionRepository.findById(decision.getId()).orElseThrow();
+        assertTrue(saved.isFinished());
+        assertEquals(100f, saved.getScore());
+        assertNull(saved.getRejudgeJobId());
+    }
+}
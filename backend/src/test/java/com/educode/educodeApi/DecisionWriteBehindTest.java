@@ -0,0 +1,49 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.services.DecisionFinalizationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Те же одновременные завершения, но с judge.finalize.write-behind=true: завершения записываются пакетами
+ * по несколько решений одного автора в одной транзакции.
+ */
+@TestPropertySource(properties = {
+        "judge.finalize.write-behind=true",
+        "judge.finalize.flush-interval-ms=50",
+        "judge.finalize.max-batch=4"
+})
+public class DecisionWriteBehindTest extends DecisionConcurrencyTest {
+
+    @Test
+    void finishReturnsAfterBatchIsWritten() throws Exception {
+        User author = createUser("write-behind-author");
+        User student = createUser("write-behind-student");
+        Puzzle puzzle = createPuzzle(author);
+
+        List<Decision> decisions = new ArrayList<>();
+        for (float score : new float[]{30f, 70f, 50f})
+            decisions.add(judged(student, puzzle, score));
+        List<DecisionFinalizationService.Result> results = finishConcurrently(decisions);
+
+        // Вызов возвращается только после записи пакета, поэтому результат уже виден в базе
+        assertEquals(70, results.stream().mapToInt(DecisionFinalizationService.Result::added).sum());
+        assertEquals(70, userRepository.findById(student.getId()).orElseThrow().getRating());
+        for (Decision decision : decisions)
+            assertEquals(decision.getScore(), decisionRepository.findById(decision.getId()).orElseThrow().getScore());
+
+        // Одиночное завершение тоже проходит через очередь и не ждёт заполнения пакета
+        Decision single = judged(student, puzzle, 90f);
+        DecisionFinalizationService.Result result = decisionFinalizationService.finish(single, false);
+        assertEquals(20, result.added());
+        assertEquals(90, result.rating());
+    }
+}
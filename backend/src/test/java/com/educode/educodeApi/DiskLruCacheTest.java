@@ -0,0 +1,61 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.utils.DiskLruCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для дискового LRU-кеша: чтение записей, вытеснение по размеру и восстановление после перезапуска.
+ * Не требует Spring-контекста.
+ */
+public class DiskLruCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesAndReadsEntries() throws Exception {
+        DiskLruCache cache = new DiskLruCache(directory, 1024);
+        cache.put("a.art", stream -> stream.write(new byte[]{1, 2, 3}));
+
+        try (InputStream stream = cache.open("a.art")) {
+            assertArrayEquals(new byte[]{1, 2, 3}, stream.readAllBytes());
+        }
+        assertNull(cache.open("missing.art"));
+        assertEquals(3, cache.getTotalBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() throws Exception {
+        DiskLruCache cache = new DiskLruCache(directory, 10);
+        cache.put("a", stream -> stream.write(new byte[4]));
+        cache.put("b", stream -> stream.write(new byte[4]));
+        // Чтение делает запись "a" самой свежей, поэтому вытесняется "b"
+        cache.open("a").close();
+        cache.put("c", stream -> stream.write(new byte[4]));
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertFalse(Files.exists(directory.resolve("b")));
+        assertEquals(8, cache.getTotalBytes());
+    }
+
+    @Test
+    void restoresEntriesFromDirectory() throws Exception {
+        DiskLruCache cache = new DiskLruCache(directory, 100);
+        cache.put("a", stream -> stream.write(new byte[5]));
+        Files.write(directory.resolve("broken.tmp"), new byte[7]);
+
+        DiskLruCache reopened = new DiskLruCache(directory, 100);
+        assertTrue(reopened.contains("a"));
+        assertEquals(5, reopened.getTotalBytes());
+        assertFalse(Files.exists(directory.resolve("broken.tmp")));
+    }
+}
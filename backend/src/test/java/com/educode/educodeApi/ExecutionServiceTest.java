@@ -0,0 +1,201 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.CodeExecuteDTO;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.services.CompileQueueService;
+import com.educode.educodeApi.services.ContainerExecutionService;
+import com.educode.educodeApi.services.ExecutionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты асинхронного выполнения кода: выдача идентификатора, доступ только для автора, результат через опрос и SSE,
+ * таймаут ожидания слота, удаление результатов по TTL и ограничение числа незавершённых выполнений пользователя.
+ */
+@TestPropertySource(properties = "code.execution.max-wait-ms=2000")
+public class ExecutionServiceTest extends AbstractIntegrationTest {
+
+    @MockBean
+    private ContainerExecutionService containerExecutionService;
+    @Autowired
+    private ExecutionService executionService;
+    @Autowired
+    private CompileQueueService compileQueueService;
+
+    @Value("${code.max.concurrent.executions}")
+    private int slots;
+    @Value("${judge.admission.max-in-flight-per-user}")
+    private int maxInFlightPerUser;
+
+    // Идентификаторы, которыми тест занял слоты очереди
+    private final List<Long> occupied = new ArrayList<>();
+
+    @BeforeEach
+    void mockContainer() throws Exception {
+        when(containerExecutionService.runCode(anyString(), anyString(), anyString(), anyString(), anyInt(), anyFloat())).thenReturn("out");
+    }
+
+    @AfterEach
+    void releaseSlots() {
+        occupied.forEach(compileQueueService::removeFromQueue);
+        occupied.clear();
+    }
+
+    /**
+     * Занимает все слоты очереди, чтобы новые выполнения ждали
+     */
+    private void occupyAllSlots() {
+        for (int i = 0; i < slots; i++) {
+            long id = 900_000L + i;
+            compileQueueService.addToQueue(id);
+            occupied.add(id);
+        }
+    }
+
+    private String submit() throws Exception {
+        CodeExecuteDTO dto = new CodeExecuteDTO();
+        dto.setCode("print(input())");
+        dto.setLanguage("python:3.11");
+        dto.setInput("1");
+        MvcResult result = mvc.perform(post("/api/code/execute-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.executionId").isString())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("executionId").asText();
+    }
+
+    private void awaitFinished(String id, User user) throws Exception {
+        executionService.get(id, user).getCompletion().get(5, TimeUnit.SECONDS);
+    }
+
+    private JsonNode status(String id) throws Exception {
+        MvcResult result = mvc.perform(get("/api/code/execute/" + id)).andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void issuesIdAndReturnsResultToAuthorOnly() throws Exception {
+        User author = setupUser("exec-author");
+        loginUser(author);
+        String id = submit();
+        assertNotEquals(id, submit());
+
+        awaitFinished(id, author);
+        JsonNode finished = status(id);
+        assertEquals(id, finished.get("executionId").asText());
+        assertEquals("FINISHED", finished.get("status").asText());
+        assertEquals(200, finished.get("httpStatus").asInt());
+        assertEquals("out", finished.get("result").get("output").asText());
+
+        // Чужое выполнение выглядит так же, как несуществующее
+        loginUser(setupUser("exec-other"));
+        mvc.perform(get("/api/code/execute/" + id)).andExpect(status().isNotFound());
+        mvc.perform(get("/api/code/execute/" + id + "/stream")).andExpect(status().isNotFound());
+        mvc.perform(get("/api/code/execute/unknown")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamSendsStatusThenResult() throws Exception {
+        User author = setupUser("exec-stream");
+        loginUser(author);
+        occupyAllSlots();
+        String id = submit();
+
+        MvcResult stream = mvc.perform(get("/api/code/execute/" + id + "/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Выполнение ещё ждёт слот, поэтому сначала приходит только status
+        String initial = stream.getResponse().getContentAsString();
+        assertTrue(initial.contains("event:status"));
+        assertTrue(initial.contains("\"QUEUED\""));
+        assertFalse(initial.contains("event:result"));
+
+        compileQueueService.removeFromQueue(occupied.remove(0));
+        awaitFinished(id, author);
+        stream.getAsyncResult(5000);
+        String content = stream.getResponse().getContentAsString();
+        assertTrue(content.indexOf("event:result") > content.indexOf("event:status"));
+        assertTrue(content.contains("\"output\":\"out\""));
+    }
+
+    @Test
+    void waitingForSlotTimesOut() throws Exception {
+        User author = setupUser("exec-timeout");
+        loginUser(author);
+        occupyAllSlots();
+        String id = submit();
+
+        awaitFinished(id, author);
+        JsonNode finished = status(id);
+        assertEquals("FINISHED", finished.get("status").asText());
+        assertEquals("Вихід за межі часу очікування", finished.get("result").get("error").asText());
+        // Выполнение, не дождавшееся слота, не остаётся в очереди
+        assertEquals(0, compileQueueService.getWaitingCount());
+    }
+
+    @Test
+    void expiredResultsAreRemoved() throws Exception {
+        User author = setupUser("exec-ttl");
+        loginUser(author);
+        String id = submit();
+        awaitFinished(id, author);
+
+        long ttl = (long) ReflectionTestUtils.getField(executionService, "resultTtlSeconds");
+        executionService.removeExpired();
+        status(id);
+
+        ReflectionTestUtils.setField(executionService, "resultTtlSeconds", -1L);
+        try {
+            executionService.removeExpired();
+        } finally {
+            ReflectionTestUtils.setField(executionService, "resultTtlSeconds", ttl);
+        }
+        mvc.perform(get("/api/code/execute/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void limitsUnfinishedExecutionsPerUser() throws Exception {
+        User author = setupUser("exec-limit");
+        loginUser(author);
+        occupyAllSlots();
+        List<String> waiting = new ArrayList<>();
+        for (int i = 0; i < maxInFlightPerUser; i++)
+            waiting.add(submit());
+
+        CodeExecuteDTO dto = new CodeExecuteDTO();
+        dto.setCode("print(1)");
+        dto.setLanguage("python:3.11");
+        dto.setInput("1");
+        mvc.perform(post("/api/code/execute-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isTooManyRequests());
+
+        // Завершённые по таймауту выполнения больше не считаются незавершёнными
+        for (String id : waiting)
+            awaitFinished(id, author);
+        submit();
+    }
+}
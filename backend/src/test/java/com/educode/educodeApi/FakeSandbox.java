@@ -0,0 +1,257 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.exceptions.ContainerBuildingException;
+import com.educode.educodeApi.exceptions.ContainerExecutionException;
+import com.educode.educodeApi.exceptions.ContainerTimeoutException;
+import com.educode.educodeApi.interfaces.ContainerBatchRunner;
+import com.educode.educodeApi.interfaces.ContainerStreamRunner;
+import com.educode.educodeApi.interfaces.InputWriter;
+import com.educode.educodeApi.interfaces.StreamHandler;
+import com.educode.educodeApi.services.ContainerExecutionService;
+import com.educode.educodeApi.services.DockerContainer;
+import com.educode.educodeApi.utils.BatchInputWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Имитация слоя контейнеров в процессе, без Docker: подставляется вместо ContainerExecutionService
+ * (mock, на который install() навешивает поведение) и реализует ContainerStreamRunner и ContainerBatchRunner,
+ * поэтому проверка идёт теми же путями, что и с настоящими контейнерами.
+ * «Программа» решения выводит свой ввод, поэтому ожидаемый вывод тестов равен вводу, а размер вывода задаётся размером ввода.
+ * Задержки и доли ошибок задаются Settings, а для детерминированных сценариев поведение отдельных тестов
+ * задаётся по их вводу (onRun, answerWrongOn, failBatchOn).
+ */
+public class FakeSandbox implements ContainerStreamRunner, ContainerBatchRunner {
+
+    // Код завершения timeout при превышении лимита времени; в кадре пакета превышение отмечается признаком T
+    private static final int TIMEOUT_EXIT_CODE = 124;
+
+    /**
+     * @param compileMillis подготовка контейнера с компиляцией
+     * @param runMillis запуск на одном тесте
+     * @param jitterMillis случайная добавка к каждой задержке, от 0 до jitterMillis
+     * @param compileErrorRate доля решений, которые не компилируются
+     * @param runtimeErrorRate доля запусков, завершающихся ошибкой
+     * @param timeoutRate доля запусков, превышающих лимит времени
+     * @param wrongAnswerRate доля запусков с неверным выводом
+     */
+    public record Settings(long compileMillis, long runMillis, long jitterMillis, double compileErrorRate,
+                           double runtimeErrorRate, double timeoutRate, double wrongAnswerRate) {
+
+        /**
+         * Читает настройки из системных свойств sandbox.*, например -Dsandbox.run-ms=50
+         */
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Long.getLong("sandbox.compile-ms", 200L),
+                    Long.getLong("sandbox.run-ms", 20L),
+                    Long.getLong("sandbox.jitter-ms", 10L),
+                    Double.parseDouble(System.getProperty("sandbox.compile-error-rate", "0.02")),
+                    Double.parseDouble(System.getProperty("sandbox.runtime-error-rate", "0.02")),
+                    Double.parseDouble(System.getProperty("sandbox.timeout-rate", "0.01")),
+                    Double.parseDouble(System.getProperty("sandbox.wrong-answer-rate", "0.1")));
+        }
+    }
+
+    private final Settings settings;
+
+    private final AtomicLong containersCreated = new AtomicLong();
+    private final AtomicLong containersClosed = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+
+    private volatile Consumer<String> beforeRun = input -> {
+    };
+    private volatile Predicate<String> wrongAnswer = input -> false;
+    private volatile Predicate<String> batchFailure = input -> false;
+
+    public FakeSandbox(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Навешивает поведение на mock ContainerExecutionService: подготовку контейнера и запуск решения на тесте
+     */
+    public void install(ContainerExecutionService service) throws Exception {
+        when(service.prepareForRun(anyString(), anyString(), anyString(), anyInt(), any(TaskType.class))).thenAnswer(invocation -> {
+            pause(settings.compileMillis());
+            if (roll(settings.compileErrorRate()))
+                throw new ContainerBuildingException("main.py: SyntaxError: invalid syntax", 1);
+            return newContainer();
+        });
+        when(service.runCode(any(DockerContainer.class), anyString(), anyFloat())).thenAnswer(invocation -> {
+            Run run = run(invocation.getArgument(1, String.class).getBytes(StandardCharsets.UTF_8));
+            if (run.exitCode() == TIMEOUT_EXIT_CODE)
+                throw new ContainerTimeoutException(run.millis());
+            if (run.exitCode() != 0)
+                throw new ContainerExecutionException(new String(run.output(), StandardCharsets.UTF_8), run.exitCode());
+            return new String(run.output(), StandardCharsets.UTF_8);
+        });
+    }
+
+    @Override
+    public void run(DockerContainer container, InputWriter input, float timeLimit, StreamHandler output) {
+        Run run = run(read(input));
+        if (run.exitCode() == TIMEOUT_EXIT_CODE)
+            throw new ContainerTimeoutException(run.millis());
+        if (run.exitCode() != 0)
+            throw new ContainerExecutionException(new String(run.output(), StandardCharsets.UTF_8), run.exitCode());
+        handle(output, run.output());
+    }
+
+    @Override
+    public void runBatch(DockerContainer container, InputWriter input, float timeLimit, StreamHandler output) {
+        byte[] batch = read(input);
+        int headerEnd = indexOf(batch, 0);
+        String[] header = new String(batch, 0, headerEnd, StandardCharsets.US_ASCII).split(" ");
+        if (header.length != 2 || !BatchInputWriter.MAGIC.equals(header[0]))
+            throw new IllegalArgumentException("Unexpected batch header");
+
+        // Формат вывода batch_runner.sh: "номер код_завершения время_мс признак_лимита длина", затем вывод теста
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        int position = headerEnd + 1;
+        for (int i = 0; i < Integer.parseInt(header[1]); i++) {
+            int lengthEnd = indexOf(batch, position);
+            int length = Integer.parseInt(new String(batch, position, lengthEnd - position, StandardCharsets.US_ASCII));
+            position = lengthEnd + 1;
+            byte[] testInput = Arrays.copyOfRange(batch, position, position + length);
+            if (batchFailure.test(new String(testInput, StandardCharsets.UTF_8)))
+                throw new UncheckedIOException(new IOException("Batch output ended unexpectedly"));
+            Run run = run(testInput);
+            position += length;
+
+            String limit = run.exitCode() == TIMEOUT_EXIT_CODE ? "T" : "-";
+            frames.writeBytes((i + " " + run.exitCode() + " " + run.millis() + " " + limit + " " + run.output().length + "\n").getBytes(StandardCharsets.US_ASCII));
+            frames.writeBytes(run.output());
+        }
+        handle(output, frames.toByteArray());
+    }
+
+    /**
+     * Действие перед каждым запуском, получает ввод теста; может, например, ждать другой контейнер
+     */
+    public FakeSandbox onRun(Consumer<String> hook) {
+        this.beforeRun = hook;
+        return this;
+    }
+
+    /**
+     * Запуски с подходящим вводом всегда выводят неверный ответ
+     */
+    public FakeSandbox answerWrongOn(Predicate<String> inputs) {
+        this.wrongAnswer = inputs;
+        return this;
+    }
+
+    /**
+     * Пакет, содержащий тест с подходящим вводом, обрывается целиком, как при сбое batch_runner.sh
+     */
+    public FakeSandbox failBatchOn(Predicate<String> inputs) {
+        this.batchFailure = inputs;
+        return this;
+    }
+
+    public long getContainersCreated() {
+        return containersCreated.get();
+    }
+
+    public long getContainersClosed() {
+        return containersClosed.get();
+    }
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    /**
+     * Результат одного запуска
+     * @param output stdout, а при ошибке stderr
+     */
+    private record Run(int exitCode, long millis, byte[] output) {
+    }
+
+    private Run run(byte[] input) {
+        runs.incrementAndGet();
+        String text = new String(input, StandardCharsets.UTF_8);
+        beforeRun.accept(text);
+        long millis = pause(settings.runMillis());
+        if (wrongAnswer.test(text))
+            return new Run(0, millis, (text + "?").getBytes(StandardCharsets.UTF_8));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double outcome = random.nextDouble();
+        if ((outcome -= settings.timeoutRate()) < 0)
+            return new Run(TIMEOUT_EXIT_CODE, millis, new byte[0]);
+        if ((outcome -= settings.runtimeErrorRate()) < 0)
+            return new Run(1, millis, "Traceback (most recent call last):\nRuntimeError".getBytes(StandardCharsets.UTF_8));
+        if (outcome - settings.wrongAnswerRate() < 0) {
+            byte[] wrong = Arrays.copyOf(input, input.length + 1);
+            wrong[input.length] = '?';
+            return new Run(0, millis, wrong);
+        }
+        return new Run(0, millis, input);
+    }
+
+    private DockerContainer newContainer() throws Exception {
+        containersCreated.incrementAndGet();
+        DockerContainer container = mock(DockerContainer.class);
+        doAnswer(invocation -> containersClosed.incrementAndGet()).when(container).close();
+        return container;
+    }
+
+    /**
+     * Ждёт millis плюс случайную добавку
+     * @return сколько миллисекунд прошло
+     */
+    private long pause(long millis) {
+        long total = millis + (settings.jitterMillis() > 0 ? ThreadLocalRandom.current().nextLong(settings.jitterMillis() + 1) : 0);
+        try {
+            Thread.sleep(total);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sandbox run interrupted", e);
+        }
+        return total;
+    }
+
+    private boolean roll(double rate) {
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static byte[] read(InputWriter input) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            input.write(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stream.toByteArray();
+    }
+
+    private static void handle(StreamHandler handler, byte[] output) {
+        try {
+            handler.handle(new ByteArrayInputStream(output));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n')
+                return i;
+        }
+        throw new IllegalArgumentException("Unexpected end of batch");
+    }
+}
@@ -0,0 +1,154 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.functional.JsonSseJudgeReporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты отправки хода проверки кадрами протокола v2: результаты тестов накапливаются до отложенной отправки,
+ * любое другое событие отправляет их сразу вместе с собой, и порядок событий сохраняется.
+ * SseEmitter заменён записывающим кадры, а отложенные отправки выполняются вручную. Не требует Spring-контекста.
+ */
+public class JsonSseJudgeReporterTest {
+
+    // Интервал больше длительности теста: результаты тестов отправляются только вручную или вместе с другим событием
+    private static final Duration FLUSH_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * Запоминает отправленные кадры; может имитировать отключение клиента
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<List<JudgeProgressEvent>> frames = new CopyOnWriteArrayList<>();
+        private volatile boolean disconnected = false;
+        private volatile boolean completed = false;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (disconnected)
+                throw new IOException("Broken pipe");
+            for (DataWithMediaType data : builder.build())
+                if (data.getData() instanceof JsonSseJudgeReporter.Frame frame) {
+                    assertEquals(JsonSseJudgeReporter.VERSION, frame.v());
+                    frames.add(frame.events());
+                }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    /**
+     * Планировщик, задачи которого выполняются вызовом runScheduled
+     */
+    private static final class ManualScheduler {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private final List<Runnable> cancelled = new ArrayList<>();
+        private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+        private ManualScheduler() {
+            when(executor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+                Runnable task = invocation.getArgument(0);
+                assertTrue(invocation.<Long>getArgument(1) > 0);
+                tasks.add(task);
+                ScheduledFuture<?> future = mock(ScheduledFuture.class);
+                when(future.cancel(anyBoolean())).thenAnswer(cancel -> cancelled.add(task));
+                return future;
+            });
+        }
+
+        int pending() {
+            return (int) tasks.stream().filter(task -> !cancelled.contains(task)).count();
+        }
+
+        void runScheduled() {
+            List<Runnable> due = tasks.stream().filter(task -> !cancelled.contains(task)).toList();
+            tasks.clear();
+            due.forEach(Runnable::run);
+        }
+    }
+
+    private static JudgeProgressEvent passed(int test) {
+        return JudgeProgressEvent.testResult(test, JudgeProgressEvent.Verdict.PASSED, 100.0, null);
+    }
+
+    @Test
+    void testResultsAreCoalescedUntilScheduledFlush() throws IOException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ManualScheduler scheduler = new ManualScheduler();
+        JsonSseJudgeReporter reporter = new JsonSseJudgeReporter(emitter, scheduler.executor, FLUSH_INTERVAL);
+
+        reporter.event(passed(1));
+        reporter.event(passed(2));
+        reporter.event(passed(3));
+        assertTrue(emitter.frames.isEmpty());
+        // На все накопленные результаты - одна отложенная отправка
+        assertEquals(1, scheduler.pending());
+
+        scheduler.runScheduled();
+        assertEquals(List.of(List.of(passed(1), passed(2), passed(3))), emitter.frames);
+
+        reporter.event(passed(4));
+        assertEquals(1, scheduler.pending());
+        scheduler.runScheduled();
+        assertEquals(List.of(passed(4)), emitter.frames.get(1));
+    }
+
+    @Test
+    void otherEventsFlushPendingResultsInOrder() throws IOException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ManualScheduler scheduler = new ManualScheduler();
+        JsonSseJudgeReporter reporter = new JsonSseJudgeReporter(emitter, scheduler.executor, FLUSH_INTERVAL);
+
+        reporter.event(JudgeProgressEvent.compiling());
+        reporter.event(passed(1));
+        reporter.event(passed(2));
+        reporter.event(JudgeProgressEvent.summary(2, 0, 0, 2));
+        // Отложенная отправка отменена: её результаты уже ушли вместе с итогом
+        assertEquals(0, scheduler.pending());
+
+        reporter.event(passed(3));
+        reporter.complete();
+        assertEquals(0, scheduler.pending());
+        assertTrue(emitter.completed);
+
+        assertEquals(List.of(
+                List.of(JudgeProgressEvent.compiling()),
+                List.of(passed(1), passed(2), JudgeProgressEvent.summary(2, 0, 0, 2)),
+                List.of(passed(3))
+        ), emitter.frames);
+    }
+
+    @Test
+    void scheduledFlushFailureIsThrownByNextEvent() throws IOException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        ManualScheduler scheduler = new ManualScheduler();
+        JsonSseJudgeReporter reporter = new JsonSseJudgeReporter(emitter, scheduler.executor, FLUSH_INTERVAL);
+
+        reporter.event(passed(1));
+        emitter.disconnected = true;
+        scheduler.runScheduled();
+
+        // Клиент отключился во время отложенной отправки; проверка узнаёт об этом на следующем событии
+        assertThrows(IOException.class, () -> reporter.event(JudgeProgressEvent.summary(1, 0, 0, 1)));
+        assertTrue(emitter.frames.isEmpty());
+        reporter.complete();
+        assertTrue(emitter.completed);
+    }
+}
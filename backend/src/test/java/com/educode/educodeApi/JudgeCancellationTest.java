@@ -0,0 +1,152 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.interfaces.ContainerLifecycle;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.services.ContainerExecutionService;
+import com.educode.educodeApi.services.DockerContainer;
+import com.educode.educodeApi.services.JudgeService;
+import com.educode.educodeApi.utils.JudgeScope;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты отмены проверки: контейнер из пула закрывается только после того, как запуск теста на нём завершился,
+ * и уничтожается, а не возвращается в пул, потому что в нём мог остаться процесс решения.
+ */
+@TestPropertySource(properties = {
+        "container.pool.enabled=true",
+        "container.pool.languages=python:3.11",
+        "container.pool.min-idle=0",
+        "container.pool.maintain-interval-ms=3600000"
+})
+public class JudgeCancellationTest extends AbstractIntegrationTest {
+
+    @TestConfiguration
+    static class SandboxConfig {
+        @Bean
+        FakeSandbox fakeSandbox() {
+            return new FakeSandbox(new FakeSandbox.Settings(0, 0, 0, 0, 0, 0, 0));
+        }
+    }
+
+    @MockBean
+    private ContainerExecutionService containerExecutionService;
+    @MockBean
+    private ContainerLifecycle containerLifecycle;
+    @Autowired
+    private FakeSandbox fakeSandbox;
+    @Autowired
+    private JudgeService judgeService;
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DockerContainer pooled = mock(DockerContainer.class);
+
+    @BeforeEach
+    void installSandbox() throws Exception {
+        fakeSandbox.onRun(input -> {
+        }).answerWrongOn(input -> false).failBatchOn(input -> false);
+        fakeSandbox.install(containerExecutionService);
+        when(containerLifecycle.createIdle(anyString())).thenReturn(pooled);
+        when(containerLifecycle.isHealthy(any())).thenReturn(true);
+        when(containerLifecycle.reset(any())).thenReturn(true);
+    }
+
+    @Test
+    void cancelledRunnerContainerIsDestroyedAfterRunEnds() throws Exception {
+        User student = setupUser("cancel-student");
+        Puzzle puzzle = createPuzzle("Cancel puzzle", setupUser("cancel-author"), true);
+        puzzle.setPuzzleData(new HashSet<>(List.of(new PuzzleData(null, puzzle, "test", "test", 10f))));
+        puzzle = puzzleRepository.save(puzzle);
+        Decision decision = new Decision();
+        decision.setUser(student);
+        decision.setPuzzle(puzzle);
+        decision.setCode("print(input())");
+        decision.setLanguage("python:3.11");
+        decision = decisionRepository.save(decision);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Запуск не замечает прерывания, как exec в контейнере, и завершается только после отмены проверки
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean runEnded = new AtomicBoolean(false);
+        fakeSandbox.onRun(input -> {
+            started.countDown();
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException ignored) {
+                }
+            }
+            runEnded.set(true);
+        });
+
+        Long decisionId = decision.getId();
+        try (JudgeScope scope = new JudgeScope(Thread.ofVirtual().factory())) {
+            Thread.ofVirtual().start(() -> {
+                try {
+                    assertTrue(started.await(5, TimeUnit.SECONDS));
+                    scope.cancel("timeout");
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                } finally {
+                    release.countDown();
+                }
+            });
+
+            CancellationException e = assertThrows(CancellationException.class, () -> judgeService.judge(decisionId, new JudgeReporter() {
+                @Override
+                public void message(String text) {
+                }
+
+                @Override
+                public void event(JudgeProgressEvent event) {
+                }
+
+                @Override
+                public void complete() {
+                }
+
+                @Override
+                public void completeWithError(Throwable error) {
+                    fail(error);
+                }
+            }, scope));
+            assertEquals("timeout", e.getMessage());
+        }
+
+        // Проверка возвращается только после окончания запуска, а контейнер не попадает обратно в пул
+        assertTrue(runEnded.get());
+        verify(containerLifecycle).destroy(pooled);
+        verify(containerLifecycle, never()).reset(any());
+    }
+}
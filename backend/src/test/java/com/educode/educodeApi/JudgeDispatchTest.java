@@ -0,0 +1,139 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.JudgeEvent;
+import com.educode.educodeApi.DTO.code.JudgeJob;
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.functional.LoopbackJudgeTransport;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.services.JudgeDispatchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты передачи решений воркерам через LoopbackJudgeTransport: события воркера передаются клиенту,
+ * слот освобождается ровно один раз после COMPLETE или ERROR, а решение потерянного воркера
+ * возвращается в очередь, и его поздние события отклоняются.
+ * Воркер здесь изображает сам тест, поэтому judge.worker.enabled не включается.
+ */
+@TestPropertySource(properties = {
+        "judge.dispatch.remote=true",
+        // Любой воркер без событий считается потерянным, но проверка запускается только вручную
+        "judge.dispatch.worker-timeout-seconds=0",
+        "judge.dispatch.check-interval-ms=3600000"
+})
+public class JudgeDispatchTest extends AbstractIntegrationTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(1);
+
+    @Autowired
+    private JudgeDispatchService judgeDispatchService;
+    @Autowired
+    private LoopbackJudgeTransport transport;
+
+    /**
+     * Запоминает всё, что получил клиент
+     */
+    private static final class RecordingReporter implements JudgeReporter {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final List<JudgeProgressEvent> events = new CopyOnWriteArrayList<>();
+        private final AtomicInteger completed = new AtomicInteger();
+        private volatile Throwable error;
+
+        @Override
+        public void message(String text) {
+            messages.add(text);
+        }
+
+        @Override
+        public void event(JudgeProgressEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void complete() {
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public void completeWithError(Throwable e) {
+            error = e;
+        }
+    }
+
+    @Test
+    void workerEventsAreRelayedAndSlotIsReleasedOnComplete() throws Exception {
+        assertTrue(judgeDispatchService.isRemote());
+        RecordingReporter reporter = new RecordingReporter();
+        AtomicInteger released = new AtomicInteger();
+        judgeDispatchService.submit(101L, reporter, released::incrementAndGet);
+
+        JudgeJob job = transport.claim("worker-1", WAIT);
+        assertEquals(new JudgeJob(101L), job);
+
+        JudgeProgressEvent progress = JudgeProgressEvent.compiling();
+        assertTrue(transport.send("worker-1", new JudgeEvent(101L, JudgeEvent.Type.MESSAGE, "Компіляція...")));
+        assertTrue(transport.send("worker-1", new JudgeEvent(101L, JudgeEvent.Type.PROGRESS, null, progress)));
+        assertTrue(transport.send("worker-1", new JudgeEvent(101L, JudgeEvent.Type.HEARTBEAT, null)));
+        assertEquals(List.of("Компіляція..."), reporter.messages);
+        assertEquals(List.of(progress), reporter.events);
+        assertEquals(0, released.get());
+
+        transport.send("worker-1", new JudgeEvent(101L, JudgeEvent.Type.COMPLETE, null));
+        assertEquals(1, reporter.completed.get());
+        assertEquals(1, released.get());
+
+        // После завершения события по решению не принимаются, и слот второй раз не освобождается
+        assertFalse(transport.send("worker-1", new JudgeEvent(101L, JudgeEvent.Type.COMPLETE, null)));
+        assertEquals(1, reporter.completed.get());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    void slotIsReleasedOnError() throws Exception {
+        RecordingReporter reporter = new RecordingReporter();
+        AtomicInteger released = new AtomicInteger();
+        judgeDispatchService.submit(102L, reporter, released::incrementAndGet);
+        assertEquals(new JudgeJob(102L), transport.claim("worker-1", WAIT));
+
+        transport.send("worker-1", new JudgeEvent(102L, JudgeEvent.Type.ERROR, "sandbox failed"));
+        assertNotNull(reporter.error);
+        assertEquals("sandbox failed", reporter.error.getMessage());
+        assertEquals(0, reporter.completed.get());
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    void lostWorkerDecisionIsRequeuedAndItsEventsAreRejected() throws Exception {
+        RecordingReporter reporter = new RecordingReporter();
+        AtomicInteger released = new AtomicInteger();
+        judgeDispatchService.submit(103L, reporter, released::incrementAndGet);
+        assertEquals(new JudgeJob(103L), transport.claim("worker-1", WAIT));
+
+        // Пока решение у воркера, другие воркеры его не получают
+        assertNull(transport.claim("worker-2", Duration.ofMillis(50)));
+
+        judgeDispatchService.requeueLost();
+        assertEquals(new JudgeJob(103L), transport.claim("worker-2", WAIT));
+
+        // Старый воркер узнаёт, что должен прекратить проверку, и его результат клиенту не передаётся
+        assertFalse(transport.send("worker-1", new JudgeEvent(103L, JudgeEvent.Type.MESSAGE, "late")));
+        assertFalse(transport.send("worker-1", new JudgeEvent(103L, JudgeEvent.Type.COMPLETE, null)));
+        assertTrue(reporter.messages.isEmpty());
+        assertEquals(0, reporter.completed.get());
+        assertEquals(0, released.get());
+
+        assertTrue(transport.send("worker-2", new JudgeEvent(103L, JudgeEvent.Type.MESSAGE, "Тест 1 пройдено")));
+        transport.send("worker-2", new JudgeEvent(103L, JudgeEvent.Type.COMPLETE, null));
+        assertEquals(List.of("Тест 1 пройдено"), reporter.messages);
+        assertEquals(1, reporter.completed.get());
+        assertEquals(1, released.get());
+    }
+}
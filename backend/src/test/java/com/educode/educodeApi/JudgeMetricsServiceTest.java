@@ -0,0 +1,96 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.enums.JudgePriority;
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.repositories.JudgeQueueRepository;
+import com.educode.educodeApi.services.CompileQueueService;
+import com.educode.educodeApi.services.JudgeMetricsService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты метрик проверки решений: теги language, version, task_type и результата, источники показаний очереди.
+ * Не требует Spring-контекста.
+ */
+public class JudgeMetricsServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CompileQueueService compileQueueService = mock(CompileQueueService.class);
+    private final JudgeQueueRepository judgeQueueRepository = mock(JudgeQueueRepository.class);
+    private final JudgeMetricsService metrics = new JudgeMetricsService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+        ReflectionTestUtils.setField(metrics, "compileQueueService", compileQueueService);
+        ReflectionTestUtils.setField(metrics, "judgeQueueRepository", judgeQueueRepository);
+        metrics.init();
+    }
+
+    @Test
+    void gaugesReadQueueSources() {
+        when(judgeQueueRepository.countByOwnerNodeIsNull()).thenReturn(7L);
+        when(compileQueueService.getWaitingCount()).thenReturn(3);
+        when(compileQueueService.getRunningCount()).thenReturn(2);
+
+        assertEquals(7.0, registry.get("educode.judge.queue.pending").gauge().value());
+        assertEquals(3.0, registry.get("educode.judge.queue.waiting").gauge().value());
+        assertEquals(2.0, registry.get("educode.judge.queue.running").gauge().value());
+
+        // Показания читаются при каждом опросе, а не запоминаются при регистрации
+        when(compileQueueService.getWaitingCount()).thenReturn(0);
+        assertEquals(0.0, registry.get("educode.judge.queue.waiting").gauge().value());
+    }
+
+    @Test
+    void decisionMetricsAreTaggedByLanguageVersionAndTaskType() {
+        metrics.recordDecision("python:3.11", TaskType.FULL_INTERACTIVE, "accepted", TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.recordCompile("cpp:14.2", TaskType.NON_INTERACTIVE, true, TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.recordVerdict("python:3.11", TaskType.OUTPUT_CHECKING, JudgeProgressEvent.Verdict.PARTIAL);
+
+        Timer decision = registry.get("educode.judge.decision")
+                .tags("language", "python", "version", "3.11", "task_type", "full_interactive", "result", "accepted").timer();
+        assertEquals(1, decision.count());
+        assertEquals(40.0, decision.totalTime(TimeUnit.MILLISECONDS));
+
+        assertEquals(1, registry.get("educode.judge.compile")
+                .tags("language", "cpp", "version", "14.2", "task_type", "non_interactive", "outcome", "compile_error").timer().count());
+        assertEquals(1.0, registry.get("educode.judge.verdicts")
+                .tags("language", "python", "version", "3.11", "task_type", "output_checking", "verdict", "partial").counter().count());
+    }
+
+    @Test
+    void languageWithoutVersionOrMissingIsTaggedUnknown() {
+        metrics.recordTestRun("lang", null, JudgeMetricsService.RUN_SINGLE, 1L);
+        metrics.recordChecker(null, TaskType.NON_INTERACTIVE, 1L);
+        metrics.recordContainerCreate(JudgeMetricsService.POOL_CHECKER, null, 1L);
+
+        assertEquals(1, registry.get("educode.judge.test.run")
+                .tags("language", "lang", "version", "unknown", "task_type", "unknown", "mode", "single").timer().count());
+        assertEquals(1, registry.get("educode.judge.checker")
+                .tags("language", "unknown", "version", "unknown", "task_type", "non_interactive").timer().count());
+        assertEquals(1, registry.get("educode.judge.container.create")
+                .tags("pool", "checker", "language", "unknown", "version", "unknown").timer().count());
+    }
+
+    @Test
+    void queueWaitIsTaggedByPriorityAndNeverNegative() {
+        metrics.recordQueueWait(JudgePriority.URGENT, Duration.ofMillis(-5));
+        metrics.recordQueueWait(JudgePriority.URGENT, Duration.ofMillis(20));
+
+        Timer wait = registry.get("educode.judge.queue.wait").tag("priority", "urgent").timer();
+        assertEquals(2, wait.count());
+        assertEquals(20.0, wait.totalTime(TimeUnit.MILLISECONDS));
+    }
+}
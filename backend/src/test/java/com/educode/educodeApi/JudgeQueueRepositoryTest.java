@@ -0,0 +1,73 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.models.JudgeQueueEntry;
+import com.educode.educodeApi.repositories.JudgeQueueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты семантики захвата записей персистентной очереди проверки на H2.
+ * Два узла не должны получить одну и ту же запись, а просроченная аренда освобождает запись.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class JudgeQueueRepositoryTest {
+
+    @Autowired
+    private JudgeQueueRepository judgeQueueRepository;
+
+    private JudgeQueueEntry entry;
+
+    @BeforeEach
+    void setUp() {
+        judgeQueueRepository.deleteAll();
+        entry = judgeQueueRepository.save(new JudgeQueueEntry(1000L, "node-a"));
+    }
+
+    @Test
+    void onlyOneNodeCanClaimEntry() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(1, judgeQueueRepository.claim(entry.getId(), "node-a", now.plusSeconds(60), now));
+        assertEquals(0, judgeQueueRepository.claim(entry.getId(), "node-b", now.plusSeconds(60), now));
+        assertTrue(judgeQueueRepository.findClaimable(now, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void expiredLeaseCanBeClaimedAgain() {
+        LocalDateTime now = LocalDateTime.now();
+        judgeQueueRepository.claim(entry.getId(), "node-a", now.plusSeconds(1), now);
+
+        LocalDateTime later = now.plusSeconds(5);
+        assertEquals(1, judgeQueueRepository.findClaimable(later, PageRequest.of(0, 10)).size());
+        assertEquals(1, judgeQueueRepository.claim(entry.getId(), "node-b", later.plusSeconds(60), later));
+        assertEquals(2, judgeQueueRepository.findById(entry.getId()).orElseThrow().getAttempts());
+    }
+
+    @Test
+    void renewedLeaseKeepsEntryClaimed() {
+        LocalDateTime now = LocalDateTime.now();
+        judgeQueueRepository.claim(entry.getId(), "node-a", now.plusSeconds(1), now);
+        judgeQueueRepository.renewLeases("node-a", Set.of(1000L), now.plusSeconds(60));
+
+        assertTrue(judgeQueueRepository.findClaimable(now.plusSeconds(5), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void releaseAllReturnsEntriesToQueue() {
+        LocalDateTime now = LocalDateTime.now();
+        judgeQueueRepository.claim(entry.getId(), "node-a", now.plusSeconds(60), now);
+
+        assertEquals(1, judgeQueueRepository.releaseAll("node-a"));
+        assertEquals(1, judgeQueueRepository.findClaimable(now, PageRequest.of(0, 10)).size());
+    }
+}
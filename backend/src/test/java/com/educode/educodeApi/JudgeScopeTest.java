@@ -0,0 +1,119 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.utils.JudgeScope;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для области проверки: результат и исключения дочерних задач, отмена всех задач разом,
+ * ожидание потоков отменённых задач.
+ * Не требует Spring-контекста.
+ */
+public class JudgeScopeTest {
+
+    private JudgeScope newScope() {
+        return new JudgeScope(Thread.ofVirtual().factory());
+    }
+
+    @Test
+    void callReturnsResultAndRethrowsTaskException() throws Exception {
+        try (JudgeScope scope = newScope()) {
+            assertEquals(42, scope.call(() -> 42));
+            assertThrows(IOException.class, () -> scope.call(() -> {
+                throw new IOException("boom");
+            }));
+        }
+    }
+
+    @Test
+    void cancelInterruptsRunningChildrenAndWakesWaiter() throws Exception {
+        try (JudgeScope scope = newScope()) {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            Future<Object> child = scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(60000L);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            scope.cancel("timeout");
+
+            // Ожидающий поток сразу получает причину отмены, а дочерняя задача прерывается
+            CancellationException e = assertThrows(CancellationException.class, () -> scope.await(child));
+            assertEquals("timeout", e.getMessage());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            assertThrows(CancellationException.class, () -> scope.fork(() -> 1));
+        }
+    }
+
+    @Test
+    void cancelWakesWaiterOnLinkedFuture() throws Exception {
+        try (JudgeScope scope = newScope()) {
+            CompletableFuture<Integer> outcome = scope.link(new CompletableFuture<>());
+            scope.fork(() -> {
+                scope.cancel("client disconnected");
+                return null;
+            });
+
+            CancellationException e = assertThrows(CancellationException.class, () -> scope.await(outcome));
+            assertEquals("client disconnected", e.getMessage());
+        }
+    }
+
+    @Test
+    void joinWaitsForCancelledChildThread() throws Exception {
+        AtomicBoolean exited = new AtomicBoolean(false);
+        try (JudgeScope scope = newScope()) {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<Object> child = scope.fork(() -> {
+                started.countDown();
+                // Задача не реагирует на прерывание сразу, как запуск в контейнере
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                while (System.nanoTime() < deadline)
+                    Thread.onSpinWait();
+                exited.set(true);
+                return null;
+            });
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            scope.cancel("timeout");
+            assertTrue(child.isCancelled());
+            assertFalse(exited.get());
+
+            scope.join(child);
+            assertTrue(exited.get());
+        }
+    }
+
+    @Test
+    void closeWaitsForRunningChildren() throws Exception {
+        AtomicBoolean exited = new AtomicBoolean(false);
+        CountDownLatch started = new CountDownLatch(1);
+        try (JudgeScope scope = newScope()) {
+            scope.fork(() -> {
+                started.countDown();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                while (System.nanoTime() < deadline)
+                    Thread.onSpinWait();
+                exited.set(true);
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+        assertTrue(exited.get());
+    }
+}
@@ -0,0 +1,45 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.utils.LatencyEstimator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для скользящей оценки длительности проверки.
+ * Не требует Spring-контекста.
+ */
+public class LatencyEstimatorTest {
+
+    @Test
+    void usesDefaultUntilMeasured() {
+        LatencyEstimator estimator = new LatencyEstimator(3, 5000);
+        assertEquals(5000, estimator.estimate("python:3.11"));
+        assertEquals(5000, estimator.estimateAll());
+    }
+
+    @Test
+    void averagesOnlyLastSamplesPerKey() {
+        LatencyEstimator estimator = new LatencyEstimator(3, 5000);
+        estimator.record("cpp:14.2", 100);
+        estimator.record("cpp:14.2", 200);
+        estimator.record("cpp:14.2", 300);
+        // Первое измерение выходит из окна
+        estimator.record("cpp:14.2", 400);
+        assertEquals(300, estimator.estimate("cpp:14.2"));
+
+        estimator.record("python:3.11", 1000);
+        assertEquals(1000, estimator.estimate("python:3.11"));
+        // Общее окно: 300, 400, 1000
+        assertEquals(566, estimator.estimateAll());
+    }
+
+    @Test
+    void fallsBackToOverallEstimateForUnknownKey() {
+        LatencyEstimator estimator = new LatencyEstimator(10, 5000);
+        estimator.record("cpp:14.2", 100);
+        estimator.record("python:3.11", 300);
+        assertEquals(200, estimator.estimate("java:23"));
+        assertEquals(200, estimator.estimate(null));
+    }
+}
@@ -0,0 +1,168 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.JudgeProgressEvent;
+import com.educode.educodeApi.DTO.code.TestResultDTO;
+import com.educode.educodeApi.enums.JudgingPolicy;
+import com.educode.educodeApi.enums.TestVerdict;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.services.ContainerExecutionService;
+import com.educode.educodeApi.services.JudgeService;
+import com.educode.educodeApi.services.TestResultService;
+import com.educode.educodeApi.utils.JudgeScope;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты параллельной проверки: тесты распределяются между двумя контейнерами FakeSandbox группами по 4
+ * и запускаются пакетами. С политикой FAIL_FAST пропускаются только тесты после первого непройденного,
+ * даже если другой контейнер нашёл ошибку раньше, чем были выполнены тесты перед ней.
+ */
+@TestPropertySource(properties = {
+        "judge.parallel.fan-out=2",
+        "judge.parallel.min-tests=2",
+        "judge.batch.size=4",
+        "judge.batch.min-tests=2"
+})
+public class ParallelJudgingTest extends AbstractIntegrationTest {
+
+    private static final int TESTS = 8;
+
+    @TestConfiguration
+    static class SandboxConfig {
+        @Bean
+        FakeSandbox fakeSandbox() {
+            // Без случайных ошибок; компиляция дополнительного контейнера даёт основному забрать первую группу тестов
+            return new FakeSandbox(new FakeSandbox.Settings(100, 0, 0, 0, 0, 0, 0));
+        }
+    }
+
+    @MockBean
+    private ContainerExecutionService containerExecutionService;
+    @Autowired
+    private FakeSandbox fakeSandbox;
+    @Autowired
+    private JudgeService judgeService;
+    @Autowired
+    private TestResultService testResultService;
+    @Autowired
+    private DecisionRepository decisionRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void installSandbox() throws Exception {
+        fakeSandbox.onRun(input -> {
+        }).answerWrongOn(input -> false).failBatchOn(input -> false);
+        fakeSandbox.install(containerExecutionService);
+    }
+
+    /**
+     * Создаёт задачу из TESTS тестов по 10 баллов; ввод i-го теста - "test i", ожидаемый вывод равен вводу
+     */
+    private Puzzle createFailFastPuzzle(User author) {
+        Puzzle puzzle = createPuzzle("Parallel puzzle", author, true);
+        puzzle.setScore(10f * TESTS);
+        puzzle.setJudgingPolicy(JudgingPolicy.FAIL_FAST);
+        Set<PuzzleData> tests = new LinkedHashSet<>();
+        for (int t = 0; t < TESTS; t++)
+            tests.add(new PuzzleData(null, puzzle, input(t), input(t), 10f));
+        puzzle.setPuzzleData(tests);
+        return puzzleRepository.save(puzzle);
+    }
+
+    private static String input(int test) {
+        return "test " + test;
+    }
+
+    @Test
+    void failFastCountsTestsBeforeFailureFoundByOtherContainer() throws Exception {
+        User student = setupUser("parallel-student");
+        Puzzle puzzle = createFailFastPuzzle(setupUser("parallel-author"));
+        Decision decision = new Decision();
+        decision.setUser(student);
+        decision.setPuzzle(puzzle);
+        decision.setCode("print(input())");
+        decision.setLanguage("python:3.11");
+        decision = decisionRepository.save(decision);
+        entityManager.flush();
+        entityManager.clear();
+
+        long closedBefore = fakeSandbox.getContainersClosed();
+        // Основной контейнер забирает тесты 1-4, но его пакет обрывается, и тесты выполняются по одному.
+        // Первый из них ждёт, пока дополнительный контейнер (тесты 5-8) не провалит тест 5 и не закроется
+        fakeSandbox.failBatchOn(input(0)::equals)
+                .answerWrongOn(input(4)::equals)
+                .onRun(input -> {
+                    if (input.equals(input(0)))
+                        awaitClosedContainer(closedBefore);
+                });
+
+        List<JudgeProgressEvent> events = new CopyOnWriteArrayList<>();
+        try (JudgeScope scope = new JudgeScope(Thread.ofVirtual().factory())) {
+            judgeService.judge(decision.getId(), new JudgeReporter() {
+                @Override
+                public void message(String text) {
+                }
+
+                @Override
+                public void event(JudgeProgressEvent event) {
+                    events.add(event);
+                }
+
+                @Override
+                public void complete() {
+                }
+
+                @Override
+                public void completeWithError(Throwable e) {
+                    fail(e);
+                }
+            }, scope);
+        }
+
+        entityManager.clear();
+        Decision judged = decisionRepository.findById(decision.getId()).orElseThrow();
+        assertTrue(judged.isFinished());
+        assertEquals(40f, judged.getScore());
+
+        List<TestVerdict> verdicts = testResultService.findByDecisionId(decision.getId()).stream().map(TestResultDTO::verdict).toList();
+        assertEquals(List.of(TestVerdict.PASSED, TestVerdict.PASSED, TestVerdict.PASSED, TestVerdict.PASSED,
+                TestVerdict.WRONG_ANSWER, TestVerdict.SKIPPED, TestVerdict.SKIPPED, TestVerdict.SKIPPED), verdicts);
+
+        // Пропущенные тесты клиенту не сообщаются как непройденные
+        List<Integer> failed = events.stream()
+                .filter(event -> event.verdict() == JudgeProgressEvent.Verdict.FAILED)
+                .map(JudgeProgressEvent::test)
+                .toList();
+        assertEquals(List.of(5), failed);
+    }
+
+    private void awaitClosedContainer(long closedBefore) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (fakeSandbox.getContainersClosed() == closedBefore && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.enums.RejudgeStatus;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.RejudgeJob;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.RejudgeJobRepository;
+import com.educode.educodeApi.services.DecisionFinalizationService;
+import com.educode.educodeApi.services.RejudgeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты исправления рейтинга после повторной проверки: рейтинг автора меняется на разницу между лучшим баллом
+ * за задачу и уже зачисленным, поэтому решения, отправленные во время проверки, не зачисляются дважды.
+ */
+public class RejudgeServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private RejudgeService rejudgeService;
+    @Autowired
+    private RejudgeJobRepository rejudgeJobRepository;
+    @Autowired
+    private DecisionFinalizationService decisionFinalizationService;
+    @Autowired
+    private DecisionRepository decisionRepository;
+
+    private Decision submit(User user, Puzzle puzzle, float score) {
+        Decision decision = new Decision();
+        decision.setUser(user);
+        decision.setPuzzle(puzzle);
+        decision.setCode("code " + score);
+        decision = decisionRepository.saveAndFlush(decision);
+        decision.setScore(score);
+        decisionFinalizationService.finish(decision, false);
+        return decision;
+    }
+
+    /**
+     * Завершает повторную проверку решения с новым баллом, как JudgeService
+     */
+    private void rejudge(Decision decision, float score) {
+        Decision queued = decisionRepository.findById(decision.getId()).orElseThrow();
+        assertNotNull(queued.getRejudgeJobId());
+        queued.setScore(score);
+        decisionFinalizationService.finish(queued, true);
+    }
+
+    @Test
+    void decisionSubmittedDuringRejudgeIsCreditedOnce() {
+        User student = setupUser("rejudge-student");
+        Puzzle puzzle = createPuzzle("Rejudge puzzle", setupUser("rejudge-author"), true);
+        Decision old = submit(student, puzzle, 50f);
+        assertEquals(50, userRepository.lockRating(student.getId()));
+
+        RejudgeJob job = rejudgeService.start(puzzle.getId());
+        rejudgeService.advance();
+
+        // Во время проверки автор отправляет лучшее решение и сразу получает +30
+        submit(student, puzzle, 80f);
+        assertEquals(80, userRepository.lockRating(student.getId()));
+
+        // Старое решение после проверки стоит меньше, но лучший балл автора не изменился
+        rejudge(old, 40f);
+        rejudgeService.advance();
+
+        assertEquals(80, userRepository.lockRating(student.getId()));
+        RejudgeJob finished = rejudgeJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(RejudgeStatus.FINISHED, finished.getStatus());
+        assertEquals(0, finished.getRatingChanges());
+    }
+
+    @Test
+    void rejudgeLowersRatingToNewBestScore() {
+        User student = setupUser("rejudge-student");
+        Puzzle puzzle = createPuzzle("Rejudge puzzle", setupUser("rejudge-author"), true);
+        Decision old = submit(student, puzzle, 50f);
+
+        RejudgeJob job = rejudgeService.start(puzzle.getId());
+        rejudgeService.advance();
+        rejudge(old, 40f);
+        rejudgeService.advance();
+
+        assertEquals(40, userRepository.lockRating(student.getId()));
+        assertEquals(1, rejudgeJobRepository.findById(job.getId()).orElseThrow().getRatingChanges());
+
+        // Новое решение добавляет лишь разницу с исправленным лучшим баллом
+        submit(student, puzzle, 45f);
+        assertEquals(45, userRepository.lockRating(student.getId()));
+    }
+
+    @Test
+    void rejudgeKeepsCreditOfDecisionsFinishedBeforeCreditsWereStored() {
+        User student = setupUser("rejudge-student");
+        Puzzle puzzle = createPuzzle("Rejudge puzzle", setupUser("rejudge-author"), true);
+        // Решение завершено до появления учёта зачисленных баллов: рейтинг уже содержит его 50 баллов
+        Decision old = new Decision();
+        old.setUser(student);
+        old.setPuzzle(puzzle);
+        old.setCode("code");
+        old.setScore(50f);
+        old.setFinished(true);
+        old = decisionRepository.saveAndFlush(old);
+        userRepository.addRating(student.getId(), 50);
+
+        rejudgeService.start(puzzle.getId());
+        rejudgeService.advance();
+        rejudge(old, 60f);
+        rejudgeService.advance();
+
+        assertEquals(60, userRepository.lockRating(student.getId()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.utils.StreamingOutputComparator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для потокового сравнения вывода: точный режим, режим токенов и остановка чтения при первом расхождении.
+ * Не требует Spring-контекста.
+ */
+public class StreamingOutputComparatorTest {
+
+    @Test
+    void comparesBytesExactly() {
+        assertTrue(StreamingOutputComparator.matches("1 2\n3\n", "1 2\n3\n", false, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2\n3\n", "1 2\n3", false, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2\n3\n", "1 2\n3\n\n", false, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2\n3\n", "1  2\n3\n", false, 100));
+        assertTrue(StreamingOutputComparator.matches((String) null, "", false, 100));
+        assertTrue(StreamingOutputComparator.matches("тест", "тест", false, 100));
+    }
+
+    @Test
+    void comparesTokensIgnoringWhitespace() {
+        assertTrue(StreamingOutputComparator.matches("1 2\n3\n", "  1\t2 3", true, 100));
+        assertTrue(StreamingOutputComparator.matches("1 2\n3", "1 2\r\n3\r\n\r\n", true, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2\n3\n", "1 23", true, 100));
+        assertFalse(StreamingOutputComparator.matches("12 3", "1 2 3", true, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2", "1 2 3", true, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2 3", "1 2", true, 100));
+        assertFalse(StreamingOutputComparator.matches("1 2", "1 20", true, 100));
+        assertTrue(StreamingOutputComparator.matches("", "\n", true, 100));
+    }
+
+    @Test
+    void limitsExtraWhitespaceInTokenMode() {
+        assertTrue(StreamingOutputComparator.matches("1", "1" + " ".repeat(10), true, 10));
+        assertFalse(StreamingOutputComparator.matches("1", "1" + " ".repeat(11), true, 10));
+    }
+
+    @Test
+    void comparesWithExpectedStream() {
+        // Ожидаемый вывод длиннее буфера сравнения, поэтому читается из потока несколькими окнами
+        String expected = "1 2 3\n".repeat(5_000);
+        assertTrue(StreamingOutputComparator.matches(streamComparator(expected, false), expected));
+        assertFalse(StreamingOutputComparator.matches(streamComparator(expected, false), expected + "4"));
+        assertTrue(StreamingOutputComparator.matches(streamComparator(expected, true), expected.replace('\n', ' ')));
+        assertFalse(StreamingOutputComparator.matches(streamComparator(expected, true), expected.replace("3\n", "3 4\n")));
+    }
+
+    @Test
+    void stopsReadingOnFirstMismatch() throws Exception {
+        StreamingOutputComparator comparator = new StreamingOutputComparator("yes\n", false, 0);
+        comparator.handle(new EndlessStream((byte) 'n'));
+
+        // Бесконечный вывод не читается до конца
+        assertFalse(comparator.matches());
+        assertEquals(1, comparator.getBytesRead());
+    }
+
+    @Test
+    void stopsReadingWhenOutputIsTooLong() throws Exception {
+        StreamingOutputComparator comparator = new StreamingOutputComparator("1\n", true, 16);
+        comparator.handle(new SequenceStream("1\n", new EndlessStream((byte) '\n')));
+
+        assertFalse(comparator.matches());
+        assertEquals(2 + 16 + 1, comparator.getBytesRead());
+    }
+
+    @Test
+    void requiresHandledStream() {
+        assertThrows(IllegalStateException.class, () -> new StreamingOutputComparator("1", false, 0).matches());
+    }
+
+    private static StreamingOutputComparator streamComparator(String expected, boolean tokens) {
+        byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+        return new StreamingOutputComparator(new ByteArrayInputStream(bytes), bytes.length, tokens, 100);
+    }
+
+    /**
+     * Поток, который никогда не заканчивается
+     */
+    private static class EndlessStream extends InputStream {
+        private final byte value;
+
+        EndlessStream(byte value) {
+            this.value = value;
+        }
+
+        @Override
+        public int read() {
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            Arrays.fill(buffer, offset, offset + length, value);
+            return length;
+        }
+    }
+
+    /**
+     * Поток из строки, за которой следует другой поток
+     */
+    private static class SequenceStream extends InputStream {
+        private final InputStream head;
+        private final InputStream tail;
+
+        SequenceStream(String head, InputStream tail) {
+            this.head = new ByteArrayInputStream(head.getBytes(StandardCharsets.UTF_8));
+            this.tail = tail;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = head.read();
+            return b != -1 ? b : tail.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = head.read(buffer, offset, length);
+            return read > 0 ? read : tail.read(buffer, offset, length);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.enums.TaskType;
+import com.educode.educodeApi.models.Checker;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.CheckerRepository;
+import com.educode.educodeApi.repositories.PuzzleRepository;
+import com.educode.educodeApi.repositories.UserRepository;
+import com.educode.educodeApi.services.ContainerExecutionService;
+import com.educode.educodeApi.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Нагрузочный прогон отправки решений: тысячи одновременных SSE-запросов /api/code/test к приложению на H2,
+ * контейнеры заменены FakeSandbox. Отчёт (пропускная способность, перцентили задержки, использование пула
+ * соединений БД и число потоков) печатается и сохраняется в target/load-test-report.json.
+ * Запускается только профилем load-test: mvn -P load-test test -Dload.submissions=5000 -Dsandbox.run-ms=50
+ * Параметры прогона - системные свойства load.*, параметры имитации контейнеров - sandbox.* (FakeSandbox.Settings).
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(SubmissionLoadTest.SandboxConfig.class)
+public class SubmissionLoadTest {
+
+    private static final int SUBMISSIONS = Integer.getInteger("load.submissions", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1000);
+    private static final int USERS = Integer.getInteger("load.users", 500);
+    private static final int PUZZLES = Integer.getInteger("load.puzzles", 4);
+    private static final int TESTS = Integer.getInteger("load.tests", 10);
+    private static final int OUTPUT_BYTES = Integer.getInteger("load.output-bytes", 256);
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("load.timeout-seconds", 600L));
+
+    // Заголовок запроса с ID пользователя, от имени которого отправлено решение
+    private static final String USER_HEADER = "X-Load-User";
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("code.max.concurrent.executions", () -> Integer.getInteger("load.slots", 16));
+        registry.add("judge.admission.enabled", () -> System.getProperty("load.admission", "false"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> Integer.getInteger("load.db-pool", 50));
+    }
+
+    @TestConfiguration
+    static class SandboxConfig {
+        @Bean
+        FakeSandbox fakeSandbox() {
+            return new FakeSandbox(FakeSandbox.Settings.fromSystemProperties());
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private ContainerExecutionService containerExecutionService;
+    @SpyBean
+    private UserService userService;
+    @Autowired
+    private FakeSandbox fakeSandbox;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PuzzleRepository puzzleRepository;
+    @Autowired
+    private CheckerRepository checkerRepository;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final List<Long> puzzleIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeSandbox.install(containerExecutionService);
+
+        for (int u = 0; u < USERS; u++) {
+            User user = new User("Load User " + u, "load-" + u, "load-" + u + "@test.com", "password");
+            user = userRepository.save(user);
+            users.put(user.getId(), user);
+        }
+
+        User author = users.values().iterator().next();
+        Checker checker = new Checker();
+        checker.setUser(author);
+        checker.setName("Load checker");
+        checker.setSizeBytes(200);
+        checker.setFilename("checker.py");
+        checker.setLanguageId("python:3.11");
+        checker = checkerRepository.save(checker);
+
+        // Ожидаемый вывод равен вводу: «программа» FakeSandbox выводит свой ввод
+        for (int p = 0; p < PUZZLES; p++) {
+            Puzzle puzzle = new Puzzle();
+            puzzle.setTitle("Load puzzle " + p);
+            puzzle.setDescription("Description");
+            puzzle.setContent("Content longer than 20 chars");
+            puzzle.setUser(author);
+            puzzle.setTimeLimit(1.0f);
+            puzzle.setScore(100f);
+            puzzle.setVisible(true);
+            puzzle.setEnabled(true);
+            puzzle.setTaskType(TaskType.NON_INTERACTIVE);
+            puzzle.setChecker(checker);
+            Set<PuzzleData> tests = new HashSet<>();
+            for (int t = 0; t < TESTS; t++) {
+                String data = testData(p, t);
+                tests.add(new PuzzleData(null, puzzle, data, data, 100f / TESTS));
+            }
+            puzzle.setPuzzleData(tests);
+            puzzleIds.add(puzzleRepository.save(puzzle).getId());
+        }
+
+        doAnswer(invocation -> {
+            String id = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest().getHeader(USER_HEADER);
+            return id != null ? users.get(Long.parseLong(id)) : null;
+        }).when(userService).getAuthUser();
+    }
+
+    private static String testData(int puzzle, int test) {
+        StringBuilder data = new StringBuilder(OUTPUT_BYTES);
+        String line = puzzle + " " + test + "\n";
+        while (data.length() < OUTPUT_BYTES)
+            data.append(line);
+        return data.substring(0, OUTPUT_BYTES);
+    }
+
+    @Test
+    void submissions() throws Exception {
+        // Пара (пользователь, задача) не может иметь двух незавершённых решений, поэтому пары выдаются из общего пула
+        BlockingQueue<long[]> pairs = new LinkedBlockingQueue<>();
+        for (Long userId : users.keySet()) {
+            for (Long puzzleId : puzzleIds)
+                pairs.add(new long[]{userId, puzzleId});
+        }
+        int concurrency = Math.min(CONCURRENCY, pairs.size());
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        Sampler sampler = new Sampler(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean());
+        ScheduledExecutorService sampling = Executors.newSingleThreadScheduledExecutor();
+        sampling.scheduleAtFixedRate(sampler::sample, 0, 100, TimeUnit.MILLISECONDS);
+
+        long[] latencies = new long[SUBMISSIONS];
+        long[] firstEvents = new long[SUBMISSIONS];
+        Map<String, AtomicInteger> outcomes = new ConcurrentSkipListMap<>();
+        AtomicInteger next = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long started = System.nanoTime();
+        try (ExecutorService submitters = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < SUBMISSIONS; i++) {
+                inFlight.acquire();
+                submitters.submit(() -> {
+                    int n = next.getAndIncrement();
+                    long[] pair = pairs.take();
+                    try {
+                        String outcome = submit(client, n, pair[0], pair[1], latencies, firstEvents);
+                        outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                    } catch (Exception e) {
+                        outcomes.computeIfAbsent("client_error: " + e.getClass().getSimpleName(), key -> new AtomicInteger()).incrementAndGet();
+                    } finally {
+                        pairs.add(pair);
+                        inFlight.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        sampling.shutdownNow();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("submissions", SUBMISSIONS);
+        report.put("concurrency", concurrency);
+        report.put("tests_per_puzzle", TESTS);
+        report.put("output_bytes", OUTPUT_BYTES);
+        report.put("sandbox", FakeSandbox.Settings.fromSystemProperties());
+        report.put("elapsed_seconds", elapsed / 1e9);
+        report.put("throughput_per_second", SUBMISSIONS / (elapsed / 1e9));
+        report.put("outcomes", outcomes);
+        report.put("latency_ms", percentiles(latencies));
+        report.put("first_event_ms", percentiles(firstEvents));
+        report.put("db_connections", sampler.db());
+        report.put("threads", sampler.threads());
+        report.put("containers_created", fakeSandbox.getContainersCreated());
+        report.put("containers_closed", fakeSandbox.getContainersClosed());
+        report.put("sandbox_runs", fakeSandbox.getRuns());
+
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(json);
+        Path file = Path.of(System.getProperty("load.report", "target/load-test-report.json"));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, json);
+
+        assertEquals(SUBMISSIONS, outcomes.values().stream().mapToInt(AtomicInteger::get).sum());
+    }
+
+    /**
+     * Отправляет решение и читает SSE-поток до конца
+     * @return исход: HTTP-статус, если решение не принято, иначе "completed" или "no_summary", если поток закончился без итогов
+     */
+    private String submit(HttpClient client, int n, long userId, long puzzleId, long[] latencies, long[] firstEvents)
+            throws IOException, InterruptedException {
+        // Уникальный код, чтобы не срабатывал повтор сохранённого вердикта
+        String body = objectMapper.writeValueAsString(Map.of(
+                "code", "print(input())  # submission " + n,
+                "language", "python:3.11",
+                "puzzleId", puzzleId));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/code/test?protocol=2"))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .header(USER_HEADER, Long.toString(userId))
+                .timeout(TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        long started = System.nanoTime();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            latencies[n] = System.nanoTime() - started;
+            return "http_" + response.statusCode();
+        }
+
+        boolean summary = false;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (firstEvents[n] == 0 && line.startsWith("data:"))
+                    firstEvents[n] = System.nanoTime() - started;
+                if (line.startsWith("data:") && (line.contains("\"summary\"") || line.contains("\"rating\"")))
+                    summary = true;
+            }
+        }
+        latencies[n] = System.nanoTime() - started;
+        return summary ? "completed" : "no_summary";
+    }
+
+    private static Map<String, Double> percentiles(long[] nanos) {
+        long[] sorted = Arrays.stream(nanos).filter(value -> value > 0).sorted().toArray();
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (sorted.length == 0)
+            return result;
+        for (double p : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            result.put("p" + Math.round(p * 100), sorted[Math.max(0, index)] / 1e6);
+        }
+        result.put("max", sorted[sorted.length - 1] / 1e6);
+        return result;
+    }
+
+    /**
+     * Периодически снимает состояние пула соединений БД и число потоков, запоминая максимумы
+     */
+    private static class Sampler {
+        private final HikariPoolMXBean pool;
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final AtomicLong maxActive = new AtomicLong();
+        private final AtomicLong maxAwaiting = new AtomicLong();
+        private final AtomicLong totalActive = new AtomicLong();
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong maxThreads = new AtomicLong();
+
+        Sampler(HikariPoolMXBean pool) {
+            this.pool = pool;
+            threads.resetPeakThreadCount();
+        }
+
+        void sample() {
+            int active = pool.getActiveConnections();
+            maxActive.accumulateAndGet(active, Math::max);
+            maxAwaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+            totalActive.addAndGet(active);
+            samples.incrementAndGet();
+            maxThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        }
+
+        Map<String, Object> db() {
+            return Map.of(
+                    "pool_size", pool.getTotalConnections(),
+                    "max_active", maxActive.get(),
+                    "avg_active", samples.get() > 0 ? (double) totalActive.get() / samples.get() : 0.0,
+                    "max_threads_awaiting", maxAwaiting.get());
+        }
+
+        // Только платформенные потоки: виртуальные потоки ThreadMXBean не считает
+        Map<String, Object> threads() {
+            return Map.of(
+                    "max_sampled", maxThreads.get(),
+                    "peak", threads.getPeakThreadCount(),
+                    "at_end", threads.getThreadCount());
+        }
+    }
+}
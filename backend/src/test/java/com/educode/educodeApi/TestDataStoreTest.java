@@ -0,0 +1,144 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.utils.DeflateCodec;
+import com.educode.educodeApi.utils.StreamingOutputComparator;
+import com.educode.educodeApi.utils.TestDataStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для хранилища тестовых данных: адресация по содержимому, сжатие, потоковое чтение и удаление файлов без ссылок.
+ * Не требует Spring-контекста.
+ */
+public class TestDataStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deduplicatesByContent() throws Exception {
+        TestDataStore store = new TestDataStore(directory);
+        TestDataStore.Stored first = store.put("1 2\n");
+        TestDataStore.Stored second = store.put("1 2\n");
+
+        assertEquals(first.hash(), second.hash());
+        assertTrue(first.created());
+        assertFalse(second.created());
+        assertEquals(64, first.hash().length());
+        assertEquals(4, store.size(first.hash()));
+        assertNotEquals(first.hash(), store.put("1 3\n").hash());
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void streamsAndMapsContent() throws Exception {
+        TestDataStore store = new TestDataStore(directory);
+        String content = "тест\n".repeat(10_000);
+        String hash = store.put(content).hash();
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        store.writer(hash).write(stream);
+        assertEquals(content, stream.toString(StandardCharsets.UTF_8));
+        assertEquals(content, store.read(hash));
+
+        // Отображённый файл сравнивается без копирования в строку
+        ByteBuffer mapped = store.map(hash);
+        assertTrue(StreamingOutputComparator.matches(mapped, content, false, 0));
+        assertFalse(StreamingOutputComparator.matches(mapped, content + "x", false, 0));
+    }
+
+    @Test
+    void storesEmptyContent() throws Exception {
+        TestDataStore store = new TestDataStore(directory);
+        String hash = store.put("").hash();
+
+        assertEquals(0, store.size(hash));
+        assertEquals(0, store.map(hash).remaining());
+    }
+
+    @Test
+    void deletesOnlyOldUnreferencedFiles() throws Exception {
+        TestDataStore store = new TestDataStore(directory);
+        String kept = store.put("kept").hash();
+        String orphan = store.put("orphan").hash();
+        String fresh = store.put("fresh").hash();
+        age(orphan);
+        age(kept);
+
+        // Свежий файл мог быть записан для ещё не сохранённого теста, поэтому он остаётся
+        assertEquals(1, store.deleteUnreferenced(Set.of(kept), Duration.ofHours(1)));
+        assertTrue(store.contains(kept));
+        assertFalse(store.contains(orphan));
+        assertTrue(store.contains(fresh));
+    }
+
+    @Test
+    void compressesLargeContent() throws Exception {
+        TestDataStore store = new TestDataStore(directory, new DeflateCodec(Deflater.BEST_SPEED), 1024);
+        String content = "1 2 3 4 5\n".repeat(10_000);
+        TestDataStore.Stored stored = store.put(content);
+
+        assertTrue(store.isCompressed(stored.hash()));
+        assertEquals(content.length(), stored.size());
+        assertEquals(content.length(), store.size(stored.hash()));
+        assertTrue(stored.storedSize() * 10 < stored.size());
+        assertEquals(content, store.read(stored.hash()));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        store.writer(stored.hash()).write(stream);
+        assertEquals(content, stream.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, () -> store.map(stored.hash()));
+
+        // Хеш рахується від нестиснутого вмісту, тому сховище без стиснення дає той самий хеш
+        assertEquals(stored.hash(), new TestDataStore(directory.resolve("plain")).put(content).hash());
+    }
+
+    @Test
+    void keepsSmallContentRaw() throws Exception {
+        TestDataStore store = new TestDataStore(directory, new DeflateCodec(Deflater.BEST_SPEED), 1024);
+        String hash = store.put("42\n").hash();
+
+        assertFalse(store.isCompressed(hash));
+        assertEquals(3, store.map(hash).remaining());
+    }
+
+    @Test
+    void deletesUnreferencedCompressedFiles() throws Exception {
+        TestDataStore store = new TestDataStore(directory, new DeflateCodec(Deflater.BEST_SPEED), 0);
+        String orphan = store.put("orphan ".repeat(100)).hash();
+        String kept = store.put("kept ".repeat(100)).hash();
+        age(orphan + ".z");
+        age(kept + ".z");
+
+        assertEquals(1, store.deleteUnreferenced(Set.of(kept), Duration.ofHours(1)));
+        assertTrue(store.contains(kept));
+        assertFalse(store.contains(orphan));
+    }
+
+    @Test
+    void rejectsInvalidHashes() throws Exception {
+        TestDataStore store = new TestDataStore(directory);
+        assertThrows(IllegalArgumentException.class, () -> store.read("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.writer("ABC"));
+    }
+
+    private void age(String name) throws Exception {
+        Path file = directory.resolve(name.substring(0, 2)).resolve(name);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis()));
+    }
+}
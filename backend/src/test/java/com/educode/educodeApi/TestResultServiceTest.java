@@ -0,0 +1,154 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.code.TestResultDTO;
+import com.educode.educodeApi.DTO.puzzle.PuzzleTestStatsDTO;
+import com.educode.educodeApi.enums.TestVerdict;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.PuzzleData;
+import com.educode.educodeApi.models.TestResult;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.repositories.PuzzleDataRepository;
+import com.educode.educodeApi.services.TestResultService;
+import com.educode.educodeApi.services.VerdictCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты хранения результатов тестов решений: пакетная вставка JDBC, замена при повторной проверке,
+ * копирование для воспроизведённого вердикта, удаление вместе с решением и статистика текущих тестов задачи.
+ */
+public class TestResultServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TestResultService testResultService;
+
+    @Autowired
+    private PuzzleDataRepository puzzleDataRepository;
+
+    @Autowired
+    private DecisionRepository decisionRepository;
+
+    @Autowired
+    private VerdictCacheService verdictCacheService;
+
+    private User author;
+    private Puzzle puzzle;
+
+    @BeforeEach
+    void setUpPuzzle() {
+        author = setupUser("results-author");
+        puzzle = createPuzzle("Results puzzle", author, true);
+    }
+
+    /**
+     * Создаёт решение задачи; у результатов тестов есть внешний ключ на решение
+     * @param testSetHash версия тестов, на которой получен результат
+     */
+    private Long decision(String testSetHash) {
+        Decision decision = new Decision();
+        decision.setUser(author);
+        decision.setPuzzle(puzzle);
+        decision.setCode("code");
+        decision.setTestSetHash(testSetHash);
+        return decisionRepository.saveAndFlush(decision).getId();
+    }
+
+    private static TestResult result(Long puzzleDataId, int test, TestVerdict verdict, Long timeMs) {
+        TestResult result = new TestResult(null, puzzleDataId, test, verdict);
+        result.setTimeMs(timeMs);
+        result.setScore(verdict == TestVerdict.PASSED ? 10f : 0f);
+        return result;
+    }
+
+    @Test
+    void replaceStoresResultsInTestOrder() {
+        Long decisionId = decision(null);
+        TestResult passed = result(1L, 1, TestVerdict.PASSED, 120L);
+        passed.setExitCode(0);
+        passed.setOutputBytes(42L);
+        testResultService.replace(decisionId, List.of(passed, result(2L, 2, TestVerdict.SKIPPED, null)));
+
+        List<TestResultDTO> results = testResultService.findByDecisionId(decisionId);
+        assertEquals(2, results.size());
+        assertEquals(new TestResultDTO(1, 1L, TestVerdict.PASSED, 10f, 120L, null, 0, 42L), results.get(0));
+        assertEquals(TestVerdict.SKIPPED, results.get(1).verdict());
+        assertNull(results.get(1).timeMs());
+    }
+
+    @Test
+    void replaceDropsResultsOfPreviousJudging() {
+        Long decisionId = decision(null);
+        testResultService.replace(decisionId, List.of(result(1L, 1, TestVerdict.WRONG_ANSWER, 100L), result(2L, 2, TestVerdict.PASSED, 100L)));
+        testResultService.replace(decisionId, List.of(result(1L, 1, TestVerdict.PASSED, 90L)));
+
+        List<TestResultDTO> results = testResultService.findByDecisionId(decisionId);
+        assertEquals(1, results.size());
+        assertEquals(TestVerdict.PASSED, results.get(0).verdict());
+    }
+
+    @Test
+    void copyDuplicatesResultsForReplayedDecision() {
+        Long source = decision(null);
+        Long replayed = decision(null);
+        testResultService.replace(source, List.of(result(1L, 1, TestVerdict.PASSED, 70L), result(2L, 2, TestVerdict.TIME_LIMIT, 1000L)));
+        testResultService.copy(source, replayed);
+
+        assertEquals(testResultService.findByDecisionId(source), testResultService.findByDecisionId(replayed));
+    }
+
+    @Test
+    void resultsAreDeletedWithDecision() {
+        Long deleted = decision(null);
+        Long kept = decision(null);
+        testResultService.replace(deleted, List.of(result(1L, 1, TestVerdict.PASSED, 70L)));
+        testResultService.replace(kept, List.of(result(1L, 1, TestVerdict.PASSED, 70L)));
+
+        decisionRepository.deleteById(deleted);
+        decisionRepository.flush();
+
+        assertTrue(testResultService.findByDecisionId(deleted).isEmpty());
+        assertEquals(1, testResultService.findByDecisionId(kept).size());
+    }
+
+    @Test
+    void statsCountRunsNearTimeLimit() {
+        PuzzleData fast = puzzleDataRepository.save(new PuzzleData(null, puzzle, "1", "1", 50f));
+        PuzzleData slow = puzzleDataRepository.save(new PuzzleData(null, puzzle, "2", "2", 50f));
+        puzzle.getPuzzleData().add(fast);
+        puzzle.getPuzzleData().add(slow);
+        String current = verdictCacheService.testSetHash(puzzle);
+        Long first = decision(current);
+        Long second = decision(current);
+
+        // Лимит задачи - 1 секунда, порог близости к лимиту - 800 мс
+        testResultService.replace(first, List.of(result(fast.getId(), 1, TestVerdict.PASSED, 100L), result(slow.getId(), 2, TestVerdict.PASSED, 850L)));
+        testResultService.replace(second, List.of(result(fast.getId(), 1, TestVerdict.PASSED, 200L), result(slow.getId(), 2, TestVerdict.TIME_LIMIT, 1000L)));
+        // Результат теста, которого у задачи уже нет, не учитывается
+        testResultService.replace(decision(current), List.of(result(-1L, 1, TestVerdict.PASSED, 900L)));
+        // Как и результат решения, проверенного на прежней версии тестов
+        testResultService.replace(decision("stale"), List.of(result(slow.getId(), 2, TestVerdict.TIME_LIMIT, 2000L)));
+
+        PuzzleTestStatsDTO stats = testResultService.stats(puzzle);
+        assertEquals(1000, stats.timeLimitMs());
+        assertEquals(800, stats.nearLimitMs());
+        assertEquals(2, stats.tests().size());
+
+        PuzzleTestStatsDTO.TestStats slowStats = stats.tests().stream()
+                .filter(test -> test.puzzleDataId().equals(slow.getId())).findFirst().orElseThrow();
+        assertEquals(2L, slowStats.runs());
+        assertEquals(1000L, slowStats.maxTimeMs());
+        assertEquals(2L, slowStats.nearLimit());
+        assertEquals(1L, slowStats.timeLimitExceeded());
+        assertEquals(1L, slowStats.passed());
+
+        assertEquals(List.of(new PuzzleTestStatsDTO.SlowDecision(second, 1000L), new PuzzleTestStatsDTO.SlowDecision(first, 850L)),
+                stats.slowDecisions());
+    }
+}
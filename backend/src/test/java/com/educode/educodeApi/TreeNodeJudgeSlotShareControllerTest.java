@@ -0,0 +1,91 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.DTO.treenode.JudgeSlotShareDTO;
+import com.educode.educodeApi.models.Node;
+import com.educode.educodeApi.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тесты изменения доли слотов проверки узла: долю задаёт владелец родительского узла, значение должно быть в (0, 1].
+ */
+public class TreeNodeJudgeSlotShareControllerTest extends AbstractIntegrationTest {
+
+    private User parentOwner;
+    private User childOwner;
+    private Node parentNode;
+    private Node childNode;
+
+    @BeforeEach
+    public void setupNodes() {
+        parentOwner = setupUser("shareParentOwner");
+        childOwner = setupUser("shareChildOwner");
+
+        parentNode = createNode("Parent Node", null);
+        childNode = createNode("Child Node", parentNode.getTreeNode());
+        setupMember(parentNode.getTreeNode(), parentOwner, "NODE_OWNER");
+        setupMember(childNode.getTreeNode(), childOwner, "NODE_OWNER");
+    }
+
+    private ResultActions putShare(Long treeNodeId, Float share) throws Exception {
+        return mvc.perform(put("/api/tree-node/{treeNodeId}/judge-slot-share", treeNodeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new JudgeSlotShareDTO(share))));
+    }
+
+    private Float storedShare(Node node) {
+        return treeNodeRepository.findById(node.getTreeNode().getId()).orElseThrow().getJudgeSlotShare();
+    }
+
+    @Test
+    public void testUpdateShare_Success_ByParentOwner() throws Exception {
+        loginUser(parentOwner);
+
+        putShare(childNode.getTreeNode().getId(), 0.25f)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message", containsString("успішно змінено")));
+        assertEquals(0.25f, storedShare(childNode));
+
+        // null возвращает значение по умолчанию
+        putShare(childNode.getTreeNode().getId(), null).andExpect(status().isOk());
+        assertNull(storedShare(childNode));
+    }
+
+    @Test
+    public void testUpdateShare_Fail_OwnNodeOnly() throws Exception {
+        // Владелец узла не может сам увеличить долю своего узла
+        loginUser(childOwner);
+
+        putShare(childNode.getTreeNode().getId(), 1f)
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error", containsString("не дозволено")));
+        assertNull(storedShare(childNode));
+    }
+
+    @Test
+    public void testUpdateShare_Fail_OutOfRange() throws Exception {
+        loginUser(parentOwner);
+
+        putShare(childNode.getTreeNode().getId(), 0f).andExpect(status().isBadRequest());
+        putShare(childNode.getTreeNode().getId(), -0.5f).andExpect(status().isBadRequest());
+        putShare(childNode.getTreeNode().getId(), 1.5f).andExpect(status().isBadRequest());
+        assertNull(storedShare(childNode));
+    }
+
+    @Test
+    public void testUpdateShare_RootNodeByItsOwner() throws Exception {
+        loginUser(parentOwner);
+
+        putShare(parentNode.getTreeNode().getId(), 1f).andExpect(status().isOk());
+        assertEquals(1f, storedShare(parentNode));
+    }
+}
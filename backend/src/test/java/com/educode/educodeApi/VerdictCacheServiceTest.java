@@ -0,0 +1,147 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.functional.RecordingJudgeReporter;
+import com.educode.educodeApi.interfaces.JudgeReporter;
+import com.educode.educodeApi.models.Checker;
+import com.educode.educodeApi.models.Decision;
+import com.educode.educodeApi.models.Puzzle;
+import com.educode.educodeApi.models.User;
+import com.educode.educodeApi.repositories.DecisionRepository;
+import com.educode.educodeApi.services.VerdictCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты ключа повторного использования результатов: результат отдаётся решению с тем же кодом, пока не изменились
+ * тесты задачи или содержимое файлов checker'а, даже если имя и размер файлов checker'а остались прежними.
+ */
+public class VerdictCacheServiceTest extends AbstractIntegrationTest {
+
+    private static final Path CHECKERS = createCheckersDir();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("checker.base-path", CHECKERS::toString);
+    }
+
+    @Autowired
+    private VerdictCacheService verdictCacheService;
+    @Autowired
+    private DecisionRepository decisionRepository;
+
+    private static Path createCheckersDir() {
+        try {
+            return Files.createTempDirectory("verdict-cache-checkers");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Создаёт задачу, скомпилированный checker которой - каталог с одним файлом
+     */
+    private Puzzle createPuzzleWithChecker(User author, String checkerContent) throws IOException {
+        Puzzle puzzle = createPuzzle("Cached puzzle", author, true);
+        Checker checker = puzzle.getChecker();
+        checker.setFilename("checker-" + checker.getId());
+        checkerRepository.save(checker);
+        Files.createDirectories(CHECKERS.resolve(checker.getFilename()));
+        writeChecker(checker, checkerContent);
+        return puzzle;
+    }
+
+    private void writeChecker(Checker checker, String content) throws IOException {
+        Path file = CHECKERS.resolve(checker.getFilename()).resolve("checker.bin");
+        FileTime previous = Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+        Files.writeString(file, content);
+        // Перекомпиляция всегда меняет время файла; здесь оно сдвигается явно, чтобы не зависеть от его точности
+        if (previous != null)
+            Files.setLastModifiedTime(file, FileTime.fromMillis(previous.toMillis() + 1000));
+    }
+
+    private Decision submit(User user, Puzzle puzzle) {
+        Decision decision = new Decision();
+        decision.setUser(user);
+        decision.setPuzzle(puzzle);
+        decision.setLanguage("python:3.11");
+        decision.setCode("print(input())");
+        return decisionRepository.save(decision);
+    }
+
+    /**
+     * Сохраняет проверенное решение вместе с ключом, как JudgeService
+     */
+    private Decision judged(User user, Puzzle puzzle) throws IOException {
+        Decision decision = submit(user, puzzle);
+        RecordingJudgeReporter recorder = new RecordingJudgeReporter(JudgeReporter.NONE);
+        recorder.message("Тест 1 пройдено");
+        verdictCacheService.remember(decision, puzzle, recorder);
+        decision.setScore(100f);
+        decision.setCorrect(true);
+        decision.setFinished(true);
+        return decisionRepository.save(decision);
+    }
+
+    @Test
+    void sameCodeReplaysVerdictWhileCheckerIsUnchanged() throws IOException {
+        User author = setupUser("cache-author");
+        Puzzle puzzle = createPuzzleWithChecker(author, "checker v1");
+        Decision source = judged(setupUser("cache-student"), puzzle);
+        assertNotNull(source.getCheckerHash());
+
+        Decision replayed = verdictCacheService.findReplayable(submit(setupUser("cache-other"), puzzle), puzzle);
+        assertNotNull(replayed);
+        assertEquals(source.getId(), replayed.getId());
+    }
+
+    @Test
+    void recompiledCheckerInvalidatesVerdict() throws IOException {
+        User author = setupUser("cache-author");
+        Puzzle puzzle = createPuzzleWithChecker(author, "checker v1");
+        Decision source = judged(setupUser("cache-student"), puzzle);
+        String before = verdictCacheService.checkerHash(puzzle.getChecker());
+
+        // Имя и размер файла те же, изменилось только содержимое
+        writeChecker(puzzle.getChecker(), "checker v2");
+        String after = verdictCacheService.checkerHash(puzzle.getChecker());
+        assertNotEquals(before, after);
+        assertNull(verdictCacheService.findReplayable(submit(setupUser("cache-other"), puzzle), puzzle));
+
+        // Возврат прежнего содержимого снова даёт прежний ключ
+        writeChecker(puzzle.getChecker(), "checker v1");
+        assertEquals(before, verdictCacheService.checkerHash(puzzle.getChecker()));
+        assertEquals(source.getId(), verdictCacheService.findReplayable(submit(setupUser("cache-other"), puzzle), puzzle).getId());
+    }
+
+    @Test
+    void changedTestsInvalidateVerdict() throws IOException {
+        User author = setupUser("cache-author");
+        Puzzle puzzle = createPuzzleWithChecker(author, "checker v1");
+        judged(setupUser("cache-student"), puzzle);
+
+        puzzle.setTimeLimit(2.0f);
+        puzzle = puzzleRepository.save(puzzle);
+        assertNull(verdictCacheService.findReplayable(submit(setupUser("cache-other"), puzzle), puzzle));
+    }
+
+    @Test
+    void checkerWithoutFilesIsNotReplayed() throws IOException {
+        User author = setupUser("cache-author");
+        Puzzle puzzle = createPuzzle("Cached puzzle", author, true);
+        assertNull(verdictCacheService.checkerHash(puzzle.getChecker()));
+
+        Decision decision = judged(setupUser("cache-student"), puzzle);
+        assertNull(decision.getVerdictLog());
+        assertNull(verdictCacheService.findReplayable(submit(setupUser("cache-other"), puzzle), puzzle));
+    }
+}
@@ -0,0 +1,101 @@
+package com.educode.educodeApi;
+
+import com.educode.educodeApi.utils.WarmPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для пула ресурсов: прогрев до minIdle, повторное использование, уничтожение непригодных ресурсов.
+ * Не требует Spring-контекста и Docker.
+ */
+public class WarmPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger destroyed = new AtomicInteger();
+    private WarmPool<Resource> pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new WarmPool<>(new WarmPool.Lifecycle<>() {
+            @Override
+            public Resource create(String key) {
+                created.incrementAndGet();
+                return new Resource(key);
+            }
+
+            @Override
+            public boolean isHealthy(Resource resource) {
+                return resource.healthy;
+            }
+
+            @Override
+            public boolean recycle(Resource resource) {
+                resource.uses++;
+                return true;
+            }
+
+            @Override
+            public void destroy(Resource resource) {
+                destroyed.incrementAndGet();
+            }
+        }, List.of("python:3.11"), 2, 3, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void maintainWarmsUpToMinIdle() {
+        pool.maintain();
+        assertEquals(2, pool.idleCount("python:3.11"));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void releasedResourceIsReused() throws Exception {
+        pool.maintain();
+
+        Resource first;
+        try (WarmPool.Lease<Resource> lease = pool.acquire("python:3.11")) {
+            assertTrue(lease.isWarm());
+            first = lease.get();
+        }
+        assertEquals(1, first.uses);
+        assertEquals(2, pool.idleCount("python:3.11"));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void unhealthyOrDiscardedResourcesAreDestroyed() throws Exception {
+        try (WarmPool.Lease<Resource> lease = pool.acquire("python:3.11")) {
+            assertFalse(lease.isWarm());
+            lease.get().healthy = false;
+        }
+        try (WarmPool.Lease<Resource> lease = pool.acquire("python:3.11")) {
+            lease.discard();
+        }
+        try (WarmPool.Lease<Resource> ignored = pool.acquire("unknown:1")) {
+            // Ключ без пула: ресурс создается под запрос и уничтожается после него
+        }
+
+        assertEquals(3, destroyed.get());
+        assertEquals(0, pool.idleCount("python:3.11"));
+    }
+
+    private static final class Resource implements AutoCloseable {
+        private final String key;
+        private boolean healthy = true;
+        private int uses = 0;
+
+        private Resource(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
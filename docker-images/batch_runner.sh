@@ -0,0 +1,97 @@
+#!/bin/sh
+
+# Пакетний запуск програми на кількох тестах за один виклик контейнера.
+# Використання: sh batch_runner.sh <ліміт часу на тест у секундах> [ліміт виводу на тест у байтах]
+#
+# Формат вводу (stdin):
+#   EDUBATCH <кількість тестів>\n
+#   для кожного тесту: <довжина вводу в байтах>\n<ввід>
+#
+# Формат виводу (stdout), для кожного тесту по порядку:
+#   <номер тесту> <код завершення> <час у мс> <ознака> <довжина в байтах>\n<вивід>
+# Ознака: T - тест перевищив ліміт часу, O - перевищив ліміт виводу, "-" - інакше.
+# Ліміт часу визначається за часом виконання, а не за кодом завершення: програма може сама завершитися з кодом 124,
+# а програму, що ігнорує SIGTERM, timeout вбиває через SIGKILL з кодом 137.
+# Вивід - stdout програми, якщо код завершення 0 і ознаки немає, інакше stderr.
+# Файли, які пише програма, обмежуються ulimit -f, тому вивід без кінця не заповнить диск контейнера.
+
+TIME_LIMIT=$1
+MAX_OUTPUT=${2:-67108864}
+
+BATCH_FILE="batch.in"
+INPUT_FILE="batch_test.in"
+OUTPUT_FILE="batch_test.out"
+ERROR_FILE="batch_test.err"
+
+# Поточний час у мілісекундах; якщо date не підтримує %N, точність - секунда
+now_ms() {
+    NOW=$(date +%s%N)
+    case "$NOW" in
+        *N) echo $(( $(date +%s) * 1000 )) ;;
+        *) echo $(( NOW / 1000000 )) ;;
+    esac
+}
+
+# Переводить ліміт часу в секундах, можливо дробовий, у мілісекунди
+to_ms() {
+    case "$1" in
+        *.*) SECONDS_PART=${1%%.*}; FRACTION=$(printf '%s000' "${1#*.}" | cut -c1-3) ;;
+        *) SECONDS_PART=$1; FRACTION=000 ;;
+    esac
+    # Без початкових нулів, інакше арифметика sh читає дріб як вісімкове число
+    FRACTION=$(printf '%s' "$FRACTION" | sed 's/^0*//')
+    echo $(( ${SECONDS_PART:-0} * 1000 + ${FRACTION:-0} ))
+}
+
+# Зчитує рядок заголовка, що починається з байта $1 (нумерація з 1)
+read_header() {
+    tail -c +"$1" "$BATCH_FILE" | head -n 1
+}
+
+cat > "$BATCH_FILE"
+
+HEADER=$(read_header 1)
+set -- $HEADER
+if [ "$1" != "EDUBATCH" ]; then
+    echo "Невірний формат пакета" >&2
+    exit 2
+fi
+COUNT=$2
+OFFSET=$(( ${#HEADER} + 2 ))
+LIMIT_MS=$(to_ms "$TIME_LIMIT")
+# ulimit -f рахує блоками по 512 байт
+OUTPUT_BLOCKS=$(( (MAX_OUTPUT + 511) / 512 ))
+OUTPUT_CAP=$(( OUTPUT_BLOCKS * 512 ))
+
+INDEX=0
+while [ "$INDEX" -lt "$COUNT" ]; do
+    LENGTH=$(read_header "$OFFSET")
+    OFFSET=$(( OFFSET + ${#LENGTH} + 1 ))
+    tail -c +"$OFFSET" "$BATCH_FILE" | head -c "$LENGTH" > "$INPUT_FILE"
+    OFFSET=$(( OFFSET + LENGTH ))
+
+    START=$(now_ms)
+    (ulimit -f "$OUTPUT_BLOCKS"; exec timeout -k 1 "$TIME_LIMIT" sh entrypoint.sh run < "$INPUT_FILE" > "$OUTPUT_FILE" 2> "$ERROR_FILE")
+    EXIT_CODE=$?
+    END=$(now_ms)
+    ELAPSED=$(( END - START ))
+
+    FLAG="-"
+    if [ "$EXIT_CODE" -ne 0 ] && [ "$ELAPSED" -ge "$LIMIT_MS" ]; then
+        FLAG="T"
+    elif [ "$(wc -c < "$OUTPUT_FILE" | tr -d ' ')" -ge "$OUTPUT_CAP" ] || [ "$(wc -c < "$ERROR_FILE" | tr -d ' ')" -ge "$OUTPUT_CAP" ]; then
+        FLAG="O"
+    fi
+
+    if [ "$EXIT_CODE" -eq 0 ] && [ "$FLAG" = "-" ]; then
+        RESULT_FILE="$OUTPUT_FILE"
+    else
+        RESULT_FILE="$ERROR_FILE"
+    fi
+    echo "$INDEX $EXIT_CODE $ELAPSED $FLAG $(wc -c < "$RESULT_FILE" | tr -d ' ')"
+    cat "$RESULT_FILE"
+
+    INDEX=$(( INDEX + 1 ))
+done
+
+rm -f "$BATCH_FILE" "$INPUT_FILE" "$OUTPUT_FILE" "$ERROR_FILE"
@@ -0,0 +1,49 @@
+// Версія протоколу подій перевірки, яку розуміє клієнт (/code/test?protocol=2)
+export const JUDGE_PROTOCOL_VERSION = 2;
+
+function formatNumber(value, digits) {
+    return Number(value.toFixed(digits)).toString();
+}
+
+// Перетворює типізовану подію перевірки на рядки для виводу тестування
+export function formatJudgeEvent(event) {
+    switch (event.type) {
+        case 'compiling':
+            return ['Компіляція та підготовка...'];
+        case 'test_result': {
+            const lines = [];
+            if (event.verdict === 'passed') {
+                lines.push(`Test #${event.test} пройдено`);
+            } else if (event.verdict === 'error') {
+                lines.push(`Test #${event.test} не пройдено` + (event.message ? `. ${event.message}` : ', через несподівану помилку'));
+                return lines;
+            } else {
+                lines.push(`Test #${event.test} не пройдено` + (event.percent != null ? ` (${formatNumber(event.percent, 2)}%)` : ''));
+            }
+            if (event.message) {
+                lines.push(`Повідомлення від викладача: ${event.message}`);
+            }
+            return lines;
+        }
+        case 'summary': {
+            const lines = [];
+            if (event.passed > 0 || event.partial === 0) lines.push(`Тести пройдено: ${event.passed}/${event.total}`);
+            if (event.partial > 0) lines.push(`Тести пройдено частково: ${event.partial}/${event.total}`);
+            if (event.skipped > 0) lines.push(`Тести пропущено після першого непройденого: ${event.skipped}/${event.total}`);
+            return lines;
+        }
+        case 'rating': {
+            const lines = [`Загальна оцінка: ${formatNumber(event.score, 1)}/${formatNumber(event.maxScore, 1)}`];
+            if (event.added > 0) {
+                lines.push(`До рейтингу додано: ${event.added}`);
+                lines.push(`Новий рейтинг: ${event.rating}`);
+            }
+            return lines;
+        }
+        case 'message':
+            return [event.message];
+        default:
+            // Події нових типів старий клієнт пропускає
+            return [];
+    }
+}